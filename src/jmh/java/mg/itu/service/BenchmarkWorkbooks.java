@@ -0,0 +1,250 @@
+package mg.itu.service;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// classeurs synthétiques générés au @Setup des suites JMH
+final class BenchmarkWorkbooks {
+
+    // TEXT : uniquement du texte ; MIXED : entier, texte, date, décimal ; NUMERIC : uniquement des nombres
+    static final String TEXT = "TEXT";
+    static final String MIXED = "MIXED";
+    static final String NUMERIC = "NUMERIC";
+
+    private static final String[] WORDS = {"Antananarivo", "Toamasina", "O'Brien", "Fianarantsoa", "Mahajanga", "Toliara"};
+    private static final LocalDate FIRST_DATE = LocalDate.of(2000, 1, 1);
+
+    private BenchmarkWorkbooks() {
+    }
+
+    static File createTempDirectory() throws IOException {
+        return Files.createTempDirectory("jmh-workbooks").toFile();
+    }
+
+    static void deleteDirectory(File directory) throws IOException {
+        if (directory == null || !directory.exists()) {
+            return;
+        }
+        Files.walk(directory.toPath())
+            .sorted(Comparator.reverseOrder())
+            .map(java.nio.file.Path::toFile)
+            .forEach(File::delete);
+    }
+
+    static String columnKind(int column, String mix) {
+        if (TEXT.equals(mix)) {
+            return "TEXT";
+        }
+        if (NUMERIC.equals(mix)) {
+            return column % 2 == 0 ? "INTEGER" : "DECIMAL";
+        }
+        switch (column % 4) {
+            case 0:
+                return "INTEGER";
+            case 2:
+                return "DATE";
+            case 3:
+                return "DECIMAL";
+            default:
+                return "TEXT";
+        }
+    }
+
+    static String sqlType(int column, String mix) {
+        switch (columnKind(column, mix)) {
+            case "INTEGER":
+            case "DECIMAL":
+                return "NUMBER";
+            case "DATE":
+                return "DATE";
+            default:
+                return "VARCHAR2(100)";
+        }
+    }
+
+    static String value(int row, int column, String mix) {
+        switch (columnKind(column, mix)) {
+            case "INTEGER":
+                return String.valueOf(row * 31L + column);
+            case "DECIMAL":
+                return (row % 1000) + "." + (10 + column % 90);
+            case "DATE":
+                return FIRST_DATE.plusDays((row + column) % 9000).toString();
+            default:
+                return WORDS[(row + column) % WORDS.length] + " " + row;
+        }
+    }
+
+    static String mappingConfig(int columns, String mix, String dialect) {
+        StringBuilder typeMap = new StringBuilder();
+        StringBuilder columnMapping = new StringBuilder();
+        for (int column = 0; column < columns; column++) {
+            if (column > 0) {
+                typeMap.append(',');
+                columnMapping.append(',');
+            }
+            typeMap.append("\"COL").append(column + 1).append("\":\"").append(sqlType(column, mix)).append('"');
+            columnMapping.append('"').append(column + 1).append("\":\"COL").append(column + 1).append('"');
+        }
+        return "{\"nomTable\":\"BENCH\",\"dialect\":\"" + dialect + "\"," +
+            "\"typeMap\":{" + typeMap + "}," +
+            "\"map\":[{\"debutdata\":2,\"columnMapping\":{" + columnMapping + "}}]}";
+    }
+
+    static File writeCsv(File directory, int rows, int columns, String mix) throws IOException {
+        File file = new File(directory, "bench_" + rows + "_" + columns + "_" + mix + ".csv");
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), 64 * 1024)) {
+            writeHeader(writer, columns);
+            for (int row = 0; row < rows; row++) {
+                for (int column = 0; column < columns; column++) {
+                    if (column > 0) {
+                        writer.write(',');
+                    }
+                    String value = value(row, column, mix);
+                    writer.write(value.indexOf(',') >= 0 ? "\"" + value + "\"" : value);
+                }
+                writer.write('\n');
+            }
+        }
+        return file;
+    }
+
+    static File writeXlsx(File directory, int rows, int columns, String mix) throws IOException {
+        File file = new File(directory, "bench_" + rows + "_" + columns + "_" + mix + ".xlsx");
+        SXSSFWorkbook workbook = new SXSSFWorkbook(200);
+        try (OutputStream out = new FileOutputStream(file)) {
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
+            Sheet sheet = workbook.createSheet("Bench");
+
+            Row header = sheet.createRow(0);
+            for (int column = 0; column < columns; column++) {
+                header.createCell(column).setCellValue("COL" + (column + 1));
+            }
+            for (int row = 0; row < rows; row++) {
+                Row sheetRow = sheet.createRow(row + 1);
+                for (int column = 0; column < columns; column++) {
+                    Cell cell = sheetRow.createCell(column);
+                    String value = value(row, column, mix);
+                    switch (columnKind(column, mix)) {
+                        case "INTEGER":
+                        case "DECIMAL":
+                            cell.setCellValue(Double.parseDouble(value));
+                            break;
+                        case "DATE":
+                            cell.setCellValue(LocalDate.parse(value));
+                            cell.setCellStyle(dateStyle);
+                            break;
+                        default:
+                            cell.setCellValue(value);
+                            break;
+                    }
+                }
+            }
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+        return file;
+    }
+
+    // ODS minimal (mimetype, manifeste, styles.xml, content.xml) écrit directement : odfdom est trop lent pour générer les jeux de données
+    static File writeOds(File directory, int rows, int columns, String mix) throws IOException {
+        File file = new File(directory, "bench_" + rows + "_" + columns + "_" + mix + ".ods");
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(file))) {
+            byte[] mimetype = "application/vnd.oasis.opendocument.spreadsheet".getBytes(StandardCharsets.US_ASCII);
+            ZipEntry mimetypeEntry = new ZipEntry("mimetype");
+            mimetypeEntry.setMethod(ZipEntry.STORED);
+            mimetypeEntry.setSize(mimetype.length);
+            CRC32 crc = new CRC32();
+            crc.update(mimetype);
+            mimetypeEntry.setCrc(crc.getValue());
+            zip.putNextEntry(mimetypeEntry);
+            zip.write(mimetype);
+            zip.closeEntry();
+
+            zip.putNextEntry(new ZipEntry("META-INF/manifest.xml"));
+            zip.write(("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<manifest:manifest xmlns:manifest=\"urn:oasis:names:tc:opendocument:xmlns:manifest:1.0\" manifest:version=\"1.2\">\n" +
+                " <manifest:file-entry manifest:full-path=\"/\" manifest:media-type=\"application/vnd.oasis.opendocument.spreadsheet\"/>\n" +
+                " <manifest:file-entry manifest:full-path=\"content.xml\" manifest:media-type=\"text/xml\"/>\n" +
+                " <manifest:file-entry manifest:full-path=\"styles.xml\" manifest:media-type=\"text/xml\"/>\n" +
+                "</manifest:manifest>\n").getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+
+            zip.putNextEntry(new ZipEntry("styles.xml"));
+            zip.write(("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<office:document-styles xmlns:office=\"urn:oasis:names:tc:opendocument:xmlns:office:1.0\"" +
+                " xmlns:style=\"urn:oasis:names:tc:opendocument:xmlns:style:1.0\" office:version=\"1.2\">" +
+                "<office:styles/><office:automatic-styles/><office:master-styles>" +
+                "<style:master-page style:name=\"Default\"/></office:master-styles></office:document-styles>\n").getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+
+            zip.putNextEntry(new ZipEntry("content.xml"));
+            Writer writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), 64 * 1024);
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<office:document-content xmlns:office=\"urn:oasis:names:tc:opendocument:xmlns:office:1.0\"" +
+                " xmlns:table=\"urn:oasis:names:tc:opendocument:xmlns:table:1.0\"" +
+                " xmlns:text=\"urn:oasis:names:tc:opendocument:xmlns:text:1.0\" office:version=\"1.2\">" +
+                "<office:body><office:spreadsheet><table:table table:name=\"Bench\">" +
+                "<table:table-column table:number-columns-repeated=\"" + columns + "\"/>");
+            writer.write("<table:table-row>");
+            for (int column = 0; column < columns; column++) {
+                writer.write("<table:table-cell office:value-type=\"string\"><text:p>COL" + (column + 1) + "</text:p></table:table-cell>");
+            }
+            writer.write("</table:table-row>");
+            for (int row = 0; row < rows; row++) {
+                writer.write("<table:table-row>");
+                for (int column = 0; column < columns; column++) {
+                    String value = value(row, column, mix).replace("'", "&apos;");
+                    switch (columnKind(column, mix)) {
+                        case "INTEGER":
+                        case "DECIMAL":
+                            writer.write("<table:table-cell office:value-type=\"float\" office:value=\"" + value + "\"><text:p>" + value + "</text:p></table:table-cell>");
+                            break;
+                        case "DATE":
+                            writer.write("<table:table-cell office:value-type=\"date\" office:date-value=\"" + value + "\"><text:p>" + value + "</text:p></table:table-cell>");
+                            break;
+                        default:
+                            writer.write("<table:table-cell office:value-type=\"string\"><text:p>" + value + "</text:p></table:table-cell>");
+                            break;
+                    }
+                }
+                writer.write("</table:table-row>");
+            }
+            writer.write("</table:table></office:spreadsheet></office:body></office:document-content>");
+            writer.flush();
+            zip.closeEntry();
+        }
+        return file;
+    }
+
+    private static void writeHeader(Writer writer, int columns) throws IOException {
+        for (int column = 0; column < columns; column++) {
+            if (column > 0) {
+                writer.write(',');
+            }
+            writer.write("COL" + (column + 1));
+        }
+        writer.write('\n');
+    }
+}
@@ -0,0 +1,83 @@
+package mg.itu.service;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CellValueBenchmark {
+
+    @Param({"STRING", "INTEGER", "DECIMAL", "DATE", "BOOLEAN", "FORMULA"})
+    private String cellType;
+
+    private final ExcelProcessorService service = new ExcelProcessorService();
+    private XSSFWorkbook workbook;
+    private FormulaEvaluator evaluator;
+    private Cell cell;
+
+    @Setup(Level.Trial)
+    public void createCell() {
+        workbook = new XSSFWorkbook();
+        evaluator = workbook.getCreationHelper().createFormulaEvaluator();
+        Row row = workbook.createSheet().createRow(0);
+        row.createCell(1).setCellValue(21);
+        cell = row.createCell(0);
+        switch (cellType) {
+            case "STRING":
+                cell.setCellValue("  Antananarivo  ");
+                break;
+            case "INTEGER":
+                cell.setCellValue(123456);
+                break;
+            case "DECIMAL":
+                cell.setCellValue(1234.56);
+                break;
+            case "DATE":
+                CellStyle dateStyle = workbook.createCellStyle();
+                dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
+                cell.setCellValue(LocalDate.of(2024, 3, 15));
+                cell.setCellStyle(dateStyle);
+                break;
+            case "BOOLEAN":
+                cell.setCellValue(true);
+                break;
+            default:
+                cell.setCellFormula("B1*2");
+                break;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void closeWorkbook() throws IOException {
+        workbook.close();
+    }
+
+    @Benchmark
+    public String getCellValueAsString() {
+        return service.getCellValueAsString(cell, evaluator);
+    }
+}
@@ -0,0 +1,59 @@
+package mg.itu.service;
+
+import mg.itu.util.CellValueConverter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.SimpleDateFormat;
+import java.util.concurrent.TimeUnit;
+
+// ancien chemin (Date + SimpleDateFormat par thread) contre l'arithmétique sur jours epoch, à 4 threads
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class DateFormatBenchmark {
+
+    private static final int SERIAL_COUNT = 1024;
+
+    private final double[] serials = new double[SERIAL_COUNT];
+    private SimpleDateFormat legacyFormat;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void createSerials() {
+        legacyFormat = new SimpleDateFormat("yyyy-MM-dd");
+        for (int index = 0; index < SERIAL_COUNT; index++) {
+            serials[index] = 36526 + index * 13.37;
+        }
+    }
+
+    @Benchmark
+    public String legacyJavaDate() {
+        return legacyFormat.format(DateUtil.getJavaDate(nextSerial(), false));
+    }
+
+    @Benchmark
+    public String epochDay() {
+        return CellValueConverter.formatExcelDate(nextSerial(), false);
+    }
+
+    private double nextSerial() {
+        next = (next + 1) & (SERIAL_COUNT - 1);
+        return serials[next];
+    }
+}
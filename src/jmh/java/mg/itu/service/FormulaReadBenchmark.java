@@ -0,0 +1,104 @@
+package mg.itu.service;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// classeur XLS de 100k formules (2 par ligne, la seconde dépend de la première) :
+// PER_CELL reproduit l'ancien evaluator recréé à chaque cellule, SHARED un evaluator par classeur,
+// CACHED lit les résultats enregistrés sans évaluer
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class FormulaReadBenchmark {
+
+    private static final int ROWS = 50000;
+
+    @Param({"PER_CELL", "SHARED", "CACHED"})
+    private String mode;
+
+    private final ExcelProcessorService service = new ExcelProcessorService();
+    private byte[] workbookBytes;
+    private Workbook workbook;
+
+    @Setup(Level.Trial)
+    public void createWorkbook() throws IOException {
+        try (HSSFWorkbook source = new HSSFWorkbook()) {
+            Sheet sheet = source.createSheet("Formules");
+            for (int rowIndex = 0; rowIndex < ROWS; rowIndex++) {
+                Row row = sheet.createRow(rowIndex);
+                int excelRow = rowIndex + 1;
+                row.createCell(0).setCellValue(rowIndex * 1.5);
+                row.createCell(1).setCellFormula("A" + excelRow + "*2");
+                row.createCell(2).setCellFormula("B" + excelRow + "+A" + excelRow);
+            }
+            source.getCreationHelper().createFormulaEvaluator().evaluateAll();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            source.write(out);
+            workbookBytes = out.toByteArray();
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void openWorkbook() throws IOException {
+        workbook = new HSSFWorkbook(new ByteArrayInputStream(workbookBytes));
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeWorkbook() throws IOException {
+        workbook.close();
+    }
+
+    @Benchmark
+    public Object readFormulas() throws IOException {
+        switch (mode) {
+            case "PER_CELL":
+                return readWithEvaluatorPerCell();
+            case "SHARED":
+                return service.readExcelFile(workbook, 0, workbook.getCreationHelper().createFormulaEvaluator());
+            default:
+                return service.readExcelFile(workbook, 0, null);
+        }
+    }
+
+    private List<List<String>> readWithEvaluatorPerCell() {
+        List<List<String>> data = new ArrayList<>();
+        for (Row row : workbook.getSheetAt(0)) {
+            List<String> rowData = new ArrayList<>();
+            for (Cell cell : row) {
+                FormulaEvaluator evaluator = cell.getCellType() == CellType.FORMULA
+                    ? workbook.getCreationHelper().createFormulaEvaluator() : null;
+                rowData.add(service.getCellValueAsString(cell, evaluator));
+            }
+            data.add(rowData);
+        }
+        return data;
+    }
+}
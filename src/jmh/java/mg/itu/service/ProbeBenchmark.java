@@ -0,0 +1,81 @@
+package mg.itu.service;
+
+import mg.itu.util.SpreadsheetProbe;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+// sonde /excel-info contre l'ancien chargement DOM (XSSFWorkbook) pour obtenir les mêmes métadonnées
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class ProbeBenchmark {
+
+    @Param({"10000", "100000"})
+    private int rows;
+
+    private File directory;
+    private File xlsxFile;
+    private File csvFile;
+    private File odsFile;
+
+    @Setup(Level.Trial)
+    public void createWorkbooks() throws Exception {
+        directory = BenchmarkWorkbooks.createTempDirectory();
+        xlsxFile = BenchmarkWorkbooks.writeXlsx(directory, rows, 20, BenchmarkWorkbooks.MIXED);
+        csvFile = BenchmarkWorkbooks.writeCsv(directory, rows, 20, BenchmarkWorkbooks.MIXED);
+        odsFile = BenchmarkWorkbooks.writeOds(directory, rows, 20, BenchmarkWorkbooks.MIXED);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteWorkbooks() throws Exception {
+        BenchmarkWorkbooks.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public int legacyXlsxInfo() throws Exception {
+        try (XSSFWorkbook workbook = new XSSFWorkbook(xlsxFile)) {
+            Sheet sheet = workbook.getSheetAt(0);
+            int maxColumns = 0;
+            for (Row row : sheet) {
+                maxColumns = Math.max(maxColumns, row.getLastCellNum());
+            }
+            return sheet.getLastRowNum() + 1 + maxColumns;
+        }
+    }
+
+    @Benchmark
+    public SpreadsheetProbe probeXlsx() throws Exception {
+        return SpreadsheetProbe.probeXlsx(xlsxFile, 20);
+    }
+
+    @Benchmark
+    public SpreadsheetProbe probeCsv() throws Exception {
+        return SpreadsheetProbe.probeCsv(() -> Files.newInputStream(csvFile.toPath()), csvFile.length(), null, 20);
+    }
+
+    @Benchmark
+    public SpreadsheetProbe probeOds() throws Exception {
+        return SpreadsheetProbe.probeOds(odsFile, 20);
+    }
+}
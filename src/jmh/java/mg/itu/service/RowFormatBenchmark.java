@@ -0,0 +1,131 @@
+package mg.itu.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import mg.itu.model.ExcelMappingConfig;
+import mg.itu.util.MappingPlan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// coût par ligne de la mise en forme des valeurs : ancien formatSqlValue (tri, parseInt, regex par ligne)
+// comparé au MappingPlan compilé
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowFormatBenchmark {
+
+    private static final int ROW_COUNT = 1024;
+
+    @Param({"5", "20"})
+    private int columns;
+
+    @Param({BenchmarkWorkbooks.TEXT, BenchmarkWorkbooks.MIXED, BenchmarkWorkbooks.NUMERIC})
+    private String mix;
+
+    private ExcelMappingConfig config;
+    private MappingPlan.Section section;
+    private List<List<String>> rows;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void prepare() throws Exception {
+        config = new ObjectMapper().readValue(BenchmarkWorkbooks.mappingConfig(columns, mix, "INSERT_ALL"), ExcelMappingConfig.class);
+        section = MappingPlan.compile(config).getSections().get(0);
+        rows = new ArrayList<>();
+        for (int row = 0; row < ROW_COUNT; row++) {
+            List<String> values = new ArrayList<>();
+            for (int column = 0; column < columns; column++) {
+                values.add(BenchmarkWorkbooks.value(row, column, mix));
+            }
+            rows.add(values);
+        }
+    }
+
+    @Benchmark
+    public String compiledPlan() {
+        List<String> row = rows.get(next++ & (ROW_COUNT - 1));
+        return section.hasSignificantData(row) ? section.renderValues(row) : null;
+    }
+
+    @Benchmark
+    public String formatSqlValueLegacy() {
+        return legacyInsertClause(rows.get(next++ & (ROW_COUNT - 1)), config);
+    }
+
+    // reproduction de generateInsertStatementsForSection / formatSqlValue avant la compilation du mapping
+    private static String legacyInsertClause(List<String> rowData, ExcelMappingConfig config) {
+        List<Map.Entry<String, String>> sortedColumns = config.getMap().get(0).getColumnMapping().entrySet().stream()
+                .sorted((e1, e2) -> Integer.compare(Integer.parseInt(e1.getKey()), Integer.parseInt(e2.getKey())))
+                .collect(Collectors.toList());
+
+        boolean hasSignificantData = false;
+        for (Map.Entry<String, String> entry : sortedColumns) {
+            int colIndex = Integer.parseInt(entry.getKey()) - 1;
+            if (colIndex < rowData.size() && rowData.get(colIndex) != null && !rowData.get(colIndex).trim().isEmpty()) {
+                hasSignificantData = true;
+                break;
+            }
+        }
+        if (!hasSignificantData) {
+            return null;
+        }
+
+        List<String> values = new ArrayList<>();
+        for (Map.Entry<String, String> entry : sortedColumns) {
+            int colIndex = Integer.parseInt(entry.getKey()) - 1;
+            values.add(colIndex < rowData.size() ? legacyFormatSqlValue(rowData.get(colIndex), entry.getValue(), config) : "NULL");
+        }
+        return String.join(", ", values);
+    }
+
+    private static String legacyFormatSqlValue(String value, String fieldName, ExcelMappingConfig config) {
+        if (value == null || value.trim().isEmpty()) {
+            return "NULL";
+        }
+        value = value.trim();
+        String sqlType = config.getFieldSqlType(fieldName);
+
+        if (sqlType.toUpperCase().startsWith("NUMBER") || sqlType.toUpperCase().startsWith("INTEGER")) {
+            try {
+                if (value.contains(".")) {
+                    Double.parseDouble(value);
+                } else {
+                    Long.parseLong(value);
+                }
+                return value;
+            } catch (NumberFormatException e) {
+                return "NULL";
+            }
+        }
+        if (sqlType.toUpperCase().startsWith("DATE")) {
+            if (value.matches("\\d{4}-\\d{2}-\\d{2}")) {
+                return "TO_DATE('" + value + "', 'YYYY-MM-DD')";
+            } else if (value.matches("\\d{2}/\\d{2}/\\d{4}")) {
+                return "TO_DATE('" + value + "', 'DD/MM/YYYY')";
+            } else if (value.matches("\\d{2}-\\d{2}-\\d{4}")) {
+                return "TO_DATE('" + value + "', 'DD-MM-YYYY')";
+            } else if (value.matches("\\d{4}/\\d{2}/\\d{2}")) {
+                return "TO_DATE('" + value + "', 'YYYY/MM/DD')";
+            }
+        }
+        return "'" + value.replace("'", "''") + "'";
+    }
+}
@@ -0,0 +1,116 @@
+package mg.itu.service;
+
+import mg.itu.model.ExcelMappingConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+// generateInsertScript de bout en bout (lecture, mise en forme, écriture) vers un Writer qui ne fait que compter,
+// pour chaque dialecte ; le temps d'analyse/exécution côté Oracle n'est pas mesuré ici
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class ScriptGenerationBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    @Param({"csv", "xlsx"})
+    private String format;
+
+    // MULTI_VALUES exige Oracle 23ai et est refusé par défaut
+    @Param({"INSERT_ALL", "APPEND_SELECT", "SQL_LOADER"})
+    private String dialect;
+
+    @Param({"10"})
+    private int columns;
+
+    @Param({BenchmarkWorkbooks.MIXED})
+    private String mix;
+
+    private final ExcelProcessorService service = new ExcelProcessorService();
+    private File directory;
+    private File file;
+    private ExcelMappingConfig config;
+
+    @Setup(Level.Trial)
+    public void createWorkbook() throws IOException {
+        directory = BenchmarkWorkbooks.createTempDirectory();
+        file = "csv".equals(format)
+            ? BenchmarkWorkbooks.writeCsv(directory, rows, columns, mix)
+            : BenchmarkWorkbooks.writeXlsx(directory, rows, columns, mix);
+        config = service.parseJsonConfig(BenchmarkWorkbooks.mappingConfig(columns, mix, dialect));
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteWorkbook() throws IOException {
+        BenchmarkWorkbooks.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public long generateInsertScript() throws Exception {
+        if ("SQL_LOADER".equals(dialect)) {
+            CountingOutputStream out = new CountingOutputStream();
+            service.writeSqlLoaderArchive(file, file.getName(), config, out);
+            return out.count;
+        }
+        CountingWriter writer = new CountingWriter();
+        service.writeSqlScript(file, file.getName(), config, writer);
+        return writer.count;
+    }
+
+    private static final class CountingWriter extends Writer {
+        private long count;
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            count += length;
+        }
+
+        @Override
+        public void write(String text, int offset, int length) {
+            count += length;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            count += length;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package mg.itu.service;
+
+import mg.itu.util.ColumnarSheet;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// empreinte mémoire d'une feuille chargée : List<List<String>> (une ArrayList par ligne, un String par cellule,
+// comme l'ancien readExcelFile) contre ColumnarSheet. retainedBytesPerMillionCells est mesuré sur le tas après GC ;
+// les compteurs EVENTS s'additionnent d'une itération à l'autre, d'où une seule itération mesurée
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class SheetMemoryBenchmark {
+
+    @Param({"50000"})
+    private int rows;
+
+    @Param({"20"})
+    private int columns;
+
+    @Param({BenchmarkWorkbooks.TEXT, BenchmarkWorkbooks.MIXED, BenchmarkWorkbooks.NUMERIC})
+    private String mix;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+        public long retainedBytesPerMillionCells;
+        public long estimatedBytesPerMillionCells;
+    }
+
+    @Benchmark
+    public Object listRows(Footprint footprint) {
+        long before = usedHeap();
+        List<List<String>> data = new ArrayList<>();
+        for (int row = 0; row < rows; row++) {
+            List<String> rowData = new ArrayList<>();
+            for (int column = 0; column < columns; column++) {
+                rowData.add(BenchmarkWorkbooks.value(row, column, mix));
+            }
+            data.add(rowData);
+        }
+        footprint.retainedBytesPerMillionCells = perMillionCells(usedHeap() - before);
+        return data;
+    }
+
+    @Benchmark
+    public Object columnarSheet(Footprint footprint) {
+        long before = usedHeap();
+        ColumnarSheet.Builder builder = new ColumnarSheet.Builder();
+        String[] rowData = new String[columns];
+        List<String> rowView = Arrays.asList(rowData);
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                rowData[column] = BenchmarkWorkbooks.value(row, column, mix);
+            }
+            builder.add(rowView);
+        }
+        ColumnarSheet sheet = builder.build();
+        builder = null;
+        footprint.retainedBytesPerMillionCells = perMillionCells(usedHeap() - before);
+        footprint.estimatedBytesPerMillionCells = perMillionCells(sheet.getEstimatedBytes());
+        return sheet;
+    }
+
+    private long perMillionCells(long bytes) {
+        return bytes * 1_000_000L / ((long) rows * columns);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,88 @@
+package mg.itu.service;
+
+import com.opencsv.CSVReader;
+import mg.itu.util.XlsxStreamingReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// lecture en flux : SAX pour XLSX, CsvRowReader pour CSV ; un appel = un fichier complet
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class SpreadsheetReadBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    @Param({"5", "20"})
+    private int columns;
+
+    @Param({BenchmarkWorkbooks.TEXT, BenchmarkWorkbooks.MIXED})
+    private String mix;
+
+    private final ExcelProcessorService service = new ExcelProcessorService();
+    private File directory;
+    private File xlsxFile;
+    private File csvFile;
+
+    @Setup(Level.Trial)
+    public void createWorkbooks() throws IOException {
+        directory = BenchmarkWorkbooks.createTempDirectory();
+        xlsxFile = BenchmarkWorkbooks.writeXlsx(directory, rows, columns, mix);
+        csvFile = BenchmarkWorkbooks.writeCsv(directory, rows, columns, mix);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteWorkbooks() throws IOException {
+        BenchmarkWorkbooks.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public void readXlsxStreaming(Blackhole blackhole) throws IOException {
+        new XlsxStreamingReader(xlsxFile).readSheet(0, values -> {
+            blackhole.consume(values);
+            return true;
+        });
+    }
+
+    @Benchmark
+    public void readCsvFile(Blackhole blackhole) throws IOException {
+        service.readCsvFile(csvFile, null, values -> {
+            blackhole.consume(values);
+            return true;
+        });
+    }
+
+    // référence : CSVReader.readNext sur un InputStreamReader, chemin utilisé avant CsvRowReader
+    @Benchmark
+    public void readCsvOpencsv(Blackhole blackhole) throws Exception {
+        try (CSVReader csvReader = new CSVReader(new InputStreamReader(new FileInputStream(csvFile), StandardCharsets.UTF_8))) {
+            String[] csvRow;
+            while ((csvRow = csvReader.readNext()) != null) {
+                blackhole.consume(csvRow);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package mg.itu.service;
+
+import mg.itu.util.SheetData;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.odftoolkit.odfdom.doc.OdfSpreadsheetDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+// lecteurs DOM (XSSF/HSSF, odfdom) : le classeur entier est chargé en mémoire,
+// 1M lignes dépasse le tas de la fourche, d'où des tailles plus petites que SpreadsheetReadBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class WorkbookDomReadBenchmark {
+
+    private static final int ODS_MAX_ROWS = 2000;
+
+    @Param({"10000", "100000"})
+    private int rows;
+
+    @Param({"5", "20"})
+    private int columns;
+
+    @Param({BenchmarkWorkbooks.TEXT, BenchmarkWorkbooks.MIXED})
+    private String mix;
+
+    private final ExcelProcessorService service = new ExcelProcessorService();
+    private File directory;
+    private File xlsxFile;
+    private File odsFile;
+
+    @Setup(Level.Trial)
+    public void createWorkbooks() throws Exception {
+        directory = BenchmarkWorkbooks.createTempDirectory();
+        xlsxFile = BenchmarkWorkbooks.writeXlsx(directory, rows, columns, mix);
+        // odfdom résout chaque cellule depuis le début de la table : 10k lignes prennent déjà près de deux minutes
+        odsFile = BenchmarkWorkbooks.writeOds(directory, Math.min(rows, ODS_MAX_ROWS), columns, mix);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteWorkbooks() throws Exception {
+        BenchmarkWorkbooks.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public SheetData readExcelFile() throws Exception {
+        try (XSSFWorkbook workbook = new XSSFWorkbook(xlsxFile)) {
+            return service.readExcelFile(workbook, 0, workbook.getCreationHelper().createFormulaEvaluator());
+        }
+    }
+
+    @Benchmark
+    public SheetData readOdsFile() throws Exception {
+        try (OdfSpreadsheetDocument document = OdfSpreadsheetDocument.loadDocument(odsFile)) {
+            return service.readOdsTable(document.getTableList().get(0));
+        }
+    }
+}
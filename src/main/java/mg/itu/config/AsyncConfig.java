@@ -0,0 +1,32 @@
+package mg.itu.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class AsyncConfig implements WebMvcConfigurer {
+
+    @Value("${process.timeout.minutes:30}")
+    private long processTimeoutMinutes;
+
+    @Value("${dmp.stream.max-threads:16}")
+    private int streamMaxThreads;
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("dmp-stream-");
+        executor.setCorePoolSize(streamMaxThreads);
+        executor.setMaxPoolSize(streamMaxThreads);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.initialize();
+
+        configurer.setTaskExecutor(executor);
+        configurer.setDefaultTimeout(TimeUnit.MINUTES.toMillis(processTimeoutMinutes));
+    }
+}
@@ -0,0 +1,46 @@
+package mg.itu.config;
+
+import mg.itu.util.SqlPlusSessionPool;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+
+@Configuration
+public class SqlPlusConfig {
+
+    @Value("${docker.command:docker}")
+    private String dockerCommand;
+
+    @Value("${oracle.container.name:oracle-11g-xe}")
+    private String containerName;
+
+    @Value("${oracle.home:/u01/app/oracle/product/11.2.0/xe}")
+    private String oracleHome;
+
+    // instance locale du conteneur : connexion par authentification système, sans mot de passe
+    @Value("${oracle.local-sid:XE}")
+    private String localSid;
+
+    @Value("${sqlplus.pool.size:2}")
+    private int poolSize;
+
+    @Value("${sqlplus.pool.borrow-timeout-seconds:30}")
+    private long borrowTimeoutSeconds;
+
+    @Value("${sqlplus.pool.max-idle-minutes:15}")
+    private long maxIdleMinutes;
+
+    @Value("${sqlplus.pool.health-check-seconds:60}")
+    private long healthCheckSeconds;
+
+    @Bean(destroyMethod = "close")
+    public SqlPlusSessionPool sqlPlusSessionPool() {
+        return new SqlPlusSessionPool(
+            Arrays.asList(dockerCommand, "exec", "-i", containerName, "su", "-", "oracle", "-c",
+                "export ORACLE_HOME=" + oracleHome + " && export ORACLE_SID=" + localSid +
+                " && export PATH=$ORACLE_HOME/bin:$PATH && sqlplus -S / as sysdba"),
+            poolSize, borrowTimeoutSeconds, maxIdleMinutes, healthCheckSeconds);
+    }
+}
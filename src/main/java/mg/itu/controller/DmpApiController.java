@@ -1,17 +1,30 @@
 package mg.itu.controller;
 
+import mg.itu.model.DmpJob;
+import mg.itu.model.ImportOptions;
+import mg.itu.service.DmpJobService;
+import mg.itu.service.DmpProgressListener;
 import mg.itu.service.DmpService;
+import mg.itu.util.ExportEngine;
+import mg.itu.util.TransferCodec;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import javax.servlet.http.HttpServletRequest;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api")
@@ -19,6 +32,9 @@ public class DmpApiController {
     
     @Autowired
     private DmpService dmpService;
+
+    @Autowired
+    private DmpJobService dmpJobService;
     
     @Value("${dmp.export.directory:/tmp/exports}")
     private String exportDirectory;
@@ -50,42 +66,105 @@ public class DmpApiController {
     }
 
     @PostMapping("/export")
-    public ResponseEntity<Resource> exportDmp(@RequestParam("dmpFileName") String dmpFileName,
-                                             @RequestParam("username") String username,
-                                             @RequestParam("password") String password) {
+    public ResponseEntity<?> exportDmp(@RequestParam("dmpFileName") String dmpFileName,
+                                      @RequestParam("username") String username,
+                                      @RequestParam("password") String password,
+                                      @RequestParam(value = "pipeline", defaultValue = "false") boolean pipeline,
+                                      @RequestParam(value = "engine", required = false) String engine,
+                                      @RequestParam(value = "parallel", required = false) Integer parallel,
+                                      @RequestParam(value = "compression", required = false) String compression,
+                                      @RequestParam(value = "codec", required = false) String codec,
+                                      @RequestParam(value = "store", defaultValue = "false") boolean store,
+                                      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         try {
-            byte[] fileContent = dmpService.exportDmpOptimized(dmpFileName, username, password);
-            
-            
+            if (store) {
+                // export conservé dans le magasin d'artefacts : exécuté par une tâche de fond, suivie par
+                // /api/jobs/{id} ; une fois terminée, downloadUrl pointe sur /api/exports/{id} (plages, reprise)
+                DmpJob job = dmpJobService.submitExport(dmpFileName, username, password, pipeline, engine, parallel,
+                        compression, codec, true);
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.putAll(job.toMap());
+                return ResponseEntity.status(HttpStatus.ACCEPTED)
+                        .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                                .path("/api/jobs/{id}").buildAndExpand(job.getId()).toUri())
+                        .body(response);
+            }
+
+            // codec : fichier téléchargé compressé (.gz) ; sinon Content-Encoding négocié avec Accept-Encoding
+            TransferCodec fileCodec = TransferCodec.fromValue(codec);
+            TransferCodec contentCodec = fileCodec == TransferCodec.NONE ? TransferCodec.negotiate(acceptEncoding) : TransferCodec.NONE;
+            ExportEngine exportEngine = dmpService.resolveExportEngine(engine);
+            StreamingResponseBody body;
             String downloadFileName = dmpFileName.endsWith(".dmp") ? dmpFileName : dmpFileName + ".dmp";
-            
-            ByteArrayResource resource = new ByteArrayResource(fileContent);
-            
-            return ResponseEntity.ok()
+            String contentType = "application/octet-stream";
+            if (exportEngine == ExportEngine.EXPDP) {
+                dmpService.resolveDataPumpParallel(parallel);
+                dmpService.resolveDataPumpCompression(compression);
+                String preparedFileName = dmpService.prepareExport(dmpFileName, username, password, exportEngine);
+                body = outputStream -> dmpService.exportDataPump(preparedFileName, username, password, parallel, compression,
+                        outputStream, DmpProgressListener.NONE);
+                downloadFileName = dmpService.dataPumpArchiveName(preparedFileName);
+                contentType = "application/zip";
+            } else if (pipeline) {
+                String preparedFileName = dmpService.prepareExport(dmpFileName, username, password);
+                body = outputStream -> dmpService.exportDmpPipelined(preparedFileName, username, password, outputStream);
+            } else {
+                String containerFilePath = dmpService.exportDmpToContainer(dmpFileName, username, password);
+                body = outputStream -> dmpService.streamContainerDump(containerFilePath, outputStream);
+            }
+
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .header("X-Export-Engine", exportEngine.name());
+            if (fileCodec != TransferCodec.NONE) {
+                downloadFileName += fileCodec.getExtension();
+                contentType = "application/gzip";
+            } else if (contentCodec != TransferCodec.NONE) {
+                response.header(HttpHeaders.CONTENT_ENCODING, contentCodec.getContentEncoding());
+            }
+            return response
                     .header(HttpHeaders.CONTENT_DISPOSITION, 
                             "attachment; filename=\"" + downloadFileName + "\"")
-                    .header(HttpHeaders.CONTENT_TYPE, "application/octet-stream")
-                    .header(HttpHeaders.CONTENT_LENGTH, String.valueOf(fileContent.length))
-                    .body(resource);
+                    .header(HttpHeaders.CONTENT_TYPE, contentType)
+                    .body(fileCodec != TransferCodec.NONE || contentCodec != TransferCodec.NONE ? gzipBody(body) : body);
             
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
                     .header(HttpHeaders.CONTENT_TYPE, "text/plain; charset=UTF-8")
-                    .body(new ByteArrayResource(
-                        ("Paramètre invalide: " + e.getMessage()).getBytes()));
+                    .body(textBody("Paramètre invalide: " + e.getMessage()));
+        } catch (IllegalStateException e) {
+            // quota de tâches par utilisateur (store=true)
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.CONTENT_TYPE, "text/plain; charset=UTF-8")
+                    .body(textBody(e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.CONTENT_TYPE, "text/plain; charset=UTF-8")
+                    .body(textBody(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
                     .header(HttpHeaders.CONTENT_TYPE, "text/plain; charset=UTF-8")
-                    .body(new ByteArrayResource(
-                        ("Erreur lors de l'export: " + e.getMessage()).getBytes()));
+                    .body(textBody("Erreur lors de l'export: " + e.getMessage()));
         }
     }
 
+    private StreamingResponseBody gzipBody(StreamingResponseBody body) {
+        return outputStream -> {
+            GZIPOutputStream gzip = dmpService.gzip(outputStream);
+            body.writeTo(gzip);
+            gzip.finish();
+        };
+    }
+
     @PostMapping("/import")
     public ResponseEntity<Map<String, String>> importDmp(@RequestParam("dmpFile") MultipartFile dmpFile,
                                                         @RequestParam("username") String username,
                                                         @RequestParam("password") String password,
-                                                        @RequestParam(value = "createUser", defaultValue = "false") boolean createUser) {
+                                                        @RequestParam(value = "createUser", defaultValue = "false") boolean createUser,
+                                                        @RequestParam(value = "engine", required = false) String engine,
+                                                        @RequestParam(value = "parallel", required = false) Integer parallel,
+                                                        @RequestParam(value = "deferIndexes", defaultValue = "false") boolean deferIndexes) {
         Map<String, String> response = new HashMap<>();
         try {
             if (dmpFile.isEmpty()) {
@@ -93,7 +172,38 @@ public class DmpApiController {
                 return ResponseEntity.badRequest().body(response);
             }
 
-            String result = dmpService.importDmp(dmpFile, username, password, createUser);
+            String result = dmpService.importDmpOptimized(dmpFile, username, password, createUser,
+                    ImportOptions.of(engine, parallel, deferIndexes));
+            
+            if (result.contains("Import optimisé réussi")) {
+                response.put("success", result);
+                return ResponseEntity.ok(response);
+            } else {
+                response.put("error", result);
+                return ResponseEntity.badRequest().body(response);
+            }
+        } catch (IllegalArgumentException e) {
+            response.put("error", "Paramètre invalide : " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (Exception e) {
+            response.put("error", "Erreur lors de l'import : " + e.getMessage());
+            return ResponseEntity.status(500).body(response);
+        }
+    }
+
+    @PostMapping(value = "/import/stream", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<Map<String, String>> importDmpStream(HttpServletRequest request,
+                                                              @RequestParam("fileName") String fileName,
+                                                              @RequestParam("username") String username,
+                                                              @RequestParam("password") String password,
+                                                              @RequestParam(value = "createUser", defaultValue = "false") boolean createUser,
+                                                              @RequestParam(value = "engine", required = false) String engine,
+                                                              @RequestParam(value = "parallel", required = false) Integer parallel,
+                                                              @RequestParam(value = "deferIndexes", defaultValue = "false") boolean deferIndexes) {
+        Map<String, String> response = new HashMap<>();
+        try (InputStream body = request.getInputStream()) {
+            String result = dmpService.importDmpStream(body, fileName, username, password, createUser,
+                    ImportOptions.of(engine, parallel, deferIndexes), DmpProgressListener.NONE);
             
             if (result.contains("Import optimisé réussi")) {
                 response.put("success", result);
@@ -117,8 +227,9 @@ public class DmpApiController {
                                                                   @RequestParam("password") String password) {
         Map<String, String> response = new HashMap<>();
         try {
-            byte[] fileContent = dmpService.exportDmpOptimized(dmpFileName, username, password);
-            response.put("success", "Export optimisé réussi : " + dmpFileName + " (Taille: " + fileContent.length + " bytes)");
+            String containerFilePath = dmpService.exportDmpToContainer(dmpFileName, username, password);
+            long size = dmpService.containerDumpSize(containerFilePath);
+            response.put("success", "Export optimisé réussi : " + dmpFileName + " (Taille: " + size + " bytes)");
             return ResponseEntity.ok(response);
         } catch (IllegalArgumentException e) {
             response.put("error", "Paramètre invalide : " + e.getMessage());
@@ -128,4 +239,9 @@ public class DmpApiController {
             return ResponseEntity.status(500).body(response);
         }
     }
+
+    private StreamingResponseBody textBody(String message) {
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        return outputStream -> outputStream.write(bytes);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,82 @@
+package mg.itu.controller;
+
+import mg.itu.model.ExportArtifact;
+import mg.itu.service.DmpArtifactStore;
+import mg.itu.util.FileRangeSender;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+// exports conservés (POST /api/export?store=true) : GET /api/exports/{id} accepte Range, If-Range et
+// If-None-Match, ce qui permet la reprise d'un téléchargement coupé et le téléchargement segmenté en parallèle
+@RestController
+@RequestMapping("/api/exports")
+public class DmpArtifactController {
+
+    @Autowired
+    private DmpArtifactStore dmpArtifactStore;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> listArtifacts() {
+        List<Map<String, Object>> artifacts = new ArrayList<>();
+        for (ExportArtifact artifact : dmpArtifactStore.list()) {
+            artifacts.add(artifact.toMap());
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("artifacts", artifacts);
+        return ResponseEntity.ok(response);
+    }
+
+    // HEAD est servi par la même méthode (taille, ETag) sans corps
+    @GetMapping("/{artifactId}")
+    public ResponseEntity<Map<String, Object>> download(@PathVariable("artifactId") String artifactId,
+                                                        HttpServletRequest request,
+                                                        HttpServletResponse response) {
+        try {
+            ExportArtifact artifact = dmpArtifactStore.get(artifactId);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + artifact.getFileName() + "\"");
+            FileRangeSender.send(artifact.getFile(), artifact.getContentType(), request, response);
+            return null;
+        } catch (NoSuchElementException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+        } catch (Exception e) {
+            System.err.println("Téléchargement de l'artefact " + artifactId + " interrompu : " + e.getMessage());
+            if (response.isCommitted()) {
+                // réponse déjà entamée : le client reprendra avec Range
+                return null;
+            }
+            response.reset();
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("message", "Erreur lors du téléchargement : " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    @DeleteMapping("/{artifactId}")
+    public ResponseEntity<Map<String, Object>> deleteArtifact(@PathVariable("artifactId") String artifactId) {
+        Map<String, Object> response = new HashMap<>();
+        if (!dmpArtifactStore.delete(artifactId)) {
+            response.put("success", false);
+            response.put("message", "Artefact introuvable : " + artifactId);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        response.put("success", true);
+        response.put("message", "Artefact supprimé");
+        return ResponseEntity.ok(response);
+    }
+}
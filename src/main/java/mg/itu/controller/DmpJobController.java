@@ -0,0 +1,166 @@
+package mg.itu.controller;
+
+import mg.itu.model.DmpJob;
+import mg.itu.model.ExportArtifact;
+import mg.itu.model.ImportOptions;
+import mg.itu.service.DmpJobService;
+import mg.itu.util.FileRangeSender;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/api/jobs")
+public class DmpJobController {
+
+    @Autowired
+    private DmpJobService dmpJobService;
+
+    @PostMapping("/export")
+    public ResponseEntity<Map<String, Object>> submitExport(@RequestParam("dmpFileName") String dmpFileName,
+                                                            @RequestParam("username") String username,
+                                                            @RequestParam("password") String password,
+                                                            @RequestParam(value = "pipeline", defaultValue = "true") boolean pipeline,
+                                                            @RequestParam(value = "engine", required = false) String engine,
+                                                            @RequestParam(value = "parallel", required = false) Integer parallel,
+                                                            @RequestParam(value = "compression", required = false) String compression,
+                                                            @RequestParam(value = "codec", required = false) String codec) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            DmpJob job = dmpJobService.submitExport(dmpFileName, username, password, pipeline, engine, parallel, compression, codec);
+            response.put("success", true);
+            response.putAll(job.toMap());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", "Paramètre invalide : " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (IllegalStateException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(response);
+        } catch (RejectedExecutionException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+        }
+    }
+
+    @PostMapping("/import")
+    public ResponseEntity<Map<String, Object>> submitImport(@RequestParam("dmpFile") MultipartFile dmpFile,
+                                                            @RequestParam("username") String username,
+                                                            @RequestParam("password") String password,
+                                                            @RequestParam(value = "createUser", defaultValue = "false") boolean createUser,
+                                                            @RequestParam(value = "engine", required = false) String engine,
+                                                            @RequestParam(value = "parallel", required = false) Integer parallel,
+                                                            @RequestParam(value = "deferIndexes", defaultValue = "false") boolean deferIndexes) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            DmpJob job = dmpJobService.submitImport(dmpFile, username, password, createUser,
+                ImportOptions.of(engine, parallel, deferIndexes));
+            response.put("success", true);
+            response.putAll(job.toMap());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", "Paramètre invalide : " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (IllegalStateException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(response);
+        } catch (RejectedExecutionException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "Erreur lors de la réception du fichier : " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> listJobs(@RequestParam(value = "username", required = false) String username) {
+        List<Map<String, Object>> jobs = new ArrayList<>();
+        for (DmpJob job : dmpJobService.listJobs(username)) {
+            jobs.add(job.toMap());
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("jobs", jobs);
+        response.put("executor", dmpJobService.getStatistics());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<Map<String, Object>> getJob(@PathVariable("jobId") String jobId) {
+        DmpJob job = dmpJobService.getJob(jobId);
+        if (job == null) {
+            return notFound(jobId);
+        }
+        return ResponseEntity.ok(job.toMap());
+    }
+
+    @PostMapping("/{jobId}/cancel")
+    public ResponseEntity<Map<String, Object>> cancelJob(@PathVariable("jobId") String jobId) {
+        DmpJob job = dmpJobService.getJob(jobId);
+        if (job == null) {
+            return notFound(jobId);
+        }
+        Map<String, Object> response = new HashMap<>();
+        if (dmpJobService.cancel(jobId)) {
+            response.put("success", true);
+            response.put("message", "Tâche annulée");
+            return ResponseEntity.ok(response);
+        }
+        response.put("success", false);
+        response.put("message", "La tâche est déjà terminée (" + job.getStatus() + ")");
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
+    // Range / If-Range acceptés : un téléchargement coupé reprend là où il s'est arrêté.
+    // un export conservé (store=true) est servi par /api/exports/{id}
+    @GetMapping("/{jobId}/result")
+    public ResponseEntity<Void> downloadResult(@PathVariable("jobId") String jobId,
+                                               HttpServletRequest request,
+                                               HttpServletResponse response) throws IOException {
+        DmpJob job = dmpJobService.getJob(jobId);
+        if (job != null && job.getStatus() == DmpJob.Status.COMPLETED && job.getArtifactId() != null) {
+            return ResponseEntity.status(HttpStatus.SEE_OTHER)
+                    .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                            .path("/api/exports/{id}").buildAndExpand(job.getArtifactId()).toUri())
+                    .build();
+        }
+        if (job == null || job.getStatus() != DmpJob.Status.COMPLETED || job.getResultPath() == null) {
+            return ResponseEntity.notFound().build();
+        }
+        File file = new File(job.getResultPath());
+        if (!file.exists() || !file.canRead()) {
+            return ResponseEntity.notFound().build();
+        }
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getName() + "\"");
+        FileRangeSender.send(file, ExportArtifact.contentType(file.getName()), request, response);
+        return null;
+    }
+
+    private ResponseEntity<Map<String, Object>> notFound(String jobId) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", "Tâche introuvable : " + jobId);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+    }
+}
@@ -0,0 +1,180 @@
+package mg.itu.controller;
+
+import mg.itu.model.DmpJob;
+import mg.itu.model.ImportOptions;
+import mg.itu.model.UploadSession;
+import mg.itu.service.DmpJobService;
+import mg.itu.service.DmpProgressListener;
+import mg.itu.service.DmpService;
+import mg.itu.service.DmpUploadService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.File;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.RejectedExecutionException;
+
+// protocole d'upload par morceaux : POST /api/uploads, PUT /api/uploads/{id}/chunks/{n} (en parallèle, rejouables),
+// GET /api/uploads/{id} pour les morceaux manquants, POST /api/uploads/{id}/complete pour lancer l'import
+@RestController
+@RequestMapping("/api/uploads")
+public class DmpUploadController {
+
+    @Autowired
+    private DmpUploadService dmpUploadService;
+
+    @Autowired
+    private DmpService dmpService;
+
+    @Autowired
+    private DmpJobService dmpJobService;
+
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> initiate(@RequestParam("fileName") String fileName,
+                                                        @RequestParam("totalSize") long totalSize,
+                                                        @RequestParam(value = "chunkSize", required = false) Integer chunkSize) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            UploadSession session = dmpUploadService.initiate(fileName, totalSize, chunkSize);
+            response.put("success", true);
+            response.putAll(session.toMap());
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", "Paramètre invalide : " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "Erreur lors de la création de l'upload : " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    @PutMapping("/{uploadId}/chunks/{index}")
+    public ResponseEntity<Map<String, Object>> putChunk(@PathVariable("uploadId") String uploadId,
+                                                        @PathVariable("index") int index,
+                                                        @RequestHeader(value = "X-Chunk-Sha256", required = false) String sha256,
+                                                        HttpServletRequest request) {
+        Map<String, Object> response = new HashMap<>();
+        try (InputStream body = request.getInputStream()) {
+            String checksum = dmpUploadService.writeChunk(uploadId, index, body, sha256);
+            response.put("success", true);
+            response.put("index", index);
+            response.put("sha256", checksum);
+            return ResponseEntity.ok(response);
+        } catch (NoSuchElementException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", "Morceau rejeté : " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (IllegalStateException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "Erreur lors de l'écriture du morceau : " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<Map<String, Object>> getUpload(@PathVariable("uploadId") String uploadId) {
+        try {
+            return ResponseEntity.ok(dmpUploadService.getSession(uploadId).toMap());
+        } catch (NoSuchElementException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+    }
+
+    // async (par défaut) : l'import part en tâche de fond, suivi par /api/jobs/{jobId}
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<Map<String, Object>> complete(@PathVariable("uploadId") String uploadId,
+                                                        @RequestParam("username") String username,
+                                                        @RequestParam("password") String password,
+                                                        @RequestParam(value = "createUser", defaultValue = "false") boolean createUser,
+                                                        @RequestParam(value = "engine", required = false) String engine,
+                                                        @RequestParam(value = "parallel", required = false) Integer parallel,
+                                                        @RequestParam(value = "deferIndexes", defaultValue = "false") boolean deferIndexes,
+                                                        @RequestParam(value = "sha256", required = false) String sha256,
+                                                        @RequestParam(value = "async", defaultValue = "true") boolean async) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            ImportOptions options = ImportOptions.of(engine, parallel, deferIndexes);
+            String fileName = dmpUploadService.getSession(uploadId).getFileName();
+            File file = dmpUploadService.complete(uploadId, sha256);
+
+            if (async) {
+                DmpJob job;
+                try {
+                    job = dmpJobService.submitImportFile(file, fileName, username, password, createUser, options);
+                } catch (IllegalStateException e) {
+                    // quota atteint : l'upload reste finalisé, /complete peut être rappelé plus tard
+                    response.put("success", false);
+                    response.put("message", e.getMessage());
+                    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(response);
+                }
+                dmpUploadService.release(uploadId);
+                response.put("success", true);
+                response.putAll(job.toMap());
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+            }
+
+            dmpUploadService.release(uploadId);
+            String result = dmpService.importDmpFile(file, fileName, username, password, createUser, options, DmpProgressListener.NONE);
+            if (result.contains("Import optimisé réussi")) {
+                response.put("success", true);
+                response.put("message", result);
+                return ResponseEntity.ok(response);
+            }
+            response.put("success", false);
+            response.put("message", result);
+            return ResponseEntity.badRequest().body(response);
+        } catch (NoSuchElementException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", "Paramètre invalide : " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (IllegalStateException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        } catch (RejectedExecutionException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "Erreur lors de l'import : " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<Map<String, Object>> abort(@PathVariable("uploadId") String uploadId) {
+        Map<String, Object> response = new HashMap<>();
+        if (!dmpUploadService.abort(uploadId)) {
+            response.put("success", false);
+            response.put("message", "Upload introuvable : " + uploadId);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        response.put("success", true);
+        response.put("message", "Upload annulé");
+        return ResponseEntity.ok(response);
+    }
+}
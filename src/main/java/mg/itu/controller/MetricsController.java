@@ -0,0 +1,52 @@
+package mg.itu.controller;
+
+import mg.itu.service.DmpArtifactStore;
+import mg.itu.service.DmpJobService;
+import mg.itu.service.DmpUploadService;
+import mg.itu.service.ExtentAllocationCache;
+import mg.itu.service.UploadCache;
+import mg.itu.util.SqlPlusSessionPool;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    @Autowired
+    private ExtentAllocationCache extentAllocationCache;
+
+    @Autowired
+    private SqlPlusSessionPool sqlPlusSessionPool;
+
+    @Autowired
+    private DmpJobService dmpJobService;
+
+    @Autowired
+    private UploadCache uploadCache;
+
+    @Autowired
+    private DmpUploadService dmpUploadService;
+
+    @Autowired
+    private DmpArtifactStore dmpArtifactStore;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getMetrics() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("extentAllocationCache", extentAllocationCache.getStatistics());
+        response.put("sqlplusPool", sqlPlusSessionPool.getStatistics());
+        response.put("jobs", dmpJobService.getStatistics());
+        response.put("uploadCache", uploadCache.getStatistics());
+        response.put("chunkedUploads", dmpUploadService.getStatistics());
+        response.put("exportArtifacts", dmpArtifactStore.getStatistics());
+        response.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(response);
+    }
+}
@@ -1,18 +1,32 @@
 package mg.itu.controller;
 
+import mg.itu.model.BulkLoadResult;
 import mg.itu.model.ExcelMappingConfig;
 import mg.itu.model.ExcelMappingConfig.MappingSection;
 import mg.itu.service.ExcelProcessorService;
+import mg.itu.util.SqlDialect;
+import com.opencsv.exceptions.CsvException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/sql-generator")
@@ -24,7 +38,9 @@ public class SqlGeneratorController {
     @PostMapping(value = "/generate", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<Map<String, Object>> generateSqlScript(
             @RequestParam("excelFile") MultipartFile file,
-            @RequestParam("jsonConfig") String jsonConfig) {
+            @RequestParam("jsonConfig") String jsonConfig,
+            @RequestParam(value = "batchSize", required = false) Integer batchSize,
+            @RequestParam(value = "dialect", required = false) String dialect) {
         
         Map<String, Object> response = new HashMap<>();
         
@@ -49,7 +65,15 @@ public class SqlGeneratorController {
                 return ResponseEntity.badRequest().body(response);
             }
             
-            String sqlScript = excelProcessorService.generateSqlScript(file, jsonConfig);
+            ExcelMappingConfig config = excelProcessorService.parseJsonConfig(jsonConfig);
+            applyOutputOptions(config, batchSize, dialect);
+            if (excelProcessorService.resolveDialect(config) == SqlDialect.SQL_LOADER) {
+                response.put("success", false);
+                response.put("message", "Le dialecte SQL_LOADER n'est disponible que via /generate/stream");
+                return ResponseEntity.badRequest().body(response);
+            }
+            
+            String sqlScript = excelProcessorService.generateSqlScript(file, config);
             
             response.put("success", true);
             response.put("message", "Script SQL généré avec succès");
@@ -59,6 +83,11 @@ public class SqlGeneratorController {
             
             return ResponseEntity.ok(response);
             
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+            
         } catch (IOException e) {
             response.put("success", false);
             response.put("message", "Erreur lors de la lecture du fichier: " + e.getMessage());
@@ -71,6 +100,167 @@ public class SqlGeneratorController {
         }
     }
     
+    @PostMapping(value = "/generate/stream", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<StreamingResponseBody> generateSqlScriptStream(
+            @RequestParam("excelFile") MultipartFile file,
+            @RequestParam("jsonConfig") String jsonConfig,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+            @RequestParam(value = "batchSize", required = false) Integer batchSize,
+            @RequestParam(value = "dialect", required = false) String dialect) {
+        
+        String fileName = file.getOriginalFilename();
+        if (file.isEmpty() || fileName == null || (!fileName.endsWith(".xlsx") && !fileName.endsWith(".xls") 
+                && !fileName.endsWith(".csv") && !fileName.endsWith(".ods"))) {
+            return textResponse(HttpStatus.BAD_REQUEST, "Veuillez sélectionner un fichier valide (.xlsx, .xls, .csv, .ods)");
+        }
+        
+        ExcelMappingConfig config;
+        try {
+            config = excelProcessorService.parseJsonConfig(jsonConfig);
+        } catch (Exception e) {
+            return textResponse(HttpStatus.BAD_REQUEST, "Configuration JSON invalide: " + e.getMessage());
+        }
+        if (config.getMap() == null || config.getMap().isEmpty()) {
+            return textResponse(HttpStatus.BAD_REQUEST, "Au moins une section de mapping est requise");
+        }
+        
+        SqlDialect sqlDialect;
+        try {
+            applyOutputOptions(config, batchSize, dialect);
+            sqlDialect = excelProcessorService.resolveDialect(config);
+            excelProcessorService.resolveBatchSize(config);
+        } catch (IllegalArgumentException e) {
+            return textResponse(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        String tableName = config.getNomTable() != null ? config.getNomTable() : "script";
+        
+        File tempFile;
+        try {
+            tempFile = excelProcessorService.copyToTempFile(file);
+        } catch (IOException e) {
+            return textResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Erreur lors de la lecture du fichier: " + e.getMessage());
+        }
+        
+        if (sqlDialect == SqlDialect.SQL_LOADER) {
+            StreamingResponseBody archive = outputStream -> {
+                try {
+                    excelProcessorService.writeSqlLoaderArchive(tempFile, fileName, config, outputStream);
+                } catch (CsvException e) {
+                    throw new IOException("Erreur lors de la lecture du fichier CSV: " + e.getMessage(), e);
+                } finally {
+                    Files.deleteIfExists(tempFile.toPath());
+                }
+            };
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + tableName + "_sqlldr.zip\"")
+                    .header(HttpHeaders.CONTENT_TYPE, "application/zip")
+                    .body(archive);
+        }
+        
+        StreamingResponseBody body = outputStream -> {
+            OutputStream target = gzip ? new GZIPOutputStream(outputStream, 64 * 1024) : outputStream;
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 64 * 1024)) {
+                excelProcessorService.writeSqlScript(tempFile, fileName, config, writer);
+            } catch (CsvException e) {
+                throw new IOException("Erreur lors de la lecture du fichier CSV: " + e.getMessage(), e);
+            } finally {
+                Files.deleteIfExists(tempFile.toPath());
+            }
+        };
+        
+        String scriptName = tableName + (gzip ? ".sql.gz" : ".sql");
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + scriptName + "\"")
+                .header(HttpHeaders.CONTENT_TYPE, gzip ? "application/gzip" : "application/sql; charset=UTF-8")
+                .body(body);
+    }
+    
+    @PostMapping(value = "/load", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<Map<String, Object>> loadIntoDatabase(
+            @RequestParam("excelFile") MultipartFile file,
+            @RequestParam("jsonConfig") String jsonConfig,
+            @RequestParam(value = "batchSize", required = false) Integer batchSize,
+            @RequestParam(value = "commitInterval", required = false) Integer commitInterval) {
+        
+        Map<String, Object> response = new HashMap<>();
+        
+        String fileName = file.getOriginalFilename();
+        if (file.isEmpty() || fileName == null || (!fileName.endsWith(".xlsx") && !fileName.endsWith(".xls") 
+                && !fileName.endsWith(".csv") && !fileName.endsWith(".ods"))) {
+            response.put("success", false);
+            response.put("message", "Veuillez sélectionner un fichier valide (.xlsx, .xls, .csv, .ods)");
+            return ResponseEntity.badRequest().body(response);
+        }
+        
+        File tempFile = null;
+        try {
+            ExcelMappingConfig config = excelProcessorService.parseJsonConfig(jsonConfig);
+            if (config.getNomTable() == null || config.getNomTable().trim().isEmpty()
+                    || config.getMap() == null || config.getMap().isEmpty()) {
+                response.put("success", false);
+                response.put("message", "nomTable et au moins une section de mapping sont requis");
+                return ResponseEntity.badRequest().body(response);
+            }
+            applyOutputOptions(config, batchSize, null);
+            if (commitInterval != null) {
+                config.setCommitInterval(commitInterval);
+            }
+            
+            tempFile = excelProcessorService.copyToTempFile(file);
+            BulkLoadResult result = excelProcessorService.loadIntoDatabase(tempFile, fileName, config);
+            
+            response.put("success", !result.hasRejections());
+            response.put("message", result.hasRejections()
+                    ? "Chargement terminé avec " + result.getRejectedCount() + " ligne(s) rejetée(s)"
+                    : "Chargement terminé avec succès");
+            response.put("tableName", result.getTableName());
+            response.put("rowsInserted", result.getRowsInserted());
+            response.put("rejectedCount", result.getRejectedCount());
+            response.put("rejectedRows", result.getRejectedRows());
+            response.put("batches", result.getBatchCount());
+            response.put("commits", result.getCommitCount());
+            response.put("elapsedMillis", result.getElapsedMillis());
+            response.put("rowsPerSecond", result.getRowsPerSecond());
+            return ResponseEntity.ok(response);
+            
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+            
+        } catch (DataAccessException e) {
+            response.put("success", false);
+            response.put("message", "Erreur base de données: " + e.getMostSpecificCause().getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "Erreur lors du chargement: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            
+        } finally {
+            if (tempFile != null && !tempFile.delete()) {
+                tempFile.deleteOnExit();
+            }
+        }
+    }
+    
+    private void applyOutputOptions(ExcelMappingConfig config, Integer batchSize, String dialect) {
+        if (batchSize != null) {
+            config.setBatchSize(batchSize);
+        }
+        if (dialect != null && !dialect.trim().isEmpty()) {
+            config.setDialect(dialect);
+        }
+    }
+    
+    private ResponseEntity<StreamingResponseBody> textResponse(HttpStatus status, String message) {
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.CONTENT_TYPE, "text/plain; charset=UTF-8")
+                .body(outputStream -> outputStream.write(bytes));
+    }
+    
     @PostMapping(value = "/validate-config", consumes = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<Map<String, Object>> validateJsonConfig(@RequestBody String jsonConfig) {
         Map<String, Object> response = new HashMap<>();
@@ -106,6 +296,15 @@ public class SqlGeneratorController {
                 }
             }
             
+            try {
+                response.put("dialect", excelProcessorService.resolveDialect(config).name());
+                response.put("batchSize", excelProcessorService.resolveBatchSize(config));
+            } catch (IllegalArgumentException e) {
+                response.put("success", false);
+                response.put("message", e.getMessage());
+                return ResponseEntity.badRequest().body(response);
+            }
+            
             response.put("success", true);
             response.put("message", "Configuration JSON valide");
             response.put("tableName", config.getNomTable());
@@ -125,7 +324,9 @@ public class SqlGeneratorController {
     }
     
     @PostMapping(value = "/excel-info", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<Map<String, Object>> getExcelInfo(@RequestParam("excelFile") MultipartFile file) {
+    public ResponseEntity<Map<String, Object>> getExcelInfo(
+            @RequestParam("excelFile") MultipartFile file,
+            @RequestParam(value = "previewRows", defaultValue = "0") int previewRows) {
         Map<String, Object> response = new HashMap<>();
         
         try {
@@ -135,7 +336,7 @@ public class SqlGeneratorController {
                 return ResponseEntity.badRequest().body(response);
             }
             
-            Map<String, Object> fileInfo = excelProcessorService.getExcelFileInfo(file);
+            Map<String, Object> fileInfo = excelProcessorService.getExcelFileInfo(file, previewRows);
             
             response.put("success", true);
             response.put("message", "Informations du fichier récupérées avec succès");
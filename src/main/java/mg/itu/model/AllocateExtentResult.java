@@ -0,0 +1,66 @@
+package mg.itu.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class AllocateExtentResult {
+
+    private final String owner;
+    private final List<String> allocatedTables = new ArrayList<>();
+    private final Map<String, String> failedTables = new LinkedHashMap<>();
+    private long elapsedMillis;
+    private boolean skipped;
+
+    public AllocateExtentResult(String owner) {
+        this.owner = owner;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public List<String> getAllocatedTables() {
+        return allocatedTables;
+    }
+
+    public Map<String, String> getFailedTables() {
+        return failedTables;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public boolean isSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(boolean skipped) {
+        this.skipped = skipped;
+    }
+
+    public int getTableCount() {
+        return allocatedTables.size() + failedTables.size();
+    }
+
+    public boolean hasFailures() {
+        return !failedTables.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "AllocateExtentResult{" +
+                "owner='" + owner + '\'' +
+                ", allocated=" + allocatedTables.size() +
+                ", failed=" + failedTables.keySet() +
+                ", elapsedMillis=" + elapsedMillis +
+                ", skipped=" + skipped +
+                '}';
+    }
+}
@@ -0,0 +1,93 @@
+package mg.itu.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class BulkLoadResult {
+
+    public static final int MAX_REPORTED_REJECTIONS = 100;
+
+    private final String tableName;
+    private final Map<Long, String> rejectedRows = new LinkedHashMap<>();
+    private long rowsInserted;
+    private long rejectedCount;
+    private long batchCount;
+    private long commitCount;
+    private long elapsedMillis;
+
+    public BulkLoadResult(String tableName) {
+        this.tableName = tableName;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public long getRowsInserted() {
+        return rowsInserted;
+    }
+
+    public void addRowsInserted(long rows) {
+        this.rowsInserted += rows;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    // seules les MAX_REPORTED_REJECTIONS premières raisons sont conservées, le compteur reste exact
+    public Map<Long, String> getRejectedRows() {
+        return rejectedRows;
+    }
+
+    public void reject(long rowNumber, String reason) {
+        rejectedCount++;
+        if (rejectedRows.size() < MAX_REPORTED_REJECTIONS) {
+            rejectedRows.put(rowNumber, reason);
+        }
+    }
+
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    public void incrementBatchCount() {
+        batchCount++;
+    }
+
+    public long getCommitCount() {
+        return commitCount;
+    }
+
+    public void incrementCommitCount() {
+        commitCount++;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public long getRowsPerSecond() {
+        return elapsedMillis > 0 ? rowsInserted * 1000 / elapsedMillis : rowsInserted;
+    }
+
+    public boolean hasRejections() {
+        return rejectedCount > 0;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkLoadResult{" +
+                "tableName='" + tableName + '\'' +
+                ", rowsInserted=" + rowsInserted +
+                ", rejected=" + rejectedCount +
+                ", batches=" + batchCount +
+                ", commits=" + commitCount +
+                ", elapsedMillis=" + elapsedMillis +
+                '}';
+    }
+}
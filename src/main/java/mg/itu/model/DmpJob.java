@@ -0,0 +1,224 @@
+package mg.itu.model;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+public class DmpJob {
+
+    public enum Type {
+        EXPORT, IMPORT
+    }
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED;
+
+        public boolean isFinished() {
+            return this == COMPLETED || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    private final String id;
+    private final Type type;
+    private final String username;
+    private final String fileName;
+    private final long createdAt;
+
+    private volatile Status status = Status.QUEUED;
+    private volatile String phase = "queued";
+    private volatile long bytesTransferred;
+    // progression lue dans la sortie de imp / impdp
+    private volatile Map<String, Object> importProgress;
+    private volatile String message;
+    // cause de l'échec (type et message de l'exception, ou sortie de l'outil)
+    private volatile String error;
+    private volatile String resultPath;
+    // export conservé dans le magasin d'artefacts (store=true) : téléchargé par /api/exports/{id}
+    private volatile String artifactId;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+
+    // fichier à importer : il appartient à la tâche et est supprimé si elle est annulée avant de démarrer
+    private volatile File inputFile;
+    private volatile Future<?> future;
+    private volatile Process process;
+
+    public DmpJob(String id, Type type, String username, String fileName) {
+        this.id = id;
+        this.type = type;
+        this.username = username;
+        this.fileName = fileName;
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public synchronized void setStatus(Status status) {
+        this.status = status;
+    }
+
+    // transitions disputées entre le thread de la tâche et cancel()
+    public synchronized boolean compareAndSetStatus(Status expected, Status status) {
+        if (this.status != expected) {
+            return false;
+        }
+        this.status = status;
+        return true;
+    }
+
+    public String getPhase() {
+        return phase;
+    }
+
+    public void setPhase(String phase) {
+        this.phase = phase;
+    }
+
+    public long getBytesTransferred() {
+        return bytesTransferred;
+    }
+
+    public void setBytesTransferred(long bytesTransferred) {
+        this.bytesTransferred = bytesTransferred;
+    }
+
+    public Map<String, Object> getImportProgress() {
+        return importProgress;
+    }
+
+    public void setImportProgress(Map<String, Object> importProgress) {
+        this.importProgress = importProgress;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public String getResultPath() {
+        return resultPath;
+    }
+
+    public void setResultPath(String resultPath) {
+        this.resultPath = resultPath;
+    }
+
+    public String getArtifactId() {
+        return artifactId;
+    }
+
+    public void setArtifactId(String artifactId) {
+        this.artifactId = artifactId;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(long startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(long finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public File getInputFile() {
+        return inputFile;
+    }
+
+    public void setInputFile(File inputFile) {
+        this.inputFile = inputFile;
+    }
+
+    public Future<?> getFuture() {
+        return future;
+    }
+
+    public void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    public Process getProcess() {
+        return process;
+    }
+
+    public void setProcess(Process process) {
+        this.process = process;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("jobId", id);
+        map.put("type", type);
+        map.put("username", username);
+        map.put("fileName", fileName);
+        map.put("status", status);
+        map.put("phase", phase);
+        map.put("bytesTransferred", bytesTransferred);
+        if (importProgress != null) {
+            map.put("importProgress", importProgress);
+        }
+        map.put("message", message);
+        if (error != null) {
+            map.put("error", error);
+        }
+        map.put("resultAvailable", status == Status.COMPLETED && (resultPath != null || artifactId != null));
+        if (artifactId != null) {
+            map.put("artifactId", artifactId);
+            map.put("downloadUrl", "/api/exports/" + artifactId);
+        }
+        map.put("createdAt", createdAt);
+        map.put("startedAt", startedAt);
+        map.put("finishedAt", finishedAt);
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return "DmpJob{" +
+                "id='" + id + '\'' +
+                ", type=" + type +
+                ", username='" + username + '\'' +
+                ", status=" + status +
+                '}';
+    }
+}
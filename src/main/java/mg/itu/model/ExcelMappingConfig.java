@@ -15,6 +15,23 @@ public class ExcelMappingConfig {
     @JsonProperty("map")
     private List<MappingSection> map;
     
+    @JsonProperty("batchSize")
+    private Integer batchSize;
+    
+    @JsonProperty("dialect")
+    private String dialect;
+    
+    @JsonProperty("commitInterval")
+    private Integer commitInterval;
+    
+    // true : lire le résultat de formule enregistré par le tableur au lieu de réévaluer la formule
+    @JsonProperty("cachedFormulaResults")
+    private Boolean cachedFormulaResults;
+    
+    // encodage des fichiers CSV (UTF-8, windows-1252...), détecté automatiquement si absent ou "auto"
+    @JsonProperty("encoding")
+    private String encoding;
+    
     public ExcelMappingConfig() {}
     
     public ExcelMappingConfig(String nomTable, Map<String, String> typeMap, List<MappingSection> map) {
@@ -48,6 +65,46 @@ public class ExcelMappingConfig {
         this.map = map;
     }
     
+    public Integer getBatchSize() {
+        return batchSize;
+    }
+    
+    public void setBatchSize(Integer batchSize) {
+        this.batchSize = batchSize;
+    }
+    
+    public String getDialect() {
+        return dialect;
+    }
+    
+    public void setDialect(String dialect) {
+        this.dialect = dialect;
+    }
+    
+    public Integer getCommitInterval() {
+        return commitInterval;
+    }
+    
+    public void setCommitInterval(Integer commitInterval) {
+        this.commitInterval = commitInterval;
+    }
+    
+    public Boolean getCachedFormulaResults() {
+        return cachedFormulaResults;
+    }
+    
+    public void setCachedFormulaResults(Boolean cachedFormulaResults) {
+        this.cachedFormulaResults = cachedFormulaResults;
+    }
+    
+    public String getEncoding() {
+        return encoding;
+    }
+    
+    public void setEncoding(String encoding) {
+        this.encoding = encoding;
+    }
+    
     
     public String getFieldSqlType(String fieldName) {
         if (typeMap != null && typeMap.containsKey(fieldName)) {
@@ -67,6 +124,12 @@ public class ExcelMappingConfig {
         @JsonProperty("columnMapping")
         private Map<String, String> columnMapping;
         
+        @JsonProperty("sheet")
+        private String sheet;
+        
+        @JsonProperty("nomTable")
+        private String nomTable;
+        
         public MappingSection() {}
         
         public MappingSection(Integer debutdata, Integer findata, Map<String, String> columnMapping) {
@@ -100,6 +163,22 @@ public class ExcelMappingConfig {
             this.columnMapping = columnMapping;
         }
         
+        public String getSheet() {
+            return sheet;
+        }
+        
+        public void setSheet(String sheet) {
+            this.sheet = sheet;
+        }
+        
+        public String getNomTable() {
+            return nomTable;
+        }
+        
+        public void setNomTable(String nomTable) {
+            this.nomTable = nomTable;
+        }
+        
         
         public String getFieldName(int columnIndex) {
             return columnMapping != null ? columnMapping.get(String.valueOf(columnIndex)) : null;
@@ -116,6 +195,11 @@ public class ExcelMappingConfig {
                 "nomTable='" + nomTable + '\'' +
                 ", typeMap=" + typeMap +
                 ", map=" + map +
+                ", batchSize=" + batchSize +
+                ", dialect='" + dialect + '\'' +
+                ", commitInterval=" + commitInterval +
+                ", cachedFormulaResults=" + cachedFormulaResults +
+                ", encoding='" + encoding + '\'' +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package mg.itu.model;
+
+import mg.itu.util.FileRangeSender;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class ExportArtifact {
+
+    private final String id;
+    private final String fileName;
+    private final File file;
+    private final long createdAt;
+    private volatile long lastAccess;
+
+    public ExportArtifact(String id, String fileName, File file, long createdAt) {
+        this.id = id;
+        this.fileName = fileName;
+        this.file = file;
+        this.createdAt = createdAt;
+        this.lastAccess = System.currentTimeMillis();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public long getSize() {
+        return file.length();
+    }
+
+    public String getContentType() {
+        return contentType(fileName);
+    }
+
+    public String getEtag() {
+        return FileRangeSender.etag(file);
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getLastAccess() {
+        return lastAccess;
+    }
+
+    public void touch() {
+        this.lastAccess = System.currentTimeMillis();
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("id", id);
+        map.put("fileName", fileName);
+        map.put("size", getSize());
+        map.put("contentType", getContentType());
+        map.put("etag", getEtag());
+        map.put("createdAt", createdAt);
+        map.put("lastAccess", lastAccess);
+        map.put("downloadUrl", "/api/exports/" + id);
+        return map;
+    }
+
+    public static String contentType(String fileName) {
+        if (fileName.endsWith(".gz")) {
+            return "application/gzip";
+        }
+        return fileName.endsWith(".zip") ? "application/zip" : "application/octet-stream";
+    }
+}
@@ -0,0 +1,37 @@
+package mg.itu.model;
+
+import mg.itu.util.ImportEngine;
+
+public class ImportOptions {
+
+    public static final ImportOptions DEFAULT = new ImportOptions(null, null, false);
+
+    // null : moteur choisi d'après le format du fichier
+    private final ImportEngine engine;
+    // null : dmp.datapump.import-parallel (par défaut le nombre de cœurs du conteneur)
+    private final Integer parallel;
+    // index et contraintes créés dans une seconde passe, après le chargement des données
+    private final boolean deferIndexes;
+
+    public ImportOptions(ImportEngine engine, Integer parallel, boolean deferIndexes) {
+        this.engine = engine;
+        this.parallel = parallel;
+        this.deferIndexes = deferIndexes;
+    }
+
+    public static ImportOptions of(String engine, Integer parallel, boolean deferIndexes) {
+        return new ImportOptions(ImportEngine.fromValue(engine), parallel, deferIndexes);
+    }
+
+    public ImportEngine getEngine() {
+        return engine;
+    }
+
+    public Integer getParallel() {
+        return parallel;
+    }
+
+    public boolean isDeferIndexes() {
+        return deferIndexes;
+    }
+}
@@ -0,0 +1,187 @@
+package mg.itu.model;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class UploadSession {
+
+    private final String id;
+    private final String fileName;
+    private final long totalSize;
+    private final int chunkSize;
+    private final int chunkCount;
+    private final File file;
+    private final long createdAt;
+
+    // morceaux reçus et vérifiés ; les écritures en cours ne sont marquées qu'une fois terminées
+    private final BitSet received = new BitSet();
+    private final String[] checksums;
+    // écritures en cours par morceau : un même morceau peut être renvoyé pendant qu'une écriture précédente tourne
+    private final int[] writers;
+    private int writesInFlight;
+    private volatile long lastActivity;
+    private volatile boolean completed;
+
+    public UploadSession(String id, String fileName, long totalSize, int chunkSize, File file) {
+        this.id = id;
+        this.fileName = fileName;
+        this.totalSize = totalSize;
+        this.chunkSize = chunkSize;
+        this.chunkCount = (int) ((totalSize + chunkSize - 1) / chunkSize);
+        this.file = file;
+        this.checksums = new String[chunkCount];
+        this.writers = new int[chunkCount];
+        this.createdAt = System.currentTimeMillis();
+        this.lastActivity = createdAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public long getTotalSize() {
+        return totalSize;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public long getLastActivity() {
+        return lastActivity;
+    }
+
+    public void touch() {
+        this.lastActivity = System.currentTimeMillis();
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public synchronized void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+
+    public long chunkOffset(int index) {
+        return (long) index * chunkSize;
+    }
+
+    // le dernier morceau est plus court
+    public int chunkLength(int index) {
+        return (int) Math.min(chunkSize, totalSize - chunkOffset(index));
+    }
+
+    // le morceau est réécrit : il ne compte plus tant que la nouvelle écriture n'est pas vérifiée
+    public synchronized void markPending(int index) {
+        received.clear(index);
+        checksums[index] = null;
+    }
+
+    // vérifié sous le verrou de la session : aucun morceau ne commence une fois l'upload finalisé. chaque appel
+    // réussi doit être suivi de markReceived ou de abandonChunk
+    public synchronized boolean startChunk(int index) {
+        if (completed) {
+            return false;
+        }
+        markPending(index);
+        writers[index]++;
+        writesInFlight++;
+        return true;
+    }
+
+    // refusé tant qu'une écriture est en cours, même sur un morceau déjà reçu : elle modifierait le fichier finalisé
+    public synchronized void markCompleted() {
+        if (writesInFlight > 0) {
+            throw new IllegalStateException("Écriture de morceaux en cours : " + getChunksInFlight());
+        }
+        if (!isComplete()) {
+            throw new IllegalStateException("Morceaux manquants : " + getMissingChunks());
+        }
+        completed = true;
+    }
+
+    // sans effet une fois la session finalisée (release ou abort pendant l'écriture)
+    public synchronized void markReceived(int index, String checksum) {
+        endWrite(index);
+        if (completed) {
+            return;
+        }
+        received.set(index);
+        checksums[index] = checksum;
+    }
+
+    // écriture interrompue ou invalide : ses octets ont pu écraser ceux d'un envoi précédent du même morceau
+    public synchronized void abandonChunk(int index) {
+        endWrite(index);
+        if (!completed) {
+            markPending(index);
+        }
+    }
+
+    private void endWrite(int index) {
+        if (writers[index] == 0) {
+            throw new IllegalStateException("Aucune écriture en cours pour le morceau " + index);
+        }
+        writers[index]--;
+        writesInFlight--;
+    }
+
+    public synchronized List<Integer> getChunksInFlight() {
+        List<Integer> inFlight = new ArrayList<>();
+        for (int index = 0; index < chunkCount; index++) {
+            if (writers[index] > 0) {
+                inFlight.add(index);
+            }
+        }
+        return inFlight;
+    }
+
+    public synchronized boolean isComplete() {
+        return received.cardinality() == chunkCount;
+    }
+
+    public synchronized List<Integer> getMissingChunks() {
+        List<Integer> missing = new ArrayList<>();
+        for (int index = received.nextClearBit(0); index < chunkCount; index = received.nextClearBit(index + 1)) {
+            missing.add(index);
+        }
+        return missing;
+    }
+
+    public synchronized Map<String, Object> toMap() {
+        long bytesReceived = 0;
+        for (int index = received.nextSetBit(0); index >= 0; index = received.nextSetBit(index + 1)) {
+            bytesReceived += chunkLength(index);
+        }
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("uploadId", id);
+        map.put("fileName", fileName);
+        map.put("totalSize", totalSize);
+        map.put("chunkSize", chunkSize);
+        map.put("chunkCount", chunkCount);
+        map.put("chunksReceived", received.cardinality());
+        map.put("bytesReceived", bytesReceived);
+        map.put("missingChunks", getMissingChunks());
+        map.put("completed", completed);
+        map.put("createdAt", createdAt);
+        map.put("lastActivity", lastActivity);
+        return map;
+    }
+}
@@ -0,0 +1,21 @@
+package mg.itu.repository;
+
+import mg.itu.model.BulkLoadResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class BulkInsertRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public BulkInsertSession open(String tableName, int batchSize, int commitInterval) {
+        if (batchSize < 1 || commitInterval < 1) {
+            throw new IllegalArgumentException("batchSize et commitInterval doivent être supérieurs à 0");
+        }
+        return new BulkInsertSession(jdbcTemplate.getDataSource(), jdbcTemplate.getExceptionTranslator(),
+                new BulkLoadResult(tableName), batchSize, commitInterval);
+    }
+}
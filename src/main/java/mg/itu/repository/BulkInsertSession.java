@@ -0,0 +1,171 @@
+package mg.itu.repository;
+
+import mg.itu.model.BulkLoadResult;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.SQLExceptionTranslator;
+
+import javax.sql.DataSource;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BulkInsertSession implements AutoCloseable {
+
+    private final DataSource dataSource;
+    private final SQLExceptionTranslator exceptionTranslator;
+    private final BulkLoadResult result;
+    private final int batchSize;
+    private final int commitInterval;
+    private final Connection connection;
+    private final boolean originalAutoCommit;
+    private final Map<String, PendingBatch> batches = new LinkedHashMap<>();
+    private final long start = System.currentTimeMillis();
+    private long rowsSinceCommit;
+    private boolean finished;
+
+    BulkInsertSession(DataSource dataSource, SQLExceptionTranslator exceptionTranslator,
+                      BulkLoadResult result, int batchSize, int commitInterval) {
+        this.dataSource = dataSource;
+        this.exceptionTranslator = exceptionTranslator;
+        this.result = result;
+        this.batchSize = batchSize;
+        this.commitInterval = commitInterval;
+        this.connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            this.originalAutoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+        } catch (SQLException e) {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+            throw exceptionTranslator.translate("ouverture du chargement", null, e);
+        }
+    }
+
+    // target = "TABLE (COL1, COL2)" ; une instruction préparée par cible, réutilisée pour tout le chargement
+    public void addRow(String target, int[] sqlTypes, Object[] values, long rowNumber) {
+        PendingBatch batch = batches.get(target);
+        try {
+            if (batch == null) {
+                batch = new PendingBatch(target, sqlTypes);
+                batches.put(target, batch);
+            }
+            bind(batch, values);
+            batch.statement.addBatch();
+            batch.rows.add(values);
+            batch.rowNumbers.add(rowNumber);
+
+            if (batch.rows.size() >= batchSize) {
+                flush(batch);
+                if (rowsSinceCommit >= commitInterval) {
+                    commit();
+                }
+            }
+        } catch (SQLException e) {
+            throw exceptionTranslator.translate("chargement de " + target, batch != null ? batch.sql : null, e);
+        }
+    }
+
+    public void reject(long rowNumber, String reason) {
+        result.reject(rowNumber, reason);
+    }
+
+    public BulkLoadResult finish() {
+        try {
+            commit();
+        } catch (SQLException e) {
+            throw exceptionTranslator.translate("validation du chargement", null, e);
+        }
+        finished = true;
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        return result;
+    }
+
+    @Override
+    public void close() {
+        try {
+            for (PendingBatch batch : batches.values()) {
+                batch.statement.close();
+            }
+            if (!finished) {
+                connection.rollback();
+            }
+            connection.setAutoCommit(originalAutoCommit);
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de la fermeture du chargement: " + e.getMessage());
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private void commit() throws SQLException {
+        for (PendingBatch batch : batches.values()) {
+            flush(batch);
+        }
+        if (rowsSinceCommit > 0) {
+            connection.commit();
+            result.incrementCommitCount();
+            rowsSinceCommit = 0;
+        }
+    }
+
+    private void flush(PendingBatch batch) throws SQLException {
+        if (batch.rows.isEmpty()) {
+            return;
+        }
+
+        Savepoint savepoint = connection.setSavepoint();
+        try {
+            batch.statement.executeBatch();
+            result.addRowsInserted(batch.rows.size());
+        } catch (BatchUpdateException e) {
+            // le lot est annulé puis rejoué ligne par ligne pour isoler les lignes fautives
+            connection.rollback(savepoint);
+            batch.statement.clearBatch();
+            for (int i = 0; i < batch.rows.size(); i++) {
+                try {
+                    bind(batch, batch.rows.get(i));
+                    batch.statement.executeUpdate();
+                    result.addRowsInserted(1);
+                } catch (SQLException rowError) {
+                    result.reject(batch.rowNumbers.get(i), rowError.getMessage());
+                }
+            }
+        }
+
+        result.incrementBatchCount();
+        rowsSinceCommit += batch.rows.size();
+        batch.rows.clear();
+        batch.rowNumbers.clear();
+    }
+
+    private void bind(PendingBatch batch, Object[] values) throws SQLException {
+        for (int i = 0; i < batch.sqlTypes.length; i++) {
+            Object value = i < values.length ? values[i] : null;
+            if (value == null) {
+                batch.statement.setNull(i + 1, batch.sqlTypes[i]);
+            } else {
+                batch.statement.setObject(i + 1, value, batch.sqlTypes[i]);
+            }
+        }
+    }
+
+    private class PendingBatch {
+        private final String sql;
+        private final int[] sqlTypes;
+        private final PreparedStatement statement;
+        private final List<Object[]> rows = new ArrayList<>();
+        private final List<Long> rowNumbers = new ArrayList<>();
+
+        private PendingBatch(String target, int[] sqlTypes) throws SQLException {
+            this.sql = "INSERT INTO " + target + " VALUES (" + String.join(", ", Collections.nCopies(sqlTypes.length, "?")) + ")";
+            this.sqlTypes = sqlTypes;
+            this.statement = connection.prepareStatement(sql);
+        }
+    }
+}
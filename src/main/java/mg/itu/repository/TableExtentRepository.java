@@ -0,0 +1,124 @@
+package mg.itu.repository;
+
+import mg.itu.model.AllocateExtentResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.CallableStatement;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class TableExtentRepository {
+
+    private static final String TABLES_WITHOUT_EXTENT_QUERY =
+        "SELECT TABLE_NAME FROM DBA_TABLES " +
+        "WHERE OWNER = ? AND (NUM_ROWS IS NULL OR NUM_ROWS = 0) " +
+        "ORDER BY TABLE_NAME";
+
+    private static final String SCHEMA_FINGERPRINT_QUERY =
+        "SELECT COUNT(*) || '|' || TO_CHAR(MAX(LAST_DDL_TIME), 'YYYYMMDDHH24MISS') FROM DBA_OBJECTS " +
+        "WHERE OWNER = ? AND OBJECT_TYPE = 'TABLE'";
+
+    // DDL non regroupable par addBatch sous ojdbc (un aller-retour par ordre) : un bloc PL/SQL anonyme reçoit les ordres
+    // en variable liée et les exécute un par un, chaque échec étant rapporté sans interrompre les suivants
+    static final String ALLOCATE_EXTENT_BLOCK =
+        "DECLARE\n" +
+        "  l_statements VARCHAR2(32767) := ?;\n" +
+        "  l_failures VARCHAR2(32767);\n" +
+        "  l_start PLS_INTEGER := 1;\n" +
+        "  l_end PLS_INTEGER;\n" +
+        "  l_rank PLS_INTEGER := 0;\n" +
+        "BEGIN\n" +
+        "  WHILE l_start <= NVL(LENGTH(l_statements), 0) LOOP\n" +
+        "    l_end := INSTR(l_statements, CHR(10), l_start);\n" +
+        "    IF l_end = 0 THEN l_end := LENGTH(l_statements) + 1; END IF;\n" +
+        "    BEGIN\n" +
+        "      EXECUTE IMMEDIATE SUBSTR(l_statements, l_start, l_end - l_start);\n" +
+        "    EXCEPTION WHEN OTHERS THEN\n" +
+        "      l_failures := l_failures || l_rank || CHR(9) || SUBSTR(SQLERRM, 1, 200) || CHR(10);\n" +
+        "    END;\n" +
+        "    l_rank := l_rank + 1;\n" +
+        "    l_start := l_end + 1;\n" +
+        "  END LOOP;\n" +
+        "  ? := l_failures;\n" +
+        "END;";
+
+    // borne les variables VARCHAR2 du bloc (ordres et échecs) sous 32767 octets
+    static final int TABLES_PER_BLOCK = 100;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public String findSchemaFingerprint(String owner) {
+        return jdbcTemplate.queryForObject(SCHEMA_FINGERPRINT_QUERY, String.class, owner.toUpperCase());
+    }
+
+    public List<String> findTablesWithoutExtent(String owner) {
+        return jdbcTemplate.queryForList(TABLES_WITHOUT_EXTENT_QUERY, String.class, owner.toUpperCase());
+    }
+
+    public AllocateExtentResult allocateExtents(String owner) {
+        long start = System.currentTimeMillis();
+        String normalizedOwner = owner.toUpperCase();
+        AllocateExtentResult result = new AllocateExtentResult(normalizedOwner);
+
+        List<String> tables = findTablesWithoutExtent(normalizedOwner);
+        if (!tables.isEmpty()) {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                try (CallableStatement call = connection.prepareCall(ALLOCATE_EXTENT_BLOCK)) {
+                    for (int from = 0; from < tables.size(); from += TABLES_PER_BLOCK) {
+                        List<String> group = tables.subList(from, Math.min(from + TABLES_PER_BLOCK, tables.size()));
+                        StringBuilder statements = new StringBuilder();
+                        for (String table : group) {
+                            statements.append(allocateExtentStatement(normalizedOwner, table)).append('\n');
+                        }
+                        call.setString(1, statements.toString());
+                        call.registerOutParameter(2, Types.VARCHAR);
+                        call.execute();
+
+                        Map<Integer, String> failures = parseFailures(call.getString(2));
+                        for (int i = 0; i < group.size(); i++) {
+                            if (failures.containsKey(i)) {
+                                result.getFailedTables().put(group.get(i), failures.get(i));
+                            } else {
+                                result.getAllocatedTables().add(group.get(i));
+                            }
+                        }
+                    }
+                }
+                return null;
+            });
+        }
+
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        return result;
+    }
+
+    // "<rang>\t<SQLERRM>" par ligne, rang dans le groupe à partir de 0
+    static Map<Integer, String> parseFailures(String failures) {
+        Map<Integer, String> parsed = new HashMap<>();
+        if (failures == null) {
+            return parsed;
+        }
+        for (String line : failures.split("\n")) {
+            int tab = line.indexOf('\t');
+            if (tab > 0) {
+                parsed.put(Integer.parseInt(line.substring(0, tab).trim()), line.substring(tab + 1));
+            }
+        }
+        return parsed;
+    }
+
+    public static String allocateExtentStatement(String owner, String tableName) {
+        return "ALTER TABLE " + quoteIdentifier(owner) + "." + quoteIdentifier(tableName) + " ALLOCATE EXTENT";
+    }
+
+    private static String quoteIdentifier(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,154 @@
+package mg.itu.service;
+
+import mg.itu.model.ExportArtifact;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// exports conservés sous <dmp.export.directory>/artifacts/<id>/<fichier> pour être téléchargés par plages
+// (reprise après coupure, téléchargement segmenté en parallèle). un artefact n'apparaît qu'une fois écrit en entier
+// et n'est plus modifié ensuite ; ceux trouvés sur disque au démarrage sont repris
+@Service
+public class DmpArtifactStore {
+
+    private static final String PART_SUFFIX = ".part";
+
+    @Value("${dmp.export.directory:/tmp/exports}")
+    private String exportDirectory;
+
+    // artefacts non téléchargés depuis ce délai supprimés
+    @Value("${dmp.export.artifact-expiry-minutes:1440}")
+    private long expiryMinutes;
+
+    private final Map<String, ExportArtifact> artifacts = new ConcurrentHashMap<>();
+
+    public interface ArtifactWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    @PostConstruct
+    public void init() {
+        File[] directories = root().toFile().listFiles(File::isDirectory);
+        if (directories == null) {
+            return;
+        }
+        for (File directory : directories) {
+            File[] files = directory.listFiles(file -> file.isFile() && !file.getName().endsWith(PART_SUFFIX));
+            if (files != null && files.length == 1) {
+                artifacts.put(directory.getName(),
+                    new ExportArtifact(directory.getName(), files[0].getName(), files[0], files[0].lastModified()));
+            } else {
+                // écriture interrompue par un arrêt du serveur
+                deleteDirectory(directory.toPath());
+            }
+        }
+    }
+
+    public ExportArtifact store(String fileName, ArtifactWriter writer) throws IOException {
+        String name = fileName == null ? "" : new File(fileName.trim()).getName();
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("Le nom de l'artefact ne peut pas être vide");
+        }
+        String id = UUID.randomUUID().toString();
+        Path directory = root().resolve(id);
+        Files.createDirectories(directory);
+        Path part = directory.resolve(name + PART_SUFFIX);
+        Path target = directory.resolve(name);
+        try {
+            try (OutputStream out = Files.newOutputStream(part)) {
+                writer.writeTo(out);
+            }
+            Files.move(part, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            deleteDirectory(directory);
+            throw e;
+        }
+
+        ExportArtifact artifact = new ExportArtifact(id, name, target.toFile(), System.currentTimeMillis());
+        artifacts.put(id, artifact);
+        return artifact;
+    }
+
+    public ExportArtifact get(String artifactId) {
+        ExportArtifact artifact = artifacts.get(artifactId);
+        if (artifact == null || !artifact.getFile().exists()) {
+            throw new NoSuchElementException("Artefact introuvable : " + artifactId);
+        }
+        artifact.touch();
+        return artifact;
+    }
+
+    public List<ExportArtifact> list() {
+        List<ExportArtifact> list = new ArrayList<>(artifacts.values());
+        list.sort(Comparator.comparingLong(ExportArtifact::getCreatedAt).reversed());
+        return list;
+    }
+
+    // un téléchargement déjà ouvert se termine normalement, le fichier disparaît à sa fermeture
+    public boolean delete(String artifactId) {
+        ExportArtifact artifact = artifacts.remove(artifactId);
+        if (artifact == null) {
+            return false;
+        }
+        deleteDirectory(artifact.getFile().getParentFile().toPath());
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${dmp.export.artifact-cleanup-interval-ms:300000}")
+    public void purgeExpiredArtifacts() {
+        long threshold = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(expiryMinutes);
+        Iterator<ExportArtifact> iterator = artifacts.values().iterator();
+        while (iterator.hasNext()) {
+            ExportArtifact artifact = iterator.next();
+            if (artifact.getLastAccess() < threshold) {
+                iterator.remove();
+                deleteDirectory(artifact.getFile().getParentFile().toPath());
+            }
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        long storedBytes = 0;
+        for (ExportArtifact artifact : artifacts.values()) {
+            storedBytes += artifact.getSize();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("storedArtifacts", artifacts.size());
+        stats.put("storedBytes", storedBytes);
+        return stats;
+    }
+
+    private Path root() {
+        return Paths.get(exportDirectory, "artifacts");
+    }
+
+    private static void deleteDirectory(Path directory) {
+        File[] files = directory.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.toFile().delete();
+    }
+}
@@ -0,0 +1,451 @@
+package mg.itu.service;
+
+import mg.itu.model.DmpJob;
+import mg.itu.model.ExportArtifact;
+import mg.itu.model.ImportOptions;
+import mg.itu.util.ExportEngine;
+import mg.itu.util.ImportLogParser;
+import mg.itu.util.TransferCodec;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class DmpJobService {
+
+    @Autowired
+    private DmpService dmpService;
+
+    @Autowired
+    private DmpArtifactStore dmpArtifactStore;
+
+    @Value("${dmp.export.directory:/tmp/exports}")
+    private String exportDirectory;
+
+    @Value("${dmp.jobs.max-concurrent:4}")
+    private int maxConcurrentJobs;
+
+    @Value("${dmp.jobs.queue-capacity:32}")
+    private int queueCapacity;
+
+    @Value("${dmp.jobs.max-per-user:2}")
+    private int maxJobsPerUser;
+
+    @Value("${dmp.jobs.retention-minutes:60}")
+    private long retentionMinutes;
+
+    private final Map<String, DmpJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> activeJobsPerUser = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCounter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+            maxConcurrentJobs, maxConcurrentJobs, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "dmp-job-" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public DmpJob submitExport(String dmpFileName, String username, String password, boolean pipeline) {
+        return submitExport(dmpFileName, username, password, pipeline, null, null, null, null);
+    }
+
+    public DmpJob submitExport(String dmpFileName, String username, String password, boolean pipeline,
+                               String engine, Integer parallel, String compression, String codec) {
+        return submitExport(dmpFileName, username, password, pipeline, engine, parallel, compression, codec, false);
+    }
+
+    // options validées avant la mise en file ; le repli sur exp est décidé par la tâche.
+    // codec : résultat stocké et téléchargé compressé (.gz) ; store : résultat écrit dans le magasin d'artefacts
+    public DmpJob submitExport(String dmpFileName, String username, String password, boolean pipeline,
+                               String engine, Integer parallel, String compression, String codec, boolean store) {
+        TransferCodec transferCodec = TransferCodec.fromValue(codec);
+        if (ExportEngine.fromValue(engine) == ExportEngine.EXPDP) {
+            dmpService.resolveDataPumpParallel(parallel);
+            dmpService.resolveDataPumpCompression(compression);
+        }
+        DmpJob job = new DmpJob(UUID.randomUUID().toString(), DmpJob.Type.EXPORT, normalizeUser(username), dmpFileName);
+        return submit(job, () -> runExport(job, dmpFileName, username, password, pipeline, engine, parallel, compression,
+            transferCodec, store));
+    }
+
+    public DmpJob submitImport(MultipartFile dmpFile, String username, String password, boolean createUser) throws IOException {
+        return submitImport(dmpFile, username, password, createUser, ImportOptions.DEFAULT);
+    }
+
+    public DmpJob submitImport(MultipartFile dmpFile, String username, String password, boolean createUser,
+                               ImportOptions options) throws IOException {
+        if (options.getParallel() != null) {
+            dmpService.resolveImportParallel(options.getParallel());
+        }
+        if (dmpFile == null || dmpFile.isEmpty()) {
+            throw new IllegalArgumentException("Le fichier DMP ne peut pas être vide");
+        }
+        String originalFileName = dmpFile.getOriginalFilename();
+        DmpJob job = new DmpJob(UUID.randomUUID().toString(), DmpJob.Type.IMPORT, normalizeUser(username), originalFileName);
+
+        reserveSlot(job.getUsername());
+        File tempFile;
+        try {
+            tempFile = dmpService.createImportTempFile(originalFileName);
+            dmpFile.transferTo(tempFile);
+        } catch (IOException | RuntimeException e) {
+            releaseSlot(job.getUsername());
+            throw e;
+        }
+        job.setBytesTransferred(tempFile.length());
+        job.setInputFile(tempFile);
+
+        try {
+            return enqueue(job, () -> runImport(job, tempFile, originalFileName, username, password, createUser, options));
+        } catch (RuntimeException e) {
+            tempFile.delete();
+            throw e;
+        }
+    }
+
+    // fichier déjà sur disque (upload par morceaux) : il n'appartient à la tâche qu'une fois celle-ci acceptée,
+    // un refus (quota, file pleine) le laisse en place
+    public DmpJob submitImportFile(File dmpFile, String originalFileName, String username, String password, boolean createUser,
+                                   ImportOptions options) {
+        if (options.getParallel() != null) {
+            dmpService.resolveImportParallel(options.getParallel());
+        }
+        DmpJob job = new DmpJob(UUID.randomUUID().toString(), DmpJob.Type.IMPORT, normalizeUser(username), originalFileName);
+        job.setBytesTransferred(dmpFile.length());
+        job.setInputFile(dmpFile);
+        return submit(job, () -> runImport(job, dmpFile, originalFileName, username, password, createUser, options));
+    }
+
+    public DmpJob getJob(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    public List<DmpJob> listJobs(String username) {
+        List<DmpJob> result = new ArrayList<>();
+        for (DmpJob job : jobs.values()) {
+            if (username == null || username.trim().isEmpty() || job.getUsername().equals(normalizeUser(username))) {
+                result.add(job);
+            }
+        }
+        result.sort(Comparator.comparingLong(DmpJob::getCreatedAt));
+        return result;
+    }
+
+    public boolean cancel(String jobId) {
+        DmpJob job = jobs.get(jobId);
+        if (job == null) {
+            return false;
+        }
+        boolean queued;
+        synchronized (job) {
+            queued = job.compareAndSetStatus(DmpJob.Status.QUEUED, DmpJob.Status.CANCELLED);
+            if (!queued && !job.compareAndSetStatus(DmpJob.Status.RUNNING, DmpJob.Status.CANCELLED)) {
+                return false;
+            }
+            job.setMessage("Tâche annulée");
+            job.setFinishedAt(System.currentTimeMillis());
+        }
+        if (queued) {
+            // jamais démarrée : la tâche ne passera plus à RUNNING, son créneau et son fichier sont libérés ici
+            if (job.getFuture() != null) {
+                job.getFuture().cancel(false);
+            }
+            releaseSlot(job.getUsername());
+            if (job.getInputFile() != null) {
+                job.getInputFile().delete();
+            }
+            return true;
+        }
+        if (job.getFuture() != null) {
+            job.getFuture().cancel(true);
+        }
+        Process process = job.getProcess();
+        if (process != null) {
+            process.destroyForcibly();
+        }
+        return true;
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("activeThreads", executor.getActiveCount());
+        stats.put("queuedJobs", executor.getQueue().size());
+        stats.put("maxConcurrentJobs", maxConcurrentJobs);
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("maxJobsPerUser", maxJobsPerUser);
+        stats.put("trackedJobs", jobs.size());
+        return stats;
+    }
+
+    @Scheduled(fixedDelayString = "${dmp.jobs.cleanup-interval-ms:60000}")
+    public void purgeFinishedJobs() {
+        long threshold = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(retentionMinutes);
+        Iterator<DmpJob> iterator = jobs.values().iterator();
+        while (iterator.hasNext()) {
+            DmpJob job = iterator.next();
+            if (job.getStatus().isFinished() && job.getFinishedAt() < threshold) {
+                iterator.remove();
+                deleteResult(job);
+            }
+        }
+    }
+
+    private DmpJob submit(DmpJob job, Runnable task) {
+        reserveSlot(job.getUsername());
+        return enqueue(job, task);
+    }
+
+    private DmpJob enqueue(DmpJob job, Runnable task) {
+        jobs.put(job.getId(), job);
+        try {
+            job.setFuture(executor.submit(() -> {
+                // annulée dans la file : cancel() a déjà libéré le créneau
+                if (!start(job)) {
+                    return;
+                }
+                try {
+                    task.run();
+                } finally {
+                    job.setProcess(null);
+                    releaseSlot(job.getUsername());
+                }
+            }));
+            return job;
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            releaseSlot(job.getUsername());
+            throw new RejectedExecutionException("File d'attente des tâches pleine (" + queueCapacity + " tâches en attente)", e);
+        }
+    }
+
+    private void reserveSlot(String username) {
+        AtomicInteger counter = activeJobsPerUser.computeIfAbsent(username, key -> new AtomicInteger());
+        if (counter.incrementAndGet() > maxJobsPerUser) {
+            counter.decrementAndGet();
+            throw new IllegalStateException("L'utilisateur '" + username + "' a déjà " + maxJobsPerUser + " tâche(s) en cours");
+        }
+    }
+
+    private void releaseSlot(String username) {
+        AtomicInteger counter = activeJobsPerUser.get(username);
+        if (counter != null) {
+            counter.decrementAndGet();
+        }
+    }
+
+    private void runExport(DmpJob job, String dmpFileName, String username, String password, boolean pipeline,
+                           String engine, Integer parallel, String compression, TransferCodec codec, boolean store) {
+        Path target = null;
+        try {
+            ExportEngine exportEngine = dmpService.resolveExportEngine(engine);
+            job.setPhase(exportEngine == ExportEngine.EXPDP ? "prepare" : "allocate");
+            String preparedFileName = dmpService.prepareExport(dmpFileName, username, password, exportEngine);
+            String resultName = (exportEngine == ExportEngine.EXPDP
+                    ? dmpService.dataPumpArchiveName(preparedFileName) : preparedFileName) + codec.getExtension();
+
+            JobProgressListener listener = new JobProgressListener(job);
+            DmpArtifactStore.ArtifactWriter writer = file -> {
+                OutputStream cancellable = new CancellableOutputStream(file, job);
+                try (OutputStream out = codec == TransferCodec.GZIP ? dmpService.gzip(cancellable) : cancellable) {
+                    job.setPhase("export");
+                    if (exportEngine == ExportEngine.EXPDP) {
+                        dmpService.exportDataPump(preparedFileName, username, password, parallel, compression, out, listener);
+                    } else if (pipeline) {
+                        dmpService.exportDmpPipelined(preparedFileName, username, password, out, listener);
+                    } else {
+                        String containerFilePath = dmpService.exportPreparedDmpToContainer(preparedFileName, username, password);
+                        job.setPhase("transfer");
+                        dmpService.streamContainerDump(containerFilePath, out);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Export interrompu");
+                }
+            };
+
+            long size;
+            if (store) {
+                ExportArtifact artifact = dmpArtifactStore.store(resultName, writer);
+                job.setArtifactId(artifact.getId());
+                size = artifact.getSize();
+            } else {
+                Path jobDirectory = Paths.get(exportDirectory, "jobs", job.getId());
+                Files.createDirectories(jobDirectory);
+                target = jobDirectory.resolve(resultName);
+                try (OutputStream file = Files.newOutputStream(target)) {
+                    writer.writeTo(file);
+                }
+                job.setResultPath(target.toString());
+                size = Files.size(target);
+            }
+            complete(job, "Export réussi : " + preparedFileName + " (Taille: " + size + " bytes)");
+        } catch (Exception e) {
+            if (target != null) {
+                try {
+                    Files.deleteIfExists(target);
+                } catch (IOException ignored) {
+                }
+            }
+            fail(job, "Erreur lors de l'export : " + e.getMessage(), e);
+        }
+    }
+
+    private void runImport(DmpJob job, File tempFile, String originalFileName, String username, String password, boolean createUser,
+                           ImportOptions options) {
+        try {
+            String result = dmpService.importDmpFile(tempFile, originalFileName, username, password, createUser, options,
+                new JobProgressListener(job));
+            if (result.contains("Import optimisé réussi")) {
+                complete(job, result);
+            } else {
+                fail(job, result, null);
+            }
+        } catch (Exception e) {
+            fail(job, "Erreur lors de l'import : " + e.getMessage(), e);
+        }
+    }
+
+    private boolean start(DmpJob job) {
+        if (!job.compareAndSetStatus(DmpJob.Status.QUEUED, DmpJob.Status.RUNNING)) {
+            return false;
+        }
+        job.setStartedAt(System.currentTimeMillis());
+        return true;
+    }
+
+    // le passage à l'état final se fait sous le verrou de la tâche, comme l'annulation : l'état et le message
+    // publiés sont toujours cohérents
+    private void complete(DmpJob job, String message) {
+        synchronized (job) {
+            if (job.getStatus() == DmpJob.Status.RUNNING) {
+                job.setPhase("done");
+                job.setMessage(message);
+                job.setFinishedAt(System.currentTimeMillis());
+                job.setStatus(DmpJob.Status.COMPLETED);
+                return;
+            }
+        }
+        deleteResult(job);
+        if (job.getArtifactId() != null) {
+            dmpArtifactStore.delete(job.getArtifactId());
+        }
+    }
+
+    private void fail(DmpJob job, String message, Exception cause) {
+        synchronized (job) {
+            if (job.getStatus() != DmpJob.Status.RUNNING) {
+                return;
+            }
+            job.setError(cause != null ? cause.toString() : message);
+            job.setMessage(message);
+            job.setFinishedAt(System.currentTimeMillis());
+            job.setStatus(DmpJob.Status.FAILED);
+        }
+    }
+
+    private void deleteResult(DmpJob job) {
+        if (job.getResultPath() == null) {
+            return;
+        }
+        try {
+            Path result = Paths.get(job.getResultPath());
+            Files.deleteIfExists(result);
+            Files.deleteIfExists(result.getParent());
+        } catch (IOException e) {
+            System.err.println("Impossible de supprimer le résultat de la tâche " + job.getId() + " : " + e.getMessage());
+        }
+    }
+
+    private String normalizeUser(String username) {
+        return username == null ? "" : username.trim().toUpperCase();
+    }
+
+    private static class JobProgressListener implements DmpProgressListener {
+        private final DmpJob job;
+
+        JobProgressListener(DmpJob job) {
+            this.job = job;
+        }
+
+        @Override
+        public void onPhase(String phase) {
+            job.setPhase(phase);
+        }
+
+        @Override
+        public void onBytes(long totalBytes) {
+            job.setBytesTransferred(totalBytes);
+        }
+
+        @Override
+        public void onImportProgress(ImportLogParser progress) {
+            job.setImportProgress(progress.toMap());
+        }
+
+        @Override
+        public void onProcessStarted(Process process) {
+            job.setProcess(process);
+            if (job.getStatus() == DmpJob.Status.CANCELLED) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private static class CancellableOutputStream extends FilterOutputStream {
+        private final DmpJob job;
+        private long written;
+
+        CancellableOutputStream(OutputStream out, DmpJob job) {
+            super(out);
+            this.job = job;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (job.getStatus() == DmpJob.Status.CANCELLED || Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Tâche annulée");
+            }
+            out.write(b, off, len);
+            written += len;
+            job.setBytesTransferred(written);
+        }
+    }
+}
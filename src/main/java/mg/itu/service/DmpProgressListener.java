@@ -0,0 +1,22 @@
+package mg.itu.service;
+
+import mg.itu.util.ImportLogParser;
+
+public interface DmpProgressListener {
+
+    DmpProgressListener NONE = new DmpProgressListener() {
+    };
+
+    default void onPhase(String phase) {
+    }
+
+    default void onBytes(long totalBytes) {
+    }
+
+    default void onProcessStarted(Process process) {
+    }
+
+    // appelé à chaque table chargée ou changement de type d'objet dans la sortie de imp / impdp
+    default void onImportProgress(ImportLogParser progress) {
+    }
+}
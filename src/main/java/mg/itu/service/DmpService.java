@@ -1,8 +1,16 @@
 package mg.itu.service;
 
+import mg.itu.model.AllocateExtentResult;
+import mg.itu.model.ImportOptions;
 import mg.itu.model.OracleUser;
 import mg.itu.repository.OracleUserRepository;
+import mg.itu.repository.TableExtentRepository;
+import mg.itu.util.DumpFormat;
+import mg.itu.util.ExportEngine;
+import mg.itu.util.ImportEngine;
+import mg.itu.util.ImportLogParser;
 import mg.itu.util.OracleDockerManager;
+import mg.itu.util.SqlPlusSessionPool;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,12 +18,28 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
 
 @Service
 public class DmpService {
@@ -23,6 +47,15 @@ public class DmpService {
     @Autowired
     private OracleUserRepository userRepository;
     
+    @Autowired
+    private SqlPlusSessionPool sqlPlusSessionPool;
+    
+    @Autowired
+    private TableExtentRepository tableExtentRepository;
+    
+    @Autowired
+    private ExtentAllocationCache extentAllocationCache;
+    
     @Value("${oracle.container.name:oracle-11g-xe}")
     private String containerName;
     
@@ -44,8 +77,47 @@ public class DmpService {
     @Value("${process.timeout.minutes:30}")
     private long processTimeoutMinutes;
     
+    @Value("${docker.command:docker}")
+    private String dockerCommand;
+
+    @Value("${oracle.home:/u01/app/oracle/product/11.2.0/xe}")
+    private String oracleHome;
+
+    // objet DIRECTORY Oracle utilisé par expdp et son chemin dans le conteneur
+    @Value("${dmp.datapump.directory:DATA_PUMP_DIR}")
+    private String dataPumpDirectory;
+
+    @Value("${dmp.datapump.directory-path:/u01/app/oracle/admin/XE/dpdump}")
+    private String dataPumpDirectoryPath;
+
+    @Value("${dmp.datapump.parallel:4}")
+    private int dataPumpParallel;
+
+    // taille maximale de chaque fichier du jeu %U
+    @Value("${dmp.datapump.filesize:2G}")
+    private String dataPumpFileSize;
+
+    @Value("${dmp.datapump.compression:METADATA_ONLY}")
+    private String dataPumpCompression;
+
+    // niveau deflate des téléchargements gzip : 1 compresse déjà un dump 5 à 10 fois pour un coût CPU bien moindre que 6
+    @Value("${dmp.transfer.gzip-level:1}")
+    private int gzipLevel;
+
+    // 0 : autant de workers impdp que de cœurs dans le conteneur
+    @Value("${dmp.datapump.import-parallel:0}")
+    private int dataPumpImportParallel;
+    
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
     private volatile String cachedExpCommand = null;
     private volatile String cachedImpCommand = null;
+    private volatile String cachedExpdpCommand = null;
+    private volatile String cachedImpdpCommand = null;
+    private volatile int cachedContainerCpus = 0;
+
+    private static final Pattern SCHEMAS_OPTION = Pattern.compile("schemas=([A-Za-z0-9_$#]+)", Pattern.CASE_INSENSITIVE);
+    private static final List<String> DATA_PUMP_COMPRESSIONS = Arrays.asList("ALL", "DATA_ONLY", "METADATA_ONLY", "NONE");
 
     public List<String> getAllUsernames() {
         try {
@@ -91,41 +163,22 @@ public class DmpService {
             username.toUpperCase()
         );
 
-        String[] command = {
-            "docker", "exec", containerName,
-            "sqlplus", "-S", "sys/oracle@" + oracleSid, "as", "sysdba"
-        };
-
-        ProcessBuilder pb = new ProcessBuilder(command);
-        pb.redirectErrorStream(true);
-        Process process = pb.start();
+        String script =
+            "SET PAGESIZE 0\n" +
+            "SET FEEDBACK OFF\n" +
+            "SET HEADING OFF\n" +
+            "SET TIMING OFF\n" +
+            "SET LINESIZE 200\n" +
+            query + "\n";
 
-        try (PrintWriter writer = new PrintWriter(process.getOutputStream())) {
-            writer.println("SET PAGESIZE 0");
-            writer.println("SET FEEDBACK OFF");
-            writer.println("SET HEADING OFF");
-            writer.println("SET TIMING OFF");
-            writer.println("SET LINESIZE 200");
-            writer.println(query);
-            writer.println("EXIT;");
-            writer.flush();
-        }
+        String result = sqlPlusSessionPool.execute(script, 1, TimeUnit.MINUTES);
 
         StringBuilder output = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (line.trim().startsWith("ALTER TABLE")) {
-                    output.append(line.trim()).append("\n");
-                }
+        for (String line : result.split("\n")) {
+            if (line.trim().startsWith("ALTER TABLE")) {
+                output.append(line.trim()).append("\n");
             }
         }
-
-        boolean finished = process.waitFor(1, TimeUnit.MINUTES); 
-        if (!finished) {
-            process.destroyForcibly();
-            throw new InterruptedException("Timeout lors de la génération du script ALLOCATE EXTENT");
-        }
         
         return output.toString();
     }
@@ -135,50 +188,98 @@ public class DmpService {
             return "Aucun script à exécuter";
         }
 
-        String[] command = {
-            "docker", "exec", containerName,
-            "sqlplus", "-S", "sys/oracle@" + oracleSid, "as", "sysdba"
-        };
+        StringBuilder script = new StringBuilder();
+        script.append("SET TIMING OFF\n");
+        script.append("SET FEEDBACK OFF\n");
+        script.append("SET ECHO OFF\n");
+        script.append("BEGIN\n");
+        
+        String[] statements = allocateScript.split("\n");
+        for (String statement : statements) {
+            String trimmed = statement.trim();
+            if (trimmed.startsWith("ALTER TABLE")) {
+                // EXECUTE IMMEDIATE refuse le ; final (ORA-00911)
+                if (trimmed.endsWith(";")) {
+                    trimmed = trimmed.substring(0, trimmed.length() - 1);
+                }
+                script.append("  EXECUTE IMMEDIATE '").append(trimmed.replace("'", "''")).append("';\n");
+            }
+        }
+        
+        script.append("  COMMIT;\n");
+        script.append("END;\n");
+        script.append("/\n");
 
-        ProcessBuilder pb = new ProcessBuilder(command);
-        pb.redirectErrorStream(true);
-        Process process = pb.start();
+        String output = sqlPlusSessionPool.execute(script.toString(), 3, TimeUnit.MINUTES);
+        
+        return "Scripts exécutés en batch:\n" + output;
+    }
 
-        try (PrintWriter writer = new PrintWriter(process.getOutputStream())) {
-            writer.println("SET TIMING OFF");
-            writer.println("SET FEEDBACK OFF"); 
-            writer.println("SET ECHO OFF");
-            writer.println("BEGIN");
-            
-            String[] statements = allocateScript.split("\n");
-            for (String statement : statements) {
-                if (statement.trim().startsWith("ALTER TABLE")) {
-                    writer.println("  EXECUTE IMMEDIATE '" + statement.trim().replace("'", "''") + "';");
-                }
+    // le compte applicatif n'a souvent pas ALTER sur les tables d'un autre schéma : ses échecs sont rapportés table
+    // par table, sans exception. quand tout échoue ou que le privilège manque (ORA-01031), les tables en échec sont
+    // reprises par sqlplus en sysdba, comme avant le passage par JDBC
+    public AllocateExtentResult allocateExtents(String username) {
+        String owner = username.toUpperCase();
+        List<String> fallbackTables = null;
+        AllocateExtentResult result = new AllocateExtentResult(owner);
+        try {
+            if (extentAllocationCache.isUpToDate(owner, tableExtentRepository.findSchemaFingerprint(owner))) {
+                AllocateExtentResult skipped = new AllocateExtentResult(owner);
+                skipped.setSkipped(true);
+                return skipped;
             }
-            
-            writer.println("  COMMIT;");
-            writer.println("END;");
-            writer.println("/");
-            writer.println("EXIT;");
-            writer.flush();
+
+            AllocateExtentResult jdbcResult = tableExtentRepository.allocateExtents(owner);
+            if (!jdbcResult.hasFailures()) {
+                extentAllocationCache.update(owner, tableExtentRepository.findSchemaFingerprint(owner), jdbcResult.getAllocatedTables());
+                return jdbcResult;
+            }
+            extentAllocationCache.invalidate(owner);
+            if (!jdbcResult.getAllocatedTables().isEmpty() && !hasPrivilegeFailure(jdbcResult)) {
+                System.err.println("ALLOCATE EXTENT en échec pour " + jdbcResult.getFailedTables().keySet() + " (continuant quand même)");
+                return jdbcResult;
+            }
+
+            System.err.println("ALLOCATE EXTENT refusé au compte applicatif pour " + jdbcResult.getFailedTables().size()
+                + " table(s), repli sur sqlplus");
+            result.getAllocatedTables().addAll(jdbcResult.getAllocatedTables());
+            fallbackTables = new ArrayList<>(jdbcResult.getFailedTables().keySet());
+        } catch (Exception e) {
+            System.err.println("ALLOCATE EXTENT via JDBC impossible, repli sur sqlplus : " + e.getMessage());
         }
 
-        StringBuilder output = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                output.append(line).append("\n");
+        try {
+            if (fallbackTables != null) {
+                StringBuilder script = new StringBuilder();
+                for (String table : fallbackTables) {
+                    script.append(TableExtentRepository.allocateExtentStatement(owner, table)).append(";\n");
+                }
+                executeAllocateExtentScriptOptimized(username, script.toString());
+                result.getAllocatedTables().addAll(fallbackTables);
+                return result;
             }
+            String allocateScript = generateAllocateExtentScriptOptimized(username);
+            if (!allocateScript.trim().isEmpty()) {
+                executeAllocateExtentScriptOptimized(username, allocateScript);
+                for (String statement : allocateScript.split("\n")) {
+                    if (statement.startsWith("ALTER TABLE ")) {
+                        result.getAllocatedTables().add(statement.substring("ALTER TABLE ".length()).replace(" ALLOCATE EXTENT;", ""));
+                    }
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Erreur ALLOCATE EXTENT (continuant quand même): " + e.getMessage());
         }
+        return result;
+    }
 
-        boolean finished = process.waitFor(3, TimeUnit.MINUTES); 
-        if (!finished) {
-            process.destroyForcibly();
-            throw new InterruptedException("Timeout lors de l'exécution du script ALLOCATE EXTENT");
+    private static boolean hasPrivilegeFailure(AllocateExtentResult result) {
+        for (String message : result.getFailedTables().values()) {
+            if (message != null && message.contains("ORA-01031")) {
+                return true;
+            }
         }
-        
-        return "Scripts exécutés en batch:\n" + output.toString();
+        return false;
     }
 
     private String findExpCommandCached() throws IOException, InterruptedException {
@@ -198,13 +299,13 @@ public class DmpService {
 
     private String findExpCommand() throws IOException, InterruptedException {
         String[] possiblePaths = {
-            "/u01/app/oracle/product/11.2.0/xe/bin/exp",
+            oracleHome + "/bin/exp",
             "/u01/app/oracle/product/bin/exp",
             "$ORACLE_HOME/bin/exp"
         };
         
         for (String path : possiblePaths) {
-            String[] command = {"docker", "exec", containerName, "sh", "-c", "ls " + path + " 2>/dev/null || echo ''"};
+            String[] command = {dockerCommand, "exec", containerName, "sh", "-c", "ls " + path + " 2>/dev/null || echo ''"};
             ProcessBuilder pb = new ProcessBuilder(command);
             Process process = pb.start();
             
@@ -221,6 +322,67 @@ public class DmpService {
     }
     
     public byte[] exportDmpOptimized(String dmpFileName, String username, String password) throws IOException, InterruptedException {
+        String containerFilePath = exportDmpToContainer(dmpFileName, username, password);
+        ByteArrayOutputStream dmpOutput = new ByteArrayOutputStream();
+        streamContainerDump(containerFilePath, dmpOutput);
+        return dmpOutput.toByteArray();
+    }
+
+    public String exportDmpToContainer(String dmpFileName, String username, String password) throws IOException, InterruptedException {
+        return exportPreparedDmpToContainer(prepareExport(dmpFileName, username, password), username, password);
+    }
+
+    // dmpFileName déjà passé par prepareExport (validation, ALLOCATE EXTENT) : pas de seconde préparation
+    public String exportPreparedDmpToContainer(String dmpFileName, String username, String password) throws IOException, InterruptedException {
+        String containerFilePath = "/tmp/" + dmpFileName;
+        String logFileName = dmpFileName.replace(".dmp", ".log");
+        String containerLogPath = "/tmp/" + logFileName;
+
+        try {
+            String[] command = {
+                dockerCommand, "exec", "-i", containerName, "bash", "-c",
+                buildExpScript(username, password, containerFilePath, "")
+            };
+
+            ProcessBuilder pb = new ProcessBuilder(command);
+            pb.redirectErrorStream(true);
+            Process process = pb.start();
+
+            StringBuilder logOutput = new StringBuilder();
+
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    logOutput.append(line).append("\n");
+                }
+            }
+
+            boolean finished = process.waitFor(processTimeoutMinutes, TimeUnit.MINUTES);
+            if (!finished) {
+                process.destroyForcibly();
+                throw new InterruptedException("L'export a dépassé le délai d'attente de " + processTimeoutMinutes + " minutes");
+            }
+
+            int exitCode = process.exitValue();
+
+            if (exitCode != 0) {
+                throw new IOException("Erreur export (Code: " + exitCode + "). Détails : " + logOutput.toString().substring(0, Math.min(500, logOutput.length())));
+            }
+
+            cleanupContainerFile(containerName, containerLogPath);
+            return containerFilePath;
+
+        } catch (Exception e) {
+            throw new IOException("Erreur lors de l'export optimisé : " + e.getMessage(), e);
+        }
+    }
+
+    public String prepareExport(String dmpFileName, String username, String password) throws IOException {
+        return prepareExport(dmpFileName, username, password, ExportEngine.EXP);
+    }
+
+    // expdp exporte les tables sans segment (création différée 11g) : ALLOCATE EXTENT n'est utile qu'à exp
+    public String prepareExport(String dmpFileName, String username, String password, ExportEngine engine) throws IOException {
         if (username == null || username.trim().isEmpty()) {
             throw new IllegalArgumentException("Le nom d'utilisateur ne peut pas être vide");
         }
@@ -232,14 +394,8 @@ public class DmpService {
             throw new IllegalArgumentException("L'utilisateur '" + username + "' n'existe pas ou n'est pas actif");
         }
         
-        String allocateScript = "";
-        try {
-            allocateScript = generateAllocateExtentScriptOptimized(username);
-            if (!allocateScript.trim().isEmpty()) {
-                executeAllocateExtentScriptOptimized(username, allocateScript);
-            }
-        } catch (Exception e) {
-            System.err.println("Erreur ALLOCATE EXTENT (continuant quand même): " + e.getMessage());
+        if (engine == ExportEngine.EXP) {
+            allocateExtents(username);
         }
         
         dmpFileName = sanitizeFileName(dmpFileName);
@@ -248,31 +404,172 @@ public class DmpService {
         }
         
         createDirectoryIfNotExists(exportDirectory);
+        return dmpFileName;
+    }
+
+    private String buildExpScript(String username, String password, String containerFilePath, String extraOptions) throws IOException, InterruptedException {
+        String expCommand = findExpCommandCached(); 
+        String connectString = String.format("%s/%s", username.toLowerCase(), password);
+        System.out.println("connection = " + username.toLowerCase() + "@//" + oracleHost + ":" + oraclePort + "/" + oracleSid);
         
+        return String.format("su - oracle -c 'export ORACLE_HOME=%s && " +
+                             "export PATH=$ORACLE_HOME/bin:$PATH && " +
+                             "%s %s@//%s:%s/%s file=%s%s statistics=none compress=y direct=y recordlength=65535 buffer=10485760'",
+                             oracleHome, expCommand, connectString, oracleHost, oraclePort, oracleSid, containerFilePath, extraOptions);
+    }
+
+    public long exportDmpPipelined(String dmpFileName, String username, String password, OutputStream out) throws IOException {
+        return exportDmpPipelined(dmpFileName, username, password, out, DmpProgressListener.NONE);
+    }
+
+    public long exportDmpPipelined(String dmpFileName, String username, String password, OutputStream out,
+                                   DmpProgressListener listener) throws IOException {
         String containerFilePath = "/tmp/" + dmpFileName;
-        String logFileName = dmpFileName.replace(".dmp", ".log");
-        String containerLogPath = "/tmp/" + logFileName;
+        String containerLogPath = "/tmp/" + dmpFileName.replace(".dmp", ".log");
+        String containerStatusPath = "/tmp/" + dmpFileName.replace(".dmp", ".rc");
 
+        Process process = null;
         try {
-            String expCommand = findExpCommandCached(); 
-            String connectString = String.format("%s/%s", username.toLowerCase(), password);
-            System.out.println("connection = " + connectString + "@//" + oracleHost + ":" + oraclePort + "/" + oracleSid);
-            
-            String[] command = {
-                "docker", "exec", "-i", containerName, "bash", "-c",
-                String.format("su - oracle -c 'export ORACLE_HOME=/u01/app/oracle/product/11.2.0/xe && " +
-                              "export PATH=$ORACLE_HOME/bin:$PATH && " +
-                              "%s %s@//%s:%s/%s file=%s statistics=none compress=y direct=y recordlength=65535 buffer=10485760'",
-                              expCommand, connectString, oracleHost, oraclePort, oracleSid, containerFilePath)
-            };
+            String expScript = buildExpScript(username, password, containerFilePath, " log=" + containerLogPath);
+
+            String pipelineScript = String.format(
+                "rm -f %1$s %2$s; mkfifo -m 666 %1$s || exit 97; " +
+                "( %3$s > /dev/null 2>&1; echo $? > %2$s; ( [ -p %1$s ] && exec 3<>%1$s; sleep 1 ) > /dev/null 2>&1 & ) & " +
+                "EXP_PID=$!; cat %1$s; wait $EXP_PID; RC=$(cat %2$s 2>/dev/null || echo 98); rm -f %1$s %2$s; exit $RC",
+                containerFilePath, containerStatusPath, expScript);
 
+            String[] command = {dockerCommand, "exec", "-i", containerName, "bash", "-c", pipelineScript};
+            ProcessBuilder pb = new ProcessBuilder(command);
+            pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+            process = pb.start();
+            listener.onProcessStarted(process);
+
+            long totalBytes = 0;
+            try (InputStream inputStream = process.getInputStream()) {
+                byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+                int bytesRead;
+                while ((bytesRead = inputStream.read(buffer)) != -1) {
+                    out.write(buffer, 0, bytesRead);
+                    totalBytes += bytesRead;
+                    listener.onBytes(totalBytes);
+                }
+            }
+            out.flush();
+
+            boolean finished = process.waitFor(processTimeoutMinutes, TimeUnit.MINUTES);
+            if (!finished) {
+                throw new IOException("L'export a dépassé le délai d'attente de " + processTimeoutMinutes + " minutes");
+            }
+
+            int exitCode = process.exitValue();
+            if (exitCode != 0) {
+                String details = readContainerFile(containerLogPath);
+                throw new IOException("Erreur export (Code: " + exitCode + "). Détails : " + details.substring(0, Math.min(500, details.length())));
+            }
+
+            if (totalBytes == 0) {
+                throw new IOException("Export terminé mais le fichier DMP est vide.");
+            }
+
+            return totalBytes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Export en pipeline interrompu", e);
+        } finally {
+            if (process != null && process.isAlive()) {
+                process.destroyForcibly();
+            }
+            try {
+                cleanupContainerFile(containerName, containerLogPath);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+            }
+        }
+    }
+
+    // à terminer par finish() : le flux sous-jacent reste à l'appelant
+    public GZIPOutputStream gzip(OutputStream out) throws IOException {
+        int level = gzipLevel;
+        return new GZIPOutputStream(out, STREAM_BUFFER_SIZE) {
+            {
+                def.setLevel(level);
+            }
+        };
+    }
+
+    // EXPDP demandé sur une image sans Data Pump (certaines XE) : repli sur exp
+    public ExportEngine resolveExportEngine(String engine) throws IOException {
+        ExportEngine requested = ExportEngine.fromValue(engine);
+        if (requested != ExportEngine.EXPDP) {
+            return requested;
+        }
+        try {
+            if (findExpdpCommandCached().isEmpty()) {
+                System.err.println("expdp introuvable dans le conteneur " + containerName + ", repli sur exp");
+                return ExportEngine.EXP;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Détection de expdp interrompue", e);
+        }
+        return ExportEngine.EXPDP;
+    }
+
+    public int resolveDataPumpParallel(Integer parallel) {
+        int degree = parallel != null ? parallel : dataPumpParallel;
+        if (degree < 1) {
+            throw new IllegalArgumentException("Le degré de parallélisme doit être supérieur à 0 : " + degree);
+        }
+        return degree;
+    }
+
+    public String resolveDataPumpCompression(String compression) {
+        String mode = compression == null || compression.trim().isEmpty() ? dataPumpCompression : compression.trim().toUpperCase();
+        if (mode == null || !DATA_PUMP_COMPRESSIONS.contains(mode)) {
+            throw new IllegalArgumentException("Compression Data Pump non supportée: " + compression
+                    + " (valeurs possibles: " + DATA_PUMP_COMPRESSIONS + ")");
+        }
+        return mode;
+    }
+
+    public String dataPumpArchiveName(String dmpFileName) {
+        return dataPumpBaseName(dmpFileName) + ".zip";
+    }
+
+    private String dataPumpBaseName(String dmpFileName) {
+        return dmpFileName.endsWith(".dmp") ? dmpFileName.substring(0, dmpFileName.length() - 4) : dmpFileName;
+    }
+
+    // expdp PARALLEL=n écrit un jeu base_01.dmp, base_02.dmp... dans le DIRECTORY Data Pump ; les workers gardent
+    // leurs fichiers ouverts jusqu'à la fin du job, le jeu est donc envoyé dans un zip (entrées non recompressées)
+    // une fois expdp terminé, chaque fichier étant supprimé du conteneur dès qu'il est transmis
+    public long exportDataPump(String dmpFileName, String username, String password, Integer parallel, String compression,
+                               OutputStream out, DmpProgressListener listener) throws IOException {
+        int degree = resolveDataPumpParallel(parallel);
+        String compressionMode = resolveDataPumpCompression(compression);
+        String baseName = dataPumpBaseName(dmpFileName);
+        String logFileName = baseName + "_expdp.log";
+        String filePattern = dataPumpDirectoryPath + "/" + baseName + "_*.dmp";
+
+        Process process = null;
+        try {
+            String expdpScript = String.format("su - oracle -c 'export ORACLE_HOME=%s && " +
+                                 "export PATH=$ORACLE_HOME/bin:$PATH && " +
+                                 "%s %s/%s@//%s:%s/%s schemas=%s directory=%s dumpfile=%s_%%U.dmp logfile=%s " +
+                                 "parallel=%d filesize=%s compression=%s reuse_dumpfiles=y'",
+                                 oracleHome, findExpdpCommandCached(), username.toLowerCase(), password,
+                                 oracleHost, oraclePort, oracleSid, username.toUpperCase(), dataPumpDirectory,
+                                 baseName, logFileName, degree, dataPumpFileSize, compressionMode);
+
+            String[] command = {dockerCommand, "exec", "-i", containerName, "bash", "-c", expdpScript};
+            listener.onPhase("export");
             ProcessBuilder pb = new ProcessBuilder(command);
             pb.redirectErrorStream(true);
-            Process process = pb.start();
+            process = pb.start();
+            listener.onProcessStarted(process);
 
-            ByteArrayOutputStream dmpOutput = new ByteArrayOutputStream();
             StringBuilder logOutput = new StringBuilder();
-
             try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
                 String line;
                 while ((line = reader.readLine()) != null) {
@@ -282,59 +579,254 @@ public class DmpService {
 
             boolean finished = process.waitFor(processTimeoutMinutes, TimeUnit.MINUTES);
             if (!finished) {
-                process.destroyForcibly();
-                throw new InterruptedException("L'export a dépassé le délai d'attente de " + processTimeoutMinutes + " minutes");
+                throw new IOException("L'export a dépassé le délai d'attente de " + processTimeoutMinutes + " minutes");
             }
 
             int exitCode = process.exitValue();
+            if (exitCode != 0) {
+                throw new IOException("Erreur export Data Pump (Code: " + exitCode + "). Détails : " + logOutput.toString().substring(0, Math.min(500, logOutput.length())));
+            }
 
-            if (exitCode == 0) {
-                String[] catCommand = {
-                    "docker", "exec", containerName, "cat", containerFilePath
-                };
-                ProcessBuilder catPb = new ProcessBuilder(catCommand);
-                catPb.redirectErrorStream(true);
-                Process catProcess = catPb.start();
-
-                try (InputStream inputStream = catProcess.getInputStream()) {
-                    byte[] buffer = new byte[8192];
-                    int bytesRead;
-                    while ((bytesRead = inputStream.read(buffer)) != -1) {
-                        dmpOutput.write(buffer, 0, bytesRead);
-                    }
-                }
+            List<String> dumpFiles = listContainerFiles(filePattern);
+            if (dumpFiles.isEmpty()) {
+                throw new IOException("Export Data Pump terminé mais aucun fichier DMP n'a été produit.");
+            }
 
-                boolean catFinished = catProcess.waitFor(30, TimeUnit.SECONDS);
-                if (!catFinished) {
-                    catProcess.destroyForcibly();
-                    throw new IOException("Timeout lors de la lecture du fichier DMP depuis le conteneur");
-                }
+            listener.onPhase("transfer");
+            // le zip n'est pas fermé : out reste à l'appelant
+            ZipOutputStream zip = new ZipOutputStream(out);
+
+            // les fichiers Data Pump sont déjà compressés selon COMPRESSION : deflate niveau 0 (blocs non compressés).
+            // une entrée STORED exigerait taille et CRC avant l'écriture, donc une seconde lecture de chaque fichier ;
+            // ici le CRC est calculé par ZipOutputStream pendant l'envoi et écrit dans le descripteur de données
+            zip.setLevel(Deflater.NO_COMPRESSION);
+            long totalBytes = 0;
+            for (String dumpFile : dumpFiles) {
+                zip.putNextEntry(new ZipEntry(dumpFile.substring(dumpFile.lastIndexOf('/') + 1)));
+                totalBytes += streamContainerDump(dumpFile, zip);
+                zip.closeEntry();
+                listener.onBytes(totalBytes);
+            }
+
+            String logPath = dataPumpDirectoryPath + "/" + logFileName;
+            if (!listContainerFiles(logPath).isEmpty()) {
+                byte[] log = readContainerFile(logPath).getBytes(StandardCharsets.UTF_8);
+                CRC32 crc = new CRC32();
+                crc.update(log);
+                zip.putNextEntry(storedEntry(logFileName, log.length, crc.getValue()));
+                zip.write(log);
+                zip.closeEntry();
+            }
+            zip.finish();
+            out.flush();
+
+            return totalBytes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Export Data Pump interrompu", e);
+        } finally {
+            if (process != null && process.isAlive()) {
+                process.destroyForcibly();
+            }
+            try {
+                cleanupContainerFiles(filePattern + " " + dataPumpDirectoryPath + "/" + logFileName);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+            }
+        }
+    }
+
+    private String findExpdpCommandCached() throws IOException, InterruptedException {
+        if (cachedExpdpCommand != null) {
+            return cachedExpdpCommand;
+        }
 
-                int catExitCode = catProcess.exitValue();
-                if (catExitCode != 0) {
-                    throw new IOException("Échec de la lecture du fichier DMP depuis le conteneur (code: " + catExitCode + ")");
+        synchronized (this) {
+            if (cachedExpdpCommand != null) {
+                return cachedExpdpCommand;
+            }
+
+            cachedExpdpCommand = findDataPumpCommand("expdp");
+            return cachedExpdpCommand;
+        }
+    }
+
+    private String findImpdpCommandCached() throws IOException, InterruptedException {
+        if (cachedImpdpCommand != null) {
+            return cachedImpdpCommand;
+        }
+
+        synchronized (this) {
+            if (cachedImpdpCommand != null) {
+                return cachedImpdpCommand;
+            }
+
+            cachedImpdpCommand = findDataPumpCommand("impdp");
+            return cachedImpdpCommand;
+        }
+    }
+
+    // "" si le binaire Data Pump n'existe pas dans l'image
+    private String findDataPumpCommand(String binary) throws IOException, InterruptedException {
+        String path = oracleHome + "/bin/" + binary;
+        String[] command = {dockerCommand, "exec", containerName, "sh", "-c", "ls " + path + " 2>/dev/null || echo ''"};
+        Process process = new ProcessBuilder(command).start();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String result = reader.readLine();
+            process.waitFor(3, TimeUnit.SECONDS);
+            if (result != null && result.trim().endsWith(binary)) {
+                return result.trim();
+            }
+        }
+        return "";
+    }
+
+    private List<String> listContainerFiles(String pattern) throws IOException, InterruptedException {
+        String[] command = {dockerCommand, "exec", containerName, "sh", "-c", "ls -1 " + pattern + " 2>/dev/null"};
+        Process process = new ProcessBuilder(command).start();
+
+        List<String> files = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    files.add(line.trim());
                 }
+            }
+        }
+        process.waitFor(10, TimeUnit.SECONDS);
+        Collections.sort(files);
+        return files;
+    }
+
+    private static ZipEntry storedEntry(String name, long size, long crc) {
+        ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(size);
+        entry.setCompressedSize(size);
+        entry.setCrc(crc);
+        return entry;
+    }
+
+    private String readContainerFile(String containerPath) throws IOException, InterruptedException {
+        String[] command = {dockerCommand, "exec", containerName, "cat", containerPath};
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.redirectErrorStream(true);
+        Process process = pb.start();
 
-                byte[] fileContent = dmpOutput.toByteArray();
-                if (fileContent.length == 0) {
-                    throw new IOException("Export terminé mais le fichier DMP est vide.");
+        StringBuilder output = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                output.append(line).append("\n");
+            }
+        }
+        process.waitFor(10, TimeUnit.SECONDS);
+        return output.toString();
+    }
+
+    public long streamContainerDump(String containerFilePath, OutputStream out) throws IOException {
+        String[] catCommand = {
+            dockerCommand, "exec", containerName, "cat", containerFilePath
+        };
+        ProcessBuilder catPb = new ProcessBuilder(catCommand);
+        catPb.redirectError(ProcessBuilder.Redirect.INHERIT);
+        Process catProcess = catPb.start();
+
+        try {
+            long totalBytes = 0;
+            try (InputStream inputStream = catProcess.getInputStream()) {
+                byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+                int bytesRead;
+                while ((bytesRead = inputStream.read(buffer)) != -1) {
+                    out.write(buffer, 0, bytesRead);
+                    totalBytes += bytesRead;
                 }
+            }
+            out.flush();
+
+            boolean catFinished = catProcess.waitFor(30, TimeUnit.SECONDS);
+            if (!catFinished) {
+                throw new IOException("Timeout lors de la lecture du fichier DMP depuis le conteneur");
+            }
+
+            int catExitCode = catProcess.exitValue();
+            if (catExitCode != 0) {
+                throw new IOException("Échec de la lecture du fichier DMP depuis le conteneur (code: " + catExitCode + ")");
+            }
+
+            if (totalBytes == 0) {
+                throw new IOException("Export terminé mais le fichier DMP est vide.");
+            }
 
+            return totalBytes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Lecture du fichier DMP interrompue", e);
+        } finally {
+            if (catProcess.isAlive()) {
+                catProcess.destroyForcibly();
+            }
+            try {
                 cleanupContainerFile(containerName, containerFilePath);
-                cleanupContainerFile(containerName, containerLogPath);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+            }
+        }
+    }
 
-                return fileContent;
-            } else {
-                throw new IOException("Erreur export (Code: " + exitCode + "). Détails : " + logOutput.toString().substring(0, Math.min(500, logOutput.length())));
+    // taille du dump lue par stat dans le conteneur, sans le transférer ; le fichier est supprimé comme après un transfert
+    public long containerDumpSize(String containerFilePath) throws IOException {
+        String[] command = {dockerCommand, "exec", containerName, "stat", "-c", "%s", containerFilePath};
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.redirectErrorStream(true);
+        Process process = pb.start();
+
+        try {
+            String output;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                output = reader.readLine();
             }
 
-        } catch (Exception e) {
-            throw new IOException("Erreur lors de l'export optimisé : " + e.getMessage(), e);
+            boolean finished = process.waitFor(30, TimeUnit.SECONDS);
+            if (!finished) {
+                throw new IOException("Timeout lors de la lecture de la taille du fichier DMP dans le conteneur");
+            }
+            if (process.exitValue() != 0) {
+                throw new IOException("Fichier DMP introuvable dans le conteneur (code: " + process.exitValue() + ") : " + output);
+            }
+
+            long size;
+            try {
+                size = Long.parseLong(output == null ? "" : output.trim());
+            } catch (NumberFormatException e) {
+                throw new IOException("Taille du fichier DMP illisible : " + output);
+            }
+            if (size == 0) {
+                throw new IOException("Export terminé mais le fichier DMP est vide.");
+            }
+            return size;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Lecture de la taille du fichier DMP interrompue", e);
+        } finally {
+            if (process.isAlive()) {
+                process.destroyForcibly();
+            }
+            try {
+                cleanupContainerFile(containerName, containerFilePath);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+            }
         }
     }
 
     private void copyFileFromContainerOptimized(String containerName, String containerPath, String hostPath) throws IOException, InterruptedException {
-        String[] command = {"docker", "cp", containerName + ":" + containerPath, hostPath};
+        String[] command = {dockerCommand, "cp", containerName + ":" + containerPath, hostPath};
         ProcessBuilder pb = new ProcessBuilder(command);
         pb.redirectErrorStream(true);
         Process process = pb.start();
@@ -368,13 +860,13 @@ public class DmpService {
 
     private String findImpCommand() throws IOException, InterruptedException {
         String[] possiblePaths = {
-            "/u01/app/oracle/product/11.2.0/xe/bin/imp",
+            oracleHome + "/bin/imp",
             "/u01/app/oracle/product/bin/imp",
             "$ORACLE_HOME/bin/imp"
         };
         
         for (String path : possiblePaths) {
-            String[] command = {"docker", "exec", containerName, "sh", "-c", "ls " + path + " 2>/dev/null || echo ''"};
+            String[] command = {dockerCommand, "exec", containerName, "sh", "-c", "ls " + path + " 2>/dev/null || echo ''"};
             ProcessBuilder pb = new ProcessBuilder(command);
             Process process = pb.start();
             
@@ -391,25 +883,49 @@ public class DmpService {
     }
 
     public boolean createOracleUser(String username, String password) throws Exception {
-        return new OracleDockerManager().createUser(username, password);
+        return new OracleDockerManager(sqlPlusSessionPool).createUser(username, password);
     }
 
     public String importDmpOptimized(MultipartFile dmpFile, String username, String password, boolean createUser) throws IOException, InterruptedException {
+        return importDmpOptimized(dmpFile, username, password, createUser, ImportOptions.DEFAULT);
+    }
+
+    public String importDmpOptimized(MultipartFile dmpFile, String username, String password, boolean createUser,
+                                     ImportOptions options) throws IOException, InterruptedException {
         if (dmpFile == null || dmpFile.isEmpty()) {
             throw new IllegalArgumentException("Le fichier DMP ne peut pas être vide");
         }
+        validateImportParameters(dmpFile.getOriginalFilename(), username, password);
+
+        File tempFile = createImportTempFile(dmpFile.getOriginalFilename());
+        try {
+            dmpFile.transferTo(tempFile);
+        } catch (IOException e) {
+            tempFile.delete();
+            throw new IOException("Erreur import optimisé : " + e.getMessage(), e);
+        }
+        return importDmpFile(tempFile, dmpFile.getOriginalFilename(), username, password, createUser, options, DmpProgressListener.NONE);
+    }
+
+    public File createImportTempFile(String originalFileName) throws IOException {
+        createDirectoryIfNotExists(importDirectory);
+        return new File(importDirectory + "/" + "temp_" + System.currentTimeMillis() + "_" + sanitizeFileName(originalFileName));
+    }
+
+    private void validateImportParameters(String originalFileName, String username, String password) {
         if (username == null || username.trim().isEmpty()) {
             throw new IllegalArgumentException("Le nom d'utilisateur ne peut pas être vide");
         }
         if (password == null || password.trim().isEmpty()) {
             throw new IllegalArgumentException("Le mot de passe ne peut pas être vide");
         }
-
-        String originalFileName = dmpFile.getOriginalFilename();
-        if (originalFileName == null || !originalFileName.endsWith(".dmp")) {
-            throw new IllegalArgumentException("Le fichier doit être un fichier .dmp valide");
+        String name = originalFileName != null ? stripCompressionExtension(originalFileName) : null;
+        if (name == null || !(name.endsWith(".dmp") || name.endsWith(".zip"))) {
+            throw new IllegalArgumentException("Le fichier doit être un fichier .dmp valide ou une archive .zip Data Pump (éventuellement .gz)");
         }
+    }
 
+    private void prepareImportUser(String username, String password, boolean createUser) throws IOException {
         if (createUser) {
             try {
                 boolean createResult = createOracleUser(username, password);
@@ -424,81 +940,464 @@ public class DmpService {
                 throw new IllegalArgumentException("L'utilisateur '" + username + "' n'existe pas.");
             }
         }
+    }
 
-        createDirectoryIfNotExists(importDirectory);
+    public String importDmpFile(File tempFile, String originalFileName, String username, String password, boolean createUser,
+                                DmpProgressListener listener) throws IOException, InterruptedException {
+        return importDmpFile(tempFile, originalFileName, username, password, createUser, ImportOptions.DEFAULT, listener);
+    }
+
+    public String importDmpFile(File tempFile, String originalFileName, String username, String password, boolean createUser,
+                                ImportOptions options, DmpProgressListener listener) throws IOException, InterruptedException {
+        ImportEngine engine;
+        DumpFormat format;
+        try {
+            validateImportParameters(originalFileName, username, password);
+            format = detectDumpFormat(tempFile);
+            if (format == DumpFormat.GZIP || format == DumpFormat.ZSTD) {
+                // décompressé à la volée par le chemin en flux, sans fichier intermédiaire
+                try (InputStream in = new FileInputStream(tempFile)) {
+                    return importDmpStream(in, originalFileName, username, password, createUser, options, listener);
+                } finally {
+                    tempFile.delete();
+                }
+            }
+            engine = resolveImportEngine(options.getEngine(), format);
+            listener.onPhase("user");
+            prepareImportUser(username, password, createUser);
+        } catch (IOException | RuntimeException e) {
+            tempFile.delete();
+            throw e;
+        }
+
+        if (engine == ImportEngine.IMPDP) {
+            try (InputStream in = new FileInputStream(tempFile)) {
+                return importDataPump(in, format == DumpFormat.ZIP, originalFileName, username, password, createUser, options, listener);
+            } finally {
+                tempFile.delete();
+            }
+        }
 
-        String sanitizedFileName = sanitizeFileName(originalFileName);
-        File tempFile = new File(importDirectory + "/" + "temp_" + System.currentTimeMillis() + "_" + sanitizedFileName);
         String containerFilePath = "/tmp/" + tempFile.getName();
-        String logFileName = sanitizedFileName.replace(".dmp", "_import.log");
-        String containerLogPath = "/tmp/" + logFileName;
-        String hostLogPath = importDirectory + "/" + logFileName;
 
         try {
-            dmpFile.transferTo(tempFile);
+            listener.onPhase("copy");
             copyFileToContainerOptimized(tempFile.getAbsolutePath(), containerName, containerFilePath);
+            tempFile.delete();
+        } catch (Exception e) {
+            tempFile.delete();
+            cleanupContainerFileQuietly(containerFilePath);
+            throw new IOException("Erreur import optimisé : " + e.getMessage(), e);
+        }
 
-            String impCommand = findImpCommandCached(); 
+        return runImport(containerFilePath, originalFileName, username, password, createUser, options.isDeferIndexes(), listener);
+    }
 
-            String connectString = String.format("%s/%s", username, password);
-            
-            String[] command = {
-                "docker", "exec", containerName, "sh", "-c",
-                String.format("export ORACLE_HOME=/u01/app/oracle/product/11.2.0/xe && " +
-                             "export PATH=$ORACLE_HOME/bin:$PATH && " +
-                             "%s %s file=%s log=%s full=y ignore=y " +
-                             "statistics=none commit=y recordlength=65535 buffer=10485760",
-                             impCommand, connectString, containerFilePath, containerLogPath)
-            };
+    public String importDmpStream(InputStream dmpStream, String originalFileName, String username, String password, boolean createUser,
+                                  DmpProgressListener listener) throws IOException, InterruptedException {
+        return importDmpStream(dmpStream, originalFileName, username, password, createUser, ImportOptions.DEFAULT, listener);
+    }
 
-            ProcessBuilder pb = new ProcessBuilder(command);
-            pb.redirectErrorStream(true);
-            Process process = pb.start();
+    public String importDmpStream(InputStream dmpStream, String originalFileName, String username, String password, boolean createUser,
+                                  ImportOptions options, DmpProgressListener listener) throws IOException, InterruptedException {
+        validateImportParameters(originalFileName, username, password);
+        BufferedInputStream in = new BufferedInputStream(dmpStream, STREAM_BUFFER_SIZE);
+        DumpFormat format = peekDumpFormat(in);
+        if (format == DumpFormat.ZSTD) {
+            throw new IllegalArgumentException("Les envois compressés en zstd ne sont pas pris en charge, utilisez gzip");
+        }
+        if (format == DumpFormat.GZIP) {
+            // décompressé à la volée : imp / impdp reçoivent le dump d'origine
+            in = new BufferedInputStream(new GZIPInputStream(in, STREAM_BUFFER_SIZE), STREAM_BUFFER_SIZE);
+            format = peekDumpFormat(in);
+            originalFileName = stripCompressionExtension(originalFileName);
+        }
+        ImportEngine engine = resolveImportEngine(options.getEngine(), format);
+
+        listener.onPhase("user");
+        prepareImportUser(username, password, createUser);
+
+        if (engine == ImportEngine.IMPDP) {
+            return importDataPump(in, format == DumpFormat.ZIP, originalFileName, username, password, createUser, options, listener);
+        }
+
+        String containerFilePath = "/tmp/" + "temp_" + System.currentTimeMillis() + "_" + sanitizeFileName(originalFileName);
+
+        try {
+            listener.onPhase("upload");
+            long size = streamToContainer(in, containerFilePath, listener);
+            if (size == 0) {
+                throw new IllegalArgumentException("Le fichier DMP ne peut pas être vide");
+            }
+        } catch (IllegalArgumentException e) {
+            cleanupContainerFileQuietly(containerFilePath);
+            throw e;
+        } catch (Exception e) {
+            cleanupContainerFileQuietly(containerFilePath);
+            throw new IOException("Erreur import optimisé : " + e.getMessage(), e);
+        }
+
+        return runImport(containerFilePath, originalFileName, username, password, createUser, options.isDeferIndexes(), listener);
+    }
+
+    // moteur demandé, sinon celui qu'impose le format : imp ne lit pas les fichiers Data Pump et inversement
+    private ImportEngine resolveImportEngine(ImportEngine requested, DumpFormat format) throws IOException {
+        ImportEngine engine = requested;
+        if (engine == null) {
+            engine = format == DumpFormat.CLASSIC ? ImportEngine.IMP : ImportEngine.IMPDP;
+        } else if (engine == ImportEngine.IMP && format == DumpFormat.ZIP) {
+            throw new IllegalArgumentException("Une archive .zip Data Pump ne peut être importée qu'avec impdp");
+        }
+        if (engine == ImportEngine.IMPDP) {
+            try {
+                if (findImpdpCommandCached().isEmpty()) {
+                    throw new IOException("impdp introuvable dans le conteneur " + containerName);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Détection de impdp interrompue", e);
+            }
+        }
+        return engine;
+    }
+
+    // l'en-tête est relu depuis le tampon : le flux part ensuite intact vers le conteneur
+    private DumpFormat peekDumpFormat(BufferedInputStream in) throws IOException {
+        in.mark(DumpFormat.HEADER_LENGTH);
+        byte[] header = new byte[DumpFormat.HEADER_LENGTH];
+        int headerLength = readFully(in, header);
+        in.reset();
+        if (headerLength == 0) {
+            throw new IllegalArgumentException("Le fichier DMP ne peut pas être vide");
+        }
+        return DumpFormat.detect(header, headerLength);
+    }
+
+    private static String stripCompressionExtension(String fileName) {
+        if (fileName.endsWith(".gz")) {
+            return fileName.substring(0, fileName.length() - 3);
+        }
+        if (fileName.endsWith(".zst")) {
+            return fileName.substring(0, fileName.length() - 4);
+        }
+        return fileName;
+    }
+
+    private DumpFormat detectDumpFormat(File file) throws IOException {
+        byte[] header = new byte[DumpFormat.HEADER_LENGTH];
+        try (InputStream in = new FileInputStream(file)) {
+            return DumpFormat.detect(header, readFully(in, header));
+        }
+    }
+
+    private static int readFully(InputStream in, byte[] buffer) throws IOException {
+        int total = 0;
+        int read;
+        while (total < buffer.length && (read = in.read(buffer, total, buffer.length - total)) != -1) {
+            total += read;
+        }
+        return total;
+    }
+
+    public int resolveImportParallel(Integer parallel) {
+        int degree = parallel != null ? parallel : dataPumpImportParallel;
+        if (degree < 0) {
+            throw new IllegalArgumentException("Le degré de parallélisme ne peut pas être négatif : " + degree);
+        }
+        return degree > 0 ? degree : containerCpuCount();
+    }
+
+    private int containerCpuCount() {
+        if (cachedContainerCpus > 0) {
+            return cachedContainerCpus;
+        }
+        int cpus = Runtime.getRuntime().availableProcessors();
+        try {
+            String[] command = {dockerCommand, "exec", containerName, "nproc"};
+            Process process = new ProcessBuilder(command).start();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String result = reader.readLine();
+                if (result != null && result.trim().matches("\\d+")) {
+                    cpus = Integer.parseInt(result.trim());
+                }
+            }
+            process.waitFor(3, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("nproc indisponible dans le conteneur, " + cpus + " cœurs supposés : " + e.getMessage());
+        }
+        cachedContainerCpus = Math.max(1, cpus);
+        return cachedContainerCpus;
+    }
+
+    // le fichier (ou chaque .dmp d'une archive produite par exportDataPump) est déposé dans le DIRECTORY Data Pump ;
+    // le schéma source est lu dans le journal expdp de l'archive pour le remap vers l'utilisateur cible
+    private String importDataPump(InputStream in, boolean archive, String originalFileName, String username, String password, boolean createUser,
+                                  ImportOptions options, DmpProgressListener listener) throws IOException {
+        String prefix = "imp_" + System.currentTimeMillis() + "_";
+        List<String> stagedFiles = new ArrayList<>();
+        String sourceSchema = null;
+        try {
+            listener.onPhase("upload");
+            if (archive) {
+                ZipInputStream zip = new ZipInputStream(in);
+                ZipEntry entry;
+                while ((entry = zip.getNextEntry()) != null) {
+                    String name = sanitizeFileName(entry.getName().substring(entry.getName().lastIndexOf('/') + 1));
+                    if (name.endsWith(".dmp")) {
+                        String containerFilePath = dataPumpDirectoryPath + "/" + prefix + name;
+                        stagedFiles.add(containerFilePath);
+                        streamToContainer(zip, containerFilePath, listener);
+                    } else if (name.endsWith(".log")) {
+                        sourceSchema = readSourceSchema(zip);
+                    }
+                }
+            } else {
+                String containerFilePath = dataPumpDirectoryPath + "/" + prefix + sanitizeFileName(originalFileName);
+                stagedFiles.add(containerFilePath);
+                streamToContainer(in, containerFilePath, listener);
+            }
+            if (stagedFiles.isEmpty()) {
+                throw new IllegalArgumentException("L'archive ne contient aucun fichier DMP");
+            }
+
+            return runDataPumpImport(stagedFiles, sourceSchema, originalFileName, username, password, createUser, options, listener);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import Data Pump interrompu", e);
+        } catch (Exception e) {
+            throw new IOException("Erreur import Data Pump : " + e.getMessage(), e);
+        } finally {
+            for (String stagedFile : stagedFiles) {
+                cleanupContainerFileQuietly(stagedFile);
+            }
+        }
+    }
+
+    // la ligne de commande expdp est recopiée en tête de son journal : "... schemas=SCOTT directory=..."
+    private static String readSourceSchema(InputStream log) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(log, StandardCharsets.UTF_8));
+        String schema = null;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            Matcher matcher = SCHEMAS_OPTION.matcher(line);
+            if (schema == null && matcher.find()) {
+                schema = matcher.group(1).toUpperCase();
+            }
+        }
+        return schema;
+    }
+
+    private String runDataPumpImport(List<String> dumpFiles, String sourceSchema, String originalFileName, String username,
+                                     String password, boolean createUser, ImportOptions options,
+                                     DmpProgressListener listener) throws IOException, InterruptedException {
+        int degree = resolveImportParallel(options.getParallel());
+        StringBuilder dumpFileNames = new StringBuilder();
+        for (String dumpFile : dumpFiles) {
+            if (dumpFileNames.length() > 0) {
+                dumpFileNames.append(',');
+            }
+            dumpFileNames.append(dumpFile.substring(dumpFile.lastIndexOf('/') + 1));
+        }
+        String remap = sourceSchema != null && !sourceSchema.equalsIgnoreCase(username)
+            ? " remap_schema=" + sourceSchema + ":" + username.toUpperCase() : "";
+        String baseName = dumpFileNames.toString().split(",")[0].replace(".dmp", "");
+        String logFileName = baseName + "_impdp.log";
+        String hostLogPath = importDirectory + "/" + sanitizeFileName(originalFileName).replaceAll("\\.(dmp|zip)$", "") + "_impdp.log";
+
+        createDirectoryIfNotExists(importDirectory);
+        ImportLogParser parser = new ImportLogParser();
+
+        listener.onPhase("import");
+        int exitCode = runImportProcess(buildImpdpScript(username, password, dumpFileNames.toString(), logFileName, degree,
+            remap + (options.isDeferIndexes() ? " exclude=INDEX,CONSTRAINT,REF_CONSTRAINT" : "")), parser, listener);
+        copyImportLog(dataPumpDirectoryPath + "/" + logFileName, hostLogPath);
+
+        if (exitCode == 0 && options.isDeferIndexes()) {
+            listener.onPhase("indexes");
+            String indexLogFileName = baseName + "_impdp_indexes.log";
+            exitCode = runImportProcess(buildImpdpScript(username, password, dumpFileNames.toString(), indexLogFileName, degree,
+                remap + " content=METADATA_ONLY include=INDEX,CONSTRAINT,REF_CONSTRAINT"), parser, listener);
+            copyImportLog(dataPumpDirectoryPath + "/" + indexLogFileName, hostLogPath.replace("_impdp.log", "_impdp_indexes.log"));
+        }
+
+        // tables créées ou remplacées par l'import : la prochaine passe ALLOCATE EXTENT doit avoir lieu
+        extentAllocationCache.invalidate(username);
+
+        String userAction = createUser ? " (Utilisateur créé)" : " (Utilisateur existant)";
+        String summary = " [impdp, parallel=" + degree + "] " + parser.getTablesImported() + " tables, "
+            + parser.getRowsImported() + " lignes";
+        if (exitCode == 0) {
+            return "Import optimisé réussi : " + originalFileName + userAction + summary + ". Journal : " + hostLogPath;
+        }
+        return "Erreur import (Code: " + exitCode + ")" + userAction + summary + ". Journal : " + hostLogPath;
+    }
+
+    private String[] buildImpdpScript(String username, String password, String dumpFileNames, String logFileName, int degree,
+                                      String extraOptions) throws IOException, InterruptedException {
+        String script = String.format("su - oracle -c 'export ORACLE_HOME=%s && " +
+                        "export PATH=$ORACLE_HOME/bin:$PATH && " +
+                        "%s %s/%s@//%s:%s/%s directory=%s dumpfile=%s logfile=%s parallel=%d table_exists_action=append%s'",
+                        oracleHome, findImpdpCommandCached(), username.toLowerCase(), password, oracleHost, oraclePort, oracleSid,
+                        dataPumpDirectory, dumpFileNames, logFileName, degree, extraOptions);
+        return new String[] {dockerCommand, "exec", "-i", containerName, "bash", "-c", script};
+    }
+
+    // la sortie de imp / impdp est analysée au fil de l'eau pour publier la progression pendant l'import
+    private int runImportProcess(String[] command, ImportLogParser parser, DmpProgressListener listener) throws IOException, InterruptedException {
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.redirectErrorStream(true);
+        Process process = pb.start();
+        listener.onProcessStarted(process);
 
-            StringBuilder output = new StringBuilder();
+        try {
             try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
                 String line;
                 while ((line = reader.readLine()) != null) {
-                    output.append(line).append("\n");
+                    if (parser.accept(line)) {
+                        listener.onImportProgress(parser);
+                    }
                 }
             }
 
             boolean finished = process.waitFor(processTimeoutMinutes, TimeUnit.MINUTES);
             if (!finished) {
-                process.destroyForcibly();
                 throw new InterruptedException("L'import a dépassé le délai d'attente");
             }
+            return process.exitValue();
+        } finally {
+            if (process.isAlive()) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private void copyImportLog(String containerLogPath, String hostLogPath) {
+        try {
+            copyFileFromContainerOptimized(containerName, containerLogPath, hostLogPath);
+        } catch (Exception e) {
+        }
+        cleanupContainerFileQuietly(containerLogPath);
+    }
+
+    private long streamToContainer(InputStream in, String containerFilePath, DmpProgressListener listener) throws IOException, InterruptedException {
+        String[] command = {dockerCommand, "exec", "-i", containerName, "sh", "-c", "cat > " + containerFilePath};
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.redirectErrorStream(true);
+        pb.redirectOutput(ProcessBuilder.Redirect.INHERIT);
+        Process process = pb.start();
+        listener.onProcessStarted(process);
+
+        long totalBytes = 0;
+        try {
+            ReadableByteChannel source = Channels.newChannel(in);
+            try (WritableByteChannel target = Channels.newChannel(process.getOutputStream())) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(STREAM_BUFFER_SIZE);
+                while (source.read(buffer) != -1) {
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        totalBytes += target.write(buffer);
+                    }
+                    buffer.clear();
+                    listener.onBytes(totalBytes);
+                }
+            }
 
+            boolean finished = process.waitFor(60, TimeUnit.SECONDS);
+            if (!finished) {
+                throw new IOException("Timeout lors de l'écriture du fichier dans le conteneur");
+            }
             int exitCode = process.exitValue();
+            if (exitCode != 0) {
+                throw new IOException("Échec copie vers conteneur (code: " + exitCode + ")");
+            }
+            return totalBytes;
+        } finally {
+            if (process.isAlive()) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    // deferIndexes : première passe sans index ni contraintes (indexes=n constraints=n), puis une passe rows=n
+    // qui les crée une fois les données chargées
+    private String runImport(String containerFilePath, String originalFileName, String username, String password, boolean createUser,
+                             boolean deferIndexes, DmpProgressListener listener) throws IOException {
+        String sanitizedFileName = sanitizeFileName(originalFileName);
+        String logFileName = sanitizedFileName.replace(".dmp", "_import.log");
+        String containerLogPath = "/tmp/" + logFileName;
+        String hostLogPath = importDirectory + "/" + logFileName;
+
+        try {
+            createDirectoryIfNotExists(importDirectory);
+
+            ImportLogParser parser = new ImportLogParser();
+            listener.onPhase("import");
+            int exitCode = runImportProcess(buildImpCommand(username, password, containerFilePath, containerLogPath,
+                deferIndexes ? " indexes=n constraints=n" : ""), parser, listener);
 
             try {
                 copyFileFromContainerOptimized(containerName, containerLogPath, hostLogPath);
             } catch (Exception e) {
             }
 
+            if (exitCode == 0 && deferIndexes) {
+                listener.onPhase("indexes");
+                String indexLogPath = containerLogPath.replace("_import.log", "_import_indexes.log");
+                exitCode = runImportProcess(buildImpCommand(username, password, containerFilePath, indexLogPath, " rows=n"),
+                    parser, listener);
+                try {
+                    copyFileFromContainerOptimized(containerName, indexLogPath, hostLogPath.replace("_import.log", "_import_indexes.log"));
+                } catch (Exception e) {
+                }
+            }
+
+            extentAllocationCache.invalidate(username);
+
             String userAction = createUser ? " (Utilisateur créé)" : " (Utilisateur existant)";
+            String summary = " [imp] " + parser.getTablesImported() + " tables, " + parser.getRowsImported() + " lignes";
             
             if (exitCode == 0) {
-                return "Import optimisé réussi : " + originalFileName + userAction + ". Journal : " + hostLogPath;
+                return "Import optimisé réussi : " + originalFileName + userAction + summary + ". Journal : " + hostLogPath;
             } else {
-                return "Erreur import (Code: " + exitCode + ")" + userAction + ". Journal : " + hostLogPath;
+                return "Erreur import (Code: " + exitCode + ")" + userAction + summary + ". Journal : " + hostLogPath;
             }
 
         } catch (Exception e) {
             throw new IOException("Erreur import optimisé : " + e.getMessage(), e);
         } finally {
-            if (tempFile.exists()) {
-                tempFile.delete();
-            }
-            try {
-                cleanupContainerFile(containerName, containerFilePath);
-            } catch (Exception e) {
-            }
+            cleanupContainerFileQuietly(containerFilePath);
+        }
+    }
+
+    private String[] buildImpCommand(String username, String password, String containerFilePath, String containerLogPath,
+                                     String extraOptions) throws IOException, InterruptedException {
+        String impCommand = findImpCommandCached(); 
+        String connectString = String.format("%s/%s", username, password);
+        return new String[] {
+            dockerCommand, "exec", containerName, "sh", "-c",
+            String.format("export ORACLE_HOME=%s && " +
+                         "export PATH=$ORACLE_HOME/bin:$PATH && " +
+                         "%s %s file=%s log=%s full=y ignore=y " +
+                         "statistics=none commit=y recordlength=65535 buffer=10485760%s",
+                         oracleHome, impCommand, connectString, containerFilePath, containerLogPath, extraOptions)
+        };
+    }
+
+    private void cleanupContainerFileQuietly(String containerPath) {
+        try {
+            cleanupContainerFile(containerName, containerPath);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
         }
     }
 
     private void copyFileToContainerOptimized(String hostPath, String containerName, String containerPath) throws IOException, InterruptedException {
-        String[] command = {"docker", "cp", hostPath, containerName + ":" + containerPath};
+        String[] command = {dockerCommand, "cp", hostPath, containerName + ":" + containerPath};
         ProcessBuilder pb = new ProcessBuilder(command);
         pb.redirectErrorStream(true);
         Process process = pb.start();
@@ -536,7 +1435,7 @@ public class DmpService {
     }
 
     public String startOracleContainer() throws IOException, InterruptedException {
-        String[] command = {"sudo", "docker", "start", containerName};
+        String[] command = {"sudo", dockerCommand, "start", containerName};
         ProcessBuilder pb = new ProcessBuilder(command);
         pb.redirectErrorStream(true);
         Process process = pb.start();
@@ -561,7 +1460,7 @@ public class DmpService {
     public String diagnoseOracleEnvironment() throws IOException, InterruptedException {
         StringBuilder diagnosis = new StringBuilder();
         
-        String[] envCommand = {"docker", "exec", containerName, "sh", "-c", "env | grep ORACLE"};
+        String[] envCommand = {dockerCommand, "exec", containerName, "sh", "-c", "env | grep ORACLE"};
         ProcessBuilder pb = new ProcessBuilder(envCommand);
         Process process = pb.start();
         
@@ -591,8 +1490,15 @@ public class DmpService {
         }
     }
 
+    // motifs séparés par des espaces, développés par le shell du conteneur
+    private void cleanupContainerFiles(String patterns) throws IOException, InterruptedException {
+        String[] command = {dockerCommand, "exec", containerName, "sh", "-c", "rm -f " + patterns};
+        Process process = new ProcessBuilder(command).start();
+        process.waitFor(5, TimeUnit.SECONDS);
+    }
+
     private void cleanupContainerFile(String containerName, String containerPath) throws IOException, InterruptedException {
-        String[] command = {"docker", "exec", containerName, "rm", "-f", containerPath};
+        String[] command = {dockerCommand, "exec", containerName, "rm", "-f", containerPath};
         Process process = new ProcessBuilder(command).start();
         process.waitFor(5, TimeUnit.SECONDS); 
     }
@@ -0,0 +1,248 @@
+package mg.itu.service;
+
+import mg.itu.model.UploadSession;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// upload d'un DMP en morceaux numérotés envoyés en parallèle et rejouables : chaque morceau est écrit à sa position
+// dans un fichier préalloué, vérifié par SHA-256, et le fichier complet est remis au flux d'import existant
+@Service
+public class DmpUploadService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MIN_CHUNK_SIZE = 64 * 1024;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    @Value("${dmp.import.directory:/tmp/imports}")
+    private String importDirectory;
+
+    @Value("${dmp.upload.chunk-size:8388608}")
+    private int defaultChunkSize;
+
+    @Value("${dmp.upload.max-chunk-size:67108864}")
+    private int maxChunkSize;
+
+    @Value("${dmp.upload.max-size:68719476736}")
+    private long maxUploadSize;
+
+    // sessions sans activité supprimées avec leur fichier
+    @Value("${dmp.upload.expiry-minutes:1440}")
+    private long expiryMinutes;
+
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    public UploadSession initiate(String fileName, long totalSize, Integer chunkSize) throws IOException {
+        if (fileName == null || fileName.trim().isEmpty()) {
+            throw new IllegalArgumentException("Le nom du fichier ne peut pas être vide");
+        }
+        if (totalSize <= 0 || totalSize > maxUploadSize) {
+            throw new IllegalArgumentException("Taille de fichier invalide : " + totalSize + " (maximum " + maxUploadSize + " octets)");
+        }
+        int size = chunkSize != null ? chunkSize : defaultChunkSize;
+        if (size < MIN_CHUNK_SIZE || size > maxChunkSize) {
+            throw new IllegalArgumentException("Taille de morceau invalide : " + size + " (entre " + MIN_CHUNK_SIZE + " et " + maxChunkSize + " octets)");
+        }
+
+        Path directory = Paths.get(importDirectory, "uploads");
+        Files.createDirectories(directory);
+        String id = UUID.randomUUID().toString();
+        File file = directory.resolve(id + ".part").toFile();
+        // taille finale réservée d'emblée : les morceaux arrivent dans n'importe quel ordre
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(totalSize);
+        }
+
+        UploadSession session = new UploadSession(id, fileName, totalSize, size, file);
+        sessions.put(id, session);
+        return session;
+    }
+
+    public UploadSession getSession(String uploadId) {
+        UploadSession session = sessions.get(uploadId);
+        if (session == null) {
+            throw new NoSuchElementException("Upload introuvable : " + uploadId);
+        }
+        return session;
+    }
+
+    // un morceau interrompu n'est pas marqué reçu et peut être renvoyé ; renvoyer un morceau déjà reçu le réécrit
+    public String writeChunk(String uploadId, int index, InputStream body, String expectedSha256) throws IOException {
+        UploadSession session = getSession(uploadId);
+        if (index < 0 || index >= session.getChunkCount()) {
+            throw new IllegalArgumentException("Morceau " + index + " hors limites (0 à " + (session.getChunkCount() - 1) + ")");
+        }
+        if (!session.startChunk(index)) {
+            throw new IllegalStateException("L'upload " + uploadId + " est déjà finalisé");
+        }
+        session.touch();
+
+        // l'écriture reste comptée jusqu'ici : complete est refusé tant qu'elle n'est pas terminée
+        String checksum = null;
+        try {
+            checksum = receiveChunk(session, index, body, expectedSha256);
+        } finally {
+            if (checksum == null) {
+                session.abandonChunk(index);
+            }
+        }
+        session.markReceived(index, checksum);
+        session.touch();
+        return checksum;
+    }
+
+    private String receiveChunk(UploadSession session, int index, InputStream body, String expectedSha256) throws IOException {
+        int length = session.chunkLength(index);
+        long position = session.chunkOffset(index);
+        MessageDigest digest = sha256();
+        ReadableByteChannel source = Channels.newChannel(body);
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long written = 0;
+
+        try (FileChannel channel = FileChannel.open(session.getFile().toPath(), StandardOpenOption.WRITE)) {
+            while (written < length) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), length - written));
+                int read = source.read(buffer);
+                if (read == -1) {
+                    break;
+                }
+                buffer.flip();
+                digest.update(buffer.array(), 0, buffer.limit());
+                while (buffer.hasRemaining()) {
+                    written += channel.write(buffer, position + written);
+                }
+            }
+        }
+
+        if (written < length) {
+            throw new IllegalArgumentException("Morceau " + index + " incomplet : " + written + " octets reçus sur " + length);
+        }
+        if (body.read() != -1) {
+            throw new IllegalArgumentException("Morceau " + index + " trop long : " + length + " octets attendus");
+        }
+        String checksum = toHex(digest.digest());
+        if (expectedSha256 != null && !expectedSha256.trim().isEmpty() && !expectedSha256.trim().equalsIgnoreCase(checksum)) {
+            throw new IllegalArgumentException("Somme de contrôle invalide pour le morceau " + index + " : " + checksum);
+        }
+        return checksum;
+    }
+
+    // fichier assemblé prêt pour l'import. la session est finalisée avant le calcul de la somme de contrôle : un
+    // morceau envoyé en même temps est refusé et ne peut plus modifier le fichier. complete peut être rappelé tant que
+    // release n'est pas appelé ; une somme de contrôle invalide rouvre la session pour renvoyer les morceaux
+    public File complete(String uploadId, String expectedSha256) throws IOException {
+        UploadSession session = getSession(uploadId);
+        session.markCompleted();
+        session.touch();
+        if (expectedSha256 != null && !expectedSha256.trim().isEmpty()) {
+            String checksum;
+            try {
+                checksum = fileSha256(session.getFile());
+            } catch (IOException | RuntimeException e) {
+                session.setCompleted(false);
+                throw e;
+            }
+            if (!expectedSha256.trim().equalsIgnoreCase(checksum)) {
+                session.setCompleted(false);
+                throw new IllegalArgumentException("Somme de contrôle du fichier invalide : " + checksum);
+            }
+        }
+        return session.getFile();
+    }
+
+    // le fichier appartient désormais à l'import
+    public void release(String uploadId) {
+        UploadSession session = sessions.remove(uploadId);
+        if (session != null) {
+            session.setCompleted(true);
+        }
+    }
+
+    public boolean abort(String uploadId) {
+        UploadSession session = sessions.remove(uploadId);
+        if (session == null) {
+            return false;
+        }
+        session.setCompleted(true);
+        session.getFile().delete();
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${dmp.upload.cleanup-interval-ms:300000}")
+    public void purgeExpiredUploads() {
+        long threshold = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(expiryMinutes);
+        Iterator<UploadSession> iterator = sessions.values().iterator();
+        while (iterator.hasNext()) {
+            UploadSession session = iterator.next();
+            if (session.getLastActivity() < threshold) {
+                iterator.remove();
+                session.getFile().delete();
+            }
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        long reservedBytes = 0;
+        for (UploadSession session : sessions.values()) {
+            reservedBytes += session.getTotalSize();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("activeUploads", sessions.size());
+        stats.put("reservedBytes", reservedBytes);
+        return stats;
+    }
+
+    private static String fileSha256(File file) throws IOException {
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer.array(), 0, buffer.limit());
+                buffer.clear();
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 non disponible", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(hex);
+    }
+}
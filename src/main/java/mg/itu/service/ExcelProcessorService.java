@@ -1,68 +1,179 @@
 package mg.itu.service;
 
+import mg.itu.model.BulkLoadResult;
 import mg.itu.model.ExcelMappingConfig;
+import mg.itu.repository.BulkInsertRepository;
+import mg.itu.repository.BulkInsertSession;
+import mg.itu.util.CellValueConverter;
+import mg.itu.util.ColumnarSheet;
+import mg.itu.util.CsvRowReader;
+import mg.itu.util.MappingPlan;
+import mg.itu.util.SpreadsheetProbe;
+import mg.itu.util.RowHandler;
+import mg.itu.util.SheetData;
+import mg.itu.util.SqlDialect;
+import mg.itu.util.SqlLoaderWriter;
+import mg.itu.util.SqlScriptWriter;
+import mg.itu.util.XlsxStreamingReader;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.opencsv.CSVReader;
 import com.opencsv.exceptions.CsvException;
-import com.opencsv.exceptions.CsvValidationException;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.odftoolkit.odfdom.doc.OdfSpreadsheetDocument;
 import org.odftoolkit.odfdom.doc.table.OdfTable;
 import org.odftoolkit.odfdom.doc.table.OdfTableCell;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.text.SimpleDateFormat;
+import java.io.InterruptedIOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 @Service
 public class ExcelProcessorService {
     
+    public static final int DEFAULT_COMMIT_INTERVAL = 10000;
+    
+    @Autowired
+    private BulkInsertRepository bulkInsertRepository;
+    
+    @Autowired
+    private UploadCache uploadCache;
+    
+    @Value("${excel.sections.parallelism:0}")
+    private int sectionParallelism;
+    
+    // lignes converties gardées en mémoire par section lue en avance ; au-delà elles débordent sur disque
+    @Value("${excel.sections.buffer-rows:1024}")
+    private int sectionBufferRows = 1024;
+    
+    // INSERT ... VALUES (...), (...) n'existe qu'à partir d'Oracle 23ai (ORA-00933 sur la base 11g XE cible)
+    @Value("${sql.dialect.multi-values-enabled:false}")
+    private boolean multiValuesEnabled;
+    
+    private ThreadPoolExecutor sectionExecutor;
+    
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
     
 
-    public String generateSqlScript(MultipartFile file, String jsonConfig) throws IOException, CsvException {
-        ExcelMappingConfig config = parseJsonConfig(jsonConfig);
-        List<List<String>> fileData = readFile(file);
-        return generateInsertScript(fileData, config);
+    @PostConstruct
+    public void init() {
+        if (sectionParallelism <= 0) {
+            sectionParallelism = Runtime.getRuntime().availableProcessors();
+        }
+        if (sectionParallelism > 1) {
+            AtomicInteger threadCounter = new AtomicInteger();
+            sectionExecutor = new ThreadPoolExecutor(
+                sectionParallelism, sectionParallelism, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "excel-section-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        }
     }
     
-    public ExcelMappingConfig parseJsonConfig(String jsonConfig) throws JsonProcessingException {
-        return objectMapper.readValue(jsonConfig, ExcelMappingConfig.class);
+    @PreDestroy
+    public void shutdown() {
+        if (sectionExecutor != null) {
+            sectionExecutor.shutdownNow();
+        }
     }
     
-    private List<List<String>> readFile(MultipartFile file) throws IOException, CsvException {
+    public String generateSqlScript(MultipartFile file, String jsonConfig) throws IOException, CsvException {
+        return generateSqlScript(file, parseJsonConfig(jsonConfig));
+    }
+    
+    public String generateSqlScript(MultipartFile file, ExcelMappingConfig config) throws IOException, CsvException {
         String fileName = file.getOriginalFilename();
         if (fileName == null) {
             throw new IOException("Nom de fichier non disponible");
         }
         
+        File tempFile = copyToTempFile(file);
+        try {
+            StringWriter output = new StringWriter();
+            writeSqlScript(tempFile, fileName, config, output);
+            return output.toString();
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+    
+    public ExcelMappingConfig parseJsonConfig(String jsonConfig) throws JsonProcessingException {
+        return objectMapper.readValue(jsonConfig, ExcelMappingConfig.class);
+    }
+    
+    public SqlDialect resolveDialect(ExcelMappingConfig config) {
+        SqlDialect dialect = SqlDialect.fromValue(config.getDialect());
+        if (dialect == SqlDialect.MULTI_VALUES && !multiValuesEnabled) {
+            throw new IllegalArgumentException("Le dialecte MULTI_VALUES n'est accepté que par Oracle 23ai et plus "
+                    + "(ORA-00933 sur Oracle 11g) : activer sql.dialect.multi-values-enabled pour une base 23ai");
+        }
+        return dialect;
+    }
+    
+    public int resolveBatchSize(ExcelMappingConfig config) {
+        if (config.getBatchSize() == null) {
+            return SqlScriptWriter.DEFAULT_BATCH_SIZE;
+        }
+        if (config.getBatchSize() < 1) {
+            throw new IllegalArgumentException("batchSize doit être supérieur à 0");
+        }
+        return config.getBatchSize();
+    }
+    
+    public int resolveCommitInterval(ExcelMappingConfig config) {
+        if (config.getCommitInterval() == null) {
+            return DEFAULT_COMMIT_INTERVAL;
+        }
+        if (config.getCommitInterval() < 1) {
+            throw new IllegalArgumentException("commitInterval doit être supérieur à 0");
+        }
+        return config.getCommitInterval();
+    }
+    
+    public File copyToTempFile(MultipartFile file) throws IOException {
+        File tempFile = File.createTempFile("upload_", "_" + file.getOriginalFilename().replaceAll("[^a-zA-Z0-9._-]", "_"));
         try (InputStream inputStream = file.getInputStream()) {
-            if (fileName.endsWith(".xlsx")) {
-                return readExcelFile(new XSSFWorkbook(inputStream));
-            } else if (fileName.endsWith(".xls")) {
-                return readExcelFile(new HSSFWorkbook(inputStream));
-            } else if (fileName.endsWith(".csv")) {
-                return readCsvFile(inputStream);
-            } else if (fileName.endsWith(".ods")) {
-                return readOdsFile(inputStream);
-            } else {
-                throw new IOException("Type de fichier non supporté: " + fileName);
-            }
+            Files.copy(inputStream, tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile.toPath());
+            throw e;
         }
+        return tempFile;
     }
     
-    private List<List<String>> readExcelFile(Workbook workbook) throws IOException {
-        List<List<String>> data = new ArrayList<>();
-        Sheet sheet = workbook.getSheetAt(0);
+    // evaluator partagé par toutes les feuilles du classeur, null pour lire les résultats de formule en cache
+    SheetData readExcelFile(Workbook workbook, int sheetIndex, FormulaEvaluator evaluator) throws IOException {
+        Sheet sheet = workbook.getSheetAt(sheetIndex);
         
         int maxColumns = 0;
         for (Row row : sheet) {
@@ -71,67 +182,51 @@ public class ExcelProcessorService {
             }
         }
         
+        ColumnarSheet.Builder data = new ColumnarSheet.Builder();
+        String[] rowData = new String[maxColumns];
+        List<String> rowView = Arrays.asList(rowData);
         for (Row row : sheet) {
-            List<String> rowData = new ArrayList<>();
             for (int cellIndex = 0; cellIndex < maxColumns; cellIndex++) {
                 Cell cell = row.getCell(cellIndex);
-                rowData.add(getCellValueAsString(cell));
+                rowData[cellIndex] = getCellValueAsString(cell, evaluator);
             }
-            data.add(rowData);
+            data.add(rowView);
         }
         
-        workbook.close();
-        return data;
+        return data.build();
     }
     
-    private List<List<String>> readCsvFile(InputStream inputStream) throws IOException, CsvException {
-        List<List<String>> data = new ArrayList<>();
-        try (CSVReader csvReader = new CSVReader(new InputStreamReader(inputStream))) {
-            List<String[]> allRows = csvReader.readAll();
-            
-            int maxColumns = 0;
-            for (String[] csvRow : allRows) {
-                if (csvRow.length > maxColumns) {
-                    maxColumns = csvRow.length;
-                }
-            }
-            
-            for (String[] csvRow : allRows) {
-                List<String> rowData = new ArrayList<>();
-                for (int i = 0; i < maxColumns; i++) {
-                    rowData.add(i < csvRow.length ? csvRow[i] : "");
-                }
-                data.add(rowData);
+    SheetData readOdsTable(OdfTable table) {
+        int rowCount = table.getRowCount();
+        int maxColumns = table.getColumnCount();
+        
+        ColumnarSheet.Builder data = new ColumnarSheet.Builder();
+        String[] rowData = new String[maxColumns];
+        List<String> rowView = Arrays.asList(rowData);
+        for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+            for (int colIndex = 0; colIndex < maxColumns; colIndex++) {
+                OdfTableCell cell = table.getCellByPosition(colIndex, rowIndex);
+                String value = cell.getStringValue() != null ? cell.getStringValue() : "";
+                rowData[colIndex] = value;
             }
-        } catch (CsvValidationException e) {
-            throw new IOException("Erreur lors de la lecture du fichier CSV: " + e.getMessage());
+            data.add(rowView);
         }
-        return data;
+        return data.build();
     }
     
-    private List<List<String>> readOdsFile(InputStream inputStream) throws IOException {
-        List<List<String>> data = new ArrayList<>();
-        try (OdfSpreadsheetDocument odsDoc = OdfSpreadsheetDocument.loadDocument(inputStream)) {
-            OdfTable table = odsDoc.getTableList().get(0);
-            int rowCount = table.getRowCount();
-            int maxColumns = table.getColumnCount();
-            
-            for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
-                List<String> rowData = new ArrayList<>();
-                for (int colIndex = 0; colIndex < maxColumns; colIndex++) {
-                    OdfTableCell cell = table.getCellByPosition(colIndex, rowIndex);
-                    String value = cell.getStringValue() != null ? cell.getStringValue() : "";
-                    rowData.add(value);
+    // encoding null : BOM, sinon UTF-8 si l'échantillon est valide, sinon Windows-1252
+    void readCsvFile(File file, Charset encoding, RowHandler handler) throws IOException {
+        try (CsvRowReader csvReader = new CsvRowReader(file, encoding)) {
+            String[] csvRow;
+            while ((csvRow = csvReader.readRow()) != null) {
+                if (!handler.handleRow(Arrays.asList(csvRow))) {
+                    return;
                 }
-                data.add(rowData);
             }
-        } catch (Exception e) {
-            throw new IOException("Erreur lors de la lecture du fichier ODS: " + e.getMessage());
         }
-        return data;
     }
     
-    private String getCellValueAsString(Cell cell) {
+    String getCellValueAsString(Cell cell, FormulaEvaluator evaluator) {
         if (cell == null) {
             return "";
         }
@@ -140,29 +235,17 @@ public class ExcelProcessorService {
             case STRING:
                 return cell.getStringCellValue().trim();
             case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return dateFormat.format(cell.getDateCellValue());
-                } else {
-                    double numericValue = cell.getNumericCellValue();
-                    if (numericValue == Math.floor(numericValue)) {
-                        return String.valueOf((long) numericValue);
-                    } else {
-                        return String.valueOf(numericValue);
-                    }
-                }
+                return getNumericValueAsString(cell);
             case BOOLEAN:
                 return String.valueOf(cell.getBooleanCellValue());
             case FORMULA:
+                if (evaluator == null) {
+                    return getCachedFormulaResultAsString(cell);
+                }
                 try {
-                    FormulaEvaluator evaluator = cell.getSheet().getWorkbook().getCreationHelper().createFormulaEvaluator();
                     CellValue cellValue = evaluator.evaluate(cell);
                     if (cellValue.getCellType() == CellType.NUMERIC) {
-                        double numValue = cellValue.getNumberValue();
-                        if (numValue == Math.floor(numValue)) {
-                            return String.valueOf((long) numValue);
-                        } else {
-                            return String.valueOf(numValue);
-                        }
+                        return CellValueConverter.formatNumber(cellValue.getNumberValue());
                     } else if (cellValue.getCellType() == CellType.STRING) {
                         return cellValue.getStringValue().trim();
                     } else {
@@ -178,214 +261,568 @@ public class ExcelProcessorService {
         }
     }
     
-    public Map<String, Object> getExcelFileInfo(MultipartFile file) throws Exception {
+    private String getNumericValueAsString(Cell cell) {
+        double numericValue = cell.getNumericCellValue();
+        if (DateUtil.isCellDateFormatted(cell) && CellValueConverter.isValidExcelDate(numericValue)) {
+            return CellValueConverter.formatExcelDate(numericValue, isDate1904(cell));
+        }
+        return CellValueConverter.formatNumber(numericValue);
+    }
+    
+    // valeur enregistrée par le tableur lors de la dernière sauvegarde, sans évaluation
+    private String getCachedFormulaResultAsString(Cell cell) {
+        switch (cell.getCachedFormulaResultType()) {
+            case NUMERIC:
+                return getNumericValueAsString(cell);
+            case STRING:
+                return cell.getStringCellValue().trim();
+            case BOOLEAN:
+                return String.valueOf(cell.getBooleanCellValue());
+            case ERROR:
+                FormulaError error = FormulaError.isValidCode(cell.getErrorCellValue()) ? FormulaError.forInt(cell.getErrorCellValue()) : null;
+                return error != null ? error.getString() : "";
+            default:
+                return "";
+        }
+    }
+    
+    private boolean isDate1904(Cell cell) {
+        Workbook workbook = cell.getSheet().getWorkbook();
+        return workbook instanceof Date1904Support && ((Date1904Support) workbook).isDate1904();
+    }
+    
+    // sonde légère : seules les métadonnées (et au plus MAX_PREVIEW_ROWS lignes d'aperçu) sont lues
+    public Map<String, Object> getExcelFileInfo(MultipartFile file, int previewRows) throws Exception {
         Map<String, Object> info = new HashMap<>();
         String fileName = file.getOriginalFilename();
         if (fileName == null) {
             throw new IOException("Nom de fichier non disponible");
         }
+        int rows = Math.max(0, Math.min(previewRows, SpreadsheetProbe.MAX_PREVIEW_ROWS));
         
-        try (InputStream inputStream = file.getInputStream()) {
-            info.put("fileName", fileName);
-            info.put("fileSize", file.getSize());
-            
-            if (fileName.endsWith(".xlsx") || fileName.endsWith(".xls")) {
-                Workbook workbook = fileName.endsWith(".xlsx") ? new XSSFWorkbook(inputStream) : new HSSFWorkbook(inputStream);
-                Sheet sheet = workbook.getSheetAt(0);
-                info.put("numberOfSheets", workbook.getNumberOfSheets());
-                info.put("activeSheetName", sheet.getSheetName());
-                info.put("totalRows", sheet.getLastRowNum() + 1);
-                
-                int maxColumns = 0;
-                for (Row row : sheet) {
-                    if (row.getLastCellNum() > maxColumns) {
-                        maxColumns = row.getLastCellNum();
-                    }
-                }
-                info.put("maxColumns", maxColumns);
-                workbook.close();
-            } else if (fileName.endsWith(".csv")) {
-                try (CSVReader csvReader = new CSVReader(new InputStreamReader(inputStream))) {
-                    List<String[]> allRows = csvReader.readAll();
-                    info.put("numberOfSheets", 1);
-                    info.put("activeSheetName", "Sheet1");
-                    info.put("totalRows", allRows.size());
-                    
-                    int maxColumns = 0;
-                    for (String[] csvRow : allRows) {
-                        if (csvRow.length > maxColumns) {
-                            maxColumns = csvRow.length;
-                        }
-                    }
-                    info.put("maxColumns", maxColumns);
-                } catch (CsvValidationException e) {
-                    throw new IOException("Erreur lors de la lecture du fichier CSV: " + e.getMessage());
-                }
-            } else if (fileName.endsWith(".ods")) {
-                try (OdfSpreadsheetDocument odsDoc = OdfSpreadsheetDocument.loadDocument(inputStream)) {
-                    OdfTable table = odsDoc.getTableList().get(0);
-                    info.put("numberOfSheets", odsDoc.getTableList().size());
-                    info.put("activeSheetName", table.getTableName());
-                    info.put("totalRows", table.getRowCount());
-                    info.put("maxColumns", table.getColumnCount());
+        SpreadsheetProbe probe;
+        if (fileName.endsWith(".csv")) {
+            probe = SpreadsheetProbe.probeCsv(file::getInputStream, file.getSize(), null, rows);
+        } else if (fileName.endsWith(".xlsx") || fileName.endsWith(".xls") || fileName.endsWith(".ods")) {
+            File tempFile = copyToTempFile(file);
+            try {
+                if (fileName.endsWith(".xlsx")) {
+                    probe = SpreadsheetProbe.probeXlsx(tempFile, rows);
+                } else if (fileName.endsWith(".xls")) {
+                    probe = SpreadsheetProbe.probeXls(tempFile, rows);
+                } else {
+                    probe = SpreadsheetProbe.probeOds(tempFile, rows);
                 }
-            } else {
-                throw new IOException("Type de fichier non supporté: " + fileName);
+            } finally {
+                Files.deleteIfExists(tempFile.toPath());
             }
+        } else {
+            throw new IOException("Type de fichier non supporté: " + fileName);
         }
         
+        info.put("fileName", fileName);
+        info.put("fileSize", file.getSize());
+        info.put("numberOfSheets", probe.getSheetNames().size());
+        info.put("sheetNames", probe.getSheetNames());
+        info.put("activeSheetName", probe.getSheetNames().isEmpty() ? null : probe.getSheetNames().get(0));
+        info.put("totalRows", probe.getTotalRows());
+        info.put("rowCountExact", probe.isRowCountExact());
+        info.put("maxColumns", probe.getMaxColumns());
+        if (probe.getEncoding() != null) {
+            info.put("encoding", probe.getEncoding());
+        }
+        if (rows > 0) {
+            info.put("preview", probe.getPreview());
+        }
         return info;
     }
     
-    private String generateInsertScript(List<List<String>> excelData, ExcelMappingConfig config) {
-        List<String> allInsertClauses = new ArrayList<>();
+    public void writeSqlScript(File file, String fileName, ExcelMappingConfig config, Writer writer) throws IOException, CsvException {
+        SqlDialect dialect = resolveDialect(config);
+        if (dialect == SqlDialect.SQL_LOADER) {
+            throw new IllegalArgumentException("Le dialecte SQL_LOADER produit une archive ctl/dat, utilisez writeSqlLoaderArchive");
+        }
+        int batchSize = resolveBatchSize(config);
+        MappingPlan plan = MappingPlan.compile(config);
         
-        for (int sectionIndex = 0; sectionIndex < config.getMap().size(); sectionIndex++) {
-            ExcelMappingConfig.MappingSection section = config.getMap().get(sectionIndex);
-            
-            int startRow = Math.max(0, section.getDebutdata() - 1);
-            int endRow = section.getFindata() != null ? 
-                        Math.min(section.getFindata() - 1, excelData.size() - 1) : 
-                        excelData.size() - 1;
-            
-            List<String> insertClauses = generateInsertStatementsForSection(
-                excelData, section, startRow, endRow, config
-            );
-            
-            allInsertClauses.addAll(insertClauses);
+        // même fichier et même configuration : le script déjà généré est renvoyé sans relire le fichier
+        String scriptKey = null;
+        UploadCache.ScriptCapture capture = null;
+        if (uploadCache != null && uploadCache.isScriptCacheEnabled()) {
+            scriptKey = uploadCache.scriptKey(file, fileName, config);
+            String cached = uploadCache.getScript(scriptKey);
+            if (cached != null) {
+                writer.write(cached);
+                writer.flush();
+                return;
+            }
+            capture = uploadCache.captureScript(writer);
+            writer = capture;
         }
         
-        if (allInsertClauses.isEmpty()) {
-            return "";
+        SqlScriptWriter script = new SqlScriptWriter(writer, dialect, batchSize);
+        
+        forEachMappedRow(file, fileName, plan,
+            (rowNumber, rowData, section) -> section.renderValues(rowData),
+            (section, rowNumber, values) -> script.writeRow(section.getTarget(), values));
+        
+        script.finish();
+        if (capture != null) {
+            uploadCache.putScript(scriptKey, capture);
+        }
+    }
+    
+    public void writeSqlLoaderArchive(File file, String fileName, ExcelMappingConfig config, OutputStream out) throws IOException, CsvException {
+        MappingPlan plan = MappingPlan.compile(config);
+        Set<String> tableNames = plan.getTableNames();
+        if (tableNames.size() > 1) {
+            throw new IllegalArgumentException("Le dialecte SQL_LOADER ne supporte qu'une seule table cible: " + tableNames);
         }
         
-        StringBuilder script = new StringBuilder();
-        script.append("INSERT ALL\n");
-        for (String clause : allInsertClauses) {
-            script.append("    ").append(clause).append("\n");
+        Map<String, Integer> columnPositions = new HashMap<>();
+        for (String column : plan.getColumnTypes().keySet()) {
+            columnPositions.put(column, columnPositions.size());
         }
-        script.append("SELECT * FROM dual;");
+        String tableName = tableNames.isEmpty() ? config.getNomTable() : tableNames.iterator().next();
+        SqlLoaderWriter loader = new SqlLoaderWriter(out, tableName, plan.getColumnTypes());
         
-        return script.toString();
+        forEachMappedRow(file, fileName, plan,
+            (rowNumber, rowData, section) -> section.loaderValues(rowData, columnPositions),
+            (section, rowNumber, values) -> loader.writeRow(values));
+        
+        loader.finish();
     }
     
-    private List<String> generateInsertStatementsForSection(
-            List<List<String>> excelData, 
-            ExcelMappingConfig.MappingSection section,
-            int startRow, 
-            int endRow, 
-            ExcelMappingConfig config) {
-        
-        List<String> insertClauses = new ArrayList<>();
+    public BulkLoadResult loadIntoDatabase(File file, String fileName, ExcelMappingConfig config) throws IOException, CsvException {
+        MappingPlan plan = MappingPlan.compile(config);
+        Map<MappingPlan.Section, int[]> bindTypes = new HashMap<>();
+        for (MappingPlan.Section section : plan.getSections()) {
+            bindTypes.put(section, section.getBindTypes());
+        }
         
-        Map<String, String> columnMapping = section.getColumnMapping();
-        if (columnMapping == null || columnMapping.isEmpty()) {
-            return insertClauses;
+        try (BulkInsertSession session = bulkInsertRepository.open(String.join(", ", plan.getTableNames()),
+                resolveBatchSize(config), resolveCommitInterval(config))) {
+            
+            forEachMappedRow(file, fileName, plan,
+                (rowNumber, rowData, section) -> {
+                    try {
+                        return section.bindValues(rowData);
+                    } catch (IllegalArgumentException e) {
+                        return e.getMessage();
+                    }
+                },
+                (section, rowNumber, row) -> {
+                    if (row instanceof String) {
+                        session.reject(rowNumber, (String) row);
+                    } else {
+                        session.addRow(section.getTarget(), bindTypes.get(section), (Object[]) row, rowNumber);
+                    }
+                });
+            
+            return session.finish();
         }
+    }
+    
+    private interface RowMapper<T> {
+        T map(long rowNumber, List<String> rowData, MappingPlan.Section section);
+    }
+    
+    private interface MappedRowConsumer<T> {
+        void accept(MappingPlan.Section section, long rowNumber, T row) throws IOException;
+    }
+    
+    private static final class MappedRow<T> {
+        private final long rowNumber;
+        private final T row;
         
-        List<Map.Entry<String, String>> sortedColumns = columnMapping.entrySet().stream()
-                .sorted((e1, e2) -> Integer.compare(Integer.parseInt(e1.getKey()), Integer.parseInt(e2.getKey())))
-                .collect(Collectors.toList());
+        MappedRow(long rowNumber, T row) {
+            this.rowNumber = rowNumber;
+            this.row = row;
+        }
+    }
+    
+    // lignes converties d'une section en attente d'être consommées : au plus maxRows en mémoire, le reste déborde
+    // dans un fichier temporaire. le lecteur n'attend jamais le consommateur, il ne peut donc pas y avoir d'interblocage
+    private static final class SectionBuffer<T> {
+        private final MappingPlan.Section section;
+        private final int maxRows;
+        private final ArrayDeque<MappedRow<T>> rows = new ArrayDeque<>();
+        // section en tête lue par le thread appelant : ses lignes vont directement au consommateur
+        private MappedRowConsumer<T> direct;
+        private File spillFile;
+        private ObjectOutputStream spill;
+        private long spilledRows;
+        private boolean finished;
+        private boolean discarded;
+        private Throwable failure;
         
-        List<String> columnNames = sortedColumns.stream()
-                .map(Map.Entry::getValue)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+        SectionBuffer(MappingPlan.Section section, int maxRows) {
+            this.section = section;
+            this.maxRows = maxRows;
+        }
         
-        if (columnNames.isEmpty()) {
-            return insertClauses;
+        // thread de lecture
+        void add(long rowNumber, T row) throws IOException {
+            if (direct != null) {
+                direct.accept(section, rowNumber, row);
+                return;
+            }
+            synchronized (this) {
+                if (discarded) {
+                    throw new InterruptedIOException("Lecture de la section abandonnée");
+                }
+                if (spill == null && rows.size() < maxRows) {
+                    rows.add(new MappedRow<>(rowNumber, row));
+                    notifyAll();
+                    return;
+                }
+                if (spill == null) {
+                    spillFile = File.createTempFile("section_", ".spill");
+                    spill = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(spillFile), 64 * 1024));
+                }
+            }
+            // une fois le débordement commencé, toutes les lignes suivantes y vont pour garder l'ordre
+            spill.writeLong(rowNumber);
+            spill.writeObject(row);
+            if (++spilledRows % 256 == 0) {
+                spill.reset();
+            }
         }
         
-        String columnList = String.join(", ", columnNames);
-        String tableName = config.getNomTable();
+        // thread de lecture, une fois la feuille parcourue ou en échec
+        void finish(Throwable error) {
+            if (spill != null) {
+                try {
+                    spill.close();
+                } catch (IOException e) {
+                    error = error != null ? error : e;
+                }
+            }
+            synchronized (this) {
+                finished = true;
+                failure = error;
+                notifyAll();
+            }
+        }
         
-        for (int rowIndex = startRow; rowIndex <= endRow && rowIndex < excelData.size(); rowIndex++) {
-            List<String> rowData = excelData.get(rowIndex);
-            
-            boolean hasSignificantData = false;
-            for (Map.Entry<String, String> entry : sortedColumns) {
-                int colIndex = Integer.parseInt(entry.getKey()) - 1;
-                if (colIndex < rowData.size()) {
-                    String cellValue = rowData.get(colIndex);
-                    if (cellValue != null && !cellValue.trim().isEmpty()) {
-                        hasSignificantData = true;
-                        break;
+        // thread appelant : la mémoire d'abord, puis le fichier de débordement une fois la lecture terminée
+        @SuppressWarnings("unchecked")
+        void drain(MappedRowConsumer<T> consumer) throws IOException, CsvException {
+            while (true) {
+                MappedRow<T> next;
+                synchronized (this) {
+                    while (rows.isEmpty() && !finished) {
+                        try {
+                            wait();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new InterruptedIOException("Conversion des sections interrompue");
+                        }
                     }
+                    next = rows.poll();
                 }
+                if (next == null) {
+                    break;
+                }
+                consumer.accept(section, next.rowNumber, next.row);
             }
-            
-            if (!hasSignificantData) {
-                continue;
+            if (failure != null) {
+                rethrow(failure);
             }
-            
-            StringBuilder insertClause = new StringBuilder();
-            insertClause.append("INTO ").append(tableName).append(" (").append(columnList).append(") VALUES (");
-            
-            List<String> values = new ArrayList<>();
-            for (Map.Entry<String, String> entry : sortedColumns) {
-                int colIndex = Integer.parseInt(entry.getKey()) - 1;
-                String fieldName = entry.getValue();
-                
-                if (colIndex < rowData.size()) {
-                    String cellValue = rowData.get(colIndex);
-                    values.add(formatSqlValue(cellValue, fieldName, config));
-                } else {
-                    values.add("NULL");
+            if (spillFile != null) {
+                try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(spillFile), 64 * 1024))) {
+                    for (long i = 0; i < spilledRows; i++) {
+                        long rowNumber = in.readLong();
+                        consumer.accept(section, rowNumber, (T) in.readObject());
+                    }
+                } catch (ClassNotFoundException e) {
+                    throw new IOException("Relecture du débordement de section impossible: " + e.getMessage(), e);
                 }
             }
-            
-            insertClause.append(String.join(", ", values));
-            insertClause.append(")");
-            
-            insertClauses.add(insertClause.toString());
         }
         
-        return insertClauses;
+        void discard() {
+            File file;
+            synchronized (this) {
+                discarded = true;
+                rows.clear();
+                file = spillFile;
+            }
+            if (file != null) {
+                file.delete();
+            }
+        }
     }
     
-    private String formatSqlValue(String value, String fieldName, ExcelMappingConfig config) {
-        if (value == null || value.trim().isEmpty()) {
-            return "NULL";
+    // une lecture de feuille alimente toutes les sections qui s'y trouvent
+    private static final class SheetScan<T> {
+        private final int sheetIndex;
+        private final List<SectionBuffer<T>> buffers = new ArrayList<>();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private Future<?> future;
+        
+        SheetScan(int sheetIndex) {
+            this.sheetIndex = sheetIndex;
         }
         
-        value = value.trim();
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+    
+    // chaque feuille n'est lue qu'une fois pour toutes ses sections. la section en tête (ordre de la configuration)
+    // est écrite directement quand le thread appelant lit lui-même sa feuille ; les autres passent par un tampon borné
+    // qui déborde sur disque, et les feuilles suivantes sont lues en avance sur sectionExecutor.
+    // la sortie est identique octet pour octet au parcours séquentiel
+    private <T> void forEachMappedRow(File file, String fileName, MappingPlan plan,
+                                      RowMapper<T> mapper, MappedRowConsumer<T> consumer) throws IOException, CsvException {
+        List<MappingPlan.Section> sections = plan.getSections();
+        int[] sheetIndexes = new int[sections.size()];
+        SpreadsheetSource source = openSpreadsheetSource(file, fileName, plan, sheetIndexes);
         
-        String sqlType = config.getFieldSqlType(fieldName);
+        Map<Integer, SheetScan<T>> scansBySheet = new LinkedHashMap<>();
+        List<SheetScan<T>> sectionScans = new ArrayList<>();
+        List<SectionBuffer<T>> buffers = new ArrayList<>();
+        for (int i = 0; i < sections.size(); i++) {
+            SheetScan<T> scan = scansBySheet.computeIfAbsent(sheetIndexes[i], SheetScan::new);
+            SectionBuffer<T> buffer = new SectionBuffer<>(sections.get(i), sectionBufferRows);
+            scan.buffers.add(buffer);
+            sectionScans.add(scan);
+            buffers.add(buffer);
+        }
+        List<SheetScan<T>> scans = new ArrayList<>(scansBySheet.values());
         
-        if (sqlType.toUpperCase().startsWith("NUMBER") || sqlType.toUpperCase().startsWith("INTEGER")) {
-            try {
-                if (value.contains(".")) {
-                    Double.parseDouble(value);
-                    return value;
-                } else {
-                    Long.parseLong(value);
-                    return value;
+        int nextScan = 0;
+        try {
+            for (int i = 0; i < sections.size(); i++) {
+                SheetScan<T> scan = sectionScans.get(i);
+                int current = scans.indexOf(scan);
+                nextScan = Math.max(nextScan, current + 1);
+                while (sectionExecutor != null && nextScan < scans.size() && nextScan < current + sectionParallelism) {
+                    SheetScan<T> ahead = scans.get(nextScan++);
+                    ahead.future = sectionExecutor.submit(() -> {
+                        if (ahead.claim()) {
+                            runScan(source, ahead, mapper);
+                        }
+                    });
+                }
+                
+                SectionBuffer<T> buffer = buffers.get(i);
+                if (scan.claim()) {
+                    buffer.direct = consumer;
+                    runScan(source, scan, mapper);
+                }
+                buffer.drain(consumer);
+            }
+        } finally {
+            for (SheetScan<T> scan : scans) {
+                if (scan.future != null) {
+                    scan.future.cancel(true);
                 }
-            } catch (NumberFormatException e) {
-                return "NULL";
+            }
+            for (SectionBuffer<T> buffer : buffers) {
+                buffer.discard();
+            }
+        }
+    }
+    
+    // l'échec éventuel est remis à chaque section de la feuille et relevé par drain
+    private <T> void runScan(SpreadsheetSource source, SheetScan<T> scan, RowMapper<T> mapper) {
+        int lastRow = 0;
+        for (SectionBuffer<T> buffer : scan.buffers) {
+            lastRow = Math.max(lastRow, buffer.section.getEndRow());
+        }
+        int maxRow = lastRow;
+        int[] rowIndex = {0};
+        Throwable failure = null;
+        try {
+            source.forEachRow(scan.sheetIndex, rowData -> {
+                int currentRow = rowIndex[0]++;
+                if (currentRow > maxRow) {
+                    return false;
+                }
+                for (SectionBuffer<T> buffer : scan.buffers) {
+                    MappingPlan.Section section = buffer.section;
+                    if (currentRow >= section.getStartRow() && currentRow <= section.getEndRow()
+                            && section.hasSignificantData(rowData)) {
+                        buffer.add(currentRow + 1, mapper.map(currentRow + 1, rowData, section));
+                    }
+                }
+                return true;
+            });
+        } catch (Throwable e) {
+            failure = e;
+        }
+        for (SectionBuffer<T> buffer : scan.buffers) {
+            buffer.finish(failure);
+        }
+    }
+    
+    private static void rethrow(Throwable failure) throws IOException, CsvException {
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        } else if (failure instanceof CsvException) {
+            throw (CsvException) failure;
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        throw new IOException("Erreur lors de la conversion d'une section: " + failure.getMessage(), failure);
+    }
+    
+    private interface SpreadsheetSource {
+        void forEachRow(int sheetIndex, RowHandler handler) throws IOException, CsvException;
+    }
+    
+    private SpreadsheetSource openSpreadsheetSource(File file, String fileName, MappingPlan plan,
+                                                    int[] sheetIndexes) throws IOException {
+        List<MappingPlan.Section> sections = plan.getSections();
+        boolean cachedFormulaResults = plan.isCachedFormulaResults();
+        String cacheKey = null;
+        if (uploadCache != null && uploadCache.isEnabled()) {
+            cacheKey = uploadCache.sheetKey(file, fileName, plan);
+            SpreadsheetSource cached = openCachedSource(cacheKey, sections, sheetIndexes);
+            if (cached != null) {
+                return cached;
             }
         }
         
-        if (sqlType.toUpperCase().startsWith("DATE")) {
-            try {
-                if (value.matches("\\d{4}-\\d{2}-\\d{2}")) {
-                    return "TO_DATE('" + value + "', 'YYYY-MM-DD')";
-                } else if (value.matches("\\d{2}/\\d{2}/\\d{4}")) {
-                    return "TO_DATE('" + value + "', 'DD/MM/YYYY')";
-                } else if (value.matches("\\d{2}-\\d{2}-\\d{4}")) {
-                    return "TO_DATE('" + value + "', 'DD-MM-YYYY')";
-                } else if (value.matches("\\d{4}/\\d{2}/\\d{2}")) {
-                    return "TO_DATE('" + value + "', 'YYYY/MM/DD')";
-                } else {
-                    return "'" + value.replace("'", "''") + "'";
+        if (fileName.endsWith(".xlsx")) {
+            boolean byName = sections.stream().anyMatch(section -> section.getSheet() != null && !section.getSheet().trim().matches("\\d*"));
+            List<String> sheetNames = byName ? new XlsxStreamingReader(file).getSheetNames() : null;
+            for (int i = 0; i < sections.size(); i++) {
+                sheetIndexes[i] = resolveSheetIndex(sections.get(i).getSheet(), sheetNames);
+            }
+            if (cacheKey != null && sheetNames != null) {
+                uploadCache.putSheetNames(cacheKey, sheetNames);
+            }
+            return cachingSource(cacheKey, (sheetIndex, handler) -> new XlsxStreamingReader(file, cachedFormulaResults).readSheet(sheetIndex, handler));
+        } else if (fileName.endsWith(".csv")) {
+            for (int i = 0; i < sections.size(); i++) {
+                sheetIndexes[i] = resolveSheetIndex(sections.get(i).getSheet(), Collections.singletonList("Sheet1"));
+            }
+            if (cacheKey != null) {
+                uploadCache.putSheetNames(cacheKey, Collections.singletonList("Sheet1"));
+            }
+            Charset encoding = plan.getEncoding();
+            return cachingSource(cacheKey, (sheetIndex, handler) -> readCsvFile(file, encoding, handler));
+        }
+        
+        Map<Integer, SheetData> sheets = new HashMap<>();
+        List<String> sheetNames;
+        if (fileName.endsWith(".xls")) {
+            try (InputStream inputStream = new FileInputStream(file);
+                 Workbook workbook = new HSSFWorkbook(inputStream)) {
+                FormulaEvaluator evaluator = cachedFormulaResults ? null : workbook.getCreationHelper().createFormulaEvaluator();
+                sheetNames = new ArrayList<>();
+                for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
+                    sheetNames.add(workbook.getSheetName(i));
+                }
+                for (int i = 0; i < sections.size(); i++) {
+                    sheetIndexes[i] = resolveSheetIndex(sections.get(i).getSheet(), sheetNames);
+                    if (!sheets.containsKey(sheetIndexes[i])) {
+                        sheets.put(sheetIndexes[i], readExcelFile(workbook, sheetIndexes[i], evaluator));
+                    }
+                }
+            }
+        } else if (fileName.endsWith(".ods")) {
+            try (OdfSpreadsheetDocument odsDoc = OdfSpreadsheetDocument.loadDocument(file)) {
+                List<OdfTable> tables = odsDoc.getTableList();
+                sheetNames = tables.stream().map(OdfTable::getTableName).collect(Collectors.toList());
+                for (int i = 0; i < sections.size(); i++) {
+                    sheetIndexes[i] = resolveSheetIndex(sections.get(i).getSheet(), sheetNames);
+                    if (!sheets.containsKey(sheetIndexes[i])) {
+                        sheets.put(sheetIndexes[i], readOdsTable(tables.get(sheetIndexes[i])));
+                    }
                 }
+            } catch (IOException e) {
+                throw e;
             } catch (Exception e) {
-                return "'" + value.replace("'", "''") + "'";
+                throw new IOException("Erreur lors de la lecture du fichier ODS: " + e.getMessage());
+            }
+        } else {
+            throw new IOException("Type de fichier non supporté: " + fileName);
+        }
+        
+        if (cacheKey != null) {
+            uploadCache.putSheetNames(cacheKey, sheetNames);
+            for (Map.Entry<Integer, SheetData> sheet : sheets.entrySet()) {
+                uploadCache.putSheet(cacheKey, sheet.getKey(), sheet.getValue());
             }
         }
         
-        return "'" + value.replace("'", "''") + "'";
+        return (sheetIndex, handler) -> sheets.get(sheetIndex).forEachRow(handler);
+    }
+    
+    // source servie entièrement par le cache quand les noms de feuilles et toutes les feuilles lues sont connus, null sinon
+    private SpreadsheetSource openCachedSource(String cacheKey, List<MappingPlan.Section> sections,
+                                               int[] sheetIndexes) throws IOException {
+        List<String> sheetNames = uploadCache.getSheetNames(cacheKey);
+        if (sheetNames == null) {
+            return null;
+        }
+        Map<Integer, SheetData> sheets = new HashMap<>();
+        for (int i = 0; i < sections.size(); i++) {
+            sheetIndexes[i] = resolveSheetIndex(sections.get(i).getSheet(), sheetNames);
+            if (!sheets.containsKey(sheetIndexes[i])) {
+                SheetData sheet = uploadCache.getSheet(cacheKey, sheetIndexes[i]);
+                if (sheet == null) {
+                    return null;
+                }
+                sheets.put(sheetIndexes[i], sheet);
+            }
+        }
+        return (sheetIndex, handler) -> sheets.get(sheetIndex).forEachRow(handler);
+    }
+    
+    // lecture en flux mise en cache au passage : la feuille est lue jusqu'au bout même si la section s'arrête avant,
+    // sauf si elle dépasse la taille admise par le cache
+    private SpreadsheetSource cachingSource(String cacheKey, SpreadsheetSource source) {
+        if (cacheKey == null) {
+            return source;
+        }
+        return (sheetIndex, handler) -> {
+            SheetData cached = uploadCache.getSheet(cacheKey, sheetIndex);
+            if (cached != null) {
+                cached.forEachRow(handler);
+                return;
+            }
+            ColumnarSheet.Builder builder = uploadCache.newSheetBuilder();
+            boolean[] delivering = {true};
+            source.forEachRow(sheetIndex, rowData -> {
+                boolean caching = builder.add(rowData);
+                if (delivering[0]) {
+                    delivering[0] = handler.handleRow(rowData);
+                }
+                return delivering[0] || caching;
+            });
+            SheetData built = builder.build();
+            if (built != null) {
+                uploadCache.putSheet(cacheKey, sheetIndex, built);
+            }
+        };
     }
-
     
-}
\ No newline at end of file
+    // sheet : numéro de feuille à partir de 1 ou nom de la feuille, la première feuille par défaut
+    private int resolveSheetIndex(String sheet, List<String> sheetNames) throws IOException {
+        if (sheet == null || sheet.trim().isEmpty()) {
+            return 0;
+        }
+        
+        String trimmed = sheet.trim();
+        if (trimmed.matches("\\d+")) {
+            int index = Integer.parseInt(trimmed) - 1;
+            if (index < 0 || (sheetNames != null && index >= sheetNames.size())) {
+                throw new IOException("Feuille " + trimmed + " introuvable dans le fichier");
+            }
+            return index;
+        }
+        
+        int index = sheetNames != null ? sheetNames.indexOf(trimmed) : -1;
+        if (index < 0) {
+            throw new IOException("Feuille '" + trimmed + "' introuvable dans le fichier");
+        }
+        return index;
+    }
+}
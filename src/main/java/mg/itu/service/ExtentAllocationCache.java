@@ -0,0 +1,68 @@
+package mg.itu.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class ExtentAllocationCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public boolean isUpToDate(String owner, String fingerprint) {
+        Entry entry = entries.get(owner.toUpperCase());
+        if (entry != null && fingerprint != null && fingerprint.equals(entry.fingerprint)) {
+            hits.incrementAndGet();
+            return true;
+        }
+        misses.incrementAndGet();
+        return false;
+    }
+
+    public void update(String owner, String fingerprint, Collection<String> allocatedTables) {
+        String key = owner.toUpperCase();
+        Entry previous = entries.get(key);
+        Set<String> tables = new LinkedHashSet<>();
+        if (previous != null) {
+            tables.addAll(previous.tables);
+        }
+        tables.addAll(allocatedTables);
+        entries.put(key, new Entry(fingerprint, Collections.unmodifiableSet(tables)));
+    }
+
+    public Set<String> getAllocatedTables(String owner) {
+        Entry entry = entries.get(owner.toUpperCase());
+        return entry != null ? entry.tables : Collections.<String>emptySet();
+    }
+
+    public void invalidate(String owner) {
+        entries.remove(owner.toUpperCase());
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("schemas", entries.size());
+        return stats;
+    }
+
+    private static class Entry {
+        private final String fingerprint;
+        private final Set<String> tables;
+
+        Entry(String fingerprint, Set<String> tables) {
+            this.fingerprint = fingerprint;
+            this.tables = tables;
+        }
+    }
+}
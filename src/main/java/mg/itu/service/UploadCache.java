@@ -0,0 +1,261 @@
+package mg.itu.service;
+
+import mg.itu.model.ExcelMappingConfig;
+import mg.itu.util.LruByteCache;
+import mg.itu.util.ColumnarSheet;
+import mg.itu.util.MappingPlan;
+import mg.itu.util.SheetData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// cache des uploads indexé par le SHA-256 du contenu : feuilles déjà lues (stockage par colonne)
+// et scripts déjà générés par couple (fichier, configuration), tous deux bornés en octets avec éviction LRU
+@Component
+public class UploadCache {
+
+    private static final int HASHED_FILES = 64;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    // 0 désactive le cache des feuilles
+    @Value("${excel.cache.max-bytes:268435456}")
+    private long maxBytes;
+
+    // 0 désactive le cache des scripts
+    @Value("${excel.cache.script-max-bytes:67108864}")
+    private long scriptMaxBytes;
+
+    private LruByteCache<String, SheetData> sheets;
+    private LruByteCache<String, List<String>> sheetNames;
+    private LruByteCache<String, String> scripts;
+
+    // empreintes des fichiers temporaires en cours de traitement, pour ne hacher qu'une fois par requête
+    private final Map<String, FileHash> fileHashes = new LinkedHashMap<String, FileHash>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, FileHash> eldest) {
+            return size() > HASHED_FILES;
+        }
+    };
+    private final AtomicLong hashedBytes = new AtomicLong();
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    @PostConstruct
+    public void init() {
+        sheets = new LruByteCache<>(Math.max(0, maxBytes));
+        sheetNames = new LruByteCache<>(Math.max(0, maxBytes / 64));
+        scripts = new LruByteCache<>(Math.max(0, scriptMaxBytes));
+    }
+
+    public boolean isEnabled() {
+        return maxBytes > 0;
+    }
+
+    public boolean isScriptCacheEnabled() {
+        return scriptMaxBytes > 0;
+    }
+
+    // SHA-256 hexadécimal du contenu, recalculé si la taille ou la date de modification changent
+    public String contentHash(File file) throws IOException {
+        String path = file.getAbsolutePath();
+        long length = file.length();
+        long lastModified = file.lastModified();
+        synchronized (fileHashes) {
+            FileHash known = fileHashes.get(path);
+            if (known != null && known.length == length && known.lastModified == lastModified) {
+                return known.hash;
+            }
+        }
+
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream input = new FileInputStream(file)) {
+            int read;
+            while ((read = input.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        hashedBytes.addAndGet(length);
+        String hash = toHex(digest.digest());
+        synchronized (fileHashes) {
+            fileHashes.put(path, new FileHash(length, lastModified, hash));
+        }
+        return hash;
+    }
+
+    // contenu + format + options qui changent les valeurs lues (formules, encodage CSV)
+    public String sheetKey(File file, String fileName, MappingPlan plan) throws IOException {
+        Charset encoding = plan.getEncoding();
+        return contentHash(file) + "|" + extension(fileName)
+            + "|" + (plan.isCachedFormulaResults() ? "cached" : "evaluated")
+            + "|" + (encoding != null ? encoding.name() : "auto");
+    }
+
+    public SheetData getSheet(String sheetKey, int sheetIndex) {
+        return sheets.get(sheetKey + "#" + sheetIndex);
+    }
+
+    // une feuille ne peut pas occuper plus de la moitié du cache
+    public void putSheet(String sheetKey, int sheetIndex, SheetData sheet) {
+        if (sheet.getEstimatedBytes() <= maxSheetBytes()) {
+            sheets.put(sheetKey + "#" + sheetIndex, sheet, sheet.getEstimatedBytes());
+        }
+    }
+
+    public ColumnarSheet.Builder newSheetBuilder() {
+        return new ColumnarSheet.Builder(maxSheetBytes());
+    }
+
+    public long maxSheetBytes() {
+        return sheets.getMaxBytes() / 2;
+    }
+
+    public List<String> getSheetNames(String sheetKey) {
+        return sheetNames.get(sheetKey);
+    }
+
+    public void putSheetNames(String sheetKey, List<String> names) {
+        long size = 16;
+        for (String name : names) {
+            size += 48 + 2L * name.length();
+        }
+        sheetNames.put(sheetKey, names, size);
+    }
+
+    // contenu + format + configuration complète sérialisée (clés de map triées)
+    public String scriptKey(File file, String fileName, ExcelMappingConfig config) throws IOException {
+        MessageDigest digest = sha256();
+        digest.update(objectMapper.writeValueAsBytes(config));
+        return contentHash(file) + "|" + extension(fileName) + "|" + toHex(digest.digest());
+    }
+
+    public String getScript(String scriptKey) {
+        return scripts.get(scriptKey);
+    }
+
+    // recopie le script écrit vers target tant qu'il tient dans la moitié du cache
+    public ScriptCapture captureScript(Writer target) {
+        return new ScriptCapture(target, scripts.getMaxBytes() / 4);
+    }
+
+    public void putScript(String scriptKey, ScriptCapture capture) {
+        if (!capture.isOverflowed()) {
+            String script = capture.captured.toString();
+            scripts.put(scriptKey, script, 40 + 2L * script.length());
+        }
+    }
+
+    public void clear() {
+        sheets.clear();
+        sheetNames.clear();
+        scripts.clear();
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sheets", sheets.getStatistics());
+        stats.put("scripts", scripts.getStatistics());
+        stats.put("sheetNames", sheetNames.getStatistics());
+        stats.put("hashedBytes", hashedBytes.get());
+        return stats;
+    }
+
+    private static String extension(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot < 0 ? "" : fileName.substring(dot + 1).toLowerCase();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 non disponible", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    public static class ScriptCapture extends Writer {
+        private final Writer target;
+        private final long maxChars;
+        private StringBuilder captured = new StringBuilder();
+
+        ScriptCapture(Writer target, long maxChars) {
+            this.target = target;
+            this.maxChars = maxChars;
+        }
+
+        public boolean isOverflowed() {
+            return captured == null;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) throws IOException {
+            target.write(chars, offset, length);
+            if (captured != null) {
+                if (captured.length() + length > maxChars) {
+                    captured = null;
+                } else {
+                    captured.append(chars, offset, length);
+                }
+            }
+        }
+
+        @Override
+        public void write(String text, int offset, int length) throws IOException {
+            target.write(text, offset, length);
+            if (captured != null) {
+                if (captured.length() + length > maxChars) {
+                    captured = null;
+                } else {
+                    captured.append(text, offset, offset + length);
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            target.close();
+        }
+    }
+
+    private static class FileHash {
+        private final long length;
+        private final long lastModified;
+        private final String hash;
+
+        FileHash(long length, long lastModified, String hash) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+    }
+}
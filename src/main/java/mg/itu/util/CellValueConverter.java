@@ -0,0 +1,81 @@
+package mg.itu.util;
+
+import java.time.LocalDate;
+
+// conversions de cellules sans état partagé : utilisables depuis plusieurs threads sans synchronisation
+public final class CellValueConverter {
+
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    // 9999-12-31, dernière date représentable par Excel
+    private static final double MAX_EXCEL_SERIAL = 2958466;
+
+    // 1899-12-30 : origine du calendrier 1900 après le faux 29 février 1900 d'Excel (numéros de série >= 61)
+    private static final long EPOCH_DAY_1900_SYSTEM = LocalDate.of(1899, 12, 30).toEpochDay();
+    private static final long EPOCH_DAY_1900_BEFORE_LEAP_BUG = LocalDate.of(1899, 12, 31).toEpochDay();
+    private static final long EPOCH_DAY_1904_SYSTEM = LocalDate.of(1904, 1, 1).toEpochDay();
+
+    private CellValueConverter() {
+    }
+
+    // même jour que DateUtil.getJavaDate (arrondi à la milliseconde), null si le numéro de série n'est pas une date Excel
+    public static String formatExcelDate(double serial, boolean date1904) {
+        if (!isValidExcelDate(serial)) {
+            return null;
+        }
+        return formatEpochDay(toEpochDay(serial, date1904));
+    }
+
+    public static boolean isValidExcelDate(double serial) {
+        return serial > -Double.MIN_VALUE && serial < MAX_EXCEL_SERIAL;
+    }
+
+    public static long toEpochDay(double serial, boolean date1904) {
+        long wholeDays = (long) Math.floor(serial);
+        long millisInDay = (long) ((serial - wholeDays) * MILLIS_PER_DAY + 0.5);
+        // l'origine se choisit avant le report à minuit, comme le calendrier lenient de POI
+        long epochDay;
+        if (date1904) {
+            epochDay = EPOCH_DAY_1904_SYSTEM + wholeDays;
+        } else {
+            epochDay = (wholeDays < 61 ? EPOCH_DAY_1900_BEFORE_LEAP_BUG : EPOCH_DAY_1900_SYSTEM) + wholeDays;
+        }
+        return millisInDay >= MILLIS_PER_DAY ? epochDay + 1 : epochDay;
+    }
+
+    // yyyy-MM-dd sans DateTimeFormatter ; les années > 9999 du calendrier 1904 restent sans signe, comme SimpleDateFormat
+    public static String formatEpochDay(long epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        int year = date.getYear();
+        int month = date.getMonthValue();
+        int day = date.getDayOfMonth();
+        if (year < 1000 || year > 9999) {
+            StringBuilder text = new StringBuilder(12).append(year).append('-');
+            return appendTwoDigits(appendTwoDigits(text, month).append('-'), day).toString();
+        }
+
+        char[] chars = new char[10];
+        chars[0] = (char) ('0' + year / 1000);
+        chars[1] = (char) ('0' + year / 100 % 10);
+        chars[2] = (char) ('0' + year / 10 % 10);
+        chars[3] = (char) ('0' + year % 10);
+        chars[4] = '-';
+        chars[5] = (char) ('0' + month / 10);
+        chars[6] = (char) ('0' + month % 10);
+        chars[7] = '-';
+        chars[8] = (char) ('0' + day / 10);
+        chars[9] = (char) ('0' + day % 10);
+        return new String(chars);
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder text, int value) {
+        return text.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    public static String formatNumber(double numericValue) {
+        if (numericValue == Math.floor(numericValue)) {
+            return String.valueOf((long) numericValue);
+        }
+        return String.valueOf(numericValue);
+    }
+}
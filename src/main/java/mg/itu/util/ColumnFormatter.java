@@ -0,0 +1,208 @@
+package mg.itu.util;
+
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.regex.Pattern;
+
+public abstract class ColumnFormatter {
+
+    private static final ColumnFormatter NUMBER = new NumberFormatter();
+    private static final ColumnFormatter DATE = new DateFormatter();
+    private static final ColumnFormatter TEXT = new TextFormatter();
+
+    public static ColumnFormatter forSqlType(String sqlType) {
+        String type = sqlType != null ? sqlType.toUpperCase() : "";
+        if (type.startsWith("NUMBER") || type.startsWith("INTEGER")) {
+            return NUMBER;
+        }
+        if (type.startsWith("DATE")) {
+            return DATE;
+        }
+        return TEXT;
+    }
+
+    // littéral SQL, NULL pour une cellule vide
+    public void appendSql(StringBuilder out, String value) {
+        if (value == null) {
+            out.append("NULL");
+            return;
+        }
+        String trimmed = value.trim();
+        if (trimmed.isEmpty()) {
+            out.append("NULL");
+        } else {
+            appendLiteral(out, trimmed);
+        }
+    }
+
+    // valeur brute pour un fichier de données SQL*Loader, null pour une cellule vide ou invalide
+    public String loaderValue(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        return toLoaderValue(value.trim());
+    }
+
+    // valeur typée pour un bind JDBC, IllegalArgumentException si la cellule ne peut pas être convertie
+    public Object bindValue(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        return toBindValue(value.trim());
+    }
+
+    public abstract int getSqlType();
+
+    protected abstract void appendLiteral(StringBuilder out, String value);
+
+    protected abstract String toLoaderValue(String value);
+
+    protected abstract Object toBindValue(String value);
+
+    static void appendQuoted(StringBuilder out, String value) {
+        out.append('\'');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\'') {
+                out.append('\'');
+            }
+            out.append(c);
+        }
+        out.append('\'');
+    }
+
+    private static final class NumberFormatter extends ColumnFormatter {
+
+        @Override
+        public int getSqlType() {
+            return Types.NUMERIC;
+        }
+
+        @Override
+        protected void appendLiteral(StringBuilder out, String value) {
+            out.append(isNumber(value) ? value : "NULL");
+        }
+
+        @Override
+        protected String toLoaderValue(String value) {
+            return isNumber(value) ? value : null;
+        }
+
+        @Override
+        protected Object toBindValue(String value) {
+            try {
+                return new BigDecimal(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("valeur numérique invalide '" + value + "'");
+            }
+        }
+
+        private boolean isNumber(String value) {
+            try {
+                if (value.indexOf('.') >= 0) {
+                    Double.parseDouble(value);
+                } else {
+                    Long.parseLong(value);
+                }
+                return true;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+    }
+
+    private static final class DateFormatter extends ColumnFormatter {
+
+        private static final Pattern ISO = Pattern.compile("\\d{4}-\\d{2}-\\d{2}");
+        private static final Pattern DAY_SLASH = Pattern.compile("\\d{2}/\\d{2}/\\d{4}");
+        private static final Pattern DAY_DASH = Pattern.compile("\\d{2}-\\d{2}-\\d{4}");
+        private static final Pattern YEAR_SLASH = Pattern.compile("\\d{4}/\\d{2}/\\d{2}");
+
+        private static final DateTimeFormatter[] BIND_FORMATS = {
+            DateTimeFormatter.ofPattern("uuuu-MM-dd").withResolverStyle(ResolverStyle.STRICT),
+            DateTimeFormatter.ofPattern("dd/MM/uuuu").withResolverStyle(ResolverStyle.STRICT),
+            DateTimeFormatter.ofPattern("dd-MM-uuuu").withResolverStyle(ResolverStyle.STRICT),
+            DateTimeFormatter.ofPattern("uuuu/MM/dd").withResolverStyle(ResolverStyle.STRICT)
+        };
+
+        @Override
+        public int getSqlType() {
+            return Types.DATE;
+        }
+
+        @Override
+        protected void appendLiteral(StringBuilder out, String value) {
+            String mask = oracleMask(value);
+            if (mask == null) {
+                appendQuoted(out, value);
+                return;
+            }
+            out.append("TO_DATE('").append(value).append("', '").append(mask).append("')");
+        }
+
+        @Override
+        protected String toLoaderValue(String value) {
+            if (DAY_SLASH.matcher(value).matches() || DAY_DASH.matcher(value).matches()) {
+                return value.substring(6, 10) + "-" + value.substring(3, 5) + "-" + value.substring(0, 2);
+            } else if (YEAR_SLASH.matcher(value).matches()) {
+                return value.replace('/', '-');
+            }
+            return value;
+        }
+
+        @Override
+        protected Object toBindValue(String value) {
+            for (DateTimeFormatter format : BIND_FORMATS) {
+                try {
+                    return java.sql.Date.valueOf(LocalDate.parse(value, format));
+                } catch (DateTimeParseException e) {
+                    // format suivant
+                }
+            }
+            throw new IllegalArgumentException("date invalide '" + value + "'");
+        }
+
+        private String oracleMask(String value) {
+            if (value.length() != 10) {
+                return null;
+            }
+            if (ISO.matcher(value).matches()) {
+                return "YYYY-MM-DD";
+            } else if (DAY_SLASH.matcher(value).matches()) {
+                return "DD/MM/YYYY";
+            } else if (DAY_DASH.matcher(value).matches()) {
+                return "DD-MM-YYYY";
+            } else if (YEAR_SLASH.matcher(value).matches()) {
+                return "YYYY/MM/DD";
+            }
+            return null;
+        }
+    }
+
+    private static final class TextFormatter extends ColumnFormatter {
+
+        @Override
+        public int getSqlType() {
+            return Types.VARCHAR;
+        }
+
+        @Override
+        protected void appendLiteral(StringBuilder out, String value) {
+            appendQuoted(out, value);
+        }
+
+        @Override
+        protected String toLoaderValue(String value) {
+            return value;
+        }
+
+        @Override
+        protected Object toBindValue(String value) {
+            return value;
+        }
+    }
+}
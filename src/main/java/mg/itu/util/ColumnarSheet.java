@@ -0,0 +1,380 @@
+package mg.itu.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// stockage par colonne d'une feuille lue : les nombres écrits sans exposant sont gardés en entier non mis à l'échelle
+// (int tant qu'ils tiennent, long sinon) avec leur nombre de décimales, le reste est codé par un dictionnaire
+// partagé par toutes les colonnes dont les valeurs sont concaténées en UTF-8 dans un seul byte[],
+// les cellules vides sont un bit dans un BitSet. chaque valeur relue est identique au texte d'origine
+public final class ColumnarSheet implements SheetData {
+
+    // nombre de décimales 0..MAX_SCALE pour un décimal, STRING pour un code de dictionnaire
+    private static final byte STRING = -1;
+    private static final byte UNSET = -2;
+    private static final int MAX_SCALE = 18;
+    private static final int MAX_DIGITS = 18;
+    // au-delà, les nouvelles valeurs ne sont plus dédoublonnées pour borner la table de hachage de construction
+    private static final int MAX_INDEXED_VALUES = 1 << 16;
+
+    private final int rowCount;
+    private final int[] rowLengths;
+    private final Column[] columns;
+    private final byte[] dictionary;
+    private final int[] offsets;
+    private final long estimatedBytes;
+
+    private ColumnarSheet(int rowCount, int[] rowLengths, Column[] columns, byte[] dictionary, int[] offsets,
+                          long estimatedBytes) {
+        this.rowCount = rowCount;
+        this.rowLengths = rowLengths;
+        this.columns = columns;
+        this.dictionary = dictionary;
+        this.offsets = offsets;
+        this.estimatedBytes = estimatedBytes;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount(int row) {
+        return rowLengths[row];
+    }
+
+    @Override
+    public String getValue(int row, int column) {
+        if (column >= rowLengths[row] || column >= columns.length) {
+            return "";
+        }
+        return columns[column].get(row, this);
+    }
+
+    @Override
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    private String dictionaryValue(int code) {
+        return new String(dictionary, offsets[code], offsets[code + 1] - offsets[code], StandardCharsets.UTF_8);
+    }
+
+    // null si la feuille dépasse maxBytes
+    public static ColumnarSheet of(List<List<String>> rows, long maxBytes) {
+        Builder builder = new Builder(maxBytes);
+        for (List<String> row : rows) {
+            if (!builder.add(row)) {
+                return null;
+            }
+        }
+        return builder.build();
+    }
+
+    // accumule les lignes une à une ; abandonne dès que l'estimation dépasse maxBytes
+    public static class Builder {
+        private static final int CHECK_INTERVAL = 256;
+
+        private final long maxBytes;
+        private Map<String, Integer> codes = new HashMap<>();
+        private byte[] dictionary = new byte[1024];
+        private int[] offsets = new int[64];
+        private int valueCount;
+        private Column[] columns = new Column[0];
+        private int[] rowLengths = new int[64];
+        private int rowCount;
+        private boolean overflowed;
+
+        public Builder() {
+            this(Long.MAX_VALUE);
+        }
+
+        public Builder(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        public boolean isOverflowed() {
+            return overflowed;
+        }
+
+        public boolean add(List<String> row) {
+            if (overflowed) {
+                return false;
+            }
+            int length = row.size();
+            if (rowCount == rowLengths.length) {
+                rowLengths = Arrays.copyOf(rowLengths, rowCount + (rowCount >> 1));
+            }
+            rowLengths[rowCount] = length;
+            if (length > columns.length) {
+                columns = Arrays.copyOf(columns, length);
+            }
+            for (int column = 0; column < length; column++) {
+                String value = row.get(column);
+                if (value == null || value.isEmpty()) {
+                    if (columns[column] != null) {
+                        columns[column].setEmpty(rowCount);
+                    }
+                    continue;
+                }
+                if (columns[column] == null) {
+                    columns[column] = new Column(rowCount);
+                }
+                int scale = decimalScale(value);
+                if (scale >= 0) {
+                    columns[column].set(rowCount, (byte) scale, unscaledValue(value));
+                } else {
+                    columns[column].set(rowCount, STRING, code(value));
+                }
+            }
+            rowCount++;
+
+            if (maxBytes != Long.MAX_VALUE && rowCount % CHECK_INTERVAL == 0 && estimateBytes() > maxBytes) {
+                overflowed = true;
+                codes = null;
+                dictionary = null;
+                offsets = null;
+                columns = null;
+                rowLengths = null;
+            }
+            return !overflowed;
+        }
+
+        // null si la feuille dépasse maxBytes
+        public ColumnarSheet build() {
+            if (overflowed || estimateBytes() > maxBytes) {
+                overflowed = true;
+                return null;
+            }
+            int[] lengths = Arrays.copyOf(rowLengths, rowCount);
+            Column[] built = new Column[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                built[i] = columns[i] != null ? columns[i].trim() : Column.EMPTY;
+            }
+            codes = null;
+            return new ColumnarSheet(rowCount, lengths, built, Arrays.copyOf(dictionary, offsets[valueCount]),
+                Arrays.copyOf(offsets, valueCount + 1), estimateBytes());
+        }
+
+        private int code(String value) {
+            Integer code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            int start = offsets[valueCount];
+            if (start + bytes.length > dictionary.length) {
+                dictionary = Arrays.copyOf(dictionary, Math.max(start + bytes.length, dictionary.length + (dictionary.length >> 1)));
+            }
+            System.arraycopy(bytes, 0, dictionary, start, bytes.length);
+            if (valueCount + 2 > offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length + (offsets.length >> 1));
+            }
+            offsets[valueCount + 1] = start + bytes.length;
+            if (codes.size() < MAX_INDEXED_VALUES) {
+                codes.put(value, valueCount);
+            }
+            return valueCount++;
+        }
+
+        private long estimateBytes() {
+            long bytes = 64 + align(16 + 4L * rowCount) + align(16 + 4L * columns.length)
+                + align(16 + (long) offsets[valueCount]) + align(16 + 4L * (valueCount + 1));
+            for (Column column : columns) {
+                if (column != null) {
+                    bytes += column.estimateBytes();
+                }
+            }
+            return bytes;
+        }
+    }
+
+    // cellules d'une colonne à partir de sa première valeur non vide (offset), les lignes plus courtes sont ignorées
+    private static final class Column {
+        private static final Column EMPTY = new Column(0);
+
+        private final int offset;
+        private final BitSet empty = new BitSet();
+        private byte uniformKind = UNSET;
+        private byte[] kinds;
+        private int[] ints = new int[16];
+        private long[] longs;
+        private int size;
+
+        Column(int offset) {
+            this.offset = offset;
+        }
+
+        void setEmpty(int row) {
+            ensureCapacity(row - offset + 1);
+            empty.set(row - offset);
+        }
+
+        void set(int row, byte kind, long value) {
+            int index = row - offset;
+            ensureCapacity(index + 1);
+            if (uniformKind == UNSET) {
+                uniformKind = kind;
+            } else if (kind != uniformKind && kinds == null) {
+                kinds = new byte[capacity()];
+                Arrays.fill(kinds, 0, size, uniformKind);
+            }
+            if (kinds != null) {
+                kinds[index] = kind;
+            }
+            if (longs == null && (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)) {
+                longs = new long[ints.length];
+                for (int i = 0; i < size; i++) {
+                    longs[i] = ints[i];
+                }
+                ints = null;
+            }
+            if (longs != null) {
+                longs[index] = value;
+            } else {
+                ints[index] = (int) value;
+            }
+        }
+
+        String get(int row, ColumnarSheet sheet) {
+            int index = row - offset;
+            if (index < 0 || index >= size || empty.get(index)) {
+                return "";
+            }
+            byte kind = kinds != null ? kinds[index] : uniformKind;
+            long value = longs != null ? longs[index] : ints[index];
+            if (kind == STRING) {
+                return sheet.dictionaryValue((int) value);
+            }
+            return formatDecimal(value, kind);
+        }
+
+        Column trim() {
+            int length = size;
+            if (kinds != null && kinds.length != length) {
+                kinds = Arrays.copyOf(kinds, length);
+            }
+            if (longs != null && longs.length != length) {
+                longs = Arrays.copyOf(longs, length);
+            } else if (ints != null && ints.length != length) {
+                ints = Arrays.copyOf(ints, length);
+            }
+            return this;
+        }
+
+        long estimateBytes() {
+            long bytes = 48 + align(16 + (long) capacity() * (longs != null ? 8 : 4));
+            bytes += 40 + align(16 + 8L * ((size + 63) / 64));
+            if (kinds != null) {
+                bytes += align(16 + kinds.length);
+            }
+            return bytes;
+        }
+
+        private int capacity() {
+            return longs != null ? longs.length : ints.length;
+        }
+
+        private void ensureCapacity(int required) {
+            if (required > size) {
+                if (required > capacity()) {
+                    int capacity = Math.max(required, capacity() + (capacity() >> 1));
+                    if (longs != null) {
+                        longs = Arrays.copyOf(longs, capacity);
+                    } else {
+                        ints = Arrays.copyOf(ints, capacity);
+                    }
+                    if (kinds != null) {
+                        kinds = Arrays.copyOf(kinds, capacity);
+                    }
+                }
+                // lignes sautées (trop courtes) : vides
+                if (required - 1 > size) {
+                    empty.set(size, required - 1);
+                }
+                size = required;
+            }
+        }
+    }
+
+    // nombre de décimales si le texte est un décimal relu à l'identique par formatDecimal
+    // ("-12.50", "0", "42"), -1 sinon (exposant, zéro non significatif à gauche, "-0", plus de 18 chiffres)
+    static int decimalScale(String text) {
+        int length = text.length();
+        int start = text.charAt(0) == '-' ? 1 : 0;
+        if (start == length) {
+            return -1;
+        }
+        int digits = 0;
+        int point = -1;
+        boolean nonZero = false;
+        for (int i = start; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '.') {
+                if (point >= 0 || i == start || i == length - 1) {
+                    return -1;
+                }
+                point = i;
+            } else if (c >= '0' && c <= '9') {
+                if (++digits > MAX_DIGITS) {
+                    return -1;
+                }
+                nonZero |= c != '0';
+            } else {
+                return -1;
+            }
+        }
+        int integerDigits = (point >= 0 ? point : length) - start;
+        if (integerDigits > 1 && text.charAt(start) == '0') {
+            return -1;
+        }
+        if (start == 1 && !nonZero) {
+            return -1;
+        }
+        int scale = point >= 0 ? length - point - 1 : 0;
+        return scale <= MAX_SCALE ? scale : -1;
+    }
+
+    static long unscaledValue(String text) {
+        boolean negative = text.charAt(0) == '-';
+        long value = 0;
+        for (int i = negative ? 1 : 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c != '.') {
+                value = value * 10 + (c - '0');
+            }
+        }
+        return negative ? -value : value;
+    }
+
+    static String formatDecimal(long unscaled, int scale) {
+        if (scale == 0) {
+            return Long.toString(unscaled);
+        }
+        String digits = Long.toString(Math.abs(unscaled));
+        StringBuilder text = new StringBuilder(digits.length() + scale + 3);
+        if (unscaled < 0) {
+            text.append('-');
+        }
+        int integerDigits = digits.length() - scale;
+        if (integerDigits <= 0) {
+            text.append('0').append('.');
+            for (int i = integerDigits; i < 0; i++) {
+                text.append('0');
+            }
+            text.append(digits);
+        } else {
+            text.append(digits, 0, integerDigits).append('.').append(digits, integerDigits, digits.length());
+        }
+        return text.toString();
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
@@ -0,0 +1,256 @@
+package mg.itu.util;
+
+import com.opencsv.CSVParserBuilder;
+import com.opencsv.ICSVParser;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// lecture CSV ligne à ligne en mémoire bornée, mêmes lignes que CSVReader.readNext (séparateur ',', guillemets '"', échappement '\')
+// les lignes sans guillemet ni antislash sont découpées directement dans le tampon d'octets,
+// les autres passent par le CSVParser d'opencsv (champs multilignes compris)
+public class CsvRowReader implements Closeable {
+
+    public static final Charset WINDOWS_1252 = Charset.forName("windows-1252");
+
+    // échantillon analysé pour choisir entre UTF-8 et Windows-1252 quand le fichier n'a pas de BOM
+    static final int SAMPLE_SIZE = 64 * 1024;
+
+    private final InputStream input;
+    private final Charset charset;
+    private final ICSVParser parser = new CSVParserBuilder().build();
+
+    // mode octets : charsets compatibles ASCII où ',', '"', '\' et les fins de ligne tiennent sur un octet
+    private final byte[] buffer = new byte[SAMPLE_SIZE];
+    private int position;
+    private int limit;
+    private boolean skipLineFeed;
+    private byte[] line = new byte[256];
+    private int lineLength;
+
+    // mode texte : UTF-16 et autres charsets multi-octets
+    private final BufferedReader textReader;
+    private String textLine;
+
+    public CsvRowReader(File file, Charset charset) throws IOException {
+        this(new FileInputStream(file), charset);
+    }
+
+    // le flux est fermé par close(), y compris si la détection échoue
+    public CsvRowReader(InputStream input, Charset charset) throws IOException {
+        this.input = input;
+        try {
+            fillSample();
+            Charset bomCharset = bomCharset(buffer, limit);
+            this.charset = charset != null ? charset : bomCharset != null ? bomCharset : detectCharset(buffer, limit);
+            if (bomCharset != null && bomCharset.equals(this.charset)) {
+                position = bomLength(bomCharset);
+            }
+            this.textReader = isByteSplittable(this.charset) ? null : new BufferedReader(new InputStreamReader(
+                new SequenceInputStream(new ByteArrayInputStream(buffer, position, limit - position), input), this.charset));
+        } catch (IOException | RuntimeException e) {
+            input.close();
+            throw e;
+        }
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    // prochaine ligne logique, null en fin de fichier ; les lignes courtes ne sont pas complétées
+    public String[] readRow() throws IOException {
+        String[] row = null;
+        do {
+            if (!nextLine()) {
+                if (parser.isPending()) {
+                    throw new IOException("Champ entre guillemets non terminé en fin de fichier CSV");
+                }
+                return row;
+            }
+            if (row == null && isSimpleLine()) {
+                return splitLine();
+            }
+            String[] fields = parser.parseLineMulti(currentLine());
+            row = row == null ? fields : concat(row, fields);
+        } while (parser.isPending());
+        return row;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (textReader != null) {
+            textReader.close();
+        }
+        input.close();
+    }
+
+    static Charset bomCharset(byte[] bytes, int length) {
+        if (length >= 3 && (bytes[0] & 0xFF) == 0xEF && (bytes[1] & 0xFF) == 0xBB && (bytes[2] & 0xFF) == 0xBF) {
+            return StandardCharsets.UTF_8;
+        }
+        if (length >= 2 && (bytes[0] & 0xFF) == 0xFF && (bytes[1] & 0xFF) == 0xFE) {
+            return StandardCharsets.UTF_16LE;
+        }
+        if (length >= 2 && (bytes[0] & 0xFF) == 0xFE && (bytes[1] & 0xFF) == 0xFF) {
+            return StandardCharsets.UTF_16BE;
+        }
+        return null;
+    }
+
+    // UTF-8 si l'échantillon est une suite UTF-8 valide (une séquence coupée en fin d'échantillon est acceptée), sinon Windows-1252
+    static Charset detectCharset(byte[] bytes, int length) {
+        int index = 0;
+        while (index < length) {
+            int lead = bytes[index] & 0xFF;
+            int continuation;
+            if (lead < 0x80) {
+                index++;
+                continue;
+            } else if (lead >= 0xC2 && lead <= 0xDF) {
+                continuation = 1;
+            } else if (lead >= 0xE0 && lead <= 0xEF) {
+                continuation = 2;
+            } else if (lead >= 0xF0 && lead <= 0xF4) {
+                continuation = 3;
+            } else {
+                return WINDOWS_1252;
+            }
+            for (int i = 1; i <= continuation; i++) {
+                if (index + i >= length) {
+                    return length == SAMPLE_SIZE ? StandardCharsets.UTF_8 : WINDOWS_1252;
+                }
+                if ((bytes[index + i] & 0xC0) != 0x80) {
+                    return WINDOWS_1252;
+                }
+            }
+            index += continuation + 1;
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    private static int bomLength(Charset bomCharset) {
+        return StandardCharsets.UTF_8.equals(bomCharset) ? 3 : 2;
+    }
+
+    static boolean isByteSplittable(Charset charset) {
+        if (StandardCharsets.UTF_8.equals(charset)) {
+            return true;
+        }
+        return charset.newEncoder().maxBytesPerChar() == 1
+            && Arrays.equals(",\"\\\r\n".getBytes(charset), ",\"\\\r\n".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private void fillSample() throws IOException {
+        while (limit < buffer.length) {
+            int read = input.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                break;
+            }
+            limit += read;
+        }
+    }
+
+    private boolean nextLine() throws IOException {
+        if (textReader != null) {
+            textLine = textReader.readLine();
+            return textLine != null;
+        }
+
+        lineLength = 0;
+        while (true) {
+            if (position == limit) {
+                position = 0;
+                limit = Math.max(0, input.read(buffer));
+                if (limit == 0) {
+                    return lineLength > 0;
+                }
+            }
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (buffer[position] == '\n') {
+                    position++;
+                    continue;
+                }
+            }
+
+            int end = position;
+            while (end < limit && buffer[end] != '\n' && buffer[end] != '\r') {
+                end++;
+            }
+            appendToLine(position, end - position);
+            if (end < limit) {
+                skipLineFeed = buffer[end] == '\r';
+                position = end + 1;
+                return true;
+            }
+            position = limit;
+        }
+    }
+
+    private void appendToLine(int offset, int length) {
+        if (lineLength + length > line.length) {
+            line = Arrays.copyOf(line, Math.max(line.length * 2, lineLength + length));
+        }
+        System.arraycopy(buffer, offset, line, lineLength, length);
+        lineLength += length;
+    }
+
+    private boolean isSimpleLine() {
+        if (textReader != null) {
+            return textLine.indexOf('"') < 0 && textLine.indexOf('\\') < 0;
+        }
+        for (int i = 0; i < lineLength; i++) {
+            if (line[i] == '"' || line[i] == '\\') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String currentLine() {
+        return textReader != null ? textLine : new String(line, 0, lineLength, charset);
+    }
+
+    private String[] splitLine() {
+        if (textReader != null) {
+            return textLine.split(",", -1);
+        }
+
+        int count = 1;
+        for (int i = 0; i < lineLength; i++) {
+            if (line[i] == ',') {
+                count++;
+            }
+        }
+        String[] fields = new String[count];
+        int field = 0;
+        int start = 0;
+        for (int i = 0; i <= lineLength; i++) {
+            if (i == lineLength || line[i] == ',') {
+                fields[field++] = i == start ? "" : new String(line, start, i - start, charset);
+                start = i + 1;
+            }
+        }
+        return fields;
+    }
+
+    private static String[] concat(String[] first, String[] second) {
+        if (second.length == 0) {
+            return first;
+        }
+        String[] combined = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, combined, first.length, second.length);
+        return combined;
+    }
+}
@@ -0,0 +1,43 @@
+package mg.itu.util;
+
+import java.nio.charset.StandardCharsets;
+
+// format d'un fichier d'import reconnu à ses premiers octets
+public enum DumpFormat {
+    // exp historique : l'en-tête contient "EXPORT:V" (ex. \03\03iEXPORT:V11.02.00)
+    CLASSIC,
+    // jeu de fichiers produit par l'export Data Pump de l'application
+    ZIP,
+    // envois compressés, décompressés à la volée avant imp / impdp
+    GZIP,
+    ZSTD,
+    // tout autre en-tête est supposé venir de expdp
+    DATA_PUMP;
+
+    public static final int HEADER_LENGTH = 32;
+
+    private static final byte[] CLASSIC_MARKER = "EXPORT:V".getBytes(StandardCharsets.US_ASCII);
+
+    public static DumpFormat detect(byte[] header, int length) {
+        if (length >= 4 && header[0] == 'P' && header[1] == 'K' && header[2] == 3 && header[3] == 4) {
+            return ZIP;
+        }
+        if (length >= 2 && (header[0] & 0xFF) == 0x1F && (header[1] & 0xFF) == 0x8B) {
+            return GZIP;
+        }
+        if (length >= 4 && (header[0] & 0xFF) == 0x28 && (header[1] & 0xFF) == 0xB5
+                && (header[2] & 0xFF) == 0x2F && (header[3] & 0xFF) == 0xFD) {
+            return ZSTD;
+        }
+        for (int start = 0; start + CLASSIC_MARKER.length <= length; start++) {
+            int i = 0;
+            while (i < CLASSIC_MARKER.length && header[start + i] == CLASSIC_MARKER[i]) {
+                i++;
+            }
+            if (i == CLASSIC_MARKER.length) {
+                return CLASSIC;
+            }
+        }
+        return DATA_PUMP;
+    }
+}
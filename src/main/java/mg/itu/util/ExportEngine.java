@@ -0,0 +1,21 @@
+package mg.itu.util;
+
+import java.util.Arrays;
+
+// EXP : binaire exp historique (un seul fichier .dmp) ; EXPDP : Data Pump (jeu de fichiers %U, PARALLEL, COMPRESSION)
+public enum ExportEngine {
+    EXP,
+    EXPDP;
+
+    public static ExportEngine fromValue(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return EXP;
+        }
+        try {
+            return ExportEngine.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Moteur d'export non supporté: " + value
+                    + " (valeurs possibles: " + Arrays.toString(values()) + ")");
+        }
+    }
+}
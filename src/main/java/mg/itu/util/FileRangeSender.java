@@ -0,0 +1,218 @@
+package mg.itu.util;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+// envoi d'un fichier avec les plages HTTP (Range, If-Range, multipart/byteranges), ETag et If-None-Match.
+// une réponse d'un seul tenant est confiée au sendfile de Tomcat (attributs org.apache.tomcat.sendfile.*) quand
+// le connecteur le propose ; sinon, et pour les réponses multi-plages, FileChannel.transferTo vers la sortie
+public final class FileRangeSender {
+
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private FileRangeSender() {
+    }
+
+    // ETag fort : les fichiers servis ne sont jamais réécrits en place
+    public static String etag(File file) {
+        return "\"" + Long.toHexString(file.length()) + "-" + Long.toHexString(file.lastModified()) + "\"";
+    }
+
+    // les en-têtes propres à l'appelant (Content-Disposition...) sont posés avant l'appel
+    public static void send(File file, String contentType, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        long length = file.length();
+        // Last-Modified est à la seconde près
+        long lastModified = file.lastModified() / 1000 * 1000;
+        String etag = etag(file);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+
+        if (etagMatches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        // Range n'est défini que pour GET ; une plage invalide ou un If-Range périmé donne le fichier entier
+        List<long[]> ranges = null;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && "GET".equals(request.getMethod()) && ifRangeMatches(request, etag, lastModified)) {
+            ranges = parseRanges(rangeHeader, length);
+            if (ranges != null && ranges.isEmpty()) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+        }
+        boolean head = "HEAD".equals(request.getMethod());
+
+        if (ranges == null || ranges.size() == 1) {
+            long start = ranges == null ? 0 : ranges.get(0)[0];
+            long end = ranges == null ? length - 1 : ranges.get(0)[1];
+            if (ranges != null) {
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            } else {
+                response.setStatus(HttpServletResponse.SC_OK);
+            }
+            response.setContentType(contentType);
+            response.setContentLengthLong(end - start + 1);
+            if (!head && length > 0) {
+                sendRegion(file, start, end - start + 1, request, response);
+            }
+            return;
+        }
+
+        // multipart/byteranges : longueur calculée d'avance pour que le client voie la progression
+        String boundary = UUID.randomUUID().toString().replace("-", "");
+        List<byte[]> partHeaders = new ArrayList<>();
+        long contentLength = 0;
+        for (long[] range : ranges) {
+            byte[] partHeader = ("\r\n--" + boundary + "\r\n"
+                + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                + HttpHeaders.CONTENT_RANGE + ": bytes " + range[0] + "-" + range[1] + "/" + length + "\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(partHeader);
+            contentLength += partHeader.length + range[1] - range[0] + 1;
+        }
+        byte[] closing = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        contentLength += closing.length;
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+        if (head) {
+            return;
+        }
+        OutputStream out = response.getOutputStream();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            for (int i = 0; i < ranges.size(); i++) {
+                out.write(partHeaders.get(i));
+                long[] range = ranges.get(i);
+                transfer(channel, range[0], range[1] - range[0] + 1, target);
+            }
+        }
+        out.write(closing);
+        out.flush();
+    }
+
+    // plages satisfiables triées et fusionnées ; null si l'en-tête est invalide (à ignorer), vide si aucune ne l'est
+    static List<long[]> parseRanges(String header, long length) {
+        List<HttpRange> httpRanges;
+        try {
+            httpRanges = HttpRange.parseRanges(header);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (httpRanges.isEmpty()) {
+            return null;
+        }
+        List<long[]> ranges = new ArrayList<>();
+        for (HttpRange httpRange : httpRanges) {
+            if (length == 0) {
+                break;
+            }
+            long start = httpRange.getRangeStart(length);
+            if (start >= length) {
+                continue;
+            }
+            ranges.add(new long[] {start, httpRange.getRangeEnd(length)});
+        }
+        ranges.sort(Comparator.comparingLong(range -> range[0]));
+
+        // plages qui se chevauchent ou se touchent regroupées : pas d'octet envoyé deux fois
+        List<long[]> merged = new ArrayList<>();
+        for (long[] range : ranges) {
+            long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && range[0] <= last[1] + 1) {
+                last[1] = Math.max(last[1], range[1]);
+            } else {
+                merged.add(range);
+            }
+        }
+        return merged;
+    }
+
+    private static void sendRegion(File file, long start, long count, HttpServletRequest request,
+                                   HttpServletResponse response) throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat envoie la région par sendfile après le retour du contrôleur
+            request.setAttribute(SENDFILE_FILENAME, file.getCanonicalPath());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + count);
+            return;
+        }
+        OutputStream out = response.getOutputStream();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            transfer(channel, start, count, Channels.newChannel(out));
+        }
+        out.flush();
+    }
+
+    private static void transfer(FileChannel channel, long start, long count, WritableByteChannel target) throws IOException {
+        long position = start;
+        long end = start + count;
+        while (position < end) {
+            long sent = channel.transferTo(position, end - position, target);
+            if (sent <= 0) {
+                throw new EOFException("Fichier tronqué pendant l'envoi à la position " + position);
+            }
+            position += sent;
+        }
+    }
+
+    private static boolean etagMatches(String header, String etag) {
+        if (header == null) {
+            return false;
+        }
+        for (String candidate : header.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || stripWeak(value).equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // If-Range : ETag fort identique ou date égale à Last-Modified
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String header = request.getHeader(HttpHeaders.IF_RANGE);
+        if (header == null) {
+            return true;
+        }
+        String value = header.trim();
+        if (value.startsWith("\"") || value.startsWith("W/")) {
+            return value.equals(etag);
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) == lastModified;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static String stripWeak(String value) {
+        return value.startsWith("W/") ? value.substring(2) : value;
+    }
+}
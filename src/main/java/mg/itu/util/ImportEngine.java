@@ -0,0 +1,22 @@
+package mg.itu.util;
+
+import java.util.Arrays;
+
+// IMP : binaire imp historique ; IMPDP : Data Pump (PARALLEL, jeu de fichiers, reprise des index à part)
+public enum ImportEngine {
+    IMP,
+    IMPDP;
+
+    // null si aucun moteur n'est demandé : il est alors choisi d'après le format du fichier
+    public static ImportEngine fromValue(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return ImportEngine.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Moteur d'import non supporté: " + value
+                    + " (valeurs possibles: " + Arrays.toString(values()) + ")");
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package mg.itu.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// suit la sortie de imp / impdp ligne par ligne pendant l'import : tables chargées, lignes, volume, type d'objet en cours
+public class ImportLogParser {
+
+    // impdp : . . imported "SCOTT"."EMP"                     8.570 KB      14 rows
+    private static final Pattern DATA_PUMP_TABLE =
+        Pattern.compile("^\\. \\. imported \"(.+?)\"\\s+([0-9.]+) (B|KB|MB|GB|TB)\\s+(\\d+) rows");
+    // imp : . . importing table                  "EMP"         14 rows imported
+    private static final Pattern CLASSIC_TABLE =
+        Pattern.compile("^\\. \\. importing (?:table|partition|subpartition)\\s+\"(.+?)\"\\s+(\\d+) rows imported");
+    private static final Pattern OBJECT_TYPE = Pattern.compile("^Processing object type (\\S+)");
+
+    private volatile long tablesImported;
+    private volatile long rowsImported;
+    private volatile long bytesImported;
+    private volatile long errors;
+    private volatile String objectType;
+    private volatile String lastTable;
+
+    // true si la ligne fait avancer la progression
+    public boolean accept(String line) {
+        String trimmed = line.trim();
+        Matcher matcher = DATA_PUMP_TABLE.matcher(trimmed);
+        if (matcher.find()) {
+            lastTable = matcher.group(1).replace("\"", "");
+            bytesImported += toBytes(matcher.group(2), matcher.group(3));
+            rowsImported += Long.parseLong(matcher.group(4));
+            tablesImported++;
+            return true;
+        }
+        matcher = CLASSIC_TABLE.matcher(trimmed);
+        if (matcher.find()) {
+            lastTable = matcher.group(1).replace("\"", "");
+            rowsImported += Long.parseLong(matcher.group(2));
+            tablesImported++;
+            return true;
+        }
+        matcher = OBJECT_TYPE.matcher(trimmed);
+        if (matcher.find()) {
+            objectType = matcher.group(1);
+            return true;
+        }
+        if (trimmed.startsWith("ORA-") || trimmed.startsWith("IMP-")) {
+            errors++;
+        }
+        return false;
+    }
+
+    public long getTablesImported() {
+        return tablesImported;
+    }
+
+    public long getRowsImported() {
+        return rowsImported;
+    }
+
+    // volume annoncé par impdp pour chaque table (imp ne le donne pas)
+    public long getBytesImported() {
+        return bytesImported;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public String getObjectType() {
+        return objectType;
+    }
+
+    public String getLastTable() {
+        return lastTable;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("tablesImported", tablesImported);
+        map.put("rowsImported", rowsImported);
+        map.put("bytesImported", bytesImported);
+        map.put("errors", errors);
+        map.put("objectType", objectType);
+        map.put("lastTable", lastTable);
+        return map;
+    }
+
+    private static long toBytes(String size, String unit) {
+        double value = Double.parseDouble(size);
+        switch (unit) {
+            case "KB":
+                return (long) (value * 1024);
+            case "MB":
+                return (long) (value * 1024 * 1024);
+            case "GB":
+                return (long) (value * 1024 * 1024 * 1024);
+            case "TB":
+                return (long) (value * 1024 * 1024 * 1024 * 1024);
+            default:
+                return (long) value;
+        }
+    }
+}
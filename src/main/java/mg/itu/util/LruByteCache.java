@@ -0,0 +1,83 @@
+package mg.itu.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// cache LRU borné par la taille estimée des valeurs en octets plutôt que par le nombre d'entrées
+public class LruByteCache<K, V> {
+
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long maxBytes;
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long rejected;
+
+    public LruByteCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    // false si la valeur dépasse à elle seule la capacité du cache ; les entrées les moins récemment lues sont évincées
+    public synchronized boolean put(K key, V value, long size) {
+        if (size > maxBytes) {
+            rejected++;
+            return false;
+        }
+        Entry<V> previous = entries.put(key, new Entry<>(value, size));
+        if (previous != null) {
+            bytes -= previous.size;
+        }
+        bytes += size;
+
+        Iterator<Entry<V>> eldest = entries.values().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            bytes -= eldest.next().size;
+            eldest.remove();
+            evictions++;
+        }
+        return true;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    public synchronized Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("evictions", evictions);
+        stats.put("rejected", rejected);
+        stats.put("entries", entries.size());
+        stats.put("bytes", bytes);
+        stats.put("maxBytes", maxBytes);
+        return stats;
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long size;
+
+        Entry(V value, long size) {
+            this.value = value;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package mg.itu.util;
+
+import mg.itu.model.ExcelMappingConfig;
+
+import java.nio.charset.Charset;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public final class MappingPlan {
+
+    private final List<Section> sections;
+    private final Map<String, String> columnTypes;
+    private final boolean cachedFormulaResults;
+    private final Charset encoding;
+
+    private MappingPlan(List<Section> sections, Map<String, String> columnTypes, boolean cachedFormulaResults, Charset encoding) {
+        this.sections = Collections.unmodifiableList(sections);
+        this.columnTypes = Collections.unmodifiableMap(columnTypes);
+        this.cachedFormulaResults = cachedFormulaResults;
+        this.encoding = encoding;
+    }
+
+    // compilé une fois par requête : les sections sans colonne nommée sont ignorées, comme auparavant
+    public static MappingPlan compile(ExcelMappingConfig config) {
+        List<Section> sections = new ArrayList<>();
+        Map<String, String> columnTypes = new LinkedHashMap<>();
+
+        for (ExcelMappingConfig.MappingSection section : config.getMap()) {
+            Map<String, String> columnMapping = section.getColumnMapping();
+            if (columnMapping == null || columnMapping.isEmpty()
+                    || columnMapping.values().stream().allMatch(name -> name == null)) {
+                continue;
+            }
+
+            List<Map.Entry<Integer, String>> sortedColumns = new ArrayList<>();
+            for (Map.Entry<String, String> entry : columnMapping.entrySet()) {
+                sortedColumns.add(new AbstractMap.SimpleImmutableEntry<>(Integer.parseInt(entry.getKey()), entry.getValue()));
+            }
+            sortedColumns.sort(Comparator.comparingInt(Map.Entry::getKey));
+
+            String tableName = section.getNomTable() != null && !section.getNomTable().trim().isEmpty()
+                    ? section.getNomTable().trim() : config.getNomTable();
+            for (Map.Entry<Integer, String> entry : sortedColumns) {
+                if (entry.getValue() != null) {
+                    columnTypes.putIfAbsent(entry.getValue(), config.getFieldSqlType(entry.getValue()));
+                }
+            }
+            sections.add(new Section(section, tableName, sortedColumns, config));
+        }
+
+        return new MappingPlan(sections, columnTypes, Boolean.TRUE.equals(config.getCachedFormulaResults()),
+                resolveEncoding(config.getEncoding()));
+    }
+
+    private static Charset resolveEncoding(String encoding) {
+        if (encoding == null || encoding.trim().isEmpty() || "auto".equalsIgnoreCase(encoding.trim())) {
+            return null;
+        }
+        try {
+            return Charset.forName(encoding.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Encodage non supporté: " + encoding);
+        }
+    }
+
+    public List<Section> getSections() {
+        return sections;
+    }
+
+    // union des colonnes nommées de toutes les sections, dans l'ordre d'apparition
+    public Map<String, String> getColumnTypes() {
+        return columnTypes;
+    }
+
+    public boolean isCachedFormulaResults() {
+        return cachedFormulaResults;
+    }
+
+    // null : encodage CSV détecté à la lecture
+    public Charset getEncoding() {
+        return encoding;
+    }
+
+    public Set<String> getTableNames() {
+        Set<String> tableNames = new LinkedHashSet<>();
+        for (Section section : sections) {
+            tableNames.add(section.getTableName());
+        }
+        return tableNames;
+    }
+
+    public static final class Section {
+
+        private final String sheet;
+        private final String tableName;
+        private final String target;
+        private final int startRow;
+        private final int endRow;
+        private final int[] columnIndexes;
+        private final String[] fieldNames;
+        private final ColumnFormatter[] formatters;
+        private final int[] namedColumns;
+        private final int[] bindTypes;
+
+        private Section(ExcelMappingConfig.MappingSection section, String tableName,
+                        List<Map.Entry<Integer, String>> sortedColumns, ExcelMappingConfig config) {
+            this.sheet = section.getSheet();
+            this.tableName = tableName;
+            this.startRow = Math.max(0, section.getDebutdata() - 1);
+            this.endRow = section.getFindata() != null ? section.getFindata() - 1 : Integer.MAX_VALUE;
+
+            int size = sortedColumns.size();
+            this.columnIndexes = new int[size];
+            this.fieldNames = new String[size];
+            this.formatters = new ColumnFormatter[size];
+            List<String> names = new ArrayList<>();
+            int[] named = new int[size];
+            for (int i = 0; i < size; i++) {
+                columnIndexes[i] = sortedColumns.get(i).getKey() - 1;
+                fieldNames[i] = sortedColumns.get(i).getValue();
+                formatters[i] = ColumnFormatter.forSqlType(config.getFieldSqlType(fieldNames[i]));
+                if (fieldNames[i] != null) {
+                    named[names.size()] = i;
+                    names.add(fieldNames[i]);
+                }
+            }
+            this.namedColumns = Arrays.copyOf(named, names.size());
+            this.bindTypes = new int[namedColumns.length];
+            for (int i = 0; i < namedColumns.length; i++) {
+                bindTypes[i] = formatters[namedColumns[i]].getSqlType();
+            }
+            this.target = tableName + " (" + String.join(", ", names) + ")";
+        }
+
+        public String getSheet() {
+            return sheet;
+        }
+
+        public String getTableName() {
+            return tableName;
+        }
+
+        // "TABLE (COL1, COL2)", pré-rendu pour toutes les lignes de la section
+        public String getTarget() {
+            return target;
+        }
+
+        public int getStartRow() {
+            return startRow;
+        }
+
+        public int getEndRow() {
+            return endRow;
+        }
+
+        public int[] getBindTypes() {
+            return bindTypes.clone();
+        }
+
+        public boolean hasSignificantData(List<String> rowData) {
+            int rowSize = rowData.size();
+            for (int colIndex : columnIndexes) {
+                if (colIndex < rowSize) {
+                    String cellValue = rowData.get(colIndex);
+                    if (cellValue != null && !isBlank(cellValue)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        // "v1, v2" : une valeur par colonne du mapping, NULL au-delà de la fin de ligne
+        public String renderValues(List<String> rowData) {
+            StringBuilder values = new StringBuilder(columnIndexes.length * 16);
+            int rowSize = rowData.size();
+            for (int i = 0; i < columnIndexes.length; i++) {
+                if (i > 0) {
+                    values.append(", ");
+                }
+                int colIndex = columnIndexes[i];
+                formatters[i].appendSql(values, colIndex < rowSize ? rowData.get(colIndex) : null);
+            }
+            return values.toString();
+        }
+
+        // valeurs alignées sur columnPositions (position de chaque colonne nommée dans le fichier de données)
+        public String[] loaderValues(List<String> rowData, Map<String, Integer> columnPositions) {
+            String[] values = new String[columnPositions.size()];
+            int rowSize = rowData.size();
+            for (int i : namedColumns) {
+                if (columnIndexes[i] < rowSize) {
+                    values[columnPositions.get(fieldNames[i])] = formatters[i].loaderValue(rowData.get(columnIndexes[i]));
+                }
+            }
+            return values;
+        }
+
+        // valeurs typées des colonnes nommées, IllegalArgumentException("COLONNE: raison") si une cellule est invalide
+        public Object[] bindValues(List<String> rowData) {
+            Object[] values = new Object[namedColumns.length];
+            int rowSize = rowData.size();
+            for (int i = 0; i < namedColumns.length; i++) {
+                int column = namedColumns[i];
+                if (columnIndexes[column] < rowSize) {
+                    try {
+                        values[i] = formatters[column].bindValue(rowData.get(columnIndexes[column]));
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException(fieldNames[column] + ": " + e.getMessage());
+                    }
+                }
+            }
+            return values;
+        }
+
+        private static boolean isBlank(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                if (value.charAt(i) > ' ') {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -8,6 +8,16 @@ public class OracleDockerManager {
     private static final String CONTAINER_NAME = "oracle-11g-xe";
     private static final String ORACLE_HOME = "/u01/app/oracle/product/11.2.0/xe";
     
+    private final SqlPlusSessionPool sessionPool;
+    
+    public OracleDockerManager() {
+        this(null);
+    }
+    
+    public OracleDockerManager(SqlPlusSessionPool sessionPool) {
+        this.sessionPool = sessionPool;
+    }
+    
     
     public boolean createUser(String username, String password) {
         try {
@@ -29,6 +39,9 @@ public class OracleDockerManager {
     
     
     public boolean executeSqlCommand(String sqlCommands) {
+        if (sessionPool != null) {
+            return executeSqlCommandPooled(sqlCommands);
+        }
         try {
             
             String dockerCommand = String.format(
@@ -37,9 +50,8 @@ public class OracleDockerManager {
                 CONTAINER_NAME, ORACLE_HOME
             );
             
+            // les commandes ne sont pas affichées : CREATE USER contient le mot de passe
             System.out.println("Exécution de la commande Docker...");
-            System.out.println("Commandes SQL à exécuter:");
-            System.out.println(sqlCommands);
             
             ProcessBuilder pb = new ProcessBuilder("bash", "-c", dockerCommand);
             pb.redirectErrorStream(true);
@@ -75,6 +87,11 @@ public class OracleDockerManager {
             
             
             String outputStr = output.toString();
+            String error = findError(outputStr);
+            if (error != null) {
+                System.err.println("Échec sqlplus : " + error);
+                return false;
+            }
             return exitCode == 0 && 
                    (outputStr.contains("User created") || outputStr.contains("Grant succeeded") || 
                     outputStr.contains("PL/SQL procedure successfully completed"));
@@ -87,6 +104,45 @@ public class OracleDockerManager {
     }
     
     
+    private boolean executeSqlCommandPooled(String sqlCommands) {
+        try {
+            System.out.println("Exécution via session sqlplus mutualisée...");
+            
+            String outputStr = sessionPool.execute(sqlCommands, 30, TimeUnit.SECONDS);
+            
+            // la session reste ouverte : pas de code de sortie, les erreurs se lisent dans la sortie
+            String error = findError(outputStr);
+            if (error != null) {
+                System.err.println("Échec sqlplus : " + error);
+                return false;
+            }
+            return outputStr.contains("User created") || outputStr.contains("Grant succeeded") || 
+                   outputStr.contains("PL/SQL procedure successfully completed");
+            
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Exécution interrompue: " + e.getMessage());
+            return false;
+        } catch (Exception e) {
+            System.err.println("Erreur lors de l'exécution de la commande: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+    
+    
+    // première ligne ORA- / SP2- de la sortie sqlplus, null si aucune
+    static String findError(String output) {
+        for (String line : output.split("\r?\n")) {
+            String trimmed = line.trim();
+            if (trimmed.startsWith("ORA-") || trimmed.startsWith("SP2-")) {
+                return trimmed;
+            }
+        }
+        return null;
+    }
+    
+    
     public boolean dropUser(String username) {
         String sqlCommands = String.format(
             "DROP USER %s CASCADE;\n" +
@@ -0,0 +1,10 @@
+package mg.itu.util;
+
+import java.io.IOException;
+import java.util.List;
+
+@FunctionalInterface
+public interface RowHandler {
+
+    boolean handleRow(List<String> values) throws IOException;
+}
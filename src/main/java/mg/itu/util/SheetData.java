@@ -0,0 +1,54 @@
+package mg.itu.util;
+
+import java.io.IOException;
+import java.util.AbstractList;
+
+// feuille déjà chargée en mémoire, lue cellule par cellule quelle que soit sa représentation
+public interface SheetData {
+
+    int getRowCount();
+
+    // nombre de cellules de la ligne telle qu'elle a été lue
+    int getColumnCount(int row);
+
+    // "" pour une cellule vide ou au-delà de la fin de la ligne
+    String getValue(int row, int column);
+
+    long getEstimatedBytes();
+
+    // chaque ligne est passée sous forme de vue List<String> réutilisée : elle n'est valable que pendant l'appel
+    default void forEachRow(RowHandler handler) throws IOException {
+        RowView view = new RowView(this);
+        int rowCount = getRowCount();
+        for (int row = 0; row < rowCount; row++) {
+            view.row = row;
+            view.size = getColumnCount(row);
+            if (!handler.handleRow(view)) {
+                return;
+            }
+        }
+    }
+
+    final class RowView extends AbstractList<String> {
+        private final SheetData sheet;
+        private int row;
+        private int size;
+
+        RowView(SheetData sheet) {
+            this.sheet = sheet;
+        }
+
+        @Override
+        public String get(int column) {
+            if (column < 0 || column >= size) {
+                throw new IndexOutOfBoundsException("Colonne " + column + " hors de la ligne (" + size + " cellules)");
+            }
+            return sheet.getValue(row, column);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,640 @@
+package mg.itu.util;
+
+import org.apache.poi.hssf.eventusermodel.AbortableHSSFListener;
+import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.eventusermodel.HSSFUserException;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.DateWindow1904Record;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.poifs.filesystem.DirectoryNode;
+import org.apache.poi.poifs.filesystem.DocumentInputStream;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.LittleEndian;
+import org.apache.poi.util.XMLHelper;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+// métadonnées d'un classeur sans le charger : noms des feuilles, lignes et colonnes de la première feuille,
+// et aperçu facultatif des premières lignes
+public class SpreadsheetProbe {
+
+    public static final int MAX_PREVIEW_ROWS = 100;
+
+    // au-delà, le nombre de lignes CSV est extrapolé à partir des premiers octets
+    static final int CSV_SCAN_LIMIT = 16 * 1024 * 1024;
+
+    private static final int MAX_PREVIEW_COLUMNS = 1024;
+
+    private static final String RELATIONSHIPS_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+    private static final String OFFICE_DOCUMENT_TYPE = RELATIONSHIPS_NS + "/officeDocument";
+    private static final String TABLE_NS = "urn:oasis:names:tc:opendocument:xmlns:table:1.0";
+    private static final String OFFICE_NS = "urn:oasis:names:tc:opendocument:xmlns:office:1.0";
+    private static final String TEXT_NS = "urn:oasis:names:tc:opendocument:xmlns:text:1.0";
+
+    private static final int BIFF_EOF = 0x000A;
+    private static final int BIFF_BOUNDSHEET = 0x0085;
+    private static final int BIFF_DIMENSIONS = 0x0200;
+
+    public interface InputSource {
+        InputStream open() throws IOException;
+    }
+
+    private final List<String> sheetNames = new ArrayList<>();
+    private final List<List<String>> preview = new ArrayList<>();
+    private long totalRows;
+    private int maxColumns;
+    private boolean rowCountExact = true;
+    private String encoding;
+
+    private SpreadsheetProbe() {
+    }
+
+    public List<String> getSheetNames() {
+        return Collections.unmodifiableList(sheetNames);
+    }
+
+    // lignes et colonnes de la première feuille, comme getLastRowNum() + 1 et getLastCellNum() le donnaient
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    public int getMaxColumns() {
+        return maxColumns;
+    }
+
+    // false : totalRows est une estimation (CSV plus grand que CSV_SCAN_LIMIT)
+    public boolean isRowCountExact() {
+        return rowCountExact;
+    }
+
+    public String getEncoding() {
+        return encoding;
+    }
+
+    public List<List<String>> getPreview() {
+        return Collections.unmodifiableList(preview);
+    }
+
+    // XLSX : xl/workbook.xml pour les feuilles, puis <dimension> de la première feuille
+    public static SpreadsheetProbe probeXlsx(File file, int previewRows) throws IOException {
+        SpreadsheetProbe probe = new SpreadsheetProbe();
+        try (ZipFile zip = new ZipFile(file)) {
+            String workbookPart = null;
+            for (String[] relationship : readRelationships(zip, "")) {
+                if (OFFICE_DOCUMENT_TYPE.equals(relationship[1])) {
+                    workbookPart = relationship[2];
+                }
+            }
+            if (workbookPart == null) {
+                throw new IOException("Classeur XLSX invalide: xl/workbook.xml introuvable");
+            }
+            Map<String, String> targets = new HashMap<>();
+            for (String[] relationship : readRelationships(zip, workbookPart)) {
+                targets.put(relationship[0], relationship[2]);
+            }
+
+            String firstSheetPart = null;
+            XMLStreamReader reader = openXml(zip, workbookPart);
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT && "sheet".equals(reader.getLocalName())) {
+                        probe.sheetNames.add(reader.getAttributeValue(null, "name"));
+                        if (firstSheetPart == null) {
+                            firstSheetPart = targets.get(reader.getAttributeValue(RELATIONSHIPS_NS, "id"));
+                        }
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+            if (firstSheetPart != null) {
+                probe.readXlsxDimension(zip, firstSheetPart);
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Erreur lors de la lecture du fichier XLSX: " + e.getMessage(), e);
+        }
+
+        if (previewRows > 0 && !probe.sheetNames.isEmpty()) {
+            new XlsxStreamingReader(file).readSheet(0, row -> {
+                probe.preview.add(row);
+                return probe.preview.size() < previewRows;
+            });
+        }
+        return probe;
+    }
+
+    // XLS : en-têtes BIFF (BOUNDSHEET puis DIMENSIONS de la première feuille), le contenu des enregistrements est sauté
+    public static SpreadsheetProbe probeXls(File file, int previewRows) throws IOException {
+        SpreadsheetProbe probe = new SpreadsheetProbe();
+        try (POIFSFileSystem fileSystem = new POIFSFileSystem(file, true)) {
+            DirectoryNode root = fileSystem.getRoot();
+            String streamName = root.hasEntry("Workbook") ? "Workbook" : root.hasEntry("WORKBOOK") ? "WORKBOOK" : null;
+            if (streamName == null) {
+                throw new IOException("Format XLS non supporté: flux Workbook absent (fichier antérieur à Excel 97)");
+            }
+            try (DocumentInputStream input = root.createDocumentInputStream(streamName)) {
+                probe.readBiffHeaders(input);
+            }
+            if (previewRows > 0 && !probe.sheetNames.isEmpty()) {
+                XlsPreviewListener listener = new XlsPreviewListener(probe.preview, previewRows);
+                HSSFRequest request = new HSSFRequest();
+                request.addListenerForAllRecords(listener);
+                new HSSFEventFactory().abortableProcessWorkbookEvents(request, root);
+            }
+        } catch (HSSFUserException e) {
+            throw new IOException("Erreur lors de la lecture du fichier XLS: " + e.getMessage(), e);
+        }
+        return probe;
+    }
+
+    // ODS : content.xml en flux, les lignes et cellules répétées sont comptées sans être développées
+    public static SpreadsheetProbe probeOds(File file, int previewRows) throws IOException {
+        SpreadsheetProbe probe = new SpreadsheetProbe();
+        try (ZipFile zip = new ZipFile(file)) {
+            XMLStreamReader reader = openXml(zip, "content.xml");
+            try {
+                probe.readOdsContent(reader, previewRows);
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Erreur lors de la lecture du fichier ODS: " + e.getMessage(), e);
+        }
+        return probe;
+    }
+
+    // CSV : comptage des fins de ligne et séparateurs hors guillemets sur les octets, extrapolé au-delà de CSV_SCAN_LIMIT
+    public static SpreadsheetProbe probeCsv(InputSource source, long size, Charset encoding, int previewRows) throws IOException {
+        SpreadsheetProbe probe = new SpreadsheetProbe();
+        probe.sheetNames.add("Sheet1");
+
+        Charset charset;
+        try (CsvRowReader reader = new CsvRowReader(source.open(), encoding)) {
+            charset = reader.getCharset();
+            String[] row;
+            while (probe.preview.size() < previewRows && (row = reader.readRow()) != null) {
+                probe.preview.add(Arrays.asList(row));
+            }
+        }
+        probe.encoding = charset.name();
+
+        if (!CsvRowReader.isByteSplittable(charset)) {
+            // UTF-16 : les séparateurs ne sont pas des octets isolés, comptage exact par le lecteur
+            try (CsvRowReader reader = new CsvRowReader(source.open(), charset)) {
+                String[] row;
+                while ((row = reader.readRow()) != null) {
+                    probe.totalRows++;
+                    probe.maxColumns = Math.max(probe.maxColumns, row.length);
+                }
+            }
+            return probe;
+        }
+
+        try (InputStream input = source.open()) {
+            probe.scanCsvBytes(input, size);
+        }
+        return probe;
+    }
+
+    private void scanCsvBytes(InputStream input, long size) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long scanned = 0;
+        long rows = 0;
+        int columns = 1;
+        int widest = 0;
+        boolean inQuotes = false;
+        boolean escaped = false;
+        boolean skipLineFeed = false;
+        boolean lineStarted = false;
+        boolean endOfFile = false;
+
+        while (!endOfFile && scanned < CSV_SCAN_LIMIT) {
+            int read = input.read(buffer, 0, (int) Math.min(buffer.length, CSV_SCAN_LIMIT - scanned));
+            if (read < 0) {
+                endOfFile = true;
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = buffer[i];
+                if (skipLineFeed) {
+                    skipLineFeed = false;
+                    if (b == '\n') {
+                        continue;
+                    }
+                }
+                if (escaped) {
+                    escaped = false;
+                    continue;
+                }
+                if (b == '\n' || b == '\r') {
+                    skipLineFeed = b == '\r';
+                    if (!inQuotes) {
+                        rows++;
+                        widest = Math.max(widest, columns);
+                        columns = 1;
+                        lineStarted = false;
+                    }
+                    continue;
+                }
+                lineStarted = true;
+                if (b == '"') {
+                    inQuotes = !inQuotes;
+                } else if (b == '\\') {
+                    escaped = true;
+                } else if (b == ',' && !inQuotes) {
+                    columns++;
+                }
+            }
+            scanned += read;
+        }
+        if (!endOfFile) {
+            endOfFile = input.read() < 0;
+        }
+
+        if (endOfFile) {
+            if (lineStarted) {
+                rows++;
+                widest = Math.max(widest, columns);
+            }
+            totalRows = rows;
+        } else {
+            rowCountExact = false;
+            totalRows = size > scanned ? Math.round(rows * ((double) size / scanned)) : rows;
+        }
+        maxColumns = widest;
+    }
+
+    private void readBiffHeaders(DocumentInputStream input) throws IOException {
+        long position = 0;
+        long firstSheetOffset = -1;
+        while (input.available() >= 4) {
+            int sid = input.readUShort();
+            int length = input.readUShort();
+            position += 4 + length;
+            if (sid == BIFF_BOUNDSHEET) {
+                byte[] data = new byte[length];
+                input.readFully(data);
+                int nameLength = data[6] & 0xFF;
+                boolean unicode = (data[7] & 0x01) != 0;
+                sheetNames.add(unicode
+                    ? new String(data, 8, nameLength * 2, StandardCharsets.UTF_16LE)
+                    : new String(data, 8, nameLength, StandardCharsets.ISO_8859_1));
+                if (firstSheetOffset < 0) {
+                    firstSheetOffset = LittleEndian.getUInt(data, 0);
+                }
+            } else {
+                input.skip(length);
+                if (sid == BIFF_EOF) {
+                    break;
+                }
+            }
+        }
+        if (firstSheetOffset < position) {
+            return;
+        }
+
+        input.skip(firstSheetOffset - position);
+        while (input.available() >= 4) {
+            int sid = input.readUShort();
+            int length = input.readUShort();
+            if (sid == BIFF_DIMENSIONS && length >= 12) {
+                byte[] data = new byte[length];
+                input.readFully(data);
+                totalRows = LittleEndian.getInt(data, 4);
+                maxColumns = LittleEndian.getUShort(data, 10);
+                return;
+            }
+            input.skip(length);
+            if (sid == BIFF_EOF) {
+                return;
+            }
+        }
+    }
+
+    private void readXlsxDimension(ZipFile zip, String sheetPart) throws IOException, XMLStreamException {
+        XMLStreamReader reader = openXml(zip, sheetPart);
+        try {
+            long lastRow = 0;
+            int column = 0;
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                String name = reader.getLocalName();
+                if ("dimension".equals(name)) {
+                    // une plage "A1" seule est aussi ce qu'écrivent les générateurs qui ne calculent pas la dimension
+                    String ref = reader.getAttributeValue(null, "ref");
+                    int colon = ref != null ? ref.indexOf(':') : -1;
+                    if (colon > 0) {
+                        String end = ref.substring(colon + 1);
+                        totalRows = rowNumber(end);
+                        maxColumns = XlsxStreamingReader.columnIndex(end) + 1;
+                        return;
+                    }
+                } else if ("row".equals(name)) {
+                    String ref = reader.getAttributeValue(null, "r");
+                    lastRow = ref != null ? Long.parseLong(ref) : lastRow + 1;
+                    totalRows = lastRow;
+                    column = 0;
+                } else if ("c".equals(name)) {
+                    String ref = reader.getAttributeValue(null, "r");
+                    column = ref != null ? XlsxStreamingReader.columnIndex(ref) + 1 : column + 1;
+                    maxColumns = Math.max(maxColumns, column);
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void readOdsContent(XMLStreamReader reader, int previewRows) throws XMLStreamException {
+        int tableDepth = 0;
+        boolean firstTable = false;
+        long rowIndex = 0;
+        int rowRepeat = 1;
+        int cellRepeat = 1;
+        int columnIndex = 0;
+        int rowLastColumn = 0;
+        int pendingEmptyCells = 0;
+        long pendingEmptyRows = 0;
+        boolean cellHasValue = false;
+        int paragraphDepth = 0;
+        int paragraphCount = 0;
+        StringBuilder cellText = new StringBuilder();
+        List<String> rowCells = new ArrayList<>();
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String namespace = reader.getNamespaceURI();
+                String name = reader.getLocalName();
+                if (TABLE_NS.equals(namespace) && "table".equals(name)) {
+                    if (tableDepth++ == 0) {
+                        firstTable = sheetNames.isEmpty();
+                        sheetNames.add(reader.getAttributeValue(TABLE_NS, "name"));
+                    }
+                } else if (!firstTable || tableDepth != 1) {
+                    continue;
+                } else if (TABLE_NS.equals(namespace) && "table-row".equals(name)) {
+                    rowRepeat = repeatCount(reader.getAttributeValue(TABLE_NS, "number-rows-repeated"));
+                    columnIndex = 0;
+                    rowLastColumn = 0;
+                    pendingEmptyCells = 0;
+                    rowCells = new ArrayList<>();
+                } else if (TABLE_NS.equals(namespace) && ("table-cell".equals(name) || "covered-table-cell".equals(name))) {
+                    cellRepeat = repeatCount(reader.getAttributeValue(TABLE_NS, "number-columns-repeated"));
+                    // une cellule de type string sans texte (écrite par certains générateurs) reste vide
+                    String valueType = reader.getAttributeValue(OFFICE_NS, "value-type");
+                    cellHasValue = valueType != null && !"string".equals(valueType);
+                    cellText.setLength(0);
+                    paragraphCount = 0;
+                } else if (TEXT_NS.equals(namespace) && "p".equals(name)) {
+                    if (paragraphDepth++ == 0 && paragraphCount++ > 0) {
+                        cellText.append('\n');
+                    }
+                } else if (TEXT_NS.equals(namespace) && "s".equals(name) && paragraphDepth > 0) {
+                    for (int i = repeatCount(reader.getAttributeValue(TEXT_NS, "c")); i > 0; i--) {
+                        cellText.append(' ');
+                    }
+                }
+            } else if (event == XMLStreamConstants.CHARACTERS && firstTable && paragraphDepth > 0) {
+                cellText.append(reader.getText());
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                String namespace = reader.getNamespaceURI();
+                String name = reader.getLocalName();
+                if (TABLE_NS.equals(namespace) && "table".equals(name)) {
+                    // les feuilles suivantes ne servent qu'à leur nom
+                    if (--tableDepth == 0) {
+                        firstTable = false;
+                    }
+                } else if (!firstTable || tableDepth != 1) {
+                    continue;
+                } else if (TEXT_NS.equals(namespace) && "p".equals(name)) {
+                    paragraphDepth--;
+                } else if (TABLE_NS.equals(namespace) && ("table-cell".equals(name) || "covered-table-cell".equals(name))) {
+                    if (cellHasValue || cellText.length() > 0) {
+                        rowLastColumn = columnIndex + cellRepeat;
+                        if (preview.size() < previewRows) {
+                            for (; pendingEmptyCells > 0 && rowCells.size() < MAX_PREVIEW_COLUMNS; pendingEmptyCells--) {
+                                rowCells.add("");
+                            }
+                            String value = cellText.toString().trim();
+                            for (int i = 0; i < cellRepeat && rowCells.size() < MAX_PREVIEW_COLUMNS; i++) {
+                                rowCells.add(value);
+                            }
+                        }
+                        pendingEmptyCells = 0;
+                    } else {
+                        pendingEmptyCells += cellRepeat;
+                    }
+                    columnIndex += cellRepeat;
+                } else if (TABLE_NS.equals(namespace) && "table-row".equals(name)) {
+                    if (rowLastColumn > 0) {
+                        maxColumns = Math.max(maxColumns, rowLastColumn);
+                        for (; pendingEmptyRows > 0 && preview.size() < previewRows; pendingEmptyRows--) {
+                            preview.add(new ArrayList<>());
+                        }
+                        for (int i = 0; i < rowRepeat && preview.size() < previewRows; i++) {
+                            preview.add(i == 0 ? rowCells : new ArrayList<>(rowCells));
+                        }
+                        pendingEmptyRows = 0;
+                        totalRows = rowIndex + rowRepeat;
+                    } else {
+                        pendingEmptyRows += rowRepeat;
+                    }
+                    rowIndex += rowRepeat;
+                }
+            }
+        }
+    }
+
+    private static List<String[]> readRelationships(ZipFile zip, String part) throws IOException, XMLStreamException {
+        int slash = part.lastIndexOf('/');
+        String relsPart = part.substring(0, slash + 1) + "_rels/" + part.substring(slash + 1) + ".rels";
+        List<String[]> relationships = new ArrayList<>();
+        if (zip.getEntry(relsPart) == null) {
+            return relationships;
+        }
+        XMLStreamReader reader = openXml(zip, relsPart);
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && "Relationship".equals(reader.getLocalName())) {
+                    relationships.add(new String[]{
+                        reader.getAttributeValue(null, "Id"),
+                        reader.getAttributeValue(null, "Type"),
+                        resolvePart(part, reader.getAttributeValue(null, "Target"))
+                    });
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return relationships;
+    }
+
+    private static String resolvePart(String sourcePart, String target) {
+        if (target == null) {
+            return null;
+        }
+        try {
+            String resolved = URI.create("/" + sourcePart).resolve(target).getPath();
+            return resolved.startsWith("/") ? resolved.substring(1) : resolved;
+        } catch (IllegalArgumentException e) {
+            return target.startsWith("/") ? target.substring(1) : sourcePart.substring(0, sourcePart.lastIndexOf('/') + 1) + target;
+        }
+    }
+
+    private static XMLStreamReader openXml(ZipFile zip, String part) throws IOException, XMLStreamException {
+        ZipEntry entry = zip.getEntry(part);
+        if (entry == null) {
+            throw new IOException("Partie " + part + " absente de l'archive");
+        }
+        // le flux de l'entrée est fermé avec la ZipFile
+        return XMLHelper.newXMLInputFactory().createXMLStreamReader(zip.getInputStream(entry));
+    }
+
+    private static long rowNumber(String cellReference) {
+        int index = 0;
+        while (index < cellReference.length() && !Character.isDigit(cellReference.charAt(index))) {
+            index++;
+        }
+        return index < cellReference.length() ? Long.parseLong(cellReference.substring(index)) : 0;
+    }
+
+    private static int repeatCount(String value) {
+        return value != null ? Integer.parseInt(value) : 1;
+    }
+
+    // premières lignes de la première feuille via l'API événementielle HSSF, interrompue dès que l'aperçu est complet
+    private static class XlsPreviewListener extends AbortableHSSFListener {
+        private final List<List<String>> preview;
+        private final int previewRows;
+        private final FormatTrackingHSSFListener formats = new FormatTrackingHSSFListener(null);
+        private SSTRecord sharedStrings;
+        private boolean date1904;
+        private int worksheets;
+        private CellValueRecordInterface pendingFormula;
+
+        XlsPreviewListener(List<List<String>> preview, int previewRows) {
+            this.preview = preview;
+            this.previewRows = previewRows;
+        }
+
+        @Override
+        public short abortableProcessRecord(Record record) {
+            formats.processRecordInternally(record);
+            switch (record.getSid()) {
+                case BOFRecord.sid:
+                    if (((BOFRecord) record).getType() == BOFRecord.TYPE_WORKSHEET && ++worksheets > 1) {
+                        return 1;
+                    }
+                    return 0;
+                case EOFRecord.sid:
+                    return (short) (worksheets == 1 ? 1 : 0);
+                case SSTRecord.sid:
+                    sharedStrings = (SSTRecord) record;
+                    return 0;
+                case DateWindow1904Record.sid:
+                    date1904 = ((DateWindow1904Record) record).getWindowing() == 1;
+                    return 0;
+                default:
+                    break;
+            }
+            if (worksheets != 1) {
+                return 0;
+            }
+
+            switch (record.getSid()) {
+                case LabelSSTRecord.sid:
+                    LabelSSTRecord label = (LabelSSTRecord) record;
+                    return put(label, sharedStrings != null ? sharedStrings.getString(label.getSSTIndex()).getString().trim() : "");
+                case LabelRecord.sid:
+                    return put((LabelRecord) record, ((LabelRecord) record).getValue().trim());
+                case NumberRecord.sid:
+                    NumberRecord number = (NumberRecord) record;
+                    return put(number, numberValue(number, number.getValue()));
+                case BoolErrRecord.sid:
+                    BoolErrRecord boolErr = (BoolErrRecord) record;
+                    return put(boolErr, boolErr.isBoolean() ? String.valueOf(boolErr.getBooleanValue()) : "");
+                case FormulaRecord.sid:
+                    FormulaRecord formula = (FormulaRecord) record;
+                    CellType cachedType = formula.getCachedResultTypeEnum();
+                    if (cachedType == CellType.STRING) {
+                        pendingFormula = formula;
+                        return 0;
+                    } else if (cachedType == CellType.NUMERIC) {
+                        return put(formula, CellValueConverter.formatNumber(formula.getValue()));
+                    } else if (cachedType == CellType.BOOLEAN) {
+                        return put(formula, String.valueOf(formula.getCachedBooleanValue()));
+                    }
+                    return put(formula, "");
+                case StringRecord.sid:
+                    if (pendingFormula != null) {
+                        CellValueRecordInterface cell = pendingFormula;
+                        pendingFormula = null;
+                        return put(cell, ((StringRecord) record).getString().trim());
+                    }
+                    return 0;
+                default:
+                    return 0;
+            }
+        }
+
+        private String numberValue(CellValueRecordInterface cell, double value) {
+            if (DateUtil.isADateFormat(formats.getFormatIndex(cell), formats.getFormatString(cell))
+                    && CellValueConverter.isValidExcelDate(value)) {
+                return CellValueConverter.formatExcelDate(value, date1904);
+            }
+            return CellValueConverter.formatNumber(value);
+        }
+
+        private short put(CellValueRecordInterface cell, String value) {
+            int row = cell.getRow();
+            if (row >= previewRows) {
+                return 1;
+            }
+            while (preview.size() <= row) {
+                preview.add(new ArrayList<>());
+            }
+            List<String> cells = preview.get(row);
+            int column = cell.getColumn();
+            if (column >= MAX_PREVIEW_COLUMNS) {
+                return 0;
+            }
+            while (cells.size() <= column) {
+                cells.add("");
+            }
+            cells.set(column, value);
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package mg.itu.util;
+
+import java.util.Arrays;
+
+public enum SqlDialect {
+    INSERT_ALL,
+    // Oracle 23ai et plus uniquement, désactivé par défaut (sql.dialect.multi-values-enabled)
+    MULTI_VALUES,
+    APPEND_SELECT,
+    SQL_LOADER;
+
+    public static SqlDialect fromValue(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return INSERT_ALL;
+        }
+        try {
+            return SqlDialect.valueOf(value.trim().toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Dialecte SQL non supporté: " + value
+                    + " (valeurs possibles: " + Arrays.toString(values()) + ")");
+        }
+    }
+}
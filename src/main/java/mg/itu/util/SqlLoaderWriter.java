@@ -0,0 +1,89 @@
+package mg.itu.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class SqlLoaderWriter {
+
+    // séparateur d'enregistrement RS + LF : les valeurs peuvent contenir des retours à la ligne
+    private static final String RECORD_SEPARATOR = "\u001E\n";
+
+    private final ZipOutputStream zip;
+    private final Writer data;
+    private final int columnCount;
+    private long rowCount;
+
+    public SqlLoaderWriter(OutputStream out, String tableName, Map<String, String> columnTypes) throws IOException {
+        this.zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        this.columnCount = columnTypes.size();
+
+        zip.putNextEntry(new ZipEntry(tableName + ".ctl"));
+        zip.write(buildControlFile(tableName, columnTypes).getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+
+        zip.putNextEntry(new ZipEntry(tableName + ".dat"));
+        this.data = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    // values alignées sur l'ordre de columnTypes, null ou vide = NULL
+    public void writeRow(String[] values) throws IOException {
+        for (int i = 0; i < columnCount; i++) {
+            if (i > 0) {
+                data.write(',');
+            }
+            String value = i < values.length ? values[i] : null;
+            if (value != null && !value.isEmpty()) {
+                data.write('"');
+                data.write(value.replace("\u001E", "").replace("\"", "\"\""));
+                data.write('"');
+            }
+        }
+        data.write(RECORD_SEPARATOR);
+        rowCount++;
+    }
+
+    public void finish() throws IOException {
+        data.flush();
+        zip.closeEntry();
+        zip.finish();
+        zip.flush();
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    static String buildControlFile(String tableName, Map<String, String> columnTypes) {
+        List<String> fields = new ArrayList<>();
+        for (Map.Entry<String, String> column : columnTypes.entrySet()) {
+            String sqlType = column.getValue() != null ? column.getValue().toUpperCase() : "";
+            if (sqlType.startsWith("DATE")) {
+                fields.add("    " + column.getKey() + " DATE \"YYYY-MM-DD\"");
+            } else if (sqlType.startsWith("NUMBER") || sqlType.startsWith("INTEGER")) {
+                fields.add("    " + column.getKey());
+            } else {
+                fields.add("    " + column.getKey() + " CHAR(4000)");
+            }
+        }
+
+        return "LOAD DATA\n" +
+               "CHARACTERSET UTF8\n" +
+               "INFILE '" + tableName + ".dat' \"str X'1E0A'\"\n" +
+               "APPEND\n" +
+               "INTO TABLE " + tableName + "\n" +
+               "FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '\"'\n" +
+               "TRAILING NULLCOLS\n" +
+               "(\n" +
+               String.join(",\n", fields) + "\n" +
+               ")\n";
+    }
+}
@@ -0,0 +1,153 @@
+package mg.itu.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+public class SqlPlusSession {
+
+    private static final String END_OF_STREAM = "\u0000EOF";
+    private static final String SENTINEL_PREFIX = "__SQLPLUS_DONE_";
+    private static final Pattern EXIT_LINE = Pattern.compile("^\\s*(EXIT|QUIT)\\b.*", Pattern.CASE_INSENSITIVE);
+    private static final String RESET_SETTINGS =
+        "SET PAGESIZE 14\n" +
+        "SET LINESIZE 80\n" +
+        "SET FEEDBACK ON\n" +
+        "SET HEADING ON\n" +
+        "SET ECHO OFF\n" +
+        "SET TIMING OFF\n";
+
+    private static final AtomicLong SESSION_IDS = new AtomicLong();
+
+    private final long id = SESSION_IDS.incrementAndGet();
+    private final Process process;
+    private final Writer writer;
+    private final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+    private final AtomicLong requestCounter = new AtomicLong();
+    private volatile boolean broken;
+    private volatile long lastUsedAt = System.currentTimeMillis();
+
+    public SqlPlusSession(List<String> command) throws IOException {
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.redirectErrorStream(true);
+        process = pb.start();
+        writer = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8);
+
+        Thread readerThread = new Thread(this::pumpOutput, "sqlplus-session-" + id);
+        readerThread.setDaemon(true);
+        readerThread.start();
+    }
+
+    public String execute(String script, long timeout, TimeUnit unit) throws IOException, InterruptedException {
+        String output = run(script, timeout, unit);
+        lastUsedAt = System.currentTimeMillis();
+        return output;
+    }
+
+    public boolean ping(long timeout, TimeUnit unit) {
+        try {
+            run("", timeout, unit);
+            return true;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private String run(String script, long timeout, TimeUnit unit) throws IOException, InterruptedException {
+        if (broken || !process.isAlive()) {
+            broken = true;
+            throw new IOException("Session sqlplus " + id + " inutilisable");
+        }
+
+        String sentinel = SENTINEL_PREFIX + id + "_" + requestCounter.incrementAndGet() + "__";
+        lines.clear();
+
+        try {
+            writer.write(RESET_SETTINGS);
+            for (String line : script.split("\r?\n")) {
+                if (!EXIT_LINE.matcher(line).matches()) {
+                    writer.write(line);
+                    writer.write('\n');
+                }
+            }
+            writer.write("PROMPT " + sentinel + "\n");
+            writer.flush();
+        } catch (IOException e) {
+            broken = true;
+            throw e;
+        }
+
+        StringBuilder output = new StringBuilder();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (true) {
+            long remaining = deadline - System.nanoTime();
+            String line = remaining > 0 ? lines.poll(remaining, TimeUnit.NANOSECONDS) : null;
+            if (line == null) {
+                broken = true;
+                throw new IOException("Timeout de la session sqlplus " + id + " après " + unit.toSeconds(timeout) + " s");
+            }
+            if (END_OF_STREAM.equals(line)) {
+                broken = true;
+                throw new IOException("La session sqlplus " + id + " s'est terminée de façon inattendue");
+            }
+            if (line.trim().equals(sentinel)) {
+                break;
+            }
+            output.append(line).append("\n");
+        }
+
+        return output.toString();
+    }
+
+    public boolean isUsable() {
+        return !broken && process.isAlive();
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    public void close() {
+        broken = true;
+        try {
+            writer.write("EXIT;\n");
+            writer.flush();
+            writer.close();
+            if (process.waitFor(2, TimeUnit.SECONDS)) {
+                return;
+            }
+        } catch (IOException e) {
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        process.destroyForcibly();
+    }
+
+    private void pumpOutput() {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        } catch (IOException e) {
+        } finally {
+            lines.add(END_OF_STREAM);
+        }
+    }
+}
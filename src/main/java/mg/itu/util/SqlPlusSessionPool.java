@@ -0,0 +1,176 @@
+package mg.itu.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SqlPlusSessionPool implements AutoCloseable {
+
+    private final List<String> command;
+    private final int maxSessions;
+    private final long borrowTimeoutSeconds;
+    private final long maxIdleMillis;
+
+    private final LinkedBlockingDeque<SqlPlusSession> idleSessions = new LinkedBlockingDeque<>();
+    private final AtomicInteger openSessions = new AtomicInteger();
+    private final AtomicLong createdSessions = new AtomicLong();
+    private final AtomicLong evictedSessions = new AtomicLong();
+    private final AtomicLong executions = new AtomicLong();
+    private final ScheduledExecutorService healthChecker;
+    private volatile boolean closed;
+
+    public SqlPlusSessionPool(List<String> command, int maxSessions, long borrowTimeoutSeconds,
+                              long maxIdleMinutes, long healthCheckIntervalSeconds) {
+        this.command = new ArrayList<>(command);
+        this.maxSessions = maxSessions;
+        this.borrowTimeoutSeconds = borrowTimeoutSeconds;
+        this.maxIdleMillis = TimeUnit.MINUTES.toMillis(maxIdleMinutes);
+
+        healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sqlplus-pool-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (healthCheckIntervalSeconds > 0) {
+            healthChecker.scheduleWithFixedDelay(this::checkIdleSessions,
+                healthCheckIntervalSeconds, healthCheckIntervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    public String execute(String script, long timeout, TimeUnit unit) throws IOException, InterruptedException {
+        SqlPlusSession session = borrow();
+        try {
+            String output = session.execute(script, timeout, unit);
+            executions.incrementAndGet();
+            return output;
+        } finally {
+            release(session);
+        }
+    }
+
+    public void warmUp() throws IOException {
+        List<SqlPlusSession> warmed = new ArrayList<>();
+        try {
+            while (openSessions.get() < maxSessions) {
+                SqlPlusSession session = tryCreate();
+                if (session == null) {
+                    break;
+                }
+                warmed.add(session);
+            }
+        } finally {
+            for (SqlPlusSession session : warmed) {
+                release(session);
+            }
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxSessions", maxSessions);
+        stats.put("openSessions", openSessions.get());
+        stats.put("idleSessions", idleSessions.size());
+        stats.put("createdSessions", createdSessions.get());
+        stats.put("evictedSessions", evictedSessions.get());
+        stats.put("executions", executions.get());
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        healthChecker.shutdownNow();
+        SqlPlusSession session;
+        while ((session = idleSessions.pollFirst()) != null) {
+            openSessions.decrementAndGet();
+            session.close();
+        }
+    }
+
+    private SqlPlusSession borrow() throws IOException, InterruptedException {
+        if (closed) {
+            throw new IOException("Le pool de sessions sqlplus est fermé");
+        }
+        SqlPlusSession session = idleSessions.pollFirst();
+        while (session != null && !session.isUsable()) {
+            evict(session);
+            session = idleSessions.pollFirst();
+        }
+        if (session != null) {
+            return session;
+        }
+
+        session = tryCreate();
+        if (session != null) {
+            return session;
+        }
+
+        session = idleSessions.pollFirst(borrowTimeoutSeconds, TimeUnit.SECONDS);
+        if (session == null) {
+            throw new IOException("Aucune session sqlplus disponible après " + borrowTimeoutSeconds + " s");
+        }
+        if (!session.isUsable()) {
+            evict(session);
+            return borrow();
+        }
+        return session;
+    }
+
+    private SqlPlusSession tryCreate() throws IOException {
+        while (true) {
+            int current = openSessions.get();
+            if (current >= maxSessions) {
+                return null;
+            }
+            if (openSessions.compareAndSet(current, current + 1)) {
+                break;
+            }
+        }
+        try {
+            SqlPlusSession session = new SqlPlusSession(command);
+            createdSessions.incrementAndGet();
+            return session;
+        } catch (IOException | RuntimeException e) {
+            openSessions.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void release(SqlPlusSession session) {
+        if (closed || !session.isUsable()) {
+            evict(session);
+        } else {
+            idleSessions.offerFirst(session);
+        }
+    }
+
+    private void evict(SqlPlusSession session) {
+        openSessions.decrementAndGet();
+        evictedSessions.incrementAndGet();
+        session.close();
+    }
+
+    private void checkIdleSessions() {
+        int count = idleSessions.size();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            SqlPlusSession session = idleSessions.pollLast();
+            if (session == null) {
+                return;
+            }
+            if (now - session.getLastUsedAt() > maxIdleMillis || !session.ping(10, TimeUnit.SECONDS)) {
+                evict(session);
+            } else {
+                idleSessions.offerFirst(session);
+            }
+        }
+    }
+}
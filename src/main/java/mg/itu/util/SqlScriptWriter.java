@@ -0,0 +1,117 @@
+package mg.itu.util;
+
+import java.io.IOException;
+import java.io.Writer;
+
+public class SqlScriptWriter {
+
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private final Writer writer;
+    private final SqlDialect dialect;
+    private final int batchSize;
+    private String currentTarget;
+    private int rowsInStatement;
+    private long rowCount;
+    private long statementCount;
+
+    public SqlScriptWriter(Writer writer) {
+        this(writer, SqlDialect.INSERT_ALL, DEFAULT_BATCH_SIZE);
+    }
+
+    public SqlScriptWriter(Writer writer, SqlDialect dialect, int batchSize) {
+        if (dialect == SqlDialect.SQL_LOADER) {
+            throw new IllegalArgumentException("Le dialecte SQL_LOADER est produit par SqlLoaderWriter");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize doit être supérieur à 0");
+        }
+        this.writer = writer;
+        this.dialect = dialect;
+        this.batchSize = batchSize;
+    }
+
+    // target = "TABLE (COL1, COL2)", values = "v1, v2" ; un INSERT ALL peut mélanger
+    // plusieurs cibles, les autres dialectes ouvrent une nouvelle instruction à chaque changement
+    public void writeRow(String target, String values) throws IOException {
+        boolean sameStatement = rowsInStatement > 0 && rowsInStatement < batchSize
+                && (dialect == SqlDialect.INSERT_ALL || target.equals(currentTarget));
+        if (!sameStatement) {
+            closeStatement();
+            openStatement(target);
+        }
+
+        switch (dialect) {
+            case MULTI_VALUES:
+                writer.write(rowsInStatement > 0 ? ",\n    (" : "    (");
+                writer.write(values);
+                writer.write(")");
+                break;
+            case APPEND_SELECT:
+                writer.write(rowsInStatement > 0 ? "\n    UNION ALL SELECT " : "    SELECT ");
+                writer.write(values);
+                writer.write(" FROM dual");
+                break;
+            default:
+                writer.write("    INTO ");
+                writer.write(target);
+                writer.write(" VALUES (");
+                writer.write(values);
+                writer.write(")\n");
+                break;
+        }
+        rowsInStatement++;
+        rowCount++;
+    }
+
+    public void finish() throws IOException {
+        closeStatement();
+        writer.flush();
+    }
+
+    private void openStatement(String target) throws IOException {
+        if (statementCount > 0) {
+            writer.write("\n");
+        }
+        switch (dialect) {
+            case MULTI_VALUES:
+                writer.write("INSERT INTO " + target + " VALUES\n");
+                break;
+            case APPEND_SELECT:
+                writer.write("INSERT /*+ APPEND */ INTO " + target + "\n");
+                break;
+            default:
+                writer.write("INSERT ALL\n");
+                break;
+        }
+        currentTarget = target;
+        statementCount++;
+    }
+
+    private void closeStatement() throws IOException {
+        if (rowsInStatement == 0) {
+            return;
+        }
+        switch (dialect) {
+            case MULTI_VALUES:
+                writer.write(";");
+                break;
+            case APPEND_SELECT:
+                // ORA-12838 : la table doit être validée avant le chargement direct suivant
+                writer.write(";\nCOMMIT;");
+                break;
+            default:
+                writer.write("SELECT * FROM dual;");
+                break;
+        }
+        rowsInStatement = 0;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public long getStatementCount() {
+        return statementCount;
+    }
+}
@@ -0,0 +1,78 @@
+package mg.itu.util;
+
+// compression appliquée aux dumps pendant leur transfert vers le client.
+// zstd n'a pas d'implémentation Java pure dans le classpath (zstd-jni est natif) : il est refusé
+public enum TransferCodec {
+    NONE(null, ""),
+    GZIP("gzip", ".gz");
+
+    private final String contentEncoding;
+    private final String extension;
+
+    TransferCodec(String contentEncoding, String extension) {
+        this.contentEncoding = contentEncoding;
+        this.extension = extension;
+    }
+
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static TransferCodec fromValue(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return NONE;
+        }
+        switch (value.trim().toLowerCase()) {
+            case "none":
+            case "identity":
+                return NONE;
+            case "gzip":
+            case "x-gzip":
+                return GZIP;
+            case "zstd":
+                throw new IllegalArgumentException("La compression de transfert zstd n'est pas prise en charge, utilisez gzip");
+            default:
+                throw new IllegalArgumentException("Compression de transfert non supportée: " + value
+                        + " (valeurs possibles: none, gzip)");
+        }
+    }
+
+    // codec à appliquer d'après l'en-tête Accept-Encoding ("gzip, deflate, br;q=0.5", "*", "gzip;q=0").
+    // une entrée gzip/x-gzip explicite l'emporte sur "*" : "gzip;q=0, *" refuse gzip
+    public static TransferCodec negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return NONE;
+        }
+        Double gzipQuality = null;
+        Double wildcardQuality = null;
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.trim().split(";");
+            String coding = parts[0].trim().toLowerCase();
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipQuality = Math.max(gzipQuality == null ? 0 : gzipQuality, quality(parts));
+            } else if (coding.equals("*")) {
+                wildcardQuality = quality(parts);
+            }
+        }
+        Double effective = gzipQuality != null ? gzipQuality : wildcardQuality;
+        return effective != null && effective > 0 ? GZIP : NONE;
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,309 @@
+package mg.itu.util;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class XlsxStreamingReader {
+
+    private final File file;
+    private final boolean cachedFormulaResults;
+
+    public XlsxStreamingReader(File file) {
+        this(file, false);
+    }
+
+    // cachedFormulaResults : les cellules formule sont rendues comme leur résultat enregistré (dates, booléens, codes d'erreur)
+    // au lieu de reproduire le rendu de l'évaluation POI
+    public XlsxStreamingReader(File file, boolean cachedFormulaResults) {
+        this.file = file;
+        this.cachedFormulaResults = cachedFormulaResults;
+    }
+
+    public void readSheet(int sheetIndex, RowHandler handler) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(pkg, false);
+            StylesTable styles = reader.getStylesTable();
+            boolean date1904 = isDate1904(reader);
+
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            int index = 0;
+            while (sheets.hasNext()) {
+                try (InputStream sheet = sheets.next()) {
+                    if (index++ == sheetIndex) {
+                        parse(sheet, new SheetHandler(sharedStrings, styles, date1904, cachedFormulaResults, handler));
+                        return;
+                    }
+                }
+            }
+            throw new IOException("Feuille " + (sheetIndex + 1) + " introuvable dans le classeur");
+        } catch (OpenXML4JException | SAXException e) {
+            throw new IOException("Erreur lors de la lecture du fichier XLSX: " + e.getMessage(), e);
+        }
+    }
+
+    public List<String> getSheetNames() throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) new XSSFReader(pkg).getSheetsData();
+            List<String> names = new ArrayList<>();
+            while (sheets.hasNext()) {
+                sheets.next().close();
+                names.add(sheets.getSheetName());
+            }
+            return names;
+        } catch (OpenXML4JException e) {
+            throw new IOException("Erreur lors de la lecture du fichier XLSX: " + e.getMessage(), e);
+        }
+    }
+
+    public List<List<String>> readAllRows(int sheetIndex) throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        int[] maxColumns = {0};
+        readSheet(sheetIndex, values -> {
+            rows.add(values);
+            maxColumns[0] = Math.max(maxColumns[0], values.size());
+            return true;
+        });
+        for (List<String> row : rows) {
+            while (row.size() < maxColumns[0]) {
+                row.add("");
+            }
+        }
+        return rows;
+    }
+
+    private boolean isDate1904(XSSFReader reader) throws IOException, OpenXML4JException, SAXException {
+        boolean[] date1904 = {false};
+        try (InputStream workbook = reader.getWorkbookData()) {
+            parse(workbook, new DefaultHandler() {
+                @Override
+                public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+                    if ("workbookPr".equals(localName)) {
+                        String value = attributes.getValue("date1904");
+                        date1904[0] = "1".equals(value) || "true".equalsIgnoreCase(value);
+                        throw new StopReadingException();
+                    } else if ("sheets".equals(localName)) {
+                        throw new StopReadingException();
+                    }
+                }
+            });
+        }
+        return date1904[0];
+    }
+
+    private static void parse(InputStream input, DefaultHandler handler) throws IOException, SAXException {
+        try {
+            XMLReader xmlReader = XMLHelper.newXMLReader();
+            xmlReader.setContentHandler(handler);
+            xmlReader.parse(new InputSource(input));
+        } catch (StopReadingException e) {
+        } catch (ParserConfigurationException e) {
+            throw new IOException("Parseur XML indisponible: " + e.getMessage(), e);
+        }
+    }
+
+    static int columnIndex(String cellReference) {
+        int column = 0;
+        for (int i = 0; i < cellReference.length(); i++) {
+            char c = cellReference.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            column = column * 26 + (c - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    private static class StopReadingException extends SAXException {
+        private static final long serialVersionUID = 1L;
+
+        StopReadingException() {
+            super("stop");
+        }
+    }
+
+    private static class SheetHandler extends DefaultHandler {
+        private final ReadOnlySharedStringsTable sharedStrings;
+        private final StylesTable styles;
+        private final boolean date1904;
+        private final boolean cachedFormulaResults;
+        private final RowHandler rowHandler;
+        private final Map<Integer, Boolean> dateStyles = new HashMap<>();
+
+        private List<String> row;
+        private int column;
+        private String type;
+        private int styleIndex;
+        private boolean hasFormula;
+        private final StringBuilder value = new StringBuilder();
+        private final StringBuilder formula = new StringBuilder();
+        private final StringBuilder inlineText = new StringBuilder();
+        private boolean inValue;
+        private boolean inFormula;
+        private boolean inInlineText;
+        private boolean inPhonetic;
+
+        SheetHandler(ReadOnlySharedStringsTable sharedStrings, StylesTable styles, boolean date1904,
+                     boolean cachedFormulaResults, RowHandler rowHandler) {
+            this.sharedStrings = sharedStrings;
+            this.styles = styles;
+            this.date1904 = date1904;
+            this.cachedFormulaResults = cachedFormulaResults;
+            this.rowHandler = rowHandler;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row":
+                    row = new ArrayList<>();
+                    column = -1;
+                    break;
+                case "c":
+                    String reference = attributes.getValue("r");
+                    column = reference != null ? columnIndex(reference) : column + 1;
+                    type = attributes.getValue("t");
+                    String style = attributes.getValue("s");
+                    styleIndex = style != null ? Integer.parseInt(style) : 0;
+                    hasFormula = false;
+                    value.setLength(0);
+                    formula.setLength(0);
+                    inlineText.setLength(0);
+                    break;
+                case "v":
+                    inValue = true;
+                    break;
+                case "f":
+                    inFormula = true;
+                    hasFormula = true;
+                    break;
+                case "rPh":
+                    inPhonetic = true;
+                    break;
+                case "t":
+                    inInlineText = !inPhonetic;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inValue) {
+                value.append(ch, start, length);
+            } else if (inFormula) {
+                formula.append(ch, start, length);
+            } else if (inInlineText) {
+                inlineText.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            switch (localName) {
+                case "v":
+                    inValue = false;
+                    break;
+                case "f":
+                    inFormula = false;
+                    break;
+                case "t":
+                    inInlineText = false;
+                    break;
+                case "rPh":
+                    inPhonetic = false;
+                    break;
+                case "c":
+                    while (row.size() < column) {
+                        row.add("");
+                    }
+                    if (column < row.size()) {
+                        row.set(column, cellValue());
+                    } else {
+                        row.add(cellValue());
+                    }
+                    break;
+                case "row":
+                    try {
+                        if (!rowHandler.handleRow(row)) {
+                            throw new StopReadingException();
+                        }
+                    } catch (IOException e) {
+                        throw new SAXException(e);
+                    }
+                    row = null;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private String cellValue() {
+            if ("inlineStr".equals(type)) {
+                return inlineText.toString().trim();
+            }
+            if (value.length() == 0) {
+                return "";
+            }
+            String raw = value.toString();
+            boolean evaluatedFormula = hasFormula && !cachedFormulaResults;
+            if (type == null || "n".equals(type)) {
+                double numericValue = Double.parseDouble(raw);
+                if (!evaluatedFormula && isDateStyle() && CellValueConverter.isValidExcelDate(numericValue)) {
+                    return CellValueConverter.formatExcelDate(numericValue, date1904);
+                }
+                return CellValueConverter.formatNumber(numericValue);
+            }
+            switch (type) {
+                case "s":
+                    return sharedStrings.getItemAt(Integer.parseInt(raw)).getString().trim();
+                case "str":
+                    return raw.trim();
+                case "b":
+                    if (evaluatedFormula) {
+                        return formula.toString();
+                    }
+                    return String.valueOf("1".equals(raw) || "true".equalsIgnoreCase(raw));
+                case "e":
+                    if (cachedFormulaResults) {
+                        return raw.trim();
+                    }
+                    return hasFormula ? formula.toString() : "";
+                default:
+                    return raw.trim();
+            }
+        }
+
+        private boolean isDateStyle() {
+            Boolean cached = dateStyles.get(styleIndex);
+            if (cached == null) {
+                XSSFCellStyle style = styles != null && styles.getNumCellStyles() > 0 ? styles.getStyleAt(styleIndex) : null;
+                cached = style != null && DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString());
+                dateStyles.put(styleIndex, cached);
+            }
+            return cached;
+        }
+    }
+}
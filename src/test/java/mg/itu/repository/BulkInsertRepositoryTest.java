@@ -0,0 +1,98 @@
+package mg.itu.repository;
+
+import mg.itu.model.BulkLoadResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Types;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkInsertRepositoryTest {
+
+    private static final String TARGET = "EMPLOYE (ID, NOM, EMBAUCHE)";
+    private static final int[] TYPES = {Types.NUMERIC, Types.VARCHAR, Types.DATE};
+
+    private JdbcTemplate jdbcTemplate;
+    private BulkInsertRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:bulk_" + System.nanoTime() + ";MODE=Oracle;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE EMPLOYE (ID NUMBER PRIMARY KEY, NOM VARCHAR2(10), EMBAUCHE DATE)");
+
+        repository = new BulkInsertRepository();
+        ReflectionTestUtils.setField(repository, "jdbcTemplate", jdbcTemplate);
+    }
+
+    @Test
+    void insertsInBatchesAndCommitsAtInterval() {
+        BulkLoadResult result;
+        try (BulkInsertSession session = repository.open("EMPLOYE", 100, 250)) {
+            for (int i = 1; i <= 1000; i++) {
+                session.addRow(TARGET, TYPES, new Object[]{BigDecimal.valueOf(i), "N" + i, Date.valueOf("2024-01-15")}, i);
+            }
+            result = session.finish();
+        }
+
+        assertEquals(1000, result.getRowsInserted());
+        assertEquals(10, result.getBatchCount());
+        assertEquals(4, result.getCommitCount());
+        assertEquals(0, result.getRejectedCount());
+        assertEquals(1000, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM EMPLOYE", Integer.class));
+    }
+
+    @Test
+    void failingBatchIsReplayedRowByRowAndBadRowsAreRejected() {
+        BulkLoadResult result;
+        try (BulkInsertSession session = repository.open("EMPLOYE", 4, 1000)) {
+            session.addRow(TARGET, TYPES, new Object[]{BigDecimal.ONE, "Rakoto", null}, 2);
+            session.addRow(TARGET, TYPES, new Object[]{BigDecimal.ONE, "Doublon", null}, 3);
+            session.addRow(TARGET, TYPES, new Object[]{BigDecimal.valueOf(2), "Beaucoup trop long", null}, 4);
+            session.addRow(TARGET, TYPES, new Object[]{BigDecimal.valueOf(3), "Rabe", null}, 5);
+            session.addRow(TARGET, TYPES, new Object[]{BigDecimal.valueOf(4), "Rasoa", null}, 6);
+            session.reject(7, "EMBAUCHE: date invalide");
+            result = session.finish();
+        }
+
+        assertEquals(3, result.getRowsInserted());
+        assertEquals(3, result.getRejectedCount());
+        assertEquals(Arrays.asList(3L, 4L, 7L), Arrays.asList(result.getRejectedRows().keySet().toArray()));
+        assertEquals(Arrays.asList(1, 3, 4), jdbcTemplate.queryForList("SELECT ID FROM EMPLOYE ORDER BY ID", Integer.class));
+    }
+
+    @Test
+    void unfinishedSessionIsRolledBack() {
+        try (BulkInsertSession session = repository.open("EMPLOYE", 1, 1000)) {
+            session.addRow(TARGET, TYPES, new Object[]{BigDecimal.ONE, "Rakoto", null}, 1);
+        }
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM EMPLOYE", Integer.class));
+        assertThrows(IllegalArgumentException.class, () -> repository.open("EMPLOYE", 0, 10));
+    }
+
+    @Test
+    void keepsOnlyTheFirstRejectionReasons() {
+        BulkLoadResult result;
+        try (BulkInsertSession session = repository.open("EMPLOYE", 10, 10)) {
+            for (int i = 0; i < BulkLoadResult.MAX_REPORTED_REJECTIONS + 5; i++) {
+                session.reject(i, "invalide");
+            }
+            result = session.finish();
+        }
+
+        assertEquals(BulkLoadResult.MAX_REPORTED_REJECTIONS + 5, result.getRejectedCount());
+        assertEquals(BulkLoadResult.MAX_REPORTED_REJECTIONS, result.getRejectedRows().size());
+        assertTrue(result.hasRejections());
+    }
+}
@@ -0,0 +1,154 @@
+package mg.itu.repository;
+
+import mg.itu.model.AllocateExtentResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TableExtentRepositoryTest {
+
+    private TableExtentRepository repository;
+    private JdbcTemplate jdbcTemplate;
+    // tables refusées par le faux bloc PL/SQL, et ordres reçus à chaque exécution du bloc
+    private final Set<String> deniedTables = new HashSet<>();
+    private final List<List<String>> executedBlocks = new ArrayList<>();
+
+    // DBA_TABLES émulée par H2 ; H2 n'exécute pas de PL/SQL, le bloc ALLOCATE EXTENT est donc joué par une
+    // connexion factice qui applique chaque ordre reçu et renvoie les échecs au format du bloc Oracle
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:extents_" + System.nanoTime() + ";MODE=Oracle;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource) {
+            @Override
+            public <T> T execute(ConnectionCallback<T> action) {
+                try {
+                    return action.doInConnection(fakeOracleConnection());
+                } catch (SQLException e) {
+                    throw new UncategorizedSQLException("ALLOCATE EXTENT", null, e);
+                }
+            }
+        };
+        jdbcTemplate.execute("CREATE TABLE DBA_TABLES (OWNER VARCHAR(128), TABLE_NAME VARCHAR(128), NUM_ROWS NUMBER)");
+        jdbcTemplate.update("INSERT INTO DBA_TABLES VALUES ('SCOTT', 'EMP', NULL)");
+        jdbcTemplate.update("INSERT INTO DBA_TABLES VALUES ('SCOTT', 'DEPT', 0)");
+        jdbcTemplate.update("INSERT INTO DBA_TABLES VALUES ('SCOTT', 'BONUS', 12)");
+        jdbcTemplate.update("INSERT INTO DBA_TABLES VALUES ('HR', 'JOBS', NULL)");
+
+        repository = new TableExtentRepository();
+        ReflectionTestUtils.setField(repository, "jdbcTemplate", jdbcTemplate);
+    }
+
+    @Test
+    void findsEmptyTablesOfOwnerWithBindVariable() {
+        assertEquals(Arrays.asList("DEPT", "EMP"), repository.findTablesWithoutExtent("scott"));
+        assertEquals(Arrays.asList("JOBS"), repository.findTablesWithoutExtent("HR"));
+        assertTrue(repository.findTablesWithoutExtent("SCOTT' OR '1'='1").isEmpty());
+    }
+
+    @Test
+    void allocatesEveryEmptyTableInOneBlock() {
+        AllocateExtentResult result = repository.allocateExtents("scott");
+
+        assertEquals("SCOTT", result.getOwner());
+        assertEquals(Arrays.asList("DEPT", "EMP"), result.getAllocatedTables());
+        assertTrue(result.getFailedTables().isEmpty());
+        assertEquals(Collections.singletonList(Arrays.asList(
+            "ALTER TABLE \"SCOTT\".\"DEPT\" ALLOCATE EXTENT",
+            "ALTER TABLE \"SCOTT\".\"EMP\" ALLOCATE EXTENT")), executedBlocks);
+    }
+
+    @Test
+    void reportsPerTableOutcomeWithoutAborting() {
+        deniedTables.add("DEPT");
+        AllocateExtentResult result = repository.allocateExtents("scott");
+
+        assertEquals(2, result.getTableCount());
+        assertEquals(Collections.singletonList("EMP"), result.getAllocatedTables());
+        assertEquals(Collections.singletonList("DEPT"), new ArrayList<>(result.getFailedTables().keySet()));
+        assertTrue(result.getFailedTables().get("DEPT").startsWith("ORA-01031"), result.getFailedTables().get("DEPT"));
+    }
+
+    @Test
+    void largeSchemasAreSplitIntoBoundedBlocks() {
+        for (int i = 0; i < 250; i++) {
+            jdbcTemplate.update("INSERT INTO DBA_TABLES VALUES ('BIG', ?, NULL)", String.format("T%03d", i));
+        }
+        deniedTables.add("T120");
+
+        AllocateExtentResult result = repository.allocateExtents("big");
+
+        assertEquals(3, executedBlocks.size());
+        assertEquals(TableExtentRepository.TABLES_PER_BLOCK, executedBlocks.get(0).size());
+        assertEquals(249, result.getAllocatedTables().size());
+        assertEquals(Collections.singleton("T120"), result.getFailedTables().keySet());
+    }
+
+    @Test
+    void quotesIdentifiers() {
+        assertEquals("ALTER TABLE \"SCOTT\".\"My\"\"Table\" ALLOCATE EXTENT",
+            TableExtentRepository.allocateExtentStatement("SCOTT", "My\"Table"));
+    }
+
+    private Connection fakeOracleConnection() {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class},
+            (connection, method, args) -> {
+                if (method.getName().equals("prepareCall")) {
+                    assertEquals(TableExtentRepository.ALLOCATE_EXTENT_BLOCK, args[0]);
+                    return fakeBlockCall();
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+    }
+
+    private CallableStatement fakeBlockCall() {
+        String[] statements = new String[1];
+        String[] failures = new String[1];
+        return (CallableStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {CallableStatement.class},
+            (call, method, args) -> {
+                switch (method.getName()) {
+                    case "setString":
+                        statements[0] = (String) args[1];
+                        return null;
+                    case "execute":
+                        List<String> received = new ArrayList<>();
+                        StringBuilder failed = new StringBuilder();
+                        for (String statement : statements[0].split("\n")) {
+                            String table = statement.replaceAll(".*\\.\"(.*)\" ALLOCATE EXTENT", "$1");
+                            if (deniedTables.contains(table)) {
+                                failed.append(received.size()).append('\t').append("ORA-01031: insufficient privileges\n");
+                            }
+                            received.add(statement);
+                        }
+                        executedBlocks.add(received);
+                        failures[0] = failed.length() == 0 ? null : failed.toString();
+                        return true;
+                    case "getString":
+                        return failures[0];
+                    case "registerOutParameter":
+                    case "close":
+                        return null;
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+}
@@ -0,0 +1,87 @@
+package mg.itu.service;
+
+import mg.itu.model.ExportArtifact;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DmpArtifactStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DmpArtifactStore artifactStore;
+
+    @BeforeEach
+    void setUp() {
+        artifactStore = newStore();
+    }
+
+    @Test
+    void storedArtifactsAreVisibleOnlyOnceCompleteAndSurviveRestart() throws Exception {
+        byte[] dump = "EXPORT:V11.02.00".getBytes(StandardCharsets.US_ASCII);
+        ExportArtifact artifact = artifactStore.store("../schema.dmp", out -> out.write(dump));
+
+        assertEquals("schema.dmp", artifact.getFileName());
+        assertEquals(dump.length, artifact.getSize());
+        assertArrayEquals(dump, Files.readAllBytes(artifact.getFile().toPath()));
+        assertTrue(artifact.getFile().toPath().startsWith(tempDir.resolve("artifacts")));
+        assertEquals("application/gzip", ExportArtifact.contentType("schema.dmp.gz"));
+
+        assertThrows(IOException.class, () -> artifactStore.store("broken.dmp", out -> {
+            out.write(dump);
+            throw new IOException("exp interrompu");
+        }));
+        assertEquals(1, artifactStore.list().size());
+        assertEquals(1, tempDir.resolve("artifacts").toFile().listFiles().length);
+
+        // écriture coupée par un arrêt : le .part est supprimé au redémarrage
+        Path orphan = tempDir.resolve("artifacts").resolve("orphan");
+        Files.createDirectories(orphan);
+        Files.write(orphan.resolve("x.dmp.part"), dump);
+
+        DmpArtifactStore restarted = newStore();
+        assertEquals(artifact.getFile(), restarted.get(artifact.getId()).getFile());
+        assertEquals(artifact.getEtag(), restarted.get(artifact.getId()).getEtag());
+        assertFalse(orphan.toFile().exists());
+    }
+
+    @Test
+    void deleteAndExpiryRemoveFiles() throws Exception {
+        ExportArtifact kept = artifactStore.store("a.dmp", out -> out.write(1));
+        ExportArtifact deleted = artifactStore.store("b.dmp", out -> out.write(2));
+
+        assertTrue(artifactStore.delete(deleted.getId()));
+        assertFalse(deleted.getFile().getParentFile().exists());
+        assertFalse(artifactStore.delete(deleted.getId()));
+        assertThrows(NoSuchElementException.class, () -> artifactStore.get(deleted.getId()));
+
+        ReflectionTestUtils.setField(artifactStore, "expiryMinutes", -1L);
+        artifactStore.purgeExpiredArtifacts();
+        assertFalse(kept.getFile().exists());
+        assertEquals(0L, artifactStore.getStatistics().get("storedBytes"));
+        assertThrows(IllegalArgumentException.class, () -> artifactStore.store(" ", out -> { }));
+    }
+
+    private DmpArtifactStore newStore() {
+        DmpArtifactStore store = new DmpArtifactStore();
+        ReflectionTestUtils.setField(store, "exportDirectory", tempDir.toString());
+        ReflectionTestUtils.setField(store, "expiryMinutes", 60L);
+        store.init();
+        return store;
+    }
+}
@@ -0,0 +1,270 @@
+package mg.itu.service;
+
+import mg.itu.model.DmpJob;
+import mg.itu.model.ExportArtifact;
+import mg.itu.model.ImportOptions;
+import mg.itu.util.ExportEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DmpJobServiceTest {
+
+    private static final byte[] DUMP = "EXPORT:V11.02.00 contenu".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path tempDir;
+
+    private DmpJobService jobService;
+    private StubDmpService dmpService;
+    private DmpArtifactStore artifactStore;
+
+    @BeforeEach
+    void setUp() {
+        dmpService = new StubDmpService();
+        artifactStore = new DmpArtifactStore();
+        ReflectionTestUtils.setField(artifactStore, "exportDirectory", tempDir.toString());
+        ReflectionTestUtils.setField(artifactStore, "expiryMinutes", 60L);
+        artifactStore.init();
+        jobService = new DmpJobService();
+        ReflectionTestUtils.setField(jobService, "dmpService", dmpService);
+        ReflectionTestUtils.setField(jobService, "dmpArtifactStore", artifactStore);
+        ReflectionTestUtils.setField(jobService, "exportDirectory", tempDir.toString());
+        ReflectionTestUtils.setField(jobService, "maxConcurrentJobs", 2);
+        ReflectionTestUtils.setField(jobService, "queueCapacity", 4);
+        ReflectionTestUtils.setField(jobService, "maxJobsPerUser", 1);
+        ReflectionTestUtils.setField(jobService, "retentionMinutes", 60L);
+        jobService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dmpService.release.countDown();
+        jobService.shutdown();
+    }
+
+    @Test
+    void expJobPreparesOnceAndKeepsADownloadableResult() throws Exception {
+        dmpService.release.countDown();
+        DmpJob job = jobService.submitExport("schema", "scott", "tiger", false);
+        awaitFinished(job);
+
+        assertEquals(DmpJob.Status.COMPLETED, job.getStatus(), job.getMessage());
+        assertEquals(1, dmpService.prepareCalls.get());
+        assertEquals("schema.dmp", dmpService.containerExportName);
+        File result = new File(job.getResultPath());
+        assertEquals("schema.dmp", result.getName());
+        assertEquals(new String(DUMP, StandardCharsets.US_ASCII), new String(Files.readAllBytes(result.toPath()), StandardCharsets.US_ASCII));
+        assertEquals(DUMP.length, job.getBytesTransferred());
+
+        // créneau libéré : l'utilisateur peut relancer une tâche
+        awaitSlotReleased("SCOTT");
+        DmpJob second = jobService.submitExport("schema", "scott", "tiger", false);
+        awaitFinished(second);
+
+        ReflectionTestUtils.setField(jobService, "retentionMinutes", -1L);
+        jobService.purgeFinishedJobs();
+        assertFalse(result.exists());
+        assertEquals(null, jobService.getJob(job.getId()));
+    }
+
+    @Test
+    void storedExportRunsAsAJobAndLandsInTheArtifactStore() throws Exception {
+        dmpService.release.countDown();
+        DmpJob job = jobService.submitExport("schema", "scott", "tiger", false, null, null, null, "gzip", true);
+        awaitFinished(job);
+
+        assertEquals(DmpJob.Status.COMPLETED, job.getStatus(), job.getMessage());
+        assertEquals(null, job.getResultPath());
+        ExportArtifact artifact = artifactStore.get(job.getArtifactId());
+        assertEquals("schema.dmp.gz", artifact.getFileName());
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(artifact.getFile().toPath()))) {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                content.write(buffer, 0, read);
+            }
+            assertArrayEquals(DUMP, content.toByteArray());
+        }
+        Map<String, Object> map = job.toMap();
+        assertEquals(true, map.get("resultAvailable"));
+        assertEquals("/api/exports/" + artifact.getId(), map.get("downloadUrl"));
+
+        // la purge des tâches laisse l'artefact au magasin, qui a sa propre expiration
+        ReflectionTestUtils.setField(jobService, "retentionMinutes", -1L);
+        jobService.purgeFinishedJobs();
+        assertTrue(artifact.getFile().exists());
+    }
+
+    @Test
+    void quotaCancelAndSlotRelease() throws Exception {
+        DmpJob running = jobService.submitExport("schema", "scott", "tiger", false);
+        assertTrue(dmpService.started.await(5, TimeUnit.SECONDS));
+        assertThrows(IllegalStateException.class, () -> jobService.submitExport("autre", "SCOTT", "tiger", false));
+        assertThrows(IllegalStateException.class,
+            () -> jobService.submitImportFile(tempDir.resolve("x.dmp").toFile(), "x.dmp", "SCOTT", "tiger", false, ImportOptions.DEFAULT));
+
+        assertTrue(jobService.cancel(running.getId()));
+        assertEquals(DmpJob.Status.CANCELLED, running.getStatus());
+        assertFalse(jobService.cancel(running.getId()));
+        awaitSlotReleased("SCOTT");
+
+        dmpService.release.countDown();
+        File dump = Files.write(tempDir.resolve("import.dmp"), DUMP).toFile();
+        DmpJob imported = jobService.submitImportFile(dump, "import.dmp", "SCOTT", "tiger", false, ImportOptions.DEFAULT);
+        awaitFinished(imported);
+        assertEquals(DmpJob.Status.COMPLETED, imported.getStatus());
+        assertEquals(DmpJob.Status.CANCELLED, running.getStatus());
+    }
+
+    @Test
+    void cancellingAQueuedJobReleasesItsSlotAndInputFile() throws Exception {
+        // deux tâches occupent les deux threads : l'import de SCOTT reste en file
+        DmpJob first = jobService.submitExport("a", "hr", "hr", false);
+        DmpJob second = jobService.submitExport("b", "oe", "oe", false);
+        File dump = Files.write(tempDir.resolve("queued.dmp"), DUMP).toFile();
+        DmpJob queued = jobService.submitImportFile(dump, "queued.dmp", "scott", "tiger", false, ImportOptions.DEFAULT);
+        assertEquals(DmpJob.Status.QUEUED, queued.getStatus());
+
+        assertTrue(jobService.cancel(queued.getId()));
+        assertEquals(DmpJob.Status.CANCELLED, queued.getStatus());
+        assertFalse(dump.exists(), "le fichier d'une tâche jamais démarrée doit être supprimé");
+        assertFalse(jobService.cancel(queued.getId()));
+        assertEquals(0, slotsInUse("SCOTT"));
+
+        dmpService.release.countDown();
+        awaitFinished(first);
+        awaitFinished(second);
+        awaitSlotReleased("HR");
+        awaitSlotReleased("OE");
+        assertEquals(0, slotsInUse("SCOTT"));
+        assertEquals(0, dmpService.importCalls.get());
+        assertEquals(DmpJob.Status.CANCELLED, queued.getStatus());
+
+        // quota intact : l'utilisateur peut relancer une tâche
+        File again = Files.write(tempDir.resolve("again.dmp"), DUMP).toFile();
+        DmpJob retried = jobService.submitImportFile(again, "again.dmp", "scott", "tiger", false, ImportOptions.DEFAULT);
+        awaitFinished(retried);
+        assertEquals(DmpJob.Status.COMPLETED, retried.getStatus());
+    }
+
+    @Test
+    void failureIsRecordedOnTheJob() throws Exception {
+        dmpService.release.countDown();
+        dmpService.failExport = true;
+        DmpJob job = jobService.submitExport("schema", "scott", "tiger", false);
+        awaitFinished(job);
+
+        assertEquals(DmpJob.Status.FAILED, job.getStatus());
+        assertNotNull(job.getError());
+        assertTrue(job.getError().startsWith("java.io.IOException"), job.getError());
+        assertEquals(job.getError(), job.toMap().get("error"));
+        assertEquals(null, job.getResultPath());
+    }
+
+    private void awaitFinished(DmpJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!job.getStatus().isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(job.getStatus().isFinished(), "tâche non terminée : " + job.getStatus());
+    }
+
+    private int slotsInUse(String username) {
+        @SuppressWarnings("unchecked")
+        Map<String, AtomicInteger> counters =
+            (Map<String, AtomicInteger>) ReflectionTestUtils.getField(jobService, "activeJobsPerUser");
+        AtomicInteger counter = counters.get(username);
+        return counter == null ? 0 : counter.get();
+    }
+
+    private void awaitSlotReleased(String username) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            @SuppressWarnings("unchecked")
+            Map<String, AtomicInteger> counters =
+                (Map<String, AtomicInteger>) ReflectionTestUtils.getField(jobService, "activeJobsPerUser");
+            AtomicInteger counter = counters.get(username);
+            if (counter == null || counter.get() == 0) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("créneau de " + username + " non libéré");
+    }
+
+    // DmpService sans Docker ni Oracle : l'export bloque jusqu'à release
+    private static class StubDmpService extends DmpService {
+        final AtomicInteger prepareCalls = new AtomicInteger();
+        final AtomicInteger importCalls = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        volatile String containerExportName;
+        volatile boolean failExport;
+
+        @Override
+        public ExportEngine resolveExportEngine(String engine) {
+            return ExportEngine.EXP;
+        }
+
+        @Override
+        public String prepareExport(String dmpFileName, String username, String password, ExportEngine engine) {
+            prepareCalls.incrementAndGet();
+            return dmpFileName.endsWith(".dmp") ? dmpFileName : dmpFileName + ".dmp";
+        }
+
+        @Override
+        public String exportDmpToContainer(String dmpFileName, String username, String password) {
+            throw new AssertionError("la tâche ne doit pas préparer l'export une seconde fois");
+        }
+
+        @Override
+        public String exportPreparedDmpToContainer(String dmpFileName, String username, String password)
+                throws IOException, InterruptedException {
+            started.countDown();
+            release.await();
+            if (failExport) {
+                throw new IOException("EXP-00056: ORACLE error 1017 encountered");
+            }
+            containerExportName = dmpFileName;
+            return "/tmp/" + dmpFileName;
+        }
+
+        @Override
+        public long streamContainerDump(String containerFilePath, OutputStream out) throws IOException {
+            out.write(DUMP);
+            return DUMP.length;
+        }
+
+        @Override
+        public String importDmpFile(File tempFile, String originalFileName, String username, String password, boolean createUser,
+                                    ImportOptions options, DmpProgressListener listener) {
+            importCalls.incrementAndGet();
+            return "Import optimisé réussi : " + originalFileName;
+        }
+    }
+}
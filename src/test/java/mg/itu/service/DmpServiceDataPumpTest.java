@@ -0,0 +1,246 @@
+package mg.itu.service;
+
+import mg.itu.model.ImportOptions;
+import mg.itu.util.ExportEngine;
+import mg.itu.util.ImportLogParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DmpServiceDataPumpTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path dumpDirectory;
+    private Path expdp;
+    private DmpService dmpService;
+    private ExtentAllocationCache extentAllocationCache;
+
+    // faux docker : l'appel expdp crée un fichier par degré de parallélisme dans le DIRECTORY Data Pump,
+    // impdp et imp écrivent une sortie type, les autres commandes (ls, cat, rm, cp, nproc) s'exécutent localement
+    @BeforeEach
+    void setUp() throws IOException {
+        dumpDirectory = Files.createDirectories(tempDir.resolve("dpdump"));
+        Path oracleHome = tempDir.resolve("oracle");
+        expdp = Files.createDirectories(oracleHome.resolve("bin")).resolve("expdp");
+        Files.createFile(expdp);
+        Files.createFile(oracleHome.resolve("bin").resolve("impdp"));
+
+        Path docker = tempDir.resolve("docker");
+        String script = "#!/bin/sh\n" +
+            "if [ \"$1\" = \"cp\" ]; then exec cp \"${2#oracle-test:}\" \"${3#oracle-test:}\"; fi\n" +
+            "shift\n" +
+            "[ \"$1\" = \"-i\" ] && shift\n" +
+            "shift\n" +
+            "case \"$*\" in\n" +
+            "  *impdp*dumpfile=*)\n" +
+            "    echo \"$*\" >> \"" + tempDir.resolve("impdp.args") + "\"\n" +
+            "    log=$(echo \"$*\" | sed 's/.*logfile=\\([^ ]*\\).*/\\1/')\n" +
+            "    echo 'Import log' > \"" + dumpDirectory + "/$log\"\n" +
+            "    case \"$*\" in\n" +
+            "      *METADATA_ONLY*) echo 'Processing object type SCHEMA_EXPORT/TABLE/INDEX/INDEX' ;;\n" +
+            "      *) echo 'Processing object type SCHEMA_EXPORT/TABLE/TABLE_DATA'\n" +
+            "         echo '. . imported \"HR\".\"EMP\"                     8.000 KB      14 rows'\n" +
+            "         echo '. . imported \"HR\".\"DEPT\"                    1.000 MB       4 rows' ;;\n" +
+            "    esac\n" +
+            "    exit 0 ;;\n" +
+            "  *full=y*)\n" +
+            "    echo \"$*\" >> \"" + tempDir.resolve("imp.args") + "\"\n" +
+            "    echo '. . importing table                    \"EMP\"         14 rows imported' >&2\n" +
+            "    exit 0 ;;\n" +
+            "  *dumpfile=*)\n" +
+            "    echo \"$*\" > \"" + tempDir.resolve("expdp.args") + "\"\n" +
+            "    base=$(echo \"$*\" | sed 's/.*dumpfile=\\([^ ]*\\)_%U\\.dmp.*/\\1/')\n" +
+            "    n=$(echo \"$*\" | sed 's/.*parallel=\\([0-9]*\\).*/\\1/')\n" +
+            "    i=1\n" +
+            "    while [ $i -le $n ]; do\n" +
+            "      printf 'part-%02d' $i > \"$(printf '%s/%s_%02d.dmp' \"" + dumpDirectory + "\" \"$base\" $i)\"\n" +
+            "      i=$((i+1))\n" +
+            "    done\n" +
+            "    echo \"Starting SYS_EXPORT_SCHEMA_01: $*\" > \"" + dumpDirectory + "/${base}_expdp.log\"\n" +
+            "    exit 0 ;;\n" +
+            "esac\n" +
+            "exec \"$@\"\n";
+        Files.write(docker, script.getBytes(StandardCharsets.UTF_8));
+        assertTrue(docker.toFile().setExecutable(true));
+
+        dmpService = new DmpService();
+        extentAllocationCache = new ExtentAllocationCache();
+        ReflectionTestUtils.setField(dmpService, "extentAllocationCache", extentAllocationCache);
+        ReflectionTestUtils.setField(dmpService, "dockerCommand", docker.toString());
+        ReflectionTestUtils.setField(dmpService, "containerName", "oracle-test");
+        ReflectionTestUtils.setField(dmpService, "exportDirectory", tempDir.resolve("exports").toString());
+        ReflectionTestUtils.setField(dmpService, "importDirectory", tempDir.resolve("imports").toString());
+        ReflectionTestUtils.setField(dmpService, "processTimeoutMinutes", 1L);
+        ReflectionTestUtils.setField(dmpService, "oracleHome", oracleHome.toString());
+        ReflectionTestUtils.setField(dmpService, "dataPumpDirectory", "DATA_PUMP_DIR");
+        ReflectionTestUtils.setField(dmpService, "dataPumpDirectoryPath", dumpDirectory.toString());
+        ReflectionTestUtils.setField(dmpService, "dataPumpParallel", 4);
+        ReflectionTestUtils.setField(dmpService, "dataPumpFileSize", "2G");
+        ReflectionTestUtils.setField(dmpService, "dataPumpCompression", "METADATA_ONLY");
+    }
+
+    @Test
+    void dataPumpExportStreamsTheWholeFileSetInOrder() throws Exception {
+        assertEquals(ExportEngine.EXPDP, dmpService.resolveExportEngine("expdp"));
+        String dmpFileName = dmpService.prepareExport("schema", "scott", "tiger", ExportEngine.EXPDP);
+        assertEquals("schema.zip", dmpService.dataPumpArchiveName(dmpFileName));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long bytes = dmpService.exportDataPump(dmpFileName, "scott", "tiger", 3, "all", out, DmpProgressListener.NONE);
+
+        List<String> names = new ArrayList<>();
+        List<String> contents = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                names.add(entry.getName());
+                ByteArrayOutputStream content = new ByteArrayOutputStream();
+                byte[] buffer = new byte[1024];
+                int read;
+                while ((read = zip.read(buffer)) > 0) {
+                    content.write(buffer, 0, read);
+                }
+                contents.add(new String(content.toByteArray(), StandardCharsets.UTF_8).trim());
+            }
+        }
+
+        assertEquals(Arrays.asList("schema_01.dmp", "schema_02.dmp", "schema_03.dmp", "schema_expdp.log"), names);
+        assertEquals(Arrays.asList("part-01", "part-02", "part-03"), contents.subList(0, 3));
+        assertTrue(contents.get(3).startsWith("Starting SYS_EXPORT_SCHEMA_01"), contents.get(3));
+        assertEquals(3 * "part-01".length(), bytes);
+
+        String args = new String(Files.readAllBytes(tempDir.resolve("expdp.args")), StandardCharsets.UTF_8);
+        assertTrue(args.contains("schemas=SCOTT directory=DATA_PUMP_DIR dumpfile=schema_%U.dmp"), args);
+        assertTrue(args.contains("parallel=3 filesize=2G compression=ALL"), args);
+        try (Stream<Path> remaining = Files.list(dumpDirectory)) {
+            assertEquals(0, remaining.count(), "le jeu de fichiers doit être supprimé du conteneur");
+        }
+    }
+
+    @Test
+    void defaultParallelDegreeDrivesTheNumberOfFiles() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long bytes = dmpService.exportDataPump("defaults.dmp", "scott", "tiger", null, null, out, DmpProgressListener.NONE);
+
+        assertEquals(4 * "part-01".length(), bytes);
+        String args = new String(Files.readAllBytes(tempDir.resolve("expdp.args")), StandardCharsets.UTF_8);
+        assertTrue(args.contains("compression=METADATA_ONLY"), args);
+    }
+
+    @Test
+    void dataPumpArchiveIsImportedInParallelWithDeferredIndexes() throws Exception {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        dmpService.exportDataPump("schema.dmp", "scott", "tiger", 3, null, archive, DmpProgressListener.NONE);
+
+        extentAllocationCache.update("HR", "2|20261018080000", Arrays.asList("EMP", "DEPT"));
+        List<String> phases = new ArrayList<>();
+        List<Long> rowsSeen = new ArrayList<>();
+        DmpProgressListener listener = new DmpProgressListener() {
+            @Override
+            public void onPhase(String phase) {
+                phases.add(phase);
+            }
+
+            @Override
+            public void onImportProgress(ImportLogParser progress) {
+                rowsSeen.add(progress.getRowsImported());
+            }
+        };
+        String result = dmpService.importDmpStream(new ByteArrayInputStream(archive.toByteArray()), "schema.zip", "hr", "hr",
+            false, ImportOptions.of(null, 2, true), listener);
+
+        assertTrue(result.startsWith("Import optimisé réussi"), result);
+        assertTrue(result.contains("[impdp, parallel=2] 2 tables, 18 lignes"), result);
+        assertEquals(Arrays.asList("user", "upload", "import", "indexes"), phases);
+        assertEquals(Arrays.asList(0L, 14L, 18L, 18L), rowsSeen);
+        assertTrue(extentAllocationCache.getAllocatedTables("HR").isEmpty(), "l'import doit invalider la passe ALLOCATE EXTENT");
+
+        List<String> invocations = Files.readAllLines(tempDir.resolve("impdp.args"), StandardCharsets.UTF_8);
+        assertEquals(2, invocations.size());
+        assertTrue(invocations.get(0).matches(".*dumpfile=imp_\\d+_schema_01\\.dmp,imp_\\d+_schema_02\\.dmp,imp_\\d+_schema_03\\.dmp .*"),
+            invocations.get(0));
+        assertTrue(invocations.get(0).contains("parallel=2 table_exists_action=append remap_schema=SCOTT:HR exclude=INDEX,CONSTRAINT,REF_CONSTRAINT"),
+            invocations.get(0));
+        assertTrue(invocations.get(1).contains("content=METADATA_ONLY include=INDEX,CONSTRAINT,REF_CONSTRAINT"), invocations.get(1));
+        try (Stream<Path> remaining = Files.list(dumpDirectory)) {
+            assertEquals(0, remaining.count(), "les fichiers déposés pour impdp doivent être supprimés");
+        }
+    }
+
+    @Test
+    void classicDumpIsImportedWithImp() throws Exception {
+        byte[] dump = "\u0003\u0003iEXPORT:V11.02.00\nUSCOTT\n".getBytes(StandardCharsets.ISO_8859_1);
+        extentAllocationCache.update("HR", "2|20261018080000", Arrays.asList("EMP", "DEPT"));
+
+        String result = dmpService.importDmpStream(new ByteArrayInputStream(dump), "classic.dmp", "hr", "hr",
+            false, ImportOptions.DEFAULT, DmpProgressListener.NONE);
+        assertTrue(extentAllocationCache.getAllocatedTables("HR").isEmpty(), "l'import doit invalider la passe ALLOCATE EXTENT");
+
+        assertTrue(result.startsWith("Import optimisé réussi"), result);
+        assertTrue(result.contains("[imp] 1 tables, 14 lignes"), result);
+        assertTrue(Files.exists(tempDir.resolve("imp.args")));
+        assertTrue(!Files.exists(tempDir.resolve("impdp.args")));
+    }
+
+    @Test
+    void gzipUploadIsDecompressedBeforeImp() throws Exception {
+        byte[] dump = "\u0003\u0003iEXPORT:V11.02.00\nUSCOTT\n".getBytes(StandardCharsets.ISO_8859_1);
+        Path upload = tempDir.resolve("upload.dmp.gz");
+        try (OutputStream out = dmpService.gzip(Files.newOutputStream(upload))) {
+            out.write(dump);
+        }
+
+        String result = dmpService.importDmpFile(upload.toFile(), "classic.dmp.gz", "hr", "hr", false,
+            ImportOptions.DEFAULT, DmpProgressListener.NONE);
+
+        assertTrue(result.startsWith("Import optimisé réussi : classic.dmp "), result);
+        assertTrue(Files.exists(tempDir.resolve("imp.args")));
+        assertTrue(!Files.exists(upload));
+    }
+
+    @Test
+    void zstdUploadIsRejected() {
+        byte[] zstd = {0x28, (byte) 0xB5, 0x2F, (byte) 0xFD, 0, 0};
+
+        assertThrows(IllegalArgumentException.class, () -> dmpService.importDmpStream(new ByteArrayInputStream(zstd),
+            "schema.dmp.zst", "hr", "hr", false, ImportOptions.DEFAULT, DmpProgressListener.NONE));
+    }
+
+    @Test
+    void fallsBackToExpWhenExpdpIsMissing() throws Exception {
+        Files.delete(expdp);
+
+        assertEquals(ExportEngine.EXP, dmpService.resolveExportEngine("EXPDP"));
+        assertEquals(ExportEngine.EXP, dmpService.resolveExportEngine(null));
+    }
+
+    @Test
+    void rejectsInvalidDataPumpOptions() {
+        assertThrows(IllegalArgumentException.class, () -> dmpService.resolveDataPumpCompression("zstd"));
+        assertThrows(IllegalArgumentException.class, () -> dmpService.resolveDataPumpParallel(0));
+        assertThrows(IllegalArgumentException.class, () -> ExportEngine.fromValue("rman"));
+        assertThrows(IllegalArgumentException.class, () -> ImportOptions.of("datapump", null, false));
+        assertThrows(IllegalArgumentException.class, () -> dmpService.resolveImportParallel(-1));
+    }
+}
@@ -0,0 +1,161 @@
+package mg.itu.service;
+
+import mg.itu.model.AllocateExtentResult;
+import mg.itu.repository.TableExtentRepository;
+import mg.itu.util.SqlPlusSessionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DmpServiceExtentTest {
+
+    private DmpService dmpService;
+    private StubExtentRepository repository;
+    private RecordingSessionPool sessionPool;
+    private ExtentAllocationCache cache;
+
+    @BeforeEach
+    void setUp() {
+        repository = new StubExtentRepository();
+        sessionPool = new RecordingSessionPool();
+        cache = new ExtentAllocationCache();
+        dmpService = new DmpService();
+        ReflectionTestUtils.setField(dmpService, "tableExtentRepository", repository);
+        ReflectionTestUtils.setField(dmpService, "sqlPlusSessionPool", sessionPool);
+        ReflectionTestUtils.setField(dmpService, "extentAllocationCache", cache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionPool.close();
+    }
+
+    @Test
+    void tablesRefusedToTheApplicationAccountAreRetriedAsSysdba() {
+        repository.failed.add("DEPT");
+        repository.failed.add("EMP");
+
+        AllocateExtentResult result = dmpService.allocateExtents("scott");
+
+        assertEquals(Arrays.asList("DEPT", "EMP"), result.getAllocatedTables());
+        assertTrue(result.getFailedTables().isEmpty());
+        assertEquals(1, sessionPool.scripts.size());
+        String script = sessionPool.scripts.get(0);
+        assertTrue(script.contains("EXECUTE IMMEDIATE 'ALTER TABLE \"SCOTT\".\"DEPT\" ALLOCATE EXTENT';"), script);
+        assertTrue(script.contains("EXECUTE IMMEDIATE 'ALTER TABLE \"SCOTT\".\"EMP\" ALLOCATE EXTENT';"), script);
+    }
+
+    @Test
+    void missingPrivilegeOnSomeTablesAlsoFallsBack() {
+        repository.allocated.add("BONUS");
+        repository.failed.add("DEPT");
+
+        AllocateExtentResult result = dmpService.allocateExtents("scott");
+
+        assertEquals(Arrays.asList("BONUS", "DEPT"), result.getAllocatedTables());
+        assertEquals(1, sessionPool.scripts.size());
+        assertTrue(sessionPool.scripts.get(0).contains("\"SCOTT\".\"DEPT\""));
+        assertFalse(sessionPool.scripts.get(0).contains("BONUS"));
+    }
+
+    @Test
+    void otherPartialFailuresAreReportedWithoutFallback() {
+        repository.allocated.add("BONUS");
+        repository.failed.add("DEPT");
+        repository.failureMessage = "ORA-00054: resource busy";
+
+        AllocateExtentResult result = dmpService.allocateExtents("scott");
+
+        assertEquals(Collections.singletonList("BONUS"), result.getAllocatedTables());
+        assertEquals(Collections.singleton("DEPT"), result.getFailedTables().keySet());
+        assertTrue(sessionPool.scripts.isEmpty());
+    }
+
+    @Test
+    void unchangedSchemaSkipsThePassUntilItsFingerprintChanges() {
+        repository.allocated.addAll(Arrays.asList("DEPT", "EMP"));
+
+        AllocateExtentResult first = dmpService.allocateExtents("scott");
+        assertFalse(first.isSkipped());
+        assertEquals(1, repository.allocateCalls.get());
+
+        AllocateExtentResult second = dmpService.allocateExtents("SCOTT");
+        assertTrue(second.isSkipped());
+        assertEquals(1, repository.allocateCalls.get());
+
+        repository.fingerprint = "4|20261018090000";
+        assertFalse(dmpService.allocateExtents("scott").isSkipped());
+        assertEquals(2, repository.allocateCalls.get());
+
+        // après un import le cache est vidé : la passe est rejouée même à empreinte égale
+        cache.invalidate("scott");
+        assertFalse(dmpService.allocateExtents("scott").isSkipped());
+        assertEquals(3, repository.allocateCalls.get());
+
+        assertEquals(1L, cache.getStatistics().get("hits"));
+        assertEquals(3L, cache.getStatistics().get("misses"));
+        assertTrue(sessionPool.scripts.isEmpty());
+    }
+
+    @Test
+    void failedPassIsNotCached() {
+        repository.allocated.add("BONUS");
+        repository.failed.add("DEPT");
+        repository.failureMessage = "ORA-00054: resource busy";
+
+        dmpService.allocateExtents("scott");
+        assertFalse(dmpService.allocateExtents("scott").isSkipped());
+        assertEquals(2, repository.allocateCalls.get());
+    }
+
+    // pas de base : le schéma est décrit par les listes et l'empreinte
+    static class StubExtentRepository extends TableExtentRepository {
+        final List<String> allocated = new ArrayList<>();
+        final List<String> failed = new ArrayList<>();
+        final AtomicInteger allocateCalls = new AtomicInteger();
+        volatile String failureMessage = "ORA-01031: insufficient privileges";
+        volatile String fingerprint = "3|20261018080000";
+
+        @Override
+        public String findSchemaFingerprint(String owner) {
+            return fingerprint;
+        }
+
+        @Override
+        public AllocateExtentResult allocateExtents(String owner) {
+            allocateCalls.incrementAndGet();
+            AllocateExtentResult result = new AllocateExtentResult(owner.toUpperCase());
+            result.getAllocatedTables().addAll(allocated);
+            for (String table : failed) {
+                result.getFailedTables().put(table, failureMessage);
+            }
+            return result;
+        }
+    }
+
+    static class RecordingSessionPool extends SqlPlusSessionPool {
+        final List<String> scripts = new ArrayList<>();
+
+        RecordingSessionPool() {
+            super(Collections.singletonList("sqlplus"), 1, 1, 1, 0);
+        }
+
+        @Override
+        public String execute(String script, long timeout, TimeUnit unit) {
+            scripts.add(script);
+            return "";
+        }
+    }
+}
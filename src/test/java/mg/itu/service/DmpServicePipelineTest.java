@@ -0,0 +1,168 @@
+package mg.itu.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DmpServicePipelineTest {
+
+    private static final int CHUNKS = 10;
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final String HEADER = "EXPORT:V11.02.00\n";
+    private static final long DUMP_SIZE = HEADER.length() + (long) CHUNKS * CHUNK_SIZE;
+
+    @TempDir
+    Path tempDir;
+
+    private DmpService dmpService;
+
+    // le script FIFO généré par exportDmpPipelined est réellement exécuté : le faux docker le lance avec un faux su
+    // et un faux exp (dans ORACLE_HOME/bin) qui écrit le dump dans le fichier file=, donc dans la FIFO
+    @BeforeEach
+    void setUp() throws IOException {
+        Path bin = Files.createDirectories(tempDir.resolve("bin"));
+        Path oracleBin = Files.createDirectories(tempDir.resolve("oracle/bin"));
+        writeExecutable(bin.resolve("su"), "#!/bin/sh\n" +
+            "[ \"$1\" = \"-\" ] && shift\n" +
+            "shift; [ \"$1\" = \"-c\" ] && shift\n" +
+            "exec sh -c \"$1\"\n");
+        writeExecutable(oracleBin.resolve("exp"), "#!/bin/sh\n" +
+            "for arg; do case \"$arg\" in file=*) file=${arg#file=} ;; log=*) log=${arg#log=} ;; esac; done\n" +
+            "rc=$(cat " + tempDir.resolve("exp.rc") + " 2>/dev/null || echo 0)\n" +
+            "{ printf 'EXPORT:V11.02.00\\n'; i=0; while [ $i -lt " + CHUNKS + " ]; do head -c " + CHUNK_SIZE + " /dev/zero; sleep 0.1; i=$((i+1)); done; } > \"$file\"\n" +
+            "[ \"$rc\" = 0 ] || echo 'EXP-00056: ORACLE error 1017 encountered' > \"$log\"\n" +
+            "exit $rc\n");
+        String docker = "#!/bin/sh\n" +
+            "emit() { printf 'EXPORT:V11.02.00\\n'; i=0; while [ $i -lt " + CHUNKS + " ]; do head -c " + CHUNK_SIZE + " /dev/zero; sleep 0.1; i=$((i+1)); done; }\n" +
+            "case \"$*\" in\n" +
+            "  *mkfifo*) shift 3; PATH=" + bin + ":$PATH exec \"$@\" ;;\n" +
+            "  *\"stat -c %s /tmp/missing\"*) echo 'stat: cannot stat'; exit 1 ;;\n" +
+            "  *\"stat -c %s \"*) echo " + DUMP_SIZE + "; exit 0 ;;\n" +
+            "  *\"rm -f /tmp/\"*) echo \"$*\" >> " + tempDir.resolve("removed") + "; exit 0 ;;\n" +
+            "  *file=*) sleep 1; exit 0 ;;\n" +
+            "  *\" cat /tmp/\"*.log) shift 2; exec \"$@\" ;;\n" +
+            "  *\" cat /tmp/\"*) emit; exit 0 ;;\n" +
+            "  *) exit 0 ;;\n" +
+            "esac\n";
+        writeExecutable(tempDir.resolve("docker"), docker);
+
+        dmpService = new DmpService();
+        ReflectionTestUtils.setField(dmpService, "dockerCommand", tempDir.resolve("docker").toString());
+        ReflectionTestUtils.setField(dmpService, "containerName", "oracle-test");
+        ReflectionTestUtils.setField(dmpService, "oracleHome", tempDir.resolve("oracle").toString());
+        ReflectionTestUtils.setField(dmpService, "exportDirectory", tempDir.resolve("exports").toString());
+        ReflectionTestUtils.setField(dmpService, "processTimeoutMinutes", 1L);
+    }
+
+    @Test
+    void pipelinedExportOverlapsExportAndTransfer() throws Exception {
+        TimingOutputStream standard = new TimingOutputStream();
+        String containerFilePath = dmpService.exportDmpToContainer("schema", "scott", "tiger");
+        long standardBytes = dmpService.streamContainerDump(containerFilePath, standard);
+        standard.finish();
+
+        TimingOutputStream pipelined = new TimingOutputStream();
+        String dmpFileName = dmpService.prepareExport("schema", "scott", "tiger");
+        long pipelinedBytes = dmpService.exportDmpPipelined(dmpFileName, "scott", "tiger", pipelined);
+        pipelined.finish();
+
+        assertEquals(DUMP_SIZE, standardBytes);
+        assertEquals(standardBytes, pipelinedBytes);
+        assertTrue(standard.firstByteMillis() >= 1000, "standard export must wait for exp before the copy");
+        assertTrue(pipelined.firstByteMillis() < 500, "pipelined export must forward bytes while exp runs");
+        assertTrue(pipelined.totalMillis() + 500 < standard.totalMillis(),
+            "pipelined " + pipelined.totalMillis() + " ms vs standard " + standard.totalMillis() + " ms");
+    }
+
+    @Test
+    void fifoScriptForwardsWhatExpWritesAndRemovesTheFifo() throws Exception {
+        String dmpFileName = "pipeline_" + System.nanoTime() + ".dmp";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long bytes = dmpService.exportDmpPipelined(dmpFileName, "scott", "tiger", out);
+
+        byte[] dump = out.toByteArray();
+        assertEquals(DUMP_SIZE, bytes);
+        assertEquals(DUMP_SIZE, dump.length);
+        assertEquals(HEADER, new String(dump, 0, HEADER.length(), StandardCharsets.ISO_8859_1));
+        for (int i = HEADER.length(); i < dump.length; i++) {
+            assertEquals(0, dump[i]);
+        }
+        assertFalse(new File("/tmp/" + dmpFileName).exists());
+        assertFalse(new File("/tmp/" + dmpFileName.replace(".dmp", ".rc")).exists());
+    }
+
+    @Test
+    void expFailureIsReportedWithItsExitCodeAndLog() throws Exception {
+        Files.write(tempDir.resolve("exp.rc"), "1\n".getBytes(StandardCharsets.UTF_8));
+        String dmpFileName = "pipeline_" + System.nanoTime() + ".dmp";
+
+        IOException error = assertThrows(IOException.class,
+            () -> dmpService.exportDmpPipelined(dmpFileName, "scott", "tiger", new ByteArrayOutputStream()));
+
+        assertTrue(error.getMessage().contains("Code: 1)"), error.getMessage());
+        assertTrue(error.getMessage().contains("EXP-00056"), error.getMessage());
+        assertFalse(new File("/tmp/" + dmpFileName).exists());
+    }
+
+    @Test
+    void dumpSizeIsReadWithStatWithoutTransferringTheDump() throws Exception {
+        String containerFilePath = dmpService.exportDmpToContainer("schema", "scott", "tiger");
+
+        assertEquals(DUMP_SIZE, dmpService.containerDumpSize(containerFilePath));
+        assertTrue(new String(Files.readAllBytes(tempDir.resolve("removed")), StandardCharsets.UTF_8)
+            .contains("rm -f " + containerFilePath));
+
+        IOException missing = assertThrows(IOException.class, () -> dmpService.containerDumpSize("/tmp/missing.dmp"));
+        assertTrue(missing.getMessage().contains("code: 1"), missing.getMessage());
+    }
+
+    private static void writeExecutable(Path path, String script) throws IOException {
+        Files.write(path, script.getBytes(StandardCharsets.UTF_8));
+        assertTrue(path.toFile().setExecutable(true));
+    }
+
+    private static class TimingOutputStream extends OutputStream {
+        private final long start = System.nanoTime();
+        private long firstByte = -1;
+        private long end;
+
+        @Override
+        public void write(int b) {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (firstByte < 0 && len > 0) {
+                firstByte = System.nanoTime();
+            }
+        }
+
+        void finish() {
+            end = System.nanoTime();
+        }
+
+        long firstByteMillis() {
+            return (firstByte - start) / 1_000_000;
+        }
+
+        long totalMillis() {
+            return (end - start) / 1_000_000;
+        }
+    }
+}
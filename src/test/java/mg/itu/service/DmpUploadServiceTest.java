@@ -0,0 +1,260 @@
+package mg.itu.service;
+
+import mg.itu.model.UploadSession;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.SequenceInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DmpUploadServiceTest {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    private DmpUploadService uploadService;
+    private byte[] content;
+
+    @BeforeEach
+    void setUp() {
+        uploadService = new DmpUploadService();
+        ReflectionTestUtils.setField(uploadService, "importDirectory", tempDir.toString());
+        ReflectionTestUtils.setField(uploadService, "defaultChunkSize", CHUNK_SIZE);
+        ReflectionTestUtils.setField(uploadService, "maxChunkSize", 1024 * 1024);
+        ReflectionTestUtils.setField(uploadService, "maxUploadSize", 1024L * 1024 * 1024);
+        ReflectionTestUtils.setField(uploadService, "expiryMinutes", 60L);
+
+        content = new byte[10 * CHUNK_SIZE + 1234];
+        new Random(42).nextBytes(content);
+    }
+
+    @Test
+    void chunksSentInParallelAndOutOfOrderAreAssembledInPlace() throws Exception {
+        UploadSession session = uploadService.initiate("schema.dmp", content.length, null);
+        assertEquals(11, session.getChunkCount());
+        assertEquals(content.length, session.getFile().length());
+
+        List<Integer> order = new ArrayList<>();
+        for (int index = 0; index < session.getChunkCount(); index++) {
+            order.add(index);
+        }
+        Collections.shuffle(order, new Random(7));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int index : order) {
+                results.add(executor.submit(() -> uploadService.writeChunk(session.getId(), index, chunk(session, index),
+                    sha256(chunkBytes(session, index)))));
+            }
+            for (Future<String> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTrue(session.getMissingChunks().isEmpty());
+        File file = uploadService.complete(session.getId(), sha256(content));
+        assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+
+        // complete peut être rappelé tant que l'import n'a pas pris le fichier
+        assertEquals(file, uploadService.complete(session.getId(), null));
+
+        uploadService.release(session.getId());
+        assertTrue(session.isCompleted());
+        assertTrue(file.exists());
+        assertThrows(NoSuchElementException.class, () -> uploadService.getSession(session.getId()));
+    }
+
+    @Test
+    void interruptedOrCorruptedChunksStayMissingUntilResent() throws Exception {
+        UploadSession session = uploadService.initiate("schema.dmp", content.length, null);
+        for (int index = 1; index < session.getChunkCount(); index++) {
+            uploadService.writeChunk(session.getId(), index, chunk(session, index), null);
+        }
+
+        byte[] truncated = Arrays.copyOf(chunkBytes(session, 0), CHUNK_SIZE / 2);
+        assertThrows(IllegalArgumentException.class,
+            () -> uploadService.writeChunk(session.getId(), 0, new ByteArrayInputStream(truncated), null));
+        assertThrows(IllegalArgumentException.class,
+            () -> uploadService.writeChunk(session.getId(), 0, chunk(session, 0), sha256(new byte[] {1})));
+        byte[] tooLong = Arrays.copyOf(chunkBytes(session, 0), CHUNK_SIZE + 1);
+        assertThrows(IllegalArgumentException.class,
+            () -> uploadService.writeChunk(session.getId(), 0, new ByteArrayInputStream(tooLong), null));
+
+        assertEquals(Collections.singletonList(0), session.getMissingChunks());
+        assertThrows(IllegalStateException.class, () -> uploadService.complete(session.getId(), null));
+
+        uploadService.writeChunk(session.getId(), 0, chunk(session, 0), sha256(chunkBytes(session, 0)));
+        File file = uploadService.complete(session.getId(), null);
+        assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+        assertThrows(IllegalArgumentException.class, () -> uploadService.complete(session.getId(), sha256(new byte[] {1})));
+        // somme de contrôle invalide : la session est rouverte pour renvoyer les morceaux
+        assertFalse(session.isCompleted());
+        uploadService.writeChunk(session.getId(), 0, chunk(session, 0), null);
+    }
+
+    @Test
+    void chunkRacingCompleteNeverChangesTheFinalizedFile() throws Exception {
+        UploadSession session = uploadService.initiate("schema.dmp", content.length, null);
+        for (int index = 0; index < session.getChunkCount(); index++) {
+            uploadService.writeChunk(session.getId(), index, chunk(session, index), null);
+        }
+
+        // renvoi du morceau 3 bloqué en pleine lecture du corps : /complete ne peut pas finaliser pendant l'écriture
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        byte[] resent = chunkBytes(session, 3);
+        InputStream slowBody = blockingBody(resent, reading, resume);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> inFlight = executor.submit(() -> uploadService.writeChunk(session.getId(), 3, slowBody, null));
+            assertTrue(reading.await(10, TimeUnit.SECONDS));
+            IllegalStateException missing = assertThrows(IllegalStateException.class,
+                () -> uploadService.complete(session.getId(), sha256(content)));
+            assertTrue(missing.getMessage().contains("[3]"), missing.getMessage());
+            assertFalse(session.isCompleted());
+            resume.countDown();
+            inFlight.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // une fois finalisé, un morceau arrivant après /complete est refusé sans toucher au fichier
+        File file = uploadService.complete(session.getId(), sha256(content));
+        assertTrue(session.isCompleted());
+        byte[] garbage = new byte[session.chunkLength(0)];
+        assertThrows(IllegalStateException.class,
+            () -> uploadService.writeChunk(session.getId(), 0, new ByteArrayInputStream(garbage), null));
+        assertTrue(session.getMissingChunks().isEmpty());
+        assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+        assertEquals(file, uploadService.complete(session.getId(), null));
+    }
+
+    @Test
+    void duplicateChunkFinishingFirstDoesNotLetCompleteOvertakeTheOtherWrite() throws Exception {
+        UploadSession session = uploadService.initiate("schema.dmp", content.length, null);
+        for (int index = 0; index < session.getChunkCount(); index++) {
+            uploadService.writeChunk(session.getId(), index, chunk(session, index), null);
+        }
+
+        // deux renvois du morceau 2 : le second se termine pendant que le premier écrit encore
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        InputStream slowBody = blockingBody(chunkBytes(session, 2), reading, resume);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> slow = executor.submit(() -> uploadService.writeChunk(session.getId(), 2, slowBody, null));
+            assertTrue(reading.await(10, TimeUnit.SECONDS));
+            uploadService.writeChunk(session.getId(), 2, chunk(session, 2), null);
+            assertTrue(session.getMissingChunks().isEmpty());
+
+            IllegalStateException inFlight = assertThrows(IllegalStateException.class,
+                () -> uploadService.complete(session.getId(), null));
+            assertTrue(inFlight.getMessage().contains("en cours : [2]"), inFlight.getMessage());
+            assertFalse(session.isCompleted());
+            resume.countDown();
+            slow.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertArrayEquals(content, Files.readAllBytes(uploadService.complete(session.getId(), sha256(content)).toPath()));
+
+        // un renvoi interrompu a pu écraser le morceau déjà reçu : il redevient manquant
+        UploadSession other = uploadService.initiate("other.dmp", content.length, null);
+        for (int index = 0; index < other.getChunkCount(); index++) {
+            uploadService.writeChunk(other.getId(), index, chunk(other, index), null);
+        }
+        assertThrows(IllegalArgumentException.class,
+            () -> uploadService.writeChunk(other.getId(), 1, new ByteArrayInputStream(new byte[10]), null));
+        assertEquals(Collections.singletonList(1), other.getMissingChunks());
+        assertTrue(other.getChunksInFlight().isEmpty());
+
+        // écriture terminée après un abort : elle ne marque plus rien
+        assertTrue(other.startChunk(1));
+        other.setCompleted(true);
+        other.markReceived(1, "00");
+        assertEquals(Collections.singletonList(1), other.getMissingChunks());
+    }
+
+    @Test
+    void abortAndExpiryDeleteThePreallocatedFile() throws Exception {
+        UploadSession aborted = uploadService.initiate("a.dmp", content.length, null);
+        assertTrue(uploadService.abort(aborted.getId()));
+        assertFalse(aborted.getFile().exists());
+        assertFalse(uploadService.abort(aborted.getId()));
+
+        UploadSession expired = uploadService.initiate("b.dmp", content.length, null);
+        ReflectionTestUtils.setField(uploadService, "expiryMinutes", -1L);
+        uploadService.purgeExpiredUploads();
+        assertFalse(expired.getFile().exists());
+        assertThrows(NoSuchElementException.class, () -> uploadService.getSession(expired.getId()));
+
+        assertThrows(IllegalArgumentException.class, () -> uploadService.initiate("c.dmp", 0, null));
+        assertThrows(IllegalArgumentException.class, () -> uploadService.initiate("c.dmp", 100, 1024));
+    }
+
+    private ByteArrayInputStream chunk(UploadSession session, int index) {
+        return new ByteArrayInputStream(chunkBytes(session, index));
+    }
+
+    private byte[] chunkBytes(UploadSession session, int index) {
+        int offset = (int) session.chunkOffset(index);
+        return Arrays.copyOfRange(content, offset, offset + session.chunkLength(index));
+    }
+
+    private static String sha256(byte[] bytes) throws Exception {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : MessageDigest.getInstance("SHA-256").digest(bytes)) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    // corps bloqué après le premier kilo-octet jusqu'à ce que resume soit relâché
+    private static InputStream blockingBody(byte[] bytes, CountDownLatch reading, CountDownLatch resume) {
+        return new SequenceInputStream(new ByteArrayInputStream(bytes, 0, 1024), new InputStream() {
+            private final InputStream rest = new ByteArrayInputStream(bytes, 1024, bytes.length - 1024);
+
+            @Override
+            public int read() throws IOException {
+                reading.countDown();
+                try {
+                    resume.await();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+                return rest.read();
+            }
+        });
+    }
+}
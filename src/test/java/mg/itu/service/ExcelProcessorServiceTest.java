@@ -0,0 +1,404 @@
+package mg.itu.service;
+
+import mg.itu.model.BulkLoadResult;
+import mg.itu.repository.BulkInsertRepository;
+import mg.itu.util.SqlDialect;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExcelProcessorServiceTest {
+
+    private static final String CONFIG = "{\"nomTable\":\"EMPLOYE\"," +
+        "\"typeMap\":{\"ID\":\"NUMBER\",\"EMBAUCHE\":\"DATE\"}," +
+        "\"map\":[" +
+        "{\"debutdata\":2,\"findata\":4,\"columnMapping\":{\"1\":\"ID\",\"2\":\"NOM\",\"3\":\"EMBAUCHE\"}}," +
+        "{\"debutdata\":6,\"columnMapping\":{\"2\":\"NOM\",\"10\":\"COMMENTAIRE\"}}" +
+        "]}";
+
+    private static final String CSV = "id,nom,embauche\n" +
+        "1,Rakoto,2024-01-15\n" +
+        "2,O'Brien,15/02/2024\n" +
+        ",,\n" +
+        "4,Hors section,2024-04-01\n" +
+        "x,Rabe,\n" +
+        "6,\"Rasoa, \"\"junior\"\"\",inconnue\n";
+
+    private final ExcelProcessorService service = new ExcelProcessorService();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void defaultOutputIsASingleInsertAllForSmallFiles() throws Exception {
+        String expected = "INSERT ALL\n" +
+            "    INTO EMPLOYE (ID, NOM, EMBAUCHE) VALUES (1, 'Rakoto', TO_DATE('2024-01-15', 'YYYY-MM-DD'))\n" +
+            "    INTO EMPLOYE (ID, NOM, EMBAUCHE) VALUES (2, 'O''Brien', TO_DATE('15/02/2024', 'DD/MM/YYYY'))\n" +
+            "    INTO EMPLOYE (NOM, COMMENTAIRE) VALUES ('Rabe', NULL)\n" +
+            "    INTO EMPLOYE (NOM, COMMENTAIRE) VALUES ('Rasoa, \"junior\"', NULL)\n" +
+            "SELECT * FROM dual;";
+
+        assertEquals(expected, generate(CONFIG));
+    }
+
+    @Test
+    void insertAllIsSplitIntoStatementsOfBatchSizeRows() throws Exception {
+        String script = generate(withOptions(3, null));
+
+        assertEquals(2, count(script, "INSERT ALL\n"));
+        assertEquals(2, count(script, "SELECT * FROM dual;"));
+        assertEquals(4, count(script, "    INTO EMPLOYE"));
+        assertTrue(script.contains("SELECT * FROM dual;\nINSERT ALL\n"));
+    }
+
+    @Test
+    void multiValuesStartsANewStatementWhenTheColumnListChanges() throws Exception {
+        String expected = "INSERT INTO EMPLOYE (ID, NOM, EMBAUCHE) VALUES\n" +
+            "    (1, 'Rakoto', TO_DATE('2024-01-15', 'YYYY-MM-DD')),\n" +
+            "    (2, 'O''Brien', TO_DATE('15/02/2024', 'DD/MM/YYYY'));\n" +
+            "INSERT INTO EMPLOYE (NOM, COMMENTAIRE) VALUES\n" +
+            "    ('Rabe', NULL),\n" +
+            "    ('Rasoa, \"junior\"', NULL);";
+
+        ReflectionTestUtils.setField(service, "multiValuesEnabled", true);
+        assertEquals(expected, generate(withOptions(null, "multi_values")));
+    }
+
+    @Test
+    void multiValuesIsRejectedUnlessEnabledForOracle23() throws Exception {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+            () -> service.resolveDialect(service.parseJsonConfig(withOptions(null, "MULTI_VALUES"))));
+        assertTrue(error.getMessage().contains("23ai"));
+        assertEquals(SqlDialect.INSERT_ALL, service.resolveDialect(service.parseJsonConfig(CONFIG)));
+    }
+
+    @Test
+    void appendSelectCommitsAfterEachBatch() throws Exception {
+        String script = generate(withOptions(1, "APPEND_SELECT"));
+
+        assertEquals(4, count(script, "INSERT /*+ APPEND */ INTO EMPLOYE"));
+        assertEquals(4, count(script, "COMMIT;"));
+        assertTrue(script.startsWith("INSERT /*+ APPEND */ INTO EMPLOYE (ID, NOM, EMBAUCHE)\n" +
+            "    SELECT 1, 'Rakoto', TO_DATE('2024-01-15', 'YYYY-MM-DD') FROM dual;\nCOMMIT;\n"));
+
+        String unionAll = generate(withOptions(null, "APPEND_SELECT"));
+        assertTrue(unionAll.contains(" FROM dual\n    UNION ALL SELECT 2, 'O''Brien'"));
+    }
+
+    @Test
+    void sqlLoaderArchiveContainsControlAndDataFiles() throws Exception {
+        File file = tempDir.resolve("data.csv").toFile();
+        Files.write(file.toPath(), CSV.getBytes(StandardCharsets.UTF_8));
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+
+        service.writeSqlLoaderArchive(file, "data.csv", service.parseJsonConfig(withOptions(null, "SQL_LOADER")), archive);
+
+        Map<String, String> entries = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(archive.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                ByteArrayOutputStream content = new ByteArrayOutputStream();
+                byte[] buffer = new byte[4096];
+                int read;
+                while ((read = zip.read(buffer)) != -1) {
+                    content.write(buffer, 0, read);
+                }
+                entries.put(entry.getName(), new String(content.toByteArray(), StandardCharsets.UTF_8));
+            }
+        }
+
+        String ctl = entries.get("EMPLOYE.ctl");
+        assertTrue(ctl.contains("INTO TABLE EMPLOYE"));
+        assertTrue(ctl.contains("EMBAUCHE DATE \"YYYY-MM-DD\""));
+        assertTrue(ctl.contains("COMMENTAIRE CHAR(4000)"));
+        assertEquals("\"1\",\"Rakoto\",\"2024-01-15\",\u001E\n" +
+            "\"2\",\"O'Brien\",\"2024-02-15\",\u001E\n" +
+            ",\"Rabe\",,\u001E\n" +
+            ",\"Rasoa, \"\"junior\"\"\",,\u001E\n", entries.get("EMPLOYE.dat"));
+    }
+
+    @Test
+    void sqlLoaderIsRejectedForPlainScripts() {
+        assertThrows(IllegalArgumentException.class, () -> generate(withOptions(null, "SQL_LOADER")));
+        assertThrows(IllegalArgumentException.class, () -> generate(withOptions(0, null)));
+        assertThrows(IllegalArgumentException.class, () -> generate(withOptions(null, "MERGE")));
+    }
+
+    @Test
+    void streamingScriptMatchesBufferedScriptForXlsx() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet();
+            for (int i = 0; i < 20; i++) {
+                Row row = sheet.createRow(i);
+                row.createCell(0).setCellValue(i);
+                row.createCell(1).setCellValue("Nom " + i);
+                if (i % 3 == 0) {
+                    row.createCell(2).setCellValue("2024-01-" + (10 + i));
+                }
+            }
+            workbook.write(bytes);
+        }
+        MockMultipartFile upload = new MockMultipartFile("excelFile", "data.xlsx", "application/octet-stream", bytes.toByteArray());
+        String buffered = service.generateSqlScript(upload, CONFIG);
+
+        File file = tempDir.resolve("data.xlsx").toFile();
+        Files.write(file.toPath(), bytes.toByteArray());
+        StringWriter streamed = new StringWriter();
+        service.writeSqlScript(file, "data.xlsx", service.parseJsonConfig(CONFIG), streamed);
+
+        assertTrue(buffered.startsWith("INSERT ALL\n    INTO EMPLOYE (ID, NOM, EMBAUCHE) VALUES (1, 'Nom 1', NULL)\n"));
+        assertEquals(buffered, streamed.toString());
+    }
+
+    @Test
+    void loadsMappedRowsWithTypedBinds() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:load_" + System.nanoTime() + ";MODE=Oracle;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE EMPLOYE (ID NUMBER, NOM VARCHAR2(40), EMBAUCHE DATE, COMMENTAIRE VARCHAR2(40))");
+        BulkInsertRepository repository = new BulkInsertRepository();
+        ReflectionTestUtils.setField(repository, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "bulkInsertRepository", repository);
+
+        File file = tempDir.resolve("data.csv").toFile();
+        Files.write(file.toPath(), (CSV + "7,Rado,30/02/2024\n").getBytes(StandardCharsets.UTF_8));
+        String config = CONFIG.replace("\"findata\":4", "\"findata\":8").replace("\"debutdata\":6", "\"debutdata\":9");
+
+        BulkLoadResult result = service.loadIntoDatabase(file, "data.csv", service.parseJsonConfig(config));
+
+        assertEquals(3, result.getRowsInserted());
+        assertEquals(3, result.getRejectedCount());
+        assertTrue(result.getRejectedRows().get(6L).startsWith("ID: valeur numérique invalide"));
+        assertTrue(result.getRejectedRows().get(7L).startsWith("EMBAUCHE: date invalide"));
+        assertTrue(result.getRejectedRows().get(8L).startsWith("EMBAUCHE: date invalide"));
+        assertEquals(java.sql.Date.valueOf("2024-02-15"),
+            jdbcTemplate.queryForObject("SELECT EMBAUCHE FROM EMPLOYE WHERE ID = 2", java.sql.Date.class));
+        assertEquals(Arrays.asList(1, 2, 4),
+            jdbcTemplate.queryForList("SELECT ID FROM EMPLOYE ORDER BY ID", Integer.class));
+    }
+
+    @Test
+    void parallelSectionsProduceTheSameScriptAsTheSequentialPath() throws Exception {
+        String config = "{\"nomTable\":\"EMPLOYE\",\"batchSize\":7,\"typeMap\":{\"ID\":\"NUMBER\"},\"map\":[" +
+            "{\"debutdata\":1,\"columnMapping\":{\"1\":\"ID\",\"2\":\"NOM\"}}," +
+            "{\"debutdata\":2,\"findata\":30,\"sheet\":\"Ventes\",\"nomTable\":\"VENTE\",\"columnMapping\":{\"1\":\"ID\",\"2\":\"LIBELLE\"}}," +
+            "{\"debutdata\":5,\"sheet\":\"3\",\"nomTable\":\"STOCK\",\"columnMapping\":{\"2\":\"LIBELLE\"}}," +
+            "{\"debutdata\":1,\"findata\":3,\"columnMapping\":{\"2\":\"NOM\"}}" +
+            "]}";
+
+        for (String fileName : new String[]{"classeur.xlsx", "classeur.xls"}) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (Workbook workbook = fileName.endsWith(".xlsx") ? new XSSFWorkbook() : new HSSFWorkbook()) {
+                String[] sheetNames = {"Employes", "Ventes", "Stock"};
+                for (int s = 0; s < sheetNames.length; s++) {
+                    Sheet sheet = workbook.createSheet(sheetNames[s]);
+                    for (int i = 0; i < 50 * (s + 1); i++) {
+                        Row row = sheet.createRow(i);
+                        row.createCell(0).setCellValue(i + 1);
+                        row.createCell(1).setCellValue(sheetNames[s] + " " + i);
+                    }
+                }
+                workbook.write(bytes);
+            }
+            File file = tempDir.resolve(fileName).toFile();
+            Files.write(file.toPath(), bytes.toByteArray());
+
+            StringWriter sequential = new StringWriter();
+            service.writeSqlScript(file, fileName, service.parseJsonConfig(config), sequential);
+
+            ExcelProcessorService parallelService = new ExcelProcessorService();
+            ReflectionTestUtils.setField(parallelService, "sectionParallelism", 2);
+            parallelService.init();
+            StringWriter parallel = new StringWriter();
+            try {
+                parallelService.writeSqlScript(file, fileName, parallelService.parseJsonConfig(config), parallel);
+            } finally {
+                parallelService.shutdown();
+            }
+
+            // tampons de 2 lignes : les sections lues en avance débordent sur disque
+            ExcelProcessorService spillingService = new ExcelProcessorService();
+            ReflectionTestUtils.setField(spillingService, "sectionParallelism", 3);
+            ReflectionTestUtils.setField(spillingService, "sectionBufferRows", 2);
+            spillingService.init();
+            StringWriter spilled = new StringWriter();
+            try {
+                spillingService.writeSqlScript(file, fileName, spillingService.parseJsonConfig(config), spilled);
+            } finally {
+                spillingService.shutdown();
+            }
+
+            assertEquals(sequential.toString(), parallel.toString());
+            assertEquals(sequential.toString(), spilled.toString());
+            assertEquals(50 + 29 + 146 + 3, count(parallel.toString(), "    INTO "));
+            assertTrue(parallel.toString().contains("INTO VENTE (ID, LIBELLE) VALUES (2, 'Ventes 1')"));
+            assertTrue(parallel.toString().contains("INTO STOCK (LIBELLE) VALUES ('Stock 4')"));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void repeatedGenerationsAreServedFromTheUploadCache() throws Exception {
+        UploadCache cache = new UploadCache();
+        ReflectionTestUtils.setField(cache, "maxBytes", 4L * 1024 * 1024);
+        ReflectionTestUtils.setField(cache, "scriptMaxBytes", 1024L * 1024);
+        cache.init();
+        ExcelProcessorService cachedService = new ExcelProcessorService();
+        ReflectionTestUtils.setField(cachedService, "uploadCache", cache);
+        ReflectionTestUtils.setField(cachedService, "sectionParallelism", 2);
+        ReflectionTestUtils.setField(cachedService, "multiValuesEnabled", true);
+        ReflectionTestUtils.setField(service, "multiValuesEnabled", true);
+        cachedService.init();
+
+        try {
+            for (String fileName : new String[]{"data.csv", "data.xlsx", "data.xls"}) {
+                cache.clear();
+                File file = tempDir.resolve(fileName).toFile();
+                if (fileName.endsWith(".csv")) {
+                    Files.write(file.toPath(), CSV.getBytes(StandardCharsets.UTF_8));
+                } else {
+                    try (Workbook workbook = fileName.endsWith(".xlsx") ? new XSSFWorkbook() : new HSSFWorkbook()) {
+                        Sheet sheet = workbook.createSheet("Feuille");
+                        for (int i = 0; i < 30; i++) {
+                            Row row = sheet.createRow(i);
+                            row.createCell(0).setCellValue(i);
+                            row.createCell(1).setCellValue(i % 4 == 0 ? "Même nom" : "Nom " + i);
+                        }
+                        try (OutputStream out = Files.newOutputStream(file.toPath())) {
+                            workbook.write(out);
+                        }
+                    }
+                }
+                String sheetName = fileName.endsWith(".csv") ? "Sheet1" : "Feuille";
+                String byName = CONFIG.replace("{\"debutdata\":6,", "{\"debutdata\":6,\"sheet\":\"" + sheetName + "\",");
+
+                for (String config : new String[]{CONFIG, withOptions(1, "MULTI_VALUES"), byName}) {
+                    StringWriter expected = new StringWriter();
+                    service.writeSqlScript(file, fileName, service.parseJsonConfig(config), expected);
+                    for (int run = 0; run < 2; run++) {
+                        StringWriter actual = new StringWriter();
+                        cachedService.writeSqlScript(file, fileName, cachedService.parseJsonConfig(config), actual);
+                        assertEquals(expected.toString(), actual.toString(), fileName + " " + config + " passage " + run);
+                    }
+                }
+
+                Map<String, Object> sheets = (Map<String, Object>) cache.getStatistics().get("sheets");
+                Map<String, Object> scripts = (Map<String, Object>) cache.getStatistics().get("scripts");
+                assertEquals(1, sheets.get("entries"), fileName);
+                assertTrue((Long) sheets.get("hits") >= 2, fileName);
+                assertEquals(3, scripts.get("entries"), fileName);
+            }
+            Map<String, Object> scripts = (Map<String, Object>) cache.getStatistics().get("scripts");
+            assertEquals(9L, scripts.get("hits"));
+            assertEquals(9L, scripts.get("misses"));
+        } finally {
+            cachedService.shutdown();
+        }
+    }
+
+    @Test
+    void unknownSheetIsReported() throws Exception {
+        String config = "{\"nomTable\":\"EMPLOYE\",\"map\":[{\"debutdata\":1,\"sheet\":\"Absente\",\"columnMapping\":{\"1\":\"NOM\"}}]}";
+        File file = tempDir.resolve("data.csv").toFile();
+        Files.write(file.toPath(), CSV.getBytes(StandardCharsets.UTF_8));
+
+        IOException error = assertThrows(IOException.class,
+            () -> service.writeSqlScript(file, "data.csv", service.parseJsonConfig(config), new StringWriter()));
+        assertTrue(error.getMessage().contains("Absente"));
+    }
+
+    @Test
+    void dateCellsConvertConsistentlyAcrossThreads() throws Exception {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("dd/mm/yyyy"));
+            Sheet sheet = workbook.createSheet();
+            LocalDate start = LocalDate.of(1995, 1, 1);
+            int cellCount = 2000;
+            for (int index = 0; index < cellCount; index++) {
+                Cell cell = sheet.createRow(index).createCell(0);
+                cell.setCellValue(start.plusDays(index * 7L).atTime(23, 59, 59));
+                cell.setCellStyle(dateStyle);
+            }
+
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                List<Future<Integer>> results = new ArrayList<>();
+                for (int worker = 0; worker < 8; worker++) {
+                    results.add(executor.submit(() -> {
+                        int checked = 0;
+                        for (int pass = 0; pass < 5; pass++) {
+                            for (int index = 0; index < cellCount; index++) {
+                                String value = service.getCellValueAsString(sheet.getRow(index).getCell(0), null);
+                                assertEquals(start.plusDays(index * 7L).toString(), value);
+                                checked++;
+                            }
+                        }
+                        return checked;
+                    }));
+                }
+                for (Future<Integer> result : results) {
+                    assertEquals(5 * cellCount, result.get(30, TimeUnit.SECONDS));
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private String generate(String jsonConfig) throws Exception {
+        MockMultipartFile upload = new MockMultipartFile("excelFile", "data.csv", "text/csv", CSV.getBytes(StandardCharsets.UTF_8));
+        return service.generateSqlScript(upload, jsonConfig);
+    }
+
+    private static String withOptions(Integer batchSize, String dialect) {
+        String options = (batchSize != null ? "\"batchSize\":" + batchSize + "," : "")
+            + (dialect != null ? "\"dialect\":\"" + dialect + "\"," : "");
+        return "{" + options + CONFIG.substring(1);
+    }
+
+    private static int count(String text, String token) {
+        int count = 0;
+        for (int index = text.indexOf(token); index >= 0; index = text.indexOf(token, index + token.length())) {
+            count++;
+        }
+        return count;
+    }
+}
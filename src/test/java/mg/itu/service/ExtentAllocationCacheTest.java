@@ -0,0 +1,46 @@
+package mg.itu.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExtentAllocationCacheTest {
+
+    private final ExtentAllocationCache cache = new ExtentAllocationCache();
+
+    @Test
+    void sameFingerprintIsAHitAndAChangedOneAMiss() {
+        assertFalse(cache.isUpToDate("scott", "2|20261018080000"));
+        cache.update("scott", "2|20261018080000", Arrays.asList("DEPT", "EMP"));
+
+        assertTrue(cache.isUpToDate("SCOTT", "2|20261018080000"));
+        assertFalse(cache.isUpToDate("scott", "3|20261018090000"));
+        assertFalse(cache.isUpToDate("scott", null));
+        assertFalse(cache.isUpToDate("hr", "2|20261018080000"));
+
+        Map<String, Object> stats = cache.getStatistics();
+        assertEquals(1L, stats.get("hits"));
+        assertEquals(4L, stats.get("misses"));
+        assertEquals(1, stats.get("schemas"));
+    }
+
+    @Test
+    void updatesAccumulateTablesAndInvalidateClearsTheSchema() {
+        cache.update("scott", "2|20261018080000", Arrays.asList("DEPT", "EMP"));
+        cache.update("SCOTT", "3|20261018090000", Collections.singletonList("BONUS"));
+        assertEquals(new LinkedHashSet<>(Arrays.asList("DEPT", "EMP", "BONUS")), cache.getAllocatedTables("scott"));
+        assertTrue(cache.isUpToDate("scott", "3|20261018090000"));
+
+        cache.invalidate("Scott");
+        assertTrue(cache.getAllocatedTables("SCOTT").isEmpty());
+        assertFalse(cache.isUpToDate("scott", "3|20261018090000"));
+        assertEquals(0, cache.getStatistics().get("schemas"));
+    }
+}
@@ -0,0 +1,68 @@
+package mg.itu.util;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.junit.jupiter.api.Test;
+
+import java.text.SimpleDateFormat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CellValueConverterTest {
+
+    private static final double[] FRACTIONS = {0, 0.25, 0.5, 0.999, 0.99999999, 0.999999999};
+
+    @Test
+    void matchesPoiJavaDateForBothDateSystems() {
+        SimpleDateFormat legacy = new SimpleDateFormat("yyyy-MM-dd");
+        for (boolean date1904 : new boolean[]{false, true}) {
+            for (int wholeDays = 0; wholeDays < 3000; wholeDays++) {
+                assertSameDay(legacy, wholeDays, date1904);
+            }
+            for (int wholeDays = 40000; wholeDays < 2958400; wholeDays += 997) {
+                assertSameDay(legacy, wholeDays, date1904);
+            }
+        }
+    }
+
+    @Test
+    void keepsExcelLeapYearBugAroundFebruary1900() {
+        assertEquals("1900-01-01", CellValueConverter.formatExcelDate(1, false));
+        assertEquals("1900-02-28", CellValueConverter.formatExcelDate(59, false));
+        assertEquals("1900-03-01", CellValueConverter.formatExcelDate(60, false));
+        assertEquals("1900-03-01", CellValueConverter.formatExcelDate(61, false));
+        assertEquals("1904-01-02", CellValueConverter.formatExcelDate(1, true));
+        assertEquals("1900-03-02", CellValueConverter.formatExcelDate(60.999999999, false));
+        assertEquals("2024-03-15", CellValueConverter.formatExcelDate(45366.99999999, false));
+        assertEquals("2024-03-16", CellValueConverter.formatExcelDate(45366.999999999, false));
+    }
+
+    @Test
+    void rejectsSerialsOutsideExcelCalendar() {
+        assertTrue(CellValueConverter.isValidExcelDate(0));
+        assertFalse(CellValueConverter.isValidExcelDate(-1));
+        assertFalse(CellValueConverter.isValidExcelDate(2958466));
+        assertNull(CellValueConverter.formatExcelDate(-0.5, false));
+    }
+
+    @Test
+    void formatsIntegralNumbersWithoutDecimals() {
+        assertEquals("42", CellValueConverter.formatNumber(42.0));
+        assertEquals("-3", CellValueConverter.formatNumber(-3.0));
+        assertEquals("1234.56", CellValueConverter.formatNumber(1234.56));
+    }
+
+    private static void assertSameDay(SimpleDateFormat legacy, int wholeDays, boolean date1904) {
+        for (double fraction : FRACTIONS) {
+            double serial = wholeDays + fraction;
+            if (!DateUtil.isValidExcelDate(serial)) {
+                continue;
+            }
+            String expected = legacy.format(DateUtil.getJavaDate(serial, date1904));
+            assertEquals(expected, CellValueConverter.formatExcelDate(serial, date1904),
+                "serial " + serial + (date1904 ? " (1904)" : ""));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package mg.itu.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnarSheetTest {
+
+    @Test
+    void rowsReadBackIdenticalToTheirText() throws Exception {
+        List<List<String>> rows = new ArrayList<>();
+        rows.add(Arrays.asList("id", "montant", "nom", "date"));
+        rows.add(Arrays.asList("1", "12.50", "Rakoto", "2024-03-15"));
+        rows.add(Arrays.asList("2", "-0.05", "", "2024-03-16"));
+        rows.add(Collections.<String>emptyList());
+        rows.add(Arrays.asList("9223372036854775807", "0.0", "Rakoto"));
+        rows.add(Arrays.asList("-0", "007", "1.0E-5", "", "", "fin"));
+        rows.add(Arrays.asList("123456789012345678", "-12", ".5", "1.", "true"));
+        rows.add(Arrays.asList("", "", "", "", "", "", "", "dernière"));
+
+        ColumnarSheet sheet = ColumnarSheet.of(rows, Long.MAX_VALUE);
+
+        assertEquals(rows, toRows(sheet));
+        assertEquals(rows.size(), sheet.getRowCount());
+        assertEquals("", sheet.getValue(3, 2));
+        assertEquals("", sheet.getValue(1, 7));
+    }
+
+    @Test
+    void decimalsAreOnlyEncodedWhenTheTextRoundTrips() {
+        assertEquals(0, ColumnarSheet.decimalScale("42"));
+        assertEquals(2, ColumnarSheet.decimalScale("-12.50"));
+        assertEquals(1, ColumnarSheet.decimalScale("0.0"));
+        assertEquals(-1, ColumnarSheet.decimalScale("-0"));
+        assertEquals(-1, ColumnarSheet.decimalScale("007"));
+        assertEquals(-1, ColumnarSheet.decimalScale("1.0E-5"));
+        assertEquals(-1, ColumnarSheet.decimalScale("+1"));
+        assertEquals(-1, ColumnarSheet.decimalScale("1234567890123456789"));
+        assertEquals("-0.05", ColumnarSheet.formatDecimal(ColumnarSheet.unscaledValue("-0.05"), 2));
+        assertEquals("120.00", ColumnarSheet.formatDecimal(ColumnarSheet.unscaledValue("120.00"), 2));
+    }
+
+    @Test
+    void repeatedAndNumericCellsTakeFewBytes() {
+        List<List<String>> rows = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            rows.add(Arrays.asList(String.valueOf(i), i % 3 == 0 ? "" : "Antananarivo", (i % 100) + ".25"));
+        }
+
+        ColumnarSheet sheet = ColumnarSheet.of(rows, Long.MAX_VALUE);
+
+        assertTrue(sheet.getEstimatedBytes() < 20 * rows.size(), "octets estimés: " + sheet.getEstimatedBytes());
+        assertEquals("Antananarivo", sheet.getValue(9998, 1));
+        assertEquals("98.25", sheet.getValue(9998, 2));
+    }
+
+    @Test
+    void valuesBeyondTheIndexedDictionaryAreStillReadBack() throws Exception {
+        List<List<String>> rows = new ArrayList<>();
+        for (int i = 0; i < 70000; i++) {
+            rows.add(Arrays.asList("clé " + i, i % 2 == 0 ? "Fénérive" : "clé " + (i / 2)));
+        }
+
+        assertEquals(rows, toRows(ColumnarSheet.of(rows, Long.MAX_VALUE)));
+    }
+
+    @Test
+    void builderGivesUpPastItsBudget() {
+        ColumnarSheet.Builder builder = new ColumnarSheet.Builder(64 * 1024);
+        boolean accepted = true;
+        for (int i = 0; i < 100000 && accepted; i++) {
+            accepted = builder.add(Arrays.asList("valeur unique " + i, String.valueOf(i)));
+        }
+
+        assertFalse(accepted);
+        assertTrue(builder.isOverflowed());
+        assertNull(ColumnarSheet.of(Collections.singletonList(Collections.nCopies(100000, "x")), 1024));
+    }
+
+    private static List<List<String>> toRows(SheetData sheet) throws Exception {
+        List<List<String>> rows = new ArrayList<>();
+        sheet.forEachRow(row -> rows.add(new ArrayList<>(row)));
+        return rows;
+    }
+}
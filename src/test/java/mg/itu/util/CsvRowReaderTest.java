@@ -0,0 +1,137 @@
+package mg.itu.util;
+
+import com.opencsv.CSVReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvRowReaderTest {
+
+    private static final String TRICKY = "id,nom,commentaire\r\n" +
+        "1,Rakoto,simple\r\n" +
+        "2,\"Rasoa, \"\"junior\"\"\",\"sur\r\ndeux lignes\"\n" +
+        "\n" +
+        "3,  espacé ,\r" +
+        "4,C:\\\\temp\\\\x,\"fin\",\n" +
+        "5,Hérisson,été";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void producesSameRowsAsOpencsv() throws Exception {
+        File file = write("tricky.csv", TRICKY.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(readWithOpencsv(file, StandardCharsets.UTF_8), readAll(file, null));
+    }
+
+    @Test
+    void readsLinesLongerThanTheBuffer() throws Exception {
+        StringBuilder content = new StringBuilder();
+        StringBuilder longField = new StringBuilder();
+        for (int i = 0; i < CsvRowReader.SAMPLE_SIZE / 5; i++) {
+            longField.append("abcé,");
+        }
+        for (int row = 0; row < 50; row++) {
+            content.append(row).append(',').append(longField).append("\"quoted\r\n").append(row).append("\"\r\n");
+        }
+        File file = write("long.csv", content.toString().getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(readWithOpencsv(file, StandardCharsets.UTF_8), readAll(file, null));
+    }
+
+    @Test
+    void skipsUtf8ByteOrderMark() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF});
+        bytes.write("nom,ville\nRabe,Antsirabé\n".getBytes(StandardCharsets.UTF_8));
+        File file = write("bom.csv", bytes.toByteArray());
+
+        try (CsvRowReader reader = new CsvRowReader(file, null)) {
+            assertEquals(StandardCharsets.UTF_8, reader.getCharset());
+            assertArrayEquals(new String[]{"nom", "ville"}, reader.readRow());
+            assertArrayEquals(new String[]{"Rabe", "Antsirabé"}, reader.readRow());
+            assertNull(reader.readRow());
+        }
+    }
+
+    @Test
+    void detectsWindows1252WhenSampleIsNotUtf8() throws Exception {
+        File file = write("erp.csv", "nom,ville\nRabe,Antsirabé\n\"Noël\",Fénérive\n".getBytes(CsvRowReader.WINDOWS_1252));
+
+        try (CsvRowReader reader = new CsvRowReader(file, null)) {
+            assertEquals(CsvRowReader.WINDOWS_1252, reader.getCharset());
+        }
+        assertEquals(readWithOpencsv(file, CsvRowReader.WINDOWS_1252), readAll(file, null));
+    }
+
+    @Test
+    void readsUtf16WithByteOrderMark() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(new byte[]{(byte) 0xFF, (byte) 0xFE});
+        bytes.write(TRICKY.getBytes(StandardCharsets.UTF_16LE));
+        File file = write("utf16.csv", bytes.toByteArray());
+
+        List<List<String>> expected = readWithOpencsv(write("utf8.csv", TRICKY.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+        assertEquals(expected, readAll(file, null));
+    }
+
+    @Test
+    void explicitEncodingOverridesDetection() throws Exception {
+        File file = write("latin.csv", "é,à\n".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(Arrays.asList("Ã©", "Ã\u00a0"), readAll(file, CsvRowReader.WINDOWS_1252).get(0));
+    }
+
+    @Test
+    void unterminatedQuoteIsReported() throws Exception {
+        File file = write("broken.csv", "1,\"ouvert\n2,suite\n".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IOException.class, () -> readAll(file, null));
+    }
+
+    private File write(String name, byte[] content) throws Exception {
+        File file = tempDir.resolve(name).toFile();
+        Files.write(file.toPath(), content);
+        return file;
+    }
+
+    private static List<List<String>> readAll(File file, Charset charset) throws Exception {
+        List<List<String>> rows = new ArrayList<>();
+        try (CsvRowReader reader = new CsvRowReader(file, charset)) {
+            String[] row;
+            while ((row = reader.readRow()) != null) {
+                rows.add(Arrays.asList(row));
+            }
+        }
+        return rows;
+    }
+
+    private static List<List<String>> readWithOpencsv(File file, Charset charset) throws Exception {
+        List<List<String>> rows = new ArrayList<>();
+        try (CSVReader reader = new CSVReader(new InputStreamReader(new FileInputStream(file), charset))) {
+            String[] row;
+            while ((row = reader.readNext()) != null) {
+                rows.add(Arrays.asList(row));
+            }
+        }
+        return rows;
+    }
+}
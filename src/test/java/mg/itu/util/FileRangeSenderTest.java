@@ -0,0 +1,159 @@
+package mg.itu.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileRangeSenderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private File file;
+    private byte[] content;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        content = new byte[100_000];
+        new Random(3).nextBytes(content);
+        file = tempDir.resolve("schema.dmp").toFile();
+        Files.write(file.toPath(), content);
+    }
+
+    @Test
+    void servesWholeFileWithValidators() throws Exception {
+        MockHttpServletResponse response = send(get());
+        assertEquals(200, response.getStatus());
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+        assertEquals(FileRangeSender.etag(file), response.getHeader("ETag"));
+        assertEquals(content.length, response.getContentLengthLong());
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+
+    @Test
+    void segmentedDownloadReassemblesTheFile() throws Exception {
+        byte[] assembled = new byte[content.length];
+        int segment = 30_000;
+        for (int start = 0; start < content.length; start += segment) {
+            int end = Math.min(start + segment, content.length) - 1;
+            MockHttpServletRequest request = get();
+            request.addHeader("Range", "bytes=" + start + "-" + end);
+            request.addHeader("If-Range", FileRangeSender.etag(file));
+            MockHttpServletResponse response = send(request);
+            assertEquals(206, response.getStatus());
+            assertEquals("bytes " + start + "-" + end + "/" + content.length, response.getHeader("Content-Range"));
+            System.arraycopy(response.getContentAsByteArray(), 0, assembled, start, end - start + 1);
+        }
+        assertArrayEquals(content, assembled);
+
+        // reprise : suffixe et plage ouverte
+        MockHttpServletRequest suffix = get();
+        suffix.addHeader("Range", "bytes=-10");
+        assertArrayEquals(Arrays.copyOfRange(content, content.length - 10, content.length), send(suffix).getContentAsByteArray());
+        MockHttpServletRequest open = get();
+        open.addHeader("Range", "bytes=99990-");
+        assertArrayEquals(Arrays.copyOfRange(content, 99_990, content.length), send(open).getContentAsByteArray());
+    }
+
+    @Test
+    void multipleRangesAreSentAsByteranges() throws Exception {
+        MockHttpServletRequest request = get();
+        request.addHeader("Range", "bytes=500-599,0-9,50-120,9000-9009");
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(206, response.getStatus());
+        assertTrue(response.getContentType().startsWith("multipart/byteranges; boundary="));
+        byte[] body = response.getContentAsByteArray();
+        assertEquals(body.length, response.getContentLengthLong());
+        String text = new String(body, StandardCharsets.ISO_8859_1);
+        // 0-9 et 50-120 ne se touchent pas : 4 parties triées
+        assertTrue(text.indexOf("bytes 0-9/100000") < text.indexOf("bytes 50-120/100000"));
+        assertTrue(text.indexOf("bytes 500-599/100000") < text.indexOf("bytes 9000-9009/100000"));
+        int partStart = text.indexOf("bytes 500-599/100000\r\n\r\n") + "bytes 500-599/100000\r\n\r\n".length();
+        assertArrayEquals(Arrays.copyOfRange(content, 500, 600), Arrays.copyOfRange(body, partStart, partStart + 100));
+        assertTrue(text.endsWith("--\r\n"));
+
+        List<long[]> merged = FileRangeSender.parseRanges("bytes=0-9,5-20,21-30,-5", 100);
+        assertEquals(2, merged.size());
+        assertArrayEquals(new long[] {0, 30}, merged.get(0));
+        assertArrayEquals(new long[] {95, 99}, merged.get(1));
+    }
+
+    @Test
+    void conditionalAndInvalidRequests() throws Exception {
+        MockHttpServletRequest unsatisfiable = get();
+        unsatisfiable.addHeader("Range", "bytes=200000-");
+        MockHttpServletResponse response = send(unsatisfiable);
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */100000", response.getHeader("Content-Range"));
+
+        MockHttpServletRequest malformed = get();
+        malformed.addHeader("Range", "octets=1-2");
+        assertEquals(200, send(malformed).getStatus());
+
+        MockHttpServletRequest staleIfRange = get();
+        staleIfRange.addHeader("Range", "bytes=0-9");
+        staleIfRange.addHeader("If-Range", "\"autre\"");
+        response = send(staleIfRange);
+        assertEquals(200, response.getStatus());
+        assertEquals(content.length, response.getContentAsByteArray().length);
+
+        MockHttpServletRequest notModified = get();
+        notModified.addHeader("If-None-Match", "\"x\", " + FileRangeSender.etag(file));
+        response = send(notModified);
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+
+        MockHttpServletRequest head = new MockHttpServletRequest("HEAD", "/api/exports/1");
+        response = send(head);
+        assertEquals(200, response.getStatus());
+        assertEquals(content.length, response.getContentLengthLong());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void delegatesToTomcatSendfileWhenSupported() throws Exception {
+        MockHttpServletRequest request = get();
+        request.setAttribute(FileRangeSender.SENDFILE_SUPPORT, Boolean.TRUE);
+        request.addHeader("Range", "bytes=100-199");
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals(100, response.getContentLengthLong());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(file.getCanonicalPath(), request.getAttribute(FileRangeSender.SENDFILE_FILENAME));
+        assertEquals(100L, request.getAttribute(FileRangeSender.SENDFILE_START));
+        assertEquals(200L, request.getAttribute(FileRangeSender.SENDFILE_END));
+
+        MockHttpServletRequest multi = get();
+        multi.setAttribute(FileRangeSender.SENDFILE_SUPPORT, Boolean.TRUE);
+        multi.addHeader("Range", "bytes=0-1,10-11");
+        assertTrue(send(multi).getContentAsByteArray().length > 4);
+        assertNull(multi.getAttribute(FileRangeSender.SENDFILE_FILENAME));
+    }
+
+    private MockHttpServletRequest get() {
+        return new MockHttpServletRequest("GET", "/api/exports/1");
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FileRangeSender.send(file, "application/octet-stream", request, response);
+        return response;
+    }
+}
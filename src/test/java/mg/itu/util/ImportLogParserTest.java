@@ -0,0 +1,55 @@
+package mg.itu.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImportLogParserTest {
+
+    @Test
+    void tracksDataPumpTablesRowsAndVolume() {
+        ImportLogParser parser = new ImportLogParser();
+
+        assertFalse(parser.accept("Master table \"HR\".\"SYS_IMPORT_FULL_01\" successfully loaded/unloaded"));
+        assertTrue(parser.accept("Processing object type SCHEMA_EXPORT/TABLE/TABLE_DATA"));
+        assertTrue(parser.accept(". . imported \"HR\".\"EMPLOYEES\"                          16.81 KB     107 rows"));
+        assertTrue(parser.accept(". . imported \"HR\".\"SALES\":\"P2024\"                      1.5 MB   20000 rows"));
+        assertFalse(parser.accept("ORA-39151: Table \"HR\".\"JOBS\" exists."));
+
+        assertEquals(2, parser.getTablesImported());
+        assertEquals(20107, parser.getRowsImported());
+        assertEquals((long) (16.81 * 1024) + (long) (1.5 * 1024 * 1024), parser.getBytesImported());
+        assertEquals("SCHEMA_EXPORT/TABLE/TABLE_DATA", parser.getObjectType());
+        assertEquals("HR.SALES:P2024", parser.getLastTable());
+        assertEquals(1, parser.getErrors());
+    }
+
+    @Test
+    void tracksClassicImpTables() {
+        ImportLogParser parser = new ImportLogParser();
+
+        assertFalse(parser.accept(". importing SCOTT's objects into HR"));
+        assertTrue(parser.accept(". . importing table                         \"DEPT\"          4 rows imported"));
+        assertTrue(parser.accept(". . importing partition         \"SALES\":\"P1\"         10 rows imported"));
+
+        assertEquals(2, parser.getTablesImported());
+        assertEquals(14, parser.getRowsImported());
+        assertEquals(0, parser.getBytesImported());
+        assertEquals("SALES:P1", parser.getLastTable());
+    }
+
+    @Test
+    void recognisesDumpFormatsFromTheirHeader() {
+        byte[] classic = "\u0003\u0003iEXPORT:V11.02.00\nUSCOTT".getBytes(StandardCharsets.ISO_8859_1);
+        byte[] zip = {'P', 'K', 3, 4, 20, 0};
+        byte[] dataPump = {1, 1, 0, 0, 0, 0, 0, 0};
+
+        assertEquals(DumpFormat.CLASSIC, DumpFormat.detect(classic, classic.length));
+        assertEquals(DumpFormat.ZIP, DumpFormat.detect(zip, zip.length));
+        assertEquals(DumpFormat.DATA_PUMP, DumpFormat.detect(dataPump, dataPump.length));
+    }
+}
@@ -0,0 +1,57 @@
+package mg.itu.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LruByteCacheTest {
+
+    @Test
+    void evictsLeastRecentlyReadEntriesBySize() {
+        LruByteCache<String, String> cache = new LruByteCache<>(100);
+        cache.put("a", "A", 40);
+        cache.put("b", "B", 40);
+        assertEquals("A", cache.get("a"));
+
+        cache.put("c", "C", 40);
+
+        assertNull(cache.get("b"));
+        assertEquals("A", cache.get("a"));
+        assertEquals("C", cache.get("c"));
+        Map<String, Object> stats = cache.getStatistics();
+        assertEquals(1L, stats.get("evictions"));
+        assertEquals(80L, stats.get("bytes"));
+        assertEquals(3L, stats.get("hits"));
+        assertEquals(1L, stats.get("misses"));
+    }
+
+    @Test
+    void replacingAnEntryUpdatesItsSize() {
+        LruByteCache<String, String> cache = new LruByteCache<>(100);
+        cache.put("a", "A", 90);
+        cache.put("a", "A2", 10);
+        cache.put("b", "B", 90);
+
+        assertEquals("A2", cache.get("a"));
+        assertEquals(100L, cache.getStatistics().get("bytes"));
+        assertEquals(0L, cache.getStatistics().get("evictions"));
+    }
+
+    @Test
+    void valuesLargerThanTheCacheAreRejected() {
+        LruByteCache<String, String> cache = new LruByteCache<>(100);
+        cache.put("a", "A", 60);
+
+        assertFalse(cache.put("big", "B", 101));
+        assertTrue(cache.put("b", "B", 100));
+
+        assertNull(cache.get("big"));
+        assertNull(cache.get("a"));
+        assertEquals(1L, cache.getStatistics().get("rejected"));
+    }
+}
@@ -0,0 +1,73 @@
+package mg.itu.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import mg.itu.model.ExcelMappingConfig;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappingPlanTest {
+
+    private static final String CONFIG = "{\"nomTable\":\"EMPLOYE\"," +
+        "\"typeMap\":{\"ID\":\"number(10)\",\"EMBAUCHE\":\"DATE\"}," +
+        "\"map\":[" +
+        "{\"debutdata\":2,\"findata\":9,\"columnMapping\":{\"10\":\"EMBAUCHE\",\"2\":\"NOM\",\"1\":\"ID\"}}," +
+        "{\"debutdata\":1,\"columnMapping\":{\"1\":null}}," +
+        "{\"debutdata\":3,\"nomTable\":\"ARCHIVE\",\"sheet\":\"2\",\"columnMapping\":{\"2\":\"NOM\",\"3\":\"COMMENTAIRE\"}}" +
+        "]}";
+
+    @Test
+    void compilesSectionsWithNumericColumnOrder() throws Exception {
+        MappingPlan plan = MappingPlan.compile(new ObjectMapper().readValue(CONFIG, ExcelMappingConfig.class));
+
+        assertEquals(2, plan.getSections().size());
+        MappingPlan.Section first = plan.getSections().get(0);
+        assertEquals("EMPLOYE (ID, NOM, EMBAUCHE)", first.getTarget());
+        assertEquals(1, first.getStartRow());
+        assertEquals(8, first.getEndRow());
+        assertArrayEquals(new int[]{Types.NUMERIC, Types.VARCHAR, Types.DATE}, first.getBindTypes());
+
+        MappingPlan.Section second = plan.getSections().get(1);
+        assertEquals("ARCHIVE (NOM, COMMENTAIRE)", second.getTarget());
+        assertEquals("2", second.getSheet());
+        assertEquals(Arrays.asList("ID", "NOM", "EMBAUCHE", "COMMENTAIRE"), Arrays.asList(plan.getColumnTypes().keySet().toArray()));
+        assertEquals(Arrays.asList("EMPLOYE", "ARCHIVE"), Arrays.asList(plan.getTableNames().toArray()));
+    }
+
+    @Test
+    void rendersValuesLikeTheGenerator() throws Exception {
+        MappingPlan.Section section = MappingPlan.compile(new ObjectMapper().readValue(CONFIG, ExcelMappingConfig.class))
+            .getSections().get(0);
+        List<String> row = Arrays.asList(" 12 ", "L'été", "", "", "", "", "", "", "", "03-04-2024");
+
+        assertTrue(section.hasSignificantData(row));
+        assertFalse(section.hasSignificantData(Arrays.asList(" ", "\t", "")));
+        assertEquals("12, 'L''été', TO_DATE('03-04-2024', 'DD-MM-YYYY')", section.renderValues(row));
+        assertEquals("NULL, 'x', NULL", section.renderValues(Arrays.asList("1,5", "x")));
+        assertEquals("1.5, NULL, '2024-13'", section.renderValues(Arrays.asList("1.5", " ", "", "", "", "", "", "", "", "2024-13")));
+
+        assertArrayEquals(new Object[]{new BigDecimal("12"), "L'été", Date.valueOf("2024-04-03")}, section.bindValues(row));
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+            () -> section.bindValues(Arrays.asList("1,5")));
+        assertEquals("ID: valeur numérique invalide '1,5'", error.getMessage());
+
+        Map<String, Integer> positions = new HashMap<>();
+        positions.put("ID", 0);
+        positions.put("NOM", 1);
+        positions.put("EMBAUCHE", 2);
+        positions.put("COMMENTAIRE", 3);
+        assertArrayEquals(new String[]{"12", "L'été", "2024-04-03", null}, section.loaderValues(row, positions));
+    }
+}
@@ -0,0 +1,63 @@
+package mg.itu.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OracleDockerManagerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private SqlPlusSessionPool pool;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // CREATE USER EXISTANT échoue comme sur Oracle, mais le GRANT qui suit réussit
+        Path sqlplus = tempDir.resolve("sqlplus");
+        String script = "#!/bin/bash\n" +
+            "while IFS= read -r line; do\n" +
+            "  case \"$line\" in\n" +
+            "    PROMPT\\ *) echo \"${line#PROMPT }\" ;;\n" +
+            "    CREATE\\ USER\\ EXISTANT*) echo \"ORA-01920: user name 'EXISTANT' conflicts with another user or role name\" ;;\n" +
+            "    CREATE\\ USER*) echo \"User created.\" ;;\n" +
+            "    GRANT*) echo \"Grant succeeded.\" ;;\n" +
+            "  esac\n" +
+            "done\n";
+        Files.write(sqlplus, script.getBytes(StandardCharsets.UTF_8));
+        assertTrue(sqlplus.toFile().setExecutable(true));
+        pool = new SqlPlusSessionPool(Collections.singletonList(sqlplus.toString()), 1, 5, 15, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void createUserFailsOnOracleErrorEvenIfGrantSucceeds() {
+        OracleDockerManager manager = new OracleDockerManager(pool);
+        assertTrue(manager.createUser("NOUVEAU", "secret"));
+        assertFalse(manager.createUser("EXISTANT", "secret"));
+    }
+
+    @Test
+    void findsOracleAndSqlPlusErrors() {
+        assertEquals("ORA-01017: invalid username/password; logon denied",
+            OracleDockerManager.findError("\n  ORA-01017: invalid username/password; logon denied\n"));
+        assertEquals("SP2-0734: unknown command", OracleDockerManager.findError("Grant succeeded.\nSP2-0734: unknown command\n"));
+        assertNull(OracleDockerManager.findError("User created.\n\nGrant succeeded.\n"));
+    }
+}
@@ -0,0 +1,179 @@
+package mg.itu.util;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.odftoolkit.odfdom.doc.OdfSpreadsheetDocument;
+import org.odftoolkit.odfdom.doc.table.OdfTable;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpreadsheetProbeTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void xlsxDimensionMatchesWorkbook() throws Exception {
+        File file = tempDir.resolve("data.xlsx").toFile();
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            fill(workbook);
+            write(workbook, file);
+        }
+
+        SpreadsheetProbe probe = SpreadsheetProbe.probeXlsx(file, 2);
+
+        assertEquals(Arrays.asList("Données", "Archive"), probe.getSheetNames());
+        assertEquals(120, probe.getTotalRows());
+        assertEquals(6, probe.getMaxColumns());
+        assertTrue(probe.isRowCountExact());
+        assertEquals(Arrays.asList("Nom", "Montant"), probe.getPreview().get(0));
+        assertEquals(Arrays.asList("Rakoto", "42", "2024-03-15"), probe.getPreview().get(1));
+    }
+
+    @Test
+    void xlsxWithoutDimensionIsCountedFromRows() throws Exception {
+        File file = tempDir.resolve("stream.xlsx").toFile();
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Flux");
+            for (int i = 0; i < 500; i += 2) {
+                sheet.createRow(i).createCell(i % 7).setCellValue(i);
+            }
+            write(workbook, file);
+            workbook.dispose();
+        }
+
+        SpreadsheetProbe probe = SpreadsheetProbe.probeXlsx(file, 0);
+
+        assertEquals(499, probe.getTotalRows());
+        assertEquals(7, probe.getMaxColumns());
+        assertTrue(probe.getPreview().isEmpty());
+    }
+
+    @Test
+    void xlsHeadersMatchWorkbook() throws Exception {
+        File file = tempDir.resolve("data.xls").toFile();
+        try (HSSFWorkbook workbook = new HSSFWorkbook()) {
+            fill(workbook);
+            write(workbook, file);
+        }
+
+        SpreadsheetProbe probe = SpreadsheetProbe.probeXls(file, 3);
+
+        try (HSSFWorkbook workbook = new HSSFWorkbook(new FileInputStream(file))) {
+            assertEquals(workbook.getSheetAt(0).getLastRowNum() + 1, probe.getTotalRows());
+        }
+        assertEquals(Arrays.asList("Données", "Archive"), probe.getSheetNames());
+        assertEquals(120, probe.getTotalRows());
+        assertEquals(6, probe.getMaxColumns());
+        assertEquals(3, probe.getPreview().size());
+        assertEquals(Arrays.asList("Rakoto", "42", "2024-03-15"), probe.getPreview().get(1));
+        assertEquals(Arrays.asList("O'Brien", "84"), probe.getPreview().get(2));
+    }
+
+    @Test
+    void odsRepeatedRowsAreCountedWithoutExpansion() throws Exception {
+        File file = tempDir.resolve("data.ods").toFile();
+        try (OdfSpreadsheetDocument document = OdfSpreadsheetDocument.newSpreadsheetDocument()) {
+            OdfTable table = document.getTableList().get(0);
+            table.setTableName("Feuille");
+            table.getCellByPosition(0, 0).setStringValue("Nom");
+            table.getCellByPosition(2, 0).setStringValue("Ville");
+            table.getCellByPosition(0, 1).setStringValue("Rasoa");
+            table.getCellByPosition(1, 1).setDoubleValue(12.5);
+            table.getCellByPosition(3, 9).setStringValue("fin");
+            OdfTable second = OdfTable.newTable(document);
+            second.setTableName("Autre");
+            document.save(file);
+        }
+
+        SpreadsheetProbe probe = SpreadsheetProbe.probeOds(file, 3);
+
+        assertEquals("Feuille", probe.getSheetNames().get(0));
+        assertTrue(probe.getSheetNames().contains("Autre"));
+        assertEquals(10, probe.getTotalRows());
+        assertEquals(4, probe.getMaxColumns());
+        assertEquals(Arrays.asList("Nom", "", "Ville"), probe.getPreview().get(0));
+        assertEquals(Arrays.asList("Rasoa", "12.5"), probe.getPreview().get(1));
+        assertTrue(probe.getPreview().get(2).isEmpty());
+    }
+
+    @Test
+    void csvScanHonoursQuotedSeparatorsAndNewlines() throws Exception {
+        byte[] content = ("id,nom\r\n1,\"Rasoa, \"\"junior\"\"\"\n2,\"sur\ndeux lignes\",x\n\n3,fin")
+            .getBytes(StandardCharsets.UTF_8);
+
+        SpreadsheetProbe probe = SpreadsheetProbe.probeCsv(() -> new ByteArrayInputStream(content), content.length, null, 2);
+
+        assertEquals(5, probe.getTotalRows());
+        assertEquals(3, probe.getMaxColumns());
+        assertTrue(probe.isRowCountExact());
+        assertEquals("UTF-8", probe.getEncoding());
+        assertEquals(Arrays.asList("1", "Rasoa, \"junior\""), probe.getPreview().get(1));
+    }
+
+    @Test
+    void largeCsvRowCountIsEstimated() throws Exception {
+        File file = tempDir.resolve("large.csv").toFile();
+        String line = "123456,Antananarivo,2024-03-15,42.5\n";
+        int lines = SpreadsheetProbe.CSV_SCAN_LIMIT / line.length() * 3;
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            byte[] bytes = line.getBytes(StandardCharsets.US_ASCII);
+            for (int i = 0; i < lines; i++) {
+                out.write(bytes);
+            }
+        }
+
+        SpreadsheetProbe probe = SpreadsheetProbe.probeCsv(() -> Files.newInputStream(file.toPath()), file.length(), null, 0);
+
+        assertFalse(probe.isRowCountExact());
+        assertEquals(lines, probe.getTotalRows(), lines / 1000.0);
+        assertEquals(4, probe.getMaxColumns());
+    }
+
+    private static void fill(Workbook workbook) {
+        CellStyle dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("dd/mm/yyyy"));
+        Sheet sheet = workbook.createSheet("Données");
+        Row header = sheet.createRow(0);
+        header.createCell(0).setCellValue("Nom");
+        header.createCell(1).setCellValue("Montant");
+        Row first = sheet.createRow(1);
+        first.createCell(0).setCellValue("Rakoto");
+        first.createCell(1).setCellValue(42);
+        first.createCell(2).setCellValue(LocalDate.of(2024, 3, 15));
+        first.getCell(2).setCellStyle(dateStyle);
+        Row second = sheet.createRow(2);
+        second.createCell(0).setCellValue("O'Brien");
+        second.createCell(1).setCellFormula("B2*2");
+        sheet.createRow(119).createCell(5).setCellValue("fin");
+        workbook.createSheet("Archive").createRow(3000).createCell(30).setCellValue(1);
+        workbook.getCreationHelper().createFormulaEvaluator().evaluateAll();
+    }
+
+    private static void write(Workbook workbook, File file) throws Exception {
+        try (OutputStream out = new FileOutputStream(file)) {
+            workbook.write(out);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package mg.itu.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SqlPlusSessionPoolTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path startLog;
+    private SqlPlusSessionPool pool;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        startLog = tempDir.resolve("starts.log");
+        Path sqlplus = tempDir.resolve("sqlplus");
+        String script = "#!/bin/bash\n" +
+            "echo started >> \"$1\"\n" +
+            "sleep 0.5\n" +
+            "while IFS= read -r line; do\n" +
+            "  case \"$line\" in\n" +
+            "    PROMPT\\ *) echo \"${line#PROMPT }\" ;;\n" +
+            "    SELECT*) echo \"ALTER TABLE T1 ALLOCATE EXTENT;\" ;;\n" +
+            "    HANG*) sleep 30 ;;\n" +
+            "    EXIT*) exit 0 ;;\n" +
+            "  esac\n" +
+            "done\n";
+        Files.write(sqlplus, script.getBytes(StandardCharsets.UTF_8));
+        assertTrue(sqlplus.toFile().setExecutable(true));
+
+        pool = new SqlPlusSessionPool(Arrays.asList(sqlplus.toString(), startLog.toString()), 2, 5, 15, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void reusesWarmSessionAcrossStatements() throws Exception {
+        String first = pool.execute("SELECT table_name FROM dba_tables;", 10, TimeUnit.SECONDS);
+        assertTrue(first.contains("ALTER TABLE T1 ALLOCATE EXTENT;"));
+
+        long start = System.nanoTime();
+        String second = pool.execute("SELECT table_name FROM dba_tables;\nEXIT;", 10, TimeUnit.SECONDS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(second.contains("ALTER TABLE T1 ALLOCATE EXTENT;"));
+        assertTrue(elapsedMillis < 300, "warm session took " + elapsedMillis + " ms");
+        assertEquals(1, countStarts());
+    }
+
+    @Test
+    void evictsHungSessionAndStartsAFreshOne() throws Exception {
+        assertThrows(IOException.class, () -> pool.execute("HANG", 1, TimeUnit.SECONDS));
+        assertEquals(0, pool.getStatistics().get("openSessions"));
+
+        String output = pool.execute("SELECT 1 FROM dual;", 10, TimeUnit.SECONDS);
+
+        assertTrue(output.contains("ALTER TABLE"));
+        assertEquals(2, countStarts());
+        assertEquals(1L, pool.getStatistics().get("evictedSessions"));
+    }
+
+    private long countStarts() throws IOException {
+        return Files.readAllLines(startLog).size();
+    }
+}
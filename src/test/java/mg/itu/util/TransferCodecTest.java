@@ -0,0 +1,33 @@
+package mg.itu.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransferCodecTest {
+
+    @Test
+    void negotiatesGzipFromAcceptEncoding() {
+        assertEquals(TransferCodec.GZIP, TransferCodec.negotiate("gzip, deflate, br"));
+        assertEquals(TransferCodec.GZIP, TransferCodec.negotiate("br;q=1.0, gzip;q=0.8"));
+        assertEquals(TransferCodec.GZIP, TransferCodec.negotiate("*"));
+        assertEquals(TransferCodec.NONE, TransferCodec.negotiate("gzip;q=0, identity"));
+        assertEquals(TransferCodec.NONE, TransferCodec.negotiate("gzip;q=0, *"));
+        assertEquals(TransferCodec.NONE, TransferCodec.negotiate("*, x-gzip;q=0"));
+        assertEquals(TransferCodec.GZIP, TransferCodec.negotiate("*;q=0, gzip"));
+        assertEquals(TransferCodec.NONE, TransferCodec.negotiate("zstd, br"));
+        assertEquals(TransferCodec.NONE, TransferCodec.negotiate(null));
+    }
+
+    @Test
+    void zstdIsRejected() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> TransferCodec.fromValue("zstd"));
+        assertTrue(error.getMessage().contains("zstd"), error.getMessage());
+        assertEquals(TransferCodec.GZIP, TransferCodec.fromValue("GZIP"));
+        assertEquals(TransferCodec.NONE, TransferCodec.fromValue(null));
+        assertEquals(".gz", TransferCodec.GZIP.getExtension());
+        assertThrows(IllegalArgumentException.class, () -> TransferCodec.fromValue("lz4"));
+    }
+}
@@ -0,0 +1,139 @@
+package mg.itu.util;
+
+import mg.itu.service.ExcelProcessorService;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class XlsxStreamingReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void producesSameRowsAsWorkbookReader() throws Exception {
+        File file = writeSample();
+
+        List<List<String>> expected;
+        try (XSSFWorkbook workbook = new XSSFWorkbook(file)) {
+            FormulaEvaluator evaluator = workbook.getCreationHelper().createFormulaEvaluator();
+            expected = toRows(ReflectionTestUtils.invokeMethod(new ExcelProcessorService(), "readExcelFile", workbook, 0, evaluator));
+        }
+        List<List<String>> actual = new XlsxStreamingReader(file).readAllRows(0);
+
+        assertEquals(expected, actual);
+        assertEquals("2024-03-15", actual.get(1).get(2));
+        assertEquals("84", actual.get(1).get(5));
+        assertEquals("45367", actual.get(1).get(7));
+        assertEquals("1/0", actual.get(1).get(8));
+        assertEquals("12.75", actual.get(2).get(1));
+    }
+
+    @Test
+    void cachedFormulaResultsMatchWorkbookReader() throws Exception {
+        File file = writeSample();
+
+        List<List<String>> expected;
+        try (XSSFWorkbook workbook = new XSSFWorkbook(file)) {
+            expected = toRows(ReflectionTestUtils.invokeMethod(new ExcelProcessorService(), "readExcelFile", workbook, 0, null));
+        }
+        List<List<String>> actual = new XlsxStreamingReader(file, true).readAllRows(0);
+
+        assertEquals(expected, actual);
+        assertEquals("84", actual.get(1).get(5));
+        assertEquals("Rakoto x", actual.get(1).get(6));
+        assertEquals("2024-03-16", actual.get(1).get(7));
+        assertEquals("#DIV/0!", actual.get(1).get(8));
+        assertEquals("true", actual.get(2).get(4));
+    }
+
+    private static List<List<String>> toRows(SheetData sheet) throws Exception {
+        List<List<String>> rows = new ArrayList<>();
+        sheet.forEachRow(row -> rows.add(new ArrayList<>(row)));
+        return rows;
+    }
+
+    private File writeSample() throws Exception {
+        File file = tempDir.resolve("sample.xlsx").toFile();
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("dd/mm/yyyy"));
+            CellStyle decimalStyle = workbook.createCellStyle();
+            decimalStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("0.00"));
+
+            Sheet sheet = workbook.createSheet("Data");
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("  Nom ");
+            header.createCell(1).setCellValue("Montant");
+            header.createCell(2).setCellValue("Date");
+            header.createCell(3).setCellValue("Actif");
+
+            Row first = sheet.createRow(1);
+            first.createCell(0).setCellValue("Rakoto");
+            first.createCell(1).setCellValue(42);
+            Cell date = first.createCell(2);
+            date.setCellValue(new GregorianCalendar(2024, Calendar.MARCH, 15).getTime());
+            date.setCellStyle(dateStyle);
+            first.createCell(3).setCellValue(true);
+            first.createCell(5).setCellFormula("B2*2");
+            first.createCell(6).setCellFormula("CONCATENATE(A2,\" x \")");
+            first.createCell(7).setCellFormula("C2+1");
+            first.getCell(7).setCellStyle(dateStyle);
+            first.createCell(8).setCellFormula("1/0");
+
+            Row second = sheet.createRow(3);
+            second.createCell(1).setCellValue(12.75);
+            second.getCell(1).setCellStyle(decimalStyle);
+            second.createCell(2).setCellStyle(dateStyle);
+            second.createCell(4).setCellFormula("B4>10");
+
+            sheet.createRow(4);
+
+            workbook.getCreationHelper().createFormulaEvaluator().evaluateAll();
+            try (OutputStream out = new FileOutputStream(file)) {
+                workbook.write(out);
+            }
+        }
+        return file;
+    }
+
+    @Test
+    void stopsWhenHandlerAsksTo() throws Exception {
+        File file = tempDir.resolve("rows.xlsx").toFile();
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet();
+            for (int i = 0; i < 100; i++) {
+                sheet.createRow(i).createCell(0).setCellValue(i);
+            }
+            try (OutputStream out = new FileOutputStream(file)) {
+                workbook.write(out);
+            }
+        }
+
+        List<String> seen = new ArrayList<>();
+        new XlsxStreamingReader(file).readSheet(0, values -> {
+            seen.add(values.get(0));
+            return seen.size() < 3;
+        });
+
+        assertEquals(3, seen.size());
+        assertEquals("2", seen.get(2));
+    }
+}